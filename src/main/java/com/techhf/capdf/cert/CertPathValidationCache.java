@@ -0,0 +1,292 @@
+package com.techhf.capdf.cert;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.security.MessageDigest;
+import java.security.cert.CertPathBuilder;
+import java.security.cert.CertStore;
+import java.security.cert.Certificate;
+import java.security.cert.CollectionCertStoreParameters;
+import java.security.cert.PKIXBuilderParameters;
+import java.security.cert.PKIXCertPathBuilderResult;
+import java.security.cert.X509CertSelector;
+import java.security.cert.X509Certificate;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 证书链校验结果缓存
+ * <p>
+ * 大量文档由同一个签名证书（和同一个TSA证书）签署，逐个文档重新构建和校验PKIX路径的开销远大于签名值校验。
+ * 这里按 签名证书指纹 + 签名数据中其他证书的指纹集合 + 信任库标识 缓存校验结果：
+ * <ul>
+ *   <li>结果带有时间窗口（路径上证书有效期的交集），只有校验时间落在窗口内才命中；
+ *       窗口外的校验重新计算，新结果适用时替换旧条目</li>
+ *   <li>条目不在证书过期时删除，归档文档按时间戳时间校验时仍能命中</li>
+ *   <li>条目数超过上限时淘汰最久未使用的</li>
+ *   <li>多个线程同时校验同一个键时只计算一次</li>
+ * </ul>
+ * 路径校验不检查吊销状态（吊销信息见 {@link com.techhf.capdf.ltv.RevocationCache}），因此结论只取决于证书本身和时间。
+ * <p>
+ * 线程安全，通常使用进程内共享实例 {@link #shared()}。
+ */
+public class CertPathValidationCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(CertPathValidationCache.class);
+
+    /** 默认最大条目数 */
+    public static final int DEFAULT_MAX_ENTRIES = 10000;
+
+    private static final CertPathValidationCache SHARED = new CertPathValidationCache(DEFAULT_MAX_ENTRIES);
+
+    private final Map<String, CertPathValidationResult> entries;
+    private final ConcurrentMap<String, CompletableFuture<CertPathValidationResult>> loading =
+            new ConcurrentHashMap<>();
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong validationCount = new AtomicLong();
+    private final AtomicLong timeSavedNanos = new AtomicLong();
+
+    public CertPathValidationCache() {
+        this(DEFAULT_MAX_ENTRIES);
+    }
+
+    /**
+     * @param maxEntries 最大条目数
+     */
+    public CertPathValidationCache(final int maxEntries) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("最大条目数必须大于0: " + maxEntries);
+        }
+        this.entries = new LinkedHashMap<String, CertPathValidationResult>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CertPathValidationResult> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * 进程内共享实例
+     */
+    public static CertPathValidationCache shared() {
+        return SHARED;
+    }
+
+    /**
+     * 校验从证书到信任锚的路径
+     *
+     * @param cert 待校验证书（签名证书或TSA证书）
+     * @param certificates 可用于构建路径的其他证书（通常是签名数据中携带的证书），可以包含 cert 本身
+     * @param trustStore 信任锚
+     * @param validationTime 校验时间（有可信时间戳时为时间戳时间）
+     */
+    public CertPathValidationResult validate(X509Certificate cert, Collection<X509Certificate> certificates,
+                                             TrustStore trustStore, Date validationTime) throws Exception {
+        String key = key(cert, certificates, trustStore);
+        CertPathValidationResult cached = lookup(key, validationTime);
+        if (cached != null) {
+            return hit(cached);
+        }
+
+        // 同一键只允许一个线程计算，其他线程等待其结果
+        CompletableFuture<CertPathValidationResult> future = new CompletableFuture<>();
+        CompletableFuture<CertPathValidationResult> inFlight = loading.putIfAbsent(key, future);
+        if (inFlight != null) {
+            try {
+                cached = inFlight.get();
+            } catch (ExecutionException e) {
+                throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+            }
+            // 正在进行的计算使用了不同的校验时间，结论不一定适用
+            return cached.appliesTo(validationTime) ? hit(cached)
+                    : compute(key, cert, certificates, trustStore, validationTime);
+        }
+        try {
+            // 另一线程可能刚刚完成计算
+            cached = lookup(key, validationTime);
+            if (cached == null) {
+                cached = compute(key, cert, certificates, trustStore, validationTime);
+            } else {
+                hit(cached);
+            }
+            future.complete(cached);
+            return cached;
+        } catch (Exception e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(key, future);
+        }
+    }
+
+    /**
+     * 缓存命中次数（包括等待其他线程正在进行的同一计算）
+     */
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    /**
+     * 实际构建和校验路径的次数
+     */
+    public long getValidationCount() {
+        return validationCount.get();
+    }
+
+    /**
+     * 命中率（0 ~ 1），还没有任何查询时为0
+     */
+    public double getHitRate() {
+        long hits = hitCount.get();
+        long total = hits + validationCount.get();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    /**
+     * 命中节省的时间（纳秒）：每次命中累加该条目当初实际校验的耗时
+     */
+    public long getTimeSavedNanos() {
+        return timeSavedNanos.get();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("CertPathValidationCache[条目 %d，命中 %d，校验 %d，命中率 %.1f%%，节省 %.1f ms]",
+                size(), getHitCount(), getValidationCount(), getHitRate() * 100, getTimeSavedNanos() / 1e6);
+    }
+
+    private CertPathValidationResult hit(CertPathValidationResult cached) {
+        hitCount.incrementAndGet();
+        timeSavedNanos.addAndGet(cached.getValidationNanos());
+        return cached;
+    }
+
+    private CertPathValidationResult compute(String key, X509Certificate cert,
+                                             Collection<X509Certificate> certificates,
+                                             TrustStore trustStore, Date validationTime) {
+        validationCount.incrementAndGet();
+        CertPathValidationResult result = build(cert, certificates, trustStore, validationTime);
+        if (result.appliesTo(validationTime)) {
+            store(key, result);
+        }
+        return result;
+    }
+
+    private synchronized CertPathValidationResult lookup(String key, Date validationTime) {
+        CertPathValidationResult entry = entries.get(key);
+        return entry != null && entry.appliesTo(validationTime) ? entry : null;
+    }
+
+    private synchronized void store(String key, CertPathValidationResult result) {
+        entries.put(key, result);
+    }
+
+    /**
+     * 使用JDK PKIX实现构建路径
+     */
+    static CertPathValidationResult build(X509Certificate cert, Collection<X509Certificate> certificates,
+                                          TrustStore trustStore, Date validationTime) {
+        long start = System.nanoTime();
+        List<X509Certificate> pool = new ArrayList<>(certificates);
+        if (!pool.contains(cert)) {
+            pool.add(cert);
+        }
+        // 失败时的窗口取所有候选证书有效期的交集：窗口内没有证书过期，失败原因与时间无关
+        Date[] window = window(pool);
+
+        // 1. 证书本身就是信任锚
+        if (trustStore.contains(cert)) {
+            window = window(Collections.singletonList(cert));
+            return new CertPathValidationResult(true, null, Collections.singletonList(cert),
+                    window[0], window[1], System.nanoTime() - start);
+        }
+        if (trustStore.isEmpty()) {
+            return new CertPathValidationResult(false, "信任库为空", Collections.<X509Certificate>emptyList(),
+                    window[0], window[1], System.nanoTime() - start);
+        }
+
+        // 2. 用候选证书构建到信任锚的路径（不检查吊销状态）
+        try {
+            X509CertSelector target = new X509CertSelector();
+            target.setCertificate(cert);
+            PKIXBuilderParameters params = new PKIXBuilderParameters(trustStore.getTrustAnchors(), target);
+            params.setRevocationEnabled(false);
+            params.setDate(validationTime);
+            params.addCertStore(CertStore.getInstance("Collection", new CollectionCertStoreParameters(pool)));
+            PKIXCertPathBuilderResult built = (PKIXCertPathBuilderResult) CertPathBuilder.getInstance("PKIX")
+                    .build(params);
+
+            // 3. 成功时的窗口取路径上证书（含锚证书）有效期的交集
+            List<X509Certificate> path = new ArrayList<>();
+            for (Certificate c : built.getCertPath().getCertificates()) {
+                path.add((X509Certificate) c);
+            }
+            List<X509Certificate> withAnchor = new ArrayList<>(path);
+            if (built.getTrustAnchor().getTrustedCert() != null) {
+                withAnchor.add(built.getTrustAnchor().getTrustedCert());
+            }
+            window = window(withAnchor);
+            return new CertPathValidationResult(true, null, path, window[0], window[1], System.nanoTime() - start);
+        } catch (Exception e) {
+            logger.debug("证书链校验失败 {}: {}", cert.getSubjectX500Principal(), e.getMessage());
+            return new CertPathValidationResult(false, "无法构建到信任锚的证书链: " + e.getMessage(),
+                    Collections.<X509Certificate>emptyList(), window[0], window[1], System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * 证书有效期的交集 [max(notBefore), min(notAfter)]
+     */
+    private static Date[] window(List<X509Certificate> certs) {
+        long notBefore = Long.MIN_VALUE;
+        long notAfter = Long.MAX_VALUE;
+        for (X509Certificate c : certs) {
+            notBefore = Math.max(notBefore, c.getNotBefore().getTime());
+            notAfter = Math.min(notAfter, c.getNotAfter().getTime());
+        }
+        return new Date[]{new Date(notBefore), new Date(notAfter)};
+    }
+
+    /**
+     * 键：证书指纹 + 其他证书指纹（排序后）的摘要，加上信任库标识
+     */
+    private static String key(X509Certificate cert, Collection<X509Certificate> certificates,
+                              TrustStore trustStore) throws Exception {
+        String self = TrustStore.fingerprint(cert);
+        List<String> others = new ArrayList<>(certificates.size());
+        for (X509Certificate c : certificates) {
+            String fingerprint = TrustStore.fingerprint(c);
+            if (!fingerprint.equals(self) && !others.contains(fingerprint)) {
+                others.add(fingerprint);
+            }
+        }
+        Collections.sort(others);
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        digest.update(self.getBytes("US-ASCII"));
+        for (String fingerprint : others) {
+            digest.update((byte) ',');
+            digest.update(fingerprint.getBytes("US-ASCII"));
+        }
+        return Base64.getEncoder().encodeToString(digest.digest()) + "|" + trustStore.getId();
+    }
+}
@@ -0,0 +1,89 @@
+package com.techhf.capdf.cert;
+
+import java.security.cert.X509Certificate;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * 证书链校验结果
+ * <p>
+ * 由 {@link CertPathValidationCache} 生成。除结论外还记录结论成立的时间窗口：
+ * 窗口内路径上所有证书都在有效期内，在窗口内任意时间点重新校验会得到相同结论，缓存据此复用结果。
+ * 不可变对象。
+ */
+public final class CertPathValidationResult {
+
+    private final boolean valid;
+    private final String failureReason;
+    private final List<X509Certificate> path;
+    private final Date notBefore;
+    private final Date notAfter;
+    private final long validationNanos;
+
+    CertPathValidationResult(boolean valid, String failureReason, List<X509Certificate> path,
+                             Date notBefore, Date notAfter, long validationNanos) {
+        this.valid = valid;
+        this.failureReason = failureReason;
+        this.path = Collections.unmodifiableList(path);
+        this.notBefore = notBefore;
+        this.notAfter = notAfter;
+        this.validationNanos = validationNanos;
+    }
+
+    /**
+     * 能从签名证书构建到信任锚的有效路径
+     */
+    public boolean isValid() {
+        return valid;
+    }
+
+    /**
+     * 失败原因，有效时为null
+     */
+    public String getFailureReason() {
+        return failureReason;
+    }
+
+    /**
+     * 从签名证书到信任锚之前的证书路径（不含锚证书），失败时为空
+     */
+    public List<X509Certificate> getPath() {
+        return path;
+    }
+
+    /**
+     * 结论成立时间窗口的起点（路径上证书 notBefore 的最大值）
+     */
+    public Date getNotBefore() {
+        return new Date(notBefore.getTime());
+    }
+
+    /**
+     * 结论成立时间窗口的终点（路径上证书 notAfter 的最小值）
+     */
+    public Date getNotAfter() {
+        return new Date(notAfter.getTime());
+    }
+
+    /**
+     * 结论是否适用于指定的校验时间
+     */
+    public boolean appliesTo(Date validationTime) {
+        long time = validationTime.getTime();
+        return time >= notBefore.getTime() && time <= notAfter.getTime();
+    }
+
+    /**
+     * 实际构建和校验路径的耗时（纳秒），缓存命中时即节省的时间
+     */
+    public long getValidationNanos() {
+        return validationNanos;
+    }
+
+    @Override
+    public String toString() {
+        return (valid ? "证书链有效，路径长度 " + path.size() : "证书链无效: " + failureReason)
+                + "，适用 " + notBefore + " ~ " + notAfter;
+    }
+}
@@ -1,38 +1,56 @@
 package com.techhf.capdf.cert;
 
 import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.asn1.x509.AuthorityInformationAccess;
 import org.bouncycastle.asn1.x509.BasicConstraints;
+import org.bouncycastle.asn1.x509.CRLDistPoint;
+import org.bouncycastle.asn1.x509.CRLNumber;
+import org.bouncycastle.asn1.x509.CRLReason;
+import org.bouncycastle.asn1.x509.DistributionPoint;
+import org.bouncycastle.asn1.x509.DistributionPointName;
 import org.bouncycastle.asn1.x509.Extension;
 import org.bouncycastle.asn1.x509.ExtendedKeyUsage;
+import org.bouncycastle.asn1.x509.GeneralName;
+import org.bouncycastle.asn1.x509.GeneralNames;
 import org.bouncycastle.asn1.x509.KeyPurposeId;
 import org.bouncycastle.asn1.x509.KeyUsage;
+import org.bouncycastle.asn1.x509.X509ObjectIdentifiers;
 import org.bouncycastle.cert.X509CertificateHolder;
+import org.bouncycastle.cert.X509v2CRLBuilder;
 import org.bouncycastle.cert.X509v3CertificateBuilder;
+import org.bouncycastle.cert.jcajce.JcaX509CRLConverter;
 import org.bouncycastle.cert.jcajce.JcaX509CertificateConverter;
+import org.bouncycastle.cert.jcajce.JcaX509ExtensionUtils;
+import org.bouncycastle.cert.jcajce.JcaX509v2CRLBuilder;
 import org.bouncycastle.cert.jcajce.JcaX509v3CertificateBuilder;
 import org.bouncycastle.jce.provider.BouncyCastleProvider;
 import org.bouncycastle.operator.ContentSigner;
-import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.security.auth.x500.X500Principal;
+
 import java.io.ByteArrayInputStream;
 import java.io.FileOutputStream;
 import java.math.BigInteger;
 import java.security.*;
+import java.security.cert.X509CRL;
 import java.security.cert.X509Certificate;
 import java.util.Base64;
 import java.util.Calendar;
+import java.util.Collection;
 import java.util.Date;
 
 /**
  * 证书生成器
- * 用于生成自签名测试证书
+ * 用于生成自签名测试证书，以及测试LTV用的CA、CA签发的证书和CRL
  */
 public class CertificateGenerator {
     
     private static final Logger logger = LoggerFactory.getLogger(CertificateGenerator.class);
     
+    private static final SecureRandom SERIAL_RANDOM = new SecureRandom();
+    
     static {
         // 注册BouncyCastle Provider
         if (Security.getProvider(BouncyCastleProvider.PROVIDER_NAME) == null) {
@@ -54,22 +72,255 @@ public class CertificateGenerator {
             String outputPath, 
             String password,
             int validYears) throws Exception {
+        return generateSelfSignedCert(subject, outputPath, password, validYears, KeyAlgorithm.RSA_2048);
+    }
+
+    /**
+     * 使用指定密钥类型生成自签名证书并保存为PKCS12格式
+     * 
+     * @param subject 证书主题（例如：CN=Test Organization,O=My Company,C=CN）
+     * @param outputPath 输出路径（.p12文件）
+     * @param password 密码（可以为null或空字符串表示无密码）
+     * @param validYears 有效期（年）
+     * @param keyAlgorithm 密钥类型（RSA / ECDSA / Ed25519）
+     * @return 生成的证书
+     */
+    public static X509Certificate generateSelfSignedCert(
+            String subject, 
+            String outputPath, 
+            String password,
+            int validYears,
+            KeyAlgorithm keyAlgorithm) throws Exception {
         
         logger.info("开始生成自签名证书...");
         logger.info("主题: {}", subject);
         logger.info("输出路径: {}", outputPath);
         logger.info("有效期: {} 年", validYears);
         
-        // 1. 生成RSA密钥对
-        KeyPairGenerator keyPairGenerator = KeyPairGenerator.getInstance("RSA", "BC");
-        keyPairGenerator.initialize(2048, new SecureRandom());
-        KeyPair keyPair = keyPairGenerator.generateKeyPair();
-        logger.info("RSA密钥对生成完成");
+        // 1. 生成密钥对
+        KeyPair keyPair = KeyPairPool.nextKeyPair(keyAlgorithm);
+        logger.info("{} 密钥对生成完成", keyAlgorithm);
+        
+        // 2. 构建并签名证书
+        X509Certificate certificate = buildSelfSignedCertificate(subject, keyPair, validYears);
+        
+        logger.info("证书生成完成");
+        logger.info("序列号: {}", certificate.getSerialNumber().toString(16).toUpperCase());
+        logger.info("有效期: {} 至 {}", certificate.getNotBefore(), certificate.getNotAfter());
+        
+        // 3. 保存为PKCS12格式
+        storePkcs12(outputPath, password, keyPair.getPrivate(), new X509Certificate[]{certificate});
+        return certificate;
+    }
+
+    /**
+     * 生成CA证书并保存为PKCS12格式
+     * 用于签发带OCSP/CRL地址的测试签名证书和CRL
+     * 
+     * @param subject CA主题
+     * @param outputPath 输出路径（.p12文件）
+     * @param password 密码（可以为null或空字符串表示无密码）
+     * @param validYears 有效期（年）
+     * @return CA证书
+     */
+    public static X509Certificate generateCaCert(
+            String subject,
+            String outputPath,
+            String password,
+            int validYears) throws Exception {
+        
+        logger.info("开始生成CA证书: {}", subject);
+        
+        // 1. 生成密钥对
+        KeyPair keyPair = KeyPairPool.nextKeyPair(KeyAlgorithm.RSA_2048);
+        
+        // 2. 构建自签名CA证书：只用于签发证书和CRL
+        X500Name name = new X500Name(subject);
+        X509v3CertificateBuilder certBuilder = new JcaX509v3CertificateBuilder(
+                name, randomSerial(), new Date(), yearsFromNow(validYears), name, keyPair.getPublic());
+        certBuilder.addExtension(Extension.basicConstraints, true, new BasicConstraints(true));
+        certBuilder.addExtension(Extension.keyUsage, true,
+                new KeyUsage(KeyUsage.keyCertSign | KeyUsage.cRLSign));
+        certBuilder.addExtension(Extension.subjectKeyIdentifier, false,
+                new JcaX509ExtensionUtils().createSubjectKeyIdentifier(keyPair.getPublic()));
+        X509Certificate caCert = sign(certBuilder, keyPair.getPrivate());
+        
+        // 3. 保存为PKCS12格式
+        storePkcs12(outputPath, password, keyPair.getPrivate(), new X509Certificate[]{caCert});
+        return caCert;
+    }
+
+    /**
+     * 由CA签发签名证书并保存为PKCS12格式（证书链包含CA证书）
+     * 
+     * @param subject 证书主题
+     * @param caCert CA证书
+     * @param caKey CA私钥
+     * @param ocspUrl OCSP服务地址，写入颁发机构信息访问扩展（可为null）
+     * @param crlUrl CRL下载地址，写入CRL分发点扩展（可为null）
+     * @param outputPath 输出路径（.p12文件）
+     * @param password 密码（可以为null或空字符串表示无密码）
+     * @param validYears 有效期（年）
+     * @return 签发的证书
+     */
+    public static X509Certificate issueCert(
+            String subject,
+            X509Certificate caCert,
+            PrivateKey caKey,
+            String ocspUrl,
+            String crlUrl,
+            String outputPath,
+            String password,
+            int validYears) throws Exception {
+        
+        logger.info("签发证书: {}，颁发者: {}", subject, caCert.getSubjectX500Principal());
+        
+        // 1. 生成密钥对
+        KeyPair keyPair = KeyPairPool.nextKeyPair(KeyAlgorithm.RSA_2048);
+        
+        // 2. 构建证书，颁发者名称直接取自CA证书，保证编码一致
+        X509v3CertificateBuilder certBuilder = new JcaX509v3CertificateBuilder(
+                caCert, randomSerial(), new Date(), yearsFromNow(validYears),
+                new X500Principal(subject), keyPair.getPublic());
+        certBuilder.addExtension(Extension.basicConstraints, true, new BasicConstraints(false));
+        certBuilder.addExtension(Extension.keyUsage, true,
+                new KeyUsage(KeyUsage.digitalSignature | KeyUsage.nonRepudiation));
+        // 颁发者密钥标识：KeyStore 加载时据此重建证书链
+        certBuilder.addExtension(Extension.authorityKeyIdentifier, false,
+                new JcaX509ExtensionUtils().createAuthorityKeyIdentifier(caCert));
+        
+        // 3. 吊销信息地址
+        if (ocspUrl != null) {
+            certBuilder.addExtension(Extension.authorityInfoAccess, false, new AuthorityInformationAccess(
+                    X509ObjectIdentifiers.id_ad_ocsp,
+                    new GeneralName(GeneralName.uniformResourceIdentifier, ocspUrl)));
+        }
+        if (crlUrl != null) {
+            DistributionPointName dpName = new DistributionPointName(new GeneralNames(
+                    new GeneralName(GeneralName.uniformResourceIdentifier, crlUrl)));
+            certBuilder.addExtension(Extension.cRLDistributionPoints, false, new CRLDistPoint(
+                    new DistributionPoint[]{new DistributionPoint(dpName, null, null)}));
+        }
+        X509Certificate certificate = sign(certBuilder, caKey);
+        logger.info("序列号: {}", certificate.getSerialNumber().toString(16).toUpperCase());
+        
+        // 4. 保存为PKCS12格式
+        storePkcs12(outputPath, password, keyPair.getPrivate(), new X509Certificate[]{certificate, caCert});
+        return certificate;
+    }
+
+    /**
+     * 生成CRL
+     * 
+     * @param caCert CA证书
+     * @param caKey CA私钥
+     * @param revokedSerials 已吊销证书的序列号
+     * @param nextUpdate 下次更新时间
+     * @param outputPath 输出路径（DER编码，可为null表示不保存）
+     * @return 生成的CRL
+     */
+    public static X509CRL generateCrl(
+            X509Certificate caCert,
+            PrivateKey caKey,
+            Collection<BigInteger> revokedSerials,
+            Date nextUpdate,
+            String outputPath) throws Exception {
+        
+        Date now = new Date();
+        X509v2CRLBuilder crlBuilder = new JcaX509v2CRLBuilder(caCert, now);
+        crlBuilder.setNextUpdate(nextUpdate);
+        for (BigInteger serial : revokedSerials) {
+            crlBuilder.addCRLEntry(serial, now, CRLReason.keyCompromise);
+        }
+        crlBuilder.addExtension(Extension.cRLNumber, false, new CRLNumber(BigInteger.valueOf(now.getTime())));
+        
+        ContentSigner signer = CryptoProviders.getDefault().contentSignerBuilder(caKey).build(caKey);
+        X509CRL crl = new JcaX509CRLConverter().setProvider("BC").getCRL(crlBuilder.build(signer));
+        
+        if (outputPath != null) {
+            try (FileOutputStream fos = new FileOutputStream(outputPath)) {
+                fos.write(crl.getEncoded());
+            }
+            logger.info("CRL已保存到: {}（吊销 {} 个，下次更新 {}）", outputPath, revokedSerials.size(), nextUpdate);
+        }
+        return crl;
+    }
+
+    /**
+     * 私钥和证书链保存为PKCS12格式
+     */
+    private static void storePkcs12(String outputPath, String password, PrivateKey privateKey,
+                                    X509Certificate[] certChain) throws Exception {
+        KeyStore keyStore = CryptoProviders.getDefault().newKeyStore("PKCS12");
+        keyStore.load(null, null);
+        
+        // 处理空密码情况
+        char[] passwordChars = (password == null || password.isEmpty()) ? new char[0] : password.toCharArray();
+        
+        // BC 的证书对象会带上曾经存入的密钥库中的包属性（localKeyId 等），
+        // 原样写入会让上级证书在加载时被当作另一个密钥的证书，证书链断开，因此重新解析一份
+        X509Certificate[] chain = new X509Certificate[certChain.length];
+        JcaX509CertificateConverter converter = new JcaX509CertificateConverter().setProvider("BC");
+        for (int i = 0; i < certChain.length; i++) {
+            chain[i] = converter.getCertificate(new X509CertificateHolder(certChain[i].getEncoded()));
+        }
+        keyStore.setKeyEntry("signing-key", privateKey, passwordChars, chain);
+        
+        try (FileOutputStream fos = new FileOutputStream(outputPath)) {
+            keyStore.store(fos, passwordChars);
+        }
         
-        // 2. 设置证书信息
+        logger.info("证书已保存到: {}", outputPath);
+    }
+
+    private static X509Certificate sign(X509v3CertificateBuilder certBuilder, PrivateKey signingKey)
+            throws Exception {
+        ContentSigner signer = CryptoProviders.getDefault()
+                .contentSignerBuilder(signingKey)
+                .build(signingKey);
+        return new JcaX509CertificateConverter()
+                .setProvider("BC")
+                .getCertificate(certBuilder.build(signer));
+    }
+
+    /**
+     * 随机正整数序列号（批量签发时毫秒时间戳会重复）
+     */
+    private static BigInteger randomSerial() {
+        return new BigInteger(64, SERIAL_RANDOM).add(BigInteger.ONE);
+    }
+
+    private static Date yearsFromNow(int years) {
+        Calendar calendar = Calendar.getInstance();
+        calendar.add(Calendar.YEAR, years);
+        return calendar.getTime();
+    }
+
+    /**
+     * 生成RSA-2048密钥对
+     */
+    public static KeyPair generateKeyPair() throws Exception {
+        return KeyPairPool.nextKeyPair(KeyAlgorithm.RSA_2048);
+    }
+
+    /**
+     * 使用给定密钥对构建自签名证书（不落盘）
+     * 证书带有时间戳签名扩展密钥用途，可同时用作TSA证书
+     * 
+     * @param subject 证书主题
+     * @param keyPair 密钥对
+     * @param validYears 有效期（年）
+     * @return 自签名证书
+     */
+    public static X509Certificate buildSelfSignedCertificate(
+            String subject,
+            KeyPair keyPair,
+            int validYears) throws Exception {
+        
+        // 1. 设置证书信息
         X500Name issuer = new X500Name(subject);  // 自签名，颁发者和主题相同
         X500Name subjectName = new X500Name(subject);
-        BigInteger serial = BigInteger.valueOf(System.currentTimeMillis());
+        BigInteger serial = randomSerial();
         
         Date notBefore = new Date();
         Calendar calendar = Calendar.getInstance();
@@ -77,7 +328,7 @@ public class CertificateGenerator {
         calendar.add(Calendar.YEAR, validYears);
         Date notAfter = calendar.getTime();
         
-        // 3. 构建证书
+        // 2. 构建证书
         X509v3CertificateBuilder certBuilder = new JcaX509v3CertificateBuilder(
                 issuer,
                 serial,
@@ -87,7 +338,7 @@ public class CertificateGenerator {
                 keyPair.getPublic()
         );
         
-        // 4. 添加扩展
+        // 3. 添加扩展
         // 基本约束：标记为CA证书
         certBuilder.addExtension(
                 Extension.basicConstraints, 
@@ -109,40 +360,15 @@ public class CertificateGenerator {
                 new ExtendedKeyUsage(KeyPurposeId.id_kp_timeStamping)  // 仅时间戳
         );
         
-        // 5. 签名证书
-        ContentSigner signer = new JcaContentSignerBuilder("SHA256withRSA")
-                .setProvider("BC")
+        // 4. 签名证书（签名算法由密钥类型决定）
+        ContentSigner signer = CryptoProviders.getDefault()
+                .contentSignerBuilder(keyPair.getPrivate())
                 .build(keyPair.getPrivate());
         
         X509CertificateHolder certHolder = certBuilder.build(signer);
-        X509Certificate certificate = new JcaX509CertificateConverter()
+        return new JcaX509CertificateConverter()
                 .setProvider("BC")
                 .getCertificate(certHolder);
-        
-        logger.info("证书生成完成");
-        logger.info("序列号: {}", certificate.getSerialNumber().toString(16).toUpperCase());
-        logger.info("有效期: {} 至 {}", certificate.getNotBefore(), certificate.getNotAfter());
-        
-        // 6. 保存为PKCS12格式
-        KeyStore keyStore = KeyStore.getInstance("PKCS12", "BC");
-        keyStore.load(null, null);
-        
-        // 处理空密码情况
-        char[] passwordChars = (password == null || password.isEmpty()) ? new char[0] : password.toCharArray();
-        
-        keyStore.setKeyEntry(
-                "signing-key",
-                keyPair.getPrivate(),
-                passwordChars,
-                new X509Certificate[]{certificate}
-        );
-        
-        try (FileOutputStream fos = new FileOutputStream(outputPath)) {
-            keyStore.store(fos, passwordChars);
-        }
-        
-        logger.info("证书已保存到: {}", outputPath);
-        return certificate;
     }
 
     /**
@@ -182,7 +408,7 @@ public class CertificateGenerator {
         }
         
         // 3. 加载PKCS12证书
-        KeyStore keyStore = KeyStore.getInstance("PKCS12", "BC");
+        KeyStore keyStore = CryptoProviders.getDefault().newKeyStore("PKCS12");
         char[] passwordChars = (password == null || password.isEmpty()) ? new char[0] : password.toCharArray();
         
         try (ByteArrayInputStream bais = new ByteArrayInputStream(p12Data)) {
@@ -194,7 +420,7 @@ public class CertificateGenerator {
         X509Certificate certificate = (X509Certificate) keyStore.getCertificate(alias);
         
         logger.info("证书加载成功");
-        logger.info("主题: {}", certificate.getSubjectDN());
+        logger.info("主题: {}", certificate.getSubjectX500Principal());
         logger.info("序列号: {}", certificate.getSerialNumber().toString(16).toUpperCase());
         logger.info("有效期: {} 至 {}", certificate.getNotBefore(), certificate.getNotAfter());
         
@@ -226,7 +452,7 @@ public class CertificateGenerator {
             System.out.println("\n====== 证书生成成功 ======");
             System.out.println("文件路径: " + outputPath);
             System.out.println("密码: 123456");
-            System.out.println("主题: " + cert.getSubjectDN());
+            System.out.println("主题: " + cert.getSubjectX500Principal());
             System.out.println("序列号: " + cert.getSerialNumber().toString(16).toUpperCase());
             System.out.println("有效期: " + cert.getNotBefore() + " 至 " + cert.getNotAfter());
             System.out.println("========================");
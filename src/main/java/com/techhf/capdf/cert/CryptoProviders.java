@@ -0,0 +1,344 @@
+package com.techhf.capdf.cert;
+
+import org.bouncycastle.asn1.x509.AlgorithmIdentifier;
+import org.bouncycastle.cert.X509CertificateHolder;
+import org.bouncycastle.cert.jcajce.JcaX509CertificateConverter;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.bouncycastle.operator.ContentVerifier;
+import org.bouncycastle.operator.ContentVerifierProvider;
+import org.bouncycastle.operator.DigestCalculatorProvider;
+import org.bouncycastle.operator.OperatorCreationException;
+import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
+import org.bouncycastle.operator.jcajce.JcaContentVerifierProviderBuilder;
+import org.bouncycastle.operator.jcajce.JcaDigestCalculatorProviderBuilder;
+
+import java.security.Key;
+import java.security.KeyStore;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.PrivateKey;
+import java.security.Provider;
+import java.security.PublicKey;
+import java.security.Security;
+import java.security.cert.CertificateException;
+import java.security.interfaces.ECKey;
+import java.security.interfaces.RSAKey;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * JCA 提供者配置
+ * <p>
+ * 按操作分别指定提供者：
+ * <ul>
+ *   <li>{@link Operation#KEY_STORE}：加载/保存 PKCS12 证书文件</li>
+ *   <li>{@link Operation#SIGNATURE}：签名和签名值校验（CMS 签名、证书签发、时间戳）</li>
+ *   <li>{@link Operation#DIGEST}：ByteRange 摘要和 signed attributes 摘要</li>
+ * </ul>
+ * 每个操作的取值可以是提供者名称（如 BC、SunRsaSign、SunEC、SUN），
+ * {@link #JCA_DEFAULT}（按 JCA 注册顺序查找）或 {@link #AUTO}。
+ * <p>
+ * AUTO 模式在某个算法第一次使用时对所有支持该算法的提供者做一次短基准测试（几十毫秒），
+ * 选出最快的并缓存，之后不再测试。签名按 算法 + 密钥类型和长度 分别选择，并且只在
+ * 能接受实际密钥的提供者中选择；密钥文件只加载一次，不做基准测试，按 JCA 注册顺序查找。
+ * 在常见 JDK 上，RSA 和 SHA-256 通常会选中带 intrinsics 的 SunRsaSign / SUN。
+ * <p>
+ * 默认配置可通过系统属性设置：
+ * <pre>
+ * -Dcapdf.crypto.provider=bc|default|auto        （所有操作）
+ * -Dcapdf.crypto.keyStoreProvider=BC
+ * -Dcapdf.crypto.signatureProvider=auto
+ * -Dcapdf.crypto.digestProvider=SUN
+ * </pre>
+ * 未配置时签名使用 BC，密钥文件和摘要按 JCA 注册顺序查找（与以往加载证书的行为一致；
+ * BC 无法加载 JDK 写出的无密码 PKCS12 文件）。不可变对象。
+ */
+public final class CryptoProviders {
+
+    public enum Operation {
+        /** 加载/保存密钥文件 */
+        KEY_STORE,
+        /** 签名和签名值校验 */
+        SIGNATURE,
+        /** 摘要 */
+        DIGEST
+    }
+
+    /** 按 JCA 注册顺序查找提供者 */
+    public static final String JCA_DEFAULT = "default";
+
+    /** 基准测试后自动选择最快的提供者 */
+    public static final String AUTO = "auto";
+
+    static {
+        if (Security.getProvider(BouncyCastleProvider.PROVIDER_NAME) == null) {
+            Security.addProvider(new BouncyCastleProvider());
+        }
+    }
+
+    private static volatile CryptoProviders defaultProviders = fromSystemProperties();
+
+    private final Map<Operation, String> settings;
+
+    /** AUTO 模式的选择结果（同一配置对象的各线程共享） */
+    private final ConcurrentMap<String, Provider> autoSelections = new ConcurrentHashMap<>();
+
+    private CryptoProviders(Map<Operation, String> settings) {
+        this.settings = Collections.unmodifiableMap(new EnumMap<>(settings));
+    }
+
+    /**
+     * 所有操作使用同一设置
+     *
+     * @param provider 提供者名称、{@link #JCA_DEFAULT} 或 {@link #AUTO}
+     */
+    public static CryptoProviders of(String provider) {
+        Map<Operation, String> settings = new EnumMap<>(Operation.class);
+        for (Operation operation : Operation.values()) {
+            settings.put(operation, checkSetting(provider));
+        }
+        return new CryptoProviders(settings);
+    }
+
+    /**
+     * 所有操作使用 BouncyCastle
+     */
+    public static CryptoProviders bouncyCastle() {
+        return of(BouncyCastleProvider.PROVIDER_NAME);
+    }
+
+    /**
+     * 所有操作按 JCA 注册顺序查找
+     */
+    public static CryptoProviders jcaDefault() {
+        return of(JCA_DEFAULT);
+    }
+
+    /**
+     * 签名和摘要自动选择最快的提供者，密钥文件按 JCA 注册顺序查找
+     */
+    public static CryptoProviders auto() {
+        return of(AUTO).with(Operation.KEY_STORE, JCA_DEFAULT);
+    }
+
+    /**
+     * 修改某个操作的设置
+     *
+     * @param provider 提供者名称、{@link #JCA_DEFAULT} 或 {@link #AUTO}
+     */
+    public CryptoProviders with(Operation operation, String provider) {
+        Map<Operation, String> copy = new EnumMap<>(settings);
+        copy.put(operation, checkSetting(provider));
+        return new CryptoProviders(copy);
+    }
+
+    /**
+     * 当前默认配置（签名、证书生成和验证使用）
+     */
+    public static CryptoProviders getDefault() {
+        return defaultProviders;
+    }
+
+    public static void setDefault(CryptoProviders providers) {
+        if (providers == null) {
+            throw new IllegalArgumentException("提供者配置不能为空");
+        }
+        defaultProviders = providers;
+    }
+
+    /**
+     * 从系统属性读取配置
+     */
+    static CryptoProviders fromSystemProperties() {
+        String all = System.getProperty("capdf.crypto.provider");
+        CryptoProviders providers = all != null
+                ? of(all)
+                : bouncyCastle().with(Operation.KEY_STORE, JCA_DEFAULT).with(Operation.DIGEST, JCA_DEFAULT);
+        providers = withProperty(providers, Operation.KEY_STORE, "capdf.crypto.keyStoreProvider");
+        providers = withProperty(providers, Operation.SIGNATURE, "capdf.crypto.signatureProvider");
+        return withProperty(providers, Operation.DIGEST, "capdf.crypto.digestProvider");
+    }
+
+    /**
+     * 创建密钥库
+     *
+     * @param type 密钥库类型，例如 PKCS12
+     */
+    public KeyStore newKeyStore(String type) throws Exception {
+        Provider provider = resolve(Operation.KEY_STORE, type, null);
+        return provider != null ? KeyStore.getInstance(type, provider) : KeyStore.getInstance(type);
+    }
+
+    /**
+     * 创建摘要计算对象
+     *
+     * @param algorithm 摘要算法名称或OID
+     */
+    public MessageDigest newMessageDigest(String algorithm) throws NoSuchAlgorithmException {
+        Provider provider = digestProvider(algorithm);
+        return provider != null ? MessageDigest.getInstance(algorithm, provider) : MessageDigest.getInstance(algorithm);
+    }
+
+    /**
+     * 摘要提供者
+     *
+     * @return 提供者；为 null 时按 JCA 注册顺序查找
+     */
+    public Provider digestProvider(String algorithm) {
+        return resolve(Operation.DIGEST, algorithm, null);
+    }
+
+    /**
+     * 签名提供者（签名算法由 {@link SignatureAlgorithms#signatureAlgorithm} 按密钥确定）
+     *
+     * @param key 签名私钥，或校验签名时的公钥
+     * @return 提供者；为 null 时按 JCA 注册顺序查找
+     */
+    public Provider signatureProvider(Key key) {
+        return resolve(Operation.SIGNATURE, SignatureAlgorithms.signatureAlgorithm(key), key);
+    }
+
+    /**
+     * 使用签名提供者的 ContentSigner 构建器
+     */
+    public JcaContentSignerBuilder contentSignerBuilder(PrivateKey privateKey) {
+        JcaContentSignerBuilder builder = new JcaContentSignerBuilder(SignatureAlgorithms.signatureAlgorithm(privateKey));
+        Provider provider = signatureProvider(privateKey);
+        return provider != null ? builder.setProvider(provider) : builder;
+    }
+
+    /**
+     * 校验签名值的 ContentVerifierProvider
+     */
+    public ContentVerifierProvider contentVerifierProvider(PublicKey publicKey) throws OperatorCreationException {
+        JcaContentVerifierProviderBuilder builder = new JcaContentVerifierProviderBuilder();
+        Provider provider = signatureProvider(publicKey);
+        return (provider != null ? builder.setProvider(provider) : builder).build(publicKey);
+    }
+
+    /**
+     * 带关联证书的 ContentVerifierProvider（校验时间戳令牌等需要签名证书的场合）
+     * <p>
+     * 证书解析固定使用 BC，只有签名值校验使用配置的提供者（SunEC 等提供者不支持解析证书）。
+     */
+    public ContentVerifierProvider contentVerifierProvider(final X509CertificateHolder certificate)
+            throws OperatorCreationException, CertificateException {
+        PublicKey publicKey = new JcaX509CertificateConverter()
+                .setProvider(BouncyCastleProvider.PROVIDER_NAME)
+                .getCertificate(certificate)
+                .getPublicKey();
+        final ContentVerifierProvider delegate = contentVerifierProvider(publicKey);
+        return new ContentVerifierProvider() {
+            @Override
+            public boolean hasAssociatedCertificate() {
+                return true;
+            }
+
+            @Override
+            public X509CertificateHolder getAssociatedCertificate() {
+                return certificate;
+            }
+
+            @Override
+            public ContentVerifier get(AlgorithmIdentifier verifierAlgorithmIdentifier)
+                    throws OperatorCreationException {
+                return delegate.get(verifierAlgorithmIdentifier);
+            }
+        };
+    }
+
+    /**
+     * 使用摘要提供者的 DigestCalculatorProvider
+     *
+     * @param algorithm 主要使用的摘要算法（AUTO 模式按该算法选择提供者）
+     */
+    public DigestCalculatorProvider digestCalculatorProvider(String algorithm) throws OperatorCreationException {
+        JcaDigestCalculatorProviderBuilder builder = new JcaDigestCalculatorProviderBuilder();
+        Provider provider = digestProvider(algorithm);
+        return (provider != null ? builder.setProvider(provider) : builder).build();
+    }
+
+    /**
+     * 某个操作的设置（提供者名称、{@link #JCA_DEFAULT} 或 {@link #AUTO}）
+     */
+    public String getSetting(Operation operation) {
+        return settings.get(operation);
+    }
+
+    /**
+     * AUTO 模式已做出的选择，键为 操作 + 算法，值为提供者名称
+     */
+    public Map<String, String> getAutoSelections() {
+        Map<String, String> selections = new TreeMap<>();
+        for (Map.Entry<String, Provider> entry : autoSelections.entrySet()) {
+            selections.put(entry.getKey(), entry.getValue().getName());
+        }
+        return selections;
+    }
+
+    private Provider resolve(Operation operation, String algorithm, Key key) {
+        String setting = settings.get(operation);
+        if (JCA_DEFAULT.equals(setting)) {
+            return null;
+        }
+        if (!AUTO.equals(setting)) {
+            Provider provider = Security.getProvider(setting);
+            if (provider == null) {
+                throw new IllegalStateException("未注册的加密提供者: " + setting + "（" + operation + "）");
+            }
+            return provider;
+        }
+        switch (operation) {
+            case SIGNATURE:
+                return autoSelections.computeIfAbsent(operation + " " + algorithm + "/" + describeKey(key),
+                        k -> ProviderBenchmark.fastestSignature(algorithm, key));
+            case DIGEST:
+                return autoSelections.computeIfAbsent(operation + " " + algorithm,
+                        k -> ProviderBenchmark.fastestDigest(algorithm));
+            default:
+                // 密钥文件只加载一次，不值得基准测试
+                return null;
+        }
+    }
+
+    /**
+     * 密钥类型和长度（不同实现类的密钥可被接受的提供者不同，因此也区分实现类）
+     */
+    private static String describeKey(Key key) {
+        int size = 0;
+        if (key instanceof RSAKey) {
+            size = ((RSAKey) key).getModulus().bitLength();
+        } else if (key instanceof ECKey) {
+            size = ((ECKey) key).getParams().getCurve().getField().getFieldSize();
+        }
+        return key.getAlgorithm() + (size > 0 ? "-" + size : "") + "/" + key.getClass().getSimpleName();
+    }
+
+    private static CryptoProviders withProperty(CryptoProviders providers, Operation operation, String property) {
+        String value = System.getProperty(property);
+        return value != null ? providers.with(operation, value) : providers;
+    }
+
+    private static String checkSetting(String provider) {
+        if (provider == null || provider.trim().isEmpty()) {
+            throw new IllegalArgumentException("提供者设置不能为空");
+        }
+        String value = provider.trim();
+        if (JCA_DEFAULT.equalsIgnoreCase(value)) {
+            return JCA_DEFAULT;
+        }
+        if (AUTO.equalsIgnoreCase(value)) {
+            return AUTO;
+        }
+        return "bc".equalsIgnoreCase(value) ? BouncyCastleProvider.PROVIDER_NAME : value;
+    }
+
+    @Override
+    public String toString() {
+        return "CryptoProviders" + settings;
+    }
+}
@@ -0,0 +1,62 @@
+package com.techhf.capdf.cert;
+
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.SecureRandom;
+import java.security.Security;
+import java.security.spec.ECGenParameterSpec;
+
+/**
+ * 签名密钥类型
+ * <p>
+ * 签名时的签名算法和摘要算法由 {@link SignatureAlgorithms} 根据密钥自动选择，
+ * 这里只用于生成密钥对和证书。ECDSA 的签名速度是同等安全强度 RSA 的数倍，CMS 签名也小得多。
+ */
+public enum KeyAlgorithm {
+
+    /** RSA 2048位（默认，兼容性最好） */
+    RSA_2048("RSA", 2048, null),
+
+    /** RSA 3072位 */
+    RSA_3072("RSA", 3072, null),
+
+    /** ECDSA P-256（secp256r1），签名算法 SHA256withECDSA */
+    EC_P256("EC", 0, "secp256r1"),
+
+    /** ECDSA P-384（secp384r1），签名算法 SHA384withECDSA */
+    EC_P384("EC", 0, "secp384r1"),
+
+    /** Ed25519（RFC 8419），摘要算法固定为 SHA-512 */
+    ED25519("Ed25519", 0, null);
+
+    static {
+        if (Security.getProvider(BouncyCastleProvider.PROVIDER_NAME) == null) {
+            Security.addProvider(new BouncyCastleProvider());
+        }
+    }
+
+    private final String algorithm;
+    private final int keySize;
+    private final String curve;
+
+    KeyAlgorithm(String algorithm, int keySize, String curve) {
+        this.algorithm = algorithm;
+        this.keySize = keySize;
+        this.curve = curve;
+    }
+
+    /**
+     * 生成该类型的密钥对
+     */
+    public KeyPair generateKeyPair() throws Exception {
+        KeyPairGenerator keyPairGenerator = KeyPairGenerator.getInstance(algorithm, "BC");
+        if (curve != null) {
+            keyPairGenerator.initialize(new ECGenParameterSpec(curve), new SecureRandom());
+        } else if (keySize > 0) {
+            keyPairGenerator.initialize(keySize, new SecureRandom());
+        }
+        return keyPairGenerator.generateKeyPair();
+    }
+}
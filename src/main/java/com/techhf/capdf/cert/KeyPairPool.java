@@ -0,0 +1,303 @@
+package com.techhf.capdf.cert;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.security.KeyPair;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 预生成密钥对池
+ * <p>
+ * RSA-2048 密钥对生成需要 50 ~ 500 ms，按需签发证书时是主要瓶颈。密钥池由后台线程预先生成密钥对，
+ * 签发时直接取用，签发耗时只剩证书构建和签名：
+ * <ul>
+ *   <li>池中数量低于低水位时启动一轮补充，补充到容量为止</li>
+ *   <li>池空时在调用线程中直接生成（计入 {@link #getFallbackCount()}），不等待后台线程</li>
+ * </ul>
+ * {@link CertificateGenerator} 通过 {@link #nextKeyPair(KeyAlgorithm)} 取密钥对：配置了默认池且密钥类型一致时从池中取，
+ * 否则直接生成。默认池可通过系统属性配置（size 为0或未配置时不启用）：
+ * <pre>
+ * -Dcapdf.keyPool.size=64
+ * -Dcapdf.keyPool.algorithm=RSA_2048
+ * -Dcapdf.keyPool.threads=2
+ * -Dcapdf.keyPool.lowWaterMark=32
+ * </pre>
+ * 线程安全。
+ */
+public class KeyPairPool implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(KeyPairPool.class);
+
+    private static volatile KeyPairPool defaultPool = fromSystemProperties();
+
+    private final KeyAlgorithm algorithm;
+    private final int capacity;
+    private final int lowWaterMark;
+    private final int refillThreads;
+    private final BlockingQueue<KeyPair> pool;
+    private final ExecutorService executor;
+
+    /** 本轮补充中仍在工作的线程数，0表示没有进行中的补充 */
+    private final AtomicInteger activeWorkers = new AtomicInteger();
+    /** 正在生成、尚未放入池中的密钥对数 */
+    private final AtomicInteger generating = new AtomicInteger();
+    private final AtomicLong generatedCount = new AtomicLong();
+    private final AtomicLong takenCount = new AtomicLong();
+    private final AtomicLong fallbackCount = new AtomicLong();
+    private final AtomicLong refillNanos = new AtomicLong();
+    private volatile long roundStart;
+    private volatile boolean roundFailed;
+    private volatile boolean closed;
+
+    /**
+     * 创建密钥池并立即在后台开始填充
+     *
+     * @param algorithm 密钥类型
+     * @param capacity 池容量
+     * @param lowWaterMark 低水位，池中数量低于该值时启动补充（0 ~ capacity）
+     * @param refillThreads 补充线程数
+     */
+    public KeyPairPool(KeyAlgorithm algorithm, int capacity, int lowWaterMark, int refillThreads) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("池容量必须大于0: " + capacity);
+        }
+        if (lowWaterMark < 0 || lowWaterMark > capacity) {
+            throw new IllegalArgumentException("低水位必须在 0 ~ " + capacity + " 之间: " + lowWaterMark);
+        }
+        if (refillThreads <= 0) {
+            throw new IllegalArgumentException("补充线程数必须大于0: " + refillThreads);
+        }
+        this.algorithm = algorithm;
+        this.capacity = capacity;
+        this.lowWaterMark = lowWaterMark;
+        this.refillThreads = refillThreads;
+        this.pool = new ArrayBlockingQueue<>(capacity);
+        this.executor = Executors.newFixedThreadPool(refillThreads, new RefillThreadFactory());
+        logger.info("密钥池: {}，容量 {}，低水位 {}，补充线程 {}", algorithm, capacity, lowWaterMark, refillThreads);
+        refill();
+    }
+
+    /**
+     * 当前默认池，未启用时为null
+     */
+    public static KeyPairPool getDefault() {
+        return defaultPool;
+    }
+
+    /**
+     * 设置默认池（null 表示不使用池）；原来的默认池不会被关闭
+     */
+    public static void setDefault(KeyPairPool pool) {
+        defaultPool = pool;
+    }
+
+    /**
+     * 从系统属性创建默认池，capdf.keyPool.size 未配置或为0时返回null
+     */
+    static KeyPairPool fromSystemProperties() {
+        int size = Integer.getInteger("capdf.keyPool.size", 0);
+        if (size <= 0) {
+            return null;
+        }
+        KeyAlgorithm algorithm;
+        String name = System.getProperty("capdf.keyPool.algorithm", KeyAlgorithm.RSA_2048.name()).trim();
+        try {
+            algorithm = KeyAlgorithm.valueOf(name.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("无效的 capdf.keyPool.algorithm: " + name, e);
+        }
+        int threads = Integer.getInteger("capdf.keyPool.threads",
+                Math.max(1, Runtime.getRuntime().availableProcessors() / 2));
+        int lowWaterMark = Integer.getInteger("capdf.keyPool.lowWaterMark", size / 2);
+        return new KeyPairPool(algorithm, size, lowWaterMark, threads);
+    }
+
+    /**
+     * 取一个指定类型的密钥对：默认池可用且类型一致时从池中取，否则直接生成
+     */
+    public static KeyPair nextKeyPair(KeyAlgorithm algorithm) throws Exception {
+        KeyPairPool pool = defaultPool;
+        if (pool != null && pool.algorithm == algorithm && !pool.closed) {
+            return pool.take();
+        }
+        return algorithm.generateKeyPair();
+    }
+
+    /**
+     * 从池中取一个密钥对，池空时在当前线程生成
+     */
+    public KeyPair take() throws Exception {
+        if (closed) {
+            throw new IllegalStateException("密钥池已关闭");
+        }
+        KeyPair keyPair = pool.poll();
+        if (pool.size() < lowWaterMark) {
+            refill();
+        }
+        if (keyPair != null) {
+            takenCount.incrementAndGet();
+            return keyPair;
+        }
+        fallbackCount.incrementAndGet();
+        logger.debug("密钥池已空，直接生成 {} 密钥对", algorithm);
+        return algorithm.generateKeyPair();
+    }
+
+    /**
+     * 等待池填满（预热用）
+     *
+     * @return 超时前填满返回true
+     */
+    public boolean awaitFull(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (pool.size() < capacity) {
+            if (closed || System.nanoTime() >= deadline) {
+                return false;
+            }
+            refill();
+            Thread.sleep(10);
+        }
+        return true;
+    }
+
+    public KeyAlgorithm getAlgorithm() {
+        return algorithm;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public int getLowWaterMark() {
+        return lowWaterMark;
+    }
+
+    /**
+     * 池中当前可用的密钥对数
+     */
+    public int getDepth() {
+        return pool.size();
+    }
+
+    /**
+     * 后台线程生成的密钥对总数
+     */
+    public long getGeneratedCount() {
+        return generatedCount.get();
+    }
+
+    /**
+     * 从池中取到的次数
+     */
+    public long getTakenCount() {
+        return takenCount.get();
+    }
+
+    /**
+     * 池空时在调用线程直接生成的次数
+     */
+    public long getFallbackCount() {
+        return fallbackCount.get();
+    }
+
+    /**
+     * 补充速率（个/秒）：后台生成总数 / 补充进行的总时长
+     */
+    public double getRefillRate() {
+        long nanos = refillNanos.get();
+        long start = roundStart;
+        if (activeWorkers.get() > 0 && start != 0) {
+            nanos += System.nanoTime() - start;
+        }
+        return nanos == 0 ? 0 : generatedCount.get() * 1e9 / nanos;
+    }
+
+    /**
+     * 停止补充并丢弃池中的密钥对
+     */
+    @Override
+    public void close() {
+        closed = true;
+        executor.shutdownNow();
+        pool.clear();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("KeyPairPool[%s，%d/%d，生成 %d，取用 %d，直接生成 %d，补充 %.1f 个/秒]",
+                algorithm, getDepth(), capacity, getGeneratedCount(), getTakenCount(), getFallbackCount(),
+                getRefillRate());
+    }
+
+    /**
+     * 没有进行中的补充时启动一轮，每个补充线程一直生成到池满
+     */
+    private void refill() {
+        if (closed || !activeWorkers.compareAndSet(0, refillThreads)) {
+            return;
+        }
+        roundStart = System.nanoTime();
+        roundFailed = false;
+        try {
+            for (int i = 0; i < refillThreads; i++) {
+                executor.execute(this::refillLoop);
+            }
+        } catch (RejectedExecutionException e) {
+            // 并发关闭
+            logger.debug("密钥池已关闭，不再补充");
+        }
+    }
+
+    private void refillLoop() {
+        try {
+            while (!closed && !Thread.currentThread().isInterrupted()) {
+                // 1. 预留位置，避免多个线程同时生成超过容量的密钥对
+                if (pool.size() + generating.incrementAndGet() > capacity) {
+                    generating.decrementAndGet();
+                    break;
+                }
+                // 2. 生成并放入池中
+                try {
+                    KeyPair keyPair = algorithm.generateKeyPair();
+                    if (pool.offer(keyPair)) {
+                        generatedCount.incrementAndGet();
+                    }
+                } finally {
+                    generating.decrementAndGet();
+                }
+            }
+        } catch (Exception e) {
+            roundFailed = true;
+            logger.warn("补充密钥对失败: {}", e.getMessage());
+        } finally {
+            // 3. 最后一个线程结束本轮；期间又被取到低水位以下时立即开始下一轮
+            if (activeWorkers.decrementAndGet() == 0) {
+                refillNanos.addAndGet(System.nanoTime() - roundStart);
+                if (!roundFailed && pool.size() < lowWaterMark) {
+                    refill();
+                }
+            }
+        }
+    }
+
+    private static final class RefillThreadFactory implements ThreadFactory {
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "keypair-refill-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
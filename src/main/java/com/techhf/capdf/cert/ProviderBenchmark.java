@@ -0,0 +1,171 @@
+package com.techhf.capdf.cert;
+
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.security.Key;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.MessageDigest;
+import java.security.PrivateKey;
+import java.security.Provider;
+import java.security.PublicKey;
+import java.security.Security;
+import java.security.Signature;
+import java.security.interfaces.ECKey;
+import java.security.interfaces.RSAKey;
+
+/**
+ * 加密提供者基准测试（{@link CryptoProviders#AUTO} 模式使用）
+ * <p>
+ * 每个候选提供者先预热，再在固定时间内循环执行，按每秒操作数选出最快的。
+ */
+final class ProviderBenchmark {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProviderBenchmark.class);
+
+    /** 每个候选提供者的测量时间 */
+    private static final long MEASURE_NANOS = 30_000_000L;
+
+    /** 最少测量次数（RSA 签名较慢时保证有意义的样本） */
+    private static final int MIN_ITERATIONS = 5;
+
+    private static final int WARMUP_ITERATIONS = 3;
+
+    /** 摘要测试的数据块大小 */
+    private static final int DIGEST_BLOCK_SIZE = 256 * 1024;
+
+    private ProviderBenchmark() {
+    }
+
+    /**
+     * 选出签名（签名 + 校验）最快的提供者
+     *
+     * @param algorithm 签名算法
+     * @param key 实际使用的密钥，只在能接受该密钥的提供者中选择
+     */
+    static Provider fastestSignature(String algorithm, Key key) {
+        KeyPair sample;
+        try {
+            sample = samplePair(key);
+        } catch (Exception e) {
+            logger.warn("无法生成 {} 测试密钥，签名使用 BC: {}", algorithm, e.getMessage());
+            return Security.getProvider(BouncyCastleProvider.PROVIDER_NAME);
+        }
+        byte[] data = new byte[128];
+
+        Provider fastest = null;
+        double fastestOps = 0;
+        for (Provider provider : Security.getProviders()) {
+            double ops;
+            try {
+                Signature signer = Signature.getInstance(algorithm, provider);
+                Signature verifier = Signature.getInstance(algorithm, provider);
+                // 必须能接受实际使用的密钥
+                if (key instanceof PrivateKey) {
+                    signer.initSign((PrivateKey) key);
+                } else {
+                    verifier.initVerify((PublicKey) key);
+                }
+                signer.initSign(sample.getPrivate());
+                verifier.initVerify(sample.getPublic());
+                ops = measure(() -> {
+                    signer.update(data);
+                    byte[] signature = signer.sign();
+                    verifier.update(data);
+                    if (!verifier.verify(signature)) {
+                        throw new IllegalStateException("签名校验失败");
+                    }
+                });
+            } catch (Exception e) {
+                continue;
+            }
+            logger.debug("签名基准 {} {}: {} ops/s", algorithm, provider.getName(), (long) ops);
+            if (ops > fastestOps) {
+                fastest = provider;
+                fastestOps = ops;
+            }
+        }
+        if (fastest == null) {
+            logger.warn("没有提供者支持 {}，签名使用 BC", algorithm);
+            return Security.getProvider(BouncyCastleProvider.PROVIDER_NAME);
+        }
+        logger.info("加密提供者选择: 签名 {}（{}）→ {}，{} ops/s",
+                algorithm, key.getAlgorithm(), fastest.getName(), (long) fastestOps);
+        return fastest;
+    }
+
+    /**
+     * 选出摘要吞吐量最高的提供者
+     */
+    static Provider fastestDigest(String algorithm) {
+        byte[] block = new byte[DIGEST_BLOCK_SIZE];
+
+        Provider fastest = null;
+        double fastestOps = 0;
+        for (Provider provider : Security.getProviders()) {
+            double ops;
+            try {
+                MessageDigest md = MessageDigest.getInstance(algorithm, provider);
+                ops = measure(() -> {
+                    md.update(block);
+                    md.digest();
+                });
+            } catch (Exception e) {
+                continue;
+            }
+            logger.debug("摘要基准 {} {}: {} MB/s", algorithm, provider.getName(),
+                    (long) (ops * DIGEST_BLOCK_SIZE / (1024 * 1024)));
+            if (ops > fastestOps) {
+                fastest = provider;
+                fastestOps = ops;
+            }
+        }
+        if (fastest == null) {
+            throw new IllegalStateException("没有提供者支持摘要算法: " + algorithm);
+        }
+        logger.info("加密提供者选择: 摘要 {} → {}，{} MB/s",
+                algorithm, fastest.getName(), (long) (fastestOps * DIGEST_BLOCK_SIZE / (1024 * 1024)));
+        return fastest;
+    }
+
+    /**
+     * 每秒操作数
+     */
+    private static double measure(Task task) throws Exception {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            task.run();
+        }
+        long start = System.nanoTime();
+        long elapsed;
+        int iterations = 0;
+        do {
+            task.run();
+            iterations++;
+            elapsed = System.nanoTime() - start;
+        } while (elapsed < MEASURE_NANOS || iterations < MIN_ITERATIONS);
+        return iterations * 1e9 / elapsed;
+    }
+
+    /**
+     * 与实际密钥类型和长度相同的测试密钥对
+     */
+    private static KeyPair samplePair(Key key) throws Exception {
+        if (key instanceof RSAKey) {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA", BouncyCastleProvider.PROVIDER_NAME);
+            generator.initialize(((RSAKey) key).getModulus().bitLength());
+            return generator.generateKeyPair();
+        }
+        if (key instanceof ECKey) {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("EC", BouncyCastleProvider.PROVIDER_NAME);
+            generator.initialize(((ECKey) key).getParams());
+            return generator.generateKeyPair();
+        }
+        return KeyPairGenerator.getInstance(key.getAlgorithm(), BouncyCastleProvider.PROVIDER_NAME).generateKeyPair();
+    }
+
+    private interface Task {
+        void run() throws Exception;
+    }
+}
@@ -0,0 +1,101 @@
+package com.techhf.capdf.cert;
+
+import java.security.Key;
+import java.security.interfaces.ECKey;
+import java.security.interfaces.RSAKey;
+
+/**
+ * 根据密钥类型选择签名算法和摘要算法
+ * <table>
+ *     <tr><th>密钥</th><th>签名算法</th><th>摘要算法</th></tr>
+ *     <tr><td>RSA</td><td>SHA256withRSA</td><td>SHA-256</td></tr>
+ *     <tr><td>EC P-256</td><td>SHA256withECDSA</td><td>SHA-256</td></tr>
+ *     <tr><td>EC P-384</td><td>SHA384withECDSA</td><td>SHA-384</td></tr>
+ *     <tr><td>EC P-521</td><td>SHA512withECDSA</td><td>SHA-512</td></tr>
+ *     <tr><td>Ed25519</td><td>Ed25519</td><td>SHA-512（RFC 8419）</td></tr>
+ * </table>
+ * CMS 中 messageDigest 属性的摘要算法与签名算法中的摘要一致，
+ * 因此计算 ByteRange 摘要前需要先按签名密钥确定摘要算法。
+ */
+public final class SignatureAlgorithms {
+
+    /** 无法识别密钥类型时假定的签名值长度 */
+    private static final int UNKNOWN_SIGNATURE_LENGTH = 512;
+
+    /** Ed25519 签名值长度 */
+    private static final int ED25519_SIGNATURE_LENGTH = 64;
+
+    private SignatureAlgorithms() {
+    }
+
+    /**
+     * 签名算法名称（JCA 名称，可直接用于 JcaContentSignerBuilder）
+     *
+     * @param key 私钥或公钥
+     */
+    public static String signatureAlgorithm(Key key) {
+        if (key instanceof RSAKey) {
+            return "SHA256withRSA";
+        }
+        if (key instanceof ECKey) {
+            return digestName(ecFieldSize((ECKey) key)) + "withECDSA";
+        }
+        if (isEd25519(key)) {
+            return "Ed25519";
+        }
+        throw new IllegalArgumentException("不支持的密钥类型: " + key.getAlgorithm());
+    }
+
+    /**
+     * 摘要算法名称（JCA 名称，例如 SHA-256）
+     *
+     * @param key 私钥或公钥
+     */
+    public static String digestAlgorithm(Key key) {
+        if (key instanceof RSAKey) {
+            return "SHA-256";
+        }
+        if (key instanceof ECKey) {
+            String name = digestName(ecFieldSize((ECKey) key));
+            return name.substring(0, 3) + "-" + name.substring(3);
+        }
+        if (isEd25519(key)) {
+            return "SHA-512";
+        }
+        throw new IllegalArgumentException("不支持的密钥类型: " + key.getAlgorithm());
+    }
+
+    /**
+     * 签名值的最大DER长度（用于估算 /Contents 占位大小）
+     */
+    public static int maxSignatureLength(Key key) {
+        if (key instanceof RSAKey) {
+            return (((RSAKey) key).getModulus().bitLength() + 7) / 8;
+        }
+        if (key instanceof ECKey) {
+            // ECDSA签名为 SEQUENCE { INTEGER r, INTEGER s }
+            int fieldBytes = (ecFieldSize((ECKey) key) + 7) / 8;
+            return 2 * (fieldBytes + 3) + 3;
+        }
+        if (isEd25519(key)) {
+            return ED25519_SIGNATURE_LENGTH;
+        }
+        return UNKNOWN_SIGNATURE_LENGTH;
+    }
+
+    private static int ecFieldSize(ECKey key) {
+        return key.getParams().getCurve().getField().getFieldSize();
+    }
+
+    private static String digestName(int fieldSize) {
+        if (fieldSize <= 256) {
+            return "SHA256";
+        }
+        return fieldSize <= 384 ? "SHA384" : "SHA512";
+    }
+
+    private static boolean isEd25519(Key key) {
+        // BouncyCastle 返回 Ed25519，JDK 15+ 的 SunEC 返回 EdDSA
+        return "Ed25519".equalsIgnoreCase(key.getAlgorithm()) || "EdDSA".equalsIgnoreCase(key.getAlgorithm());
+    }
+}
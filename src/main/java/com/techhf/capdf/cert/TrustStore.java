@@ -0,0 +1,179 @@
+package com.techhf.capdf.cert;
+
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.security.KeyStore;
+import java.security.MessageDigest;
+import java.security.cert.Certificate;
+import java.security.cert.CertificateEncodingException;
+import java.security.cert.TrustAnchor;
+import java.security.cert.X509Certificate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 证书链校验的信任锚集合
+ * <p>
+ * 每个信任库有一个由所有锚证书 SHA-256 指纹计算出的标识 {@link #getId()}，内容相同的信任库标识相同，
+ * 用作 {@link CertPathValidationCache} 键的一部分。
+ * <p>
+ * 默认信任库可通过系统属性配置（PKCS12 或 JKS，读取其中所有证书）：
+ * <pre>
+ * -Dcapdf.trust.store=/etc/capdf/trust.p12
+ * -Dcapdf.trust.storePassword=changeit
+ * </pre>
+ * 未配置时为空，签名校验不做证书链检查。不可变对象。
+ */
+public final class TrustStore {
+
+    private static final TrustStore EMPTY = new TrustStore(Collections.<X509Certificate>emptyList());
+
+    private static volatile TrustStore defaultStore = fromSystemProperties();
+
+    private final List<X509Certificate> certificates;
+    private final Set<TrustAnchor> trustAnchors;
+    private final Set<String> fingerprints;
+    private final String id;
+
+    private TrustStore(Collection<X509Certificate> certificates) {
+        this.certificates = Collections.unmodifiableList(new ArrayList<>(new LinkedHashSet<>(certificates)));
+        Set<TrustAnchor> anchors = new HashSet<>();
+        Set<String> prints = new HashSet<>();
+        for (X509Certificate cert : this.certificates) {
+            anchors.add(new TrustAnchor(cert, null));
+            prints.add(fingerprint(cert));
+        }
+        this.trustAnchors = Collections.unmodifiableSet(anchors);
+        this.fingerprints = Collections.unmodifiableSet(prints);
+        String[] sorted = prints.toArray(new String[0]);
+        Arrays.sort(sorted);
+        this.id = sorted.length == 0 ? "" : sha256Hex(String.join(",", sorted).getBytes());
+    }
+
+    public static TrustStore empty() {
+        return EMPTY;
+    }
+
+    public static TrustStore of(X509Certificate... certificates) {
+        return of(Arrays.asList(certificates));
+    }
+
+    public static TrustStore of(Collection<X509Certificate> certificates) {
+        return certificates.isEmpty() ? EMPTY : new TrustStore(certificates);
+    }
+
+    /**
+     * 从密钥库文件加载（.jks 按 JKS，其他按 PKCS12），包括受信任证书条目和私钥条目的根证书
+     */
+    public static TrustStore load(String path, char[] password) throws Exception {
+        KeyStore keyStore = KeyStore.getInstance(path.toLowerCase().endsWith(".jks") ? "JKS" : "PKCS12");
+        try (InputStream in = new FileInputStream(path)) {
+            keyStore.load(in, password);
+        }
+        List<X509Certificate> certificates = new ArrayList<>();
+        Enumeration<String> aliases = keyStore.aliases();
+        while (aliases.hasMoreElements()) {
+            String alias = aliases.nextElement();
+            Certificate[] chain = keyStore.getCertificateChain(alias);
+            Certificate cert = chain != null && chain.length > 0 ? chain[chain.length - 1]
+                    : keyStore.getCertificate(alias);
+            if (cert instanceof X509Certificate) {
+                certificates.add((X509Certificate) cert);
+            }
+        }
+        return of(certificates);
+    }
+
+    /**
+     * 当前默认信任库（签名校验未指定信任库时使用）
+     */
+    public static TrustStore getDefault() {
+        return defaultStore;
+    }
+
+    public static void setDefault(TrustStore store) {
+        if (store == null) {
+            throw new IllegalArgumentException("信任库不能为空，不做证书链检查时使用 TrustStore.empty()");
+        }
+        defaultStore = store;
+    }
+
+    /**
+     * 从系统属性读取信任库，未配置时为空
+     */
+    static TrustStore fromSystemProperties() {
+        String path = System.getProperty("capdf.trust.store");
+        if (path == null || path.trim().isEmpty()) {
+            return EMPTY;
+        }
+        String password = System.getProperty("capdf.trust.storePassword", "");
+        try {
+            return load(path.trim(), password.toCharArray());
+        } catch (Exception e) {
+            throw new IllegalArgumentException("无法加载信任库 capdf.trust.store=" + path + ": " + e.getMessage(), e);
+        }
+    }
+
+    public boolean isEmpty() {
+        return certificates.isEmpty();
+    }
+
+    public List<X509Certificate> getCertificates() {
+        return certificates;
+    }
+
+    public Set<TrustAnchor> getTrustAnchors() {
+        return trustAnchors;
+    }
+
+    /**
+     * 证书本身是否为信任锚
+     */
+    public boolean contains(X509Certificate cert) {
+        return fingerprints.contains(fingerprint(cert));
+    }
+
+    /**
+     * 由锚证书指纹计算的标识，空信任库为空字符串
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * 证书的 SHA-256 指纹（十六进制大写）
+     */
+    public static String fingerprint(X509Certificate cert) {
+        try {
+            return sha256Hex(cert.getEncoded());
+        } catch (CertificateEncodingException e) {
+            throw new IllegalArgumentException("无法编码证书: " + cert.getSubjectX500Principal(), e);
+        }
+    }
+
+    private static String sha256Hex(byte[] data) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(data);
+            StringBuilder sb = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                sb.append(Character.toUpperCase(Character.forDigit((b >> 4) & 0xf, 16)))
+                        .append(Character.toUpperCase(Character.forDigit(b & 0xf, 16)));
+            }
+            return sb.toString();
+        } catch (Exception e) {
+            throw new IllegalStateException("SHA-256 不可用", e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "TrustStore[" + certificates.size() + " 个信任锚" + (id.isEmpty() ? "" : ", id=" + id.substring(0, 16)) + "]";
+    }
+}
@@ -0,0 +1,119 @@
+package com.techhf.capdf.ltv;
+
+import com.techhf.capdf.cert.CryptoProviders;
+import org.bouncycastle.asn1.x509.CRLReason;
+import org.bouncycastle.cert.X509CertificateHolder;
+import org.bouncycastle.cert.jcajce.JcaX509CertificateHolder;
+import org.bouncycastle.cert.ocsp.BasicOCSPResp;
+import org.bouncycastle.cert.ocsp.BasicOCSPRespBuilder;
+import org.bouncycastle.cert.ocsp.CertificateID;
+import org.bouncycastle.cert.ocsp.CertificateStatus;
+import org.bouncycastle.cert.ocsp.OCSPReq;
+import org.bouncycastle.cert.ocsp.OCSPResp;
+import org.bouncycastle.cert.ocsp.OCSPRespBuilder;
+import org.bouncycastle.cert.ocsp.Req;
+import org.bouncycastle.cert.ocsp.RespID;
+import org.bouncycastle.cert.ocsp.RevokedStatus;
+import org.bouncycastle.operator.ContentSigner;
+import org.bouncycastle.operator.DigestCalculatorProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigInteger;
+import java.security.PrivateKey;
+import java.security.cert.X509Certificate;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 本地OCSP响应器（测试替身）
+ * <p>
+ * 由CA直接签名应答（不使用委托的OCSP签名证书），只回答该CA签发的证书。
+ * 应答的 nextUpdate 为签发时间加上有效期，用于测试 {@link RevocationCache} 的过期处理。
+ */
+public class OcspResponder {
+
+    private static final Logger logger = LoggerFactory.getLogger(OcspResponder.class);
+
+    /** 默认应答有效期 */
+    public static final long DEFAULT_VALIDITY_MILLIS = 24L * 60 * 60 * 1000;
+
+    private final X509Certificate caCert;
+    private final PrivateKey caKey;
+    private final X509CertificateHolder caHolder;
+    private final Map<BigInteger, Date> revoked = new ConcurrentHashMap<>();
+    private final AtomicLong responseCount = new AtomicLong();
+
+    private volatile long validityMillis = DEFAULT_VALIDITY_MILLIS;
+
+    public OcspResponder(X509Certificate caCert, PrivateKey caKey) throws Exception {
+        this.caCert = caCert;
+        this.caKey = caKey;
+        this.caHolder = new JcaX509CertificateHolder(caCert);
+    }
+
+    /**
+     * 吊销证书
+     */
+    public OcspResponder revoke(BigInteger serialNumber) {
+        revoked.put(serialNumber, new Date());
+        return this;
+    }
+
+    /**
+     * 应答有效期（nextUpdate - thisUpdate）
+     */
+    public void setValidityMillis(long validityMillis) {
+        this.validityMillis = validityMillis;
+    }
+
+    /**
+     * 处理DER编码的OCSP请求，返回DER编码的OCSP应答
+     */
+    public byte[] respond(byte[] requestBytes) throws Exception {
+        OCSPReq request;
+        try {
+            request = new OCSPReq(requestBytes);
+        } catch (Exception e) {
+            logger.warn("无法解析OCSP请求: {}", e.getMessage());
+            return new OCSPRespBuilder().build(OCSPRespBuilder.MALFORMED_REQUEST, null).getEncoded();
+        }
+
+        // 1. 逐个证书确定状态
+        DigestCalculatorProvider digests = CryptoProviders.getDefault().digestCalculatorProvider("SHA-1");
+        BasicOCSPRespBuilder builder = new BasicOCSPRespBuilder(
+                new RespID(caHolder.getSubjectPublicKeyInfo(), digests.get(CertificateID.HASH_SHA1)));
+        Date thisUpdate = new Date();
+        Date nextUpdate = new Date(thisUpdate.getTime() + validityMillis);
+        for (Req req : request.getRequestList()) {
+            CertificateID id = req.getCertID();
+            if (!id.matchesIssuer(caHolder, digests)) {
+                return new OCSPRespBuilder().build(OCSPRespBuilder.UNAUTHORIZED, null).getEncoded();
+            }
+            Date revokedAt = revoked.get(id.getSerialNumber());
+            CertificateStatus status = revokedAt == null
+                    ? CertificateStatus.GOOD
+                    : new RevokedStatus(revokedAt, CRLReason.keyCompromise);
+            builder.addResponse(id, status, thisUpdate, nextUpdate, null);
+        }
+
+        // 2. CA签名，附带CA证书便于校验
+        ContentSigner signer = CryptoProviders.getDefault().contentSignerBuilder(caKey).build(caKey);
+        BasicOCSPResp basic = builder.build(signer, new X509CertificateHolder[]{caHolder}, thisUpdate);
+        responseCount.incrementAndGet();
+        return new OCSPRespBuilder().build(OCSPRespBuilder.SUCCESSFUL, basic).getEncoded();
+    }
+
+    /**
+     * 已签发的应答数
+     */
+    public long getResponseCount() {
+        return responseCount.get();
+    }
+
+    public X509Certificate getCaCert() {
+        return caCert;
+    }
+}
@@ -0,0 +1,213 @@
+package com.techhf.capdf.ltv;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.security.cert.X509Certificate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 吊销信息缓存
+ * <p>
+ * 同一张CA签发的证书会出现在大量文档中，逐个文档在线查询OCSP/CRL太慢。这里按以下键缓存取回的数据：
+ * <ul>
+ *   <li>OCSP：颁发者 + 证书序列号</li>
+ *   <li>CRL：颁发者 + 分发点地址（一份CRL覆盖该颁发者的所有证书）</li>
+ * </ul>
+ * 条目在吊销信息自身的 nextUpdate 到期（没有 nextUpdate 时按 {@link #DEFAULT_TTL_MILLIS}）；
+ * 条目数超过上限时淘汰最久未使用的。多个线程同时查询同一个键时只发起一次网络请求。
+ * <p>
+ * 线程安全，通常使用进程内共享实例 {@link #shared()}。
+ */
+public class RevocationCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(RevocationCache.class);
+
+    /** 默认最大条目数 */
+    public static final int DEFAULT_MAX_ENTRIES = 10000;
+
+    /** 吊销信息没有给出 nextUpdate 时的缓存时间 */
+    public static final long DEFAULT_TTL_MILLIS = 5L * 60 * 1000;
+
+    private static final RevocationCache SHARED = new RevocationCache(new RevocationClient(), DEFAULT_MAX_ENTRIES);
+
+    private final RevocationClient client;
+    private final Map<String, CachedRevocation> entries;
+    private final ConcurrentMap<String, CompletableFuture<RevocationData>> loading = new ConcurrentHashMap<>();
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong fetchCount = new AtomicLong();
+
+    public RevocationCache() {
+        this(new RevocationClient(), DEFAULT_MAX_ENTRIES);
+    }
+
+    /**
+     * @param client 吊销信息客户端
+     * @param maxEntries 最大条目数
+     */
+    public RevocationCache(RevocationClient client, final int maxEntries) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("最大条目数必须大于0: " + maxEntries);
+        }
+        this.client = client;
+        this.entries = new LinkedHashMap<String, CachedRevocation>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedRevocation> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * 进程内共享实例
+     */
+    public static RevocationCache shared() {
+        return SHARED;
+    }
+
+    /**
+     * 获取证书的吊销信息：有OCSP地址时优先OCSP，OCSP失败或没有OCSP地址时使用CRL
+     *
+     * @param cert 待查询证书
+     * @param issuer 颁发者证书
+     * @return 吊销信息；证书没有任何吊销信息地址时返回null
+     */
+    public RevocationData get(X509Certificate cert, X509Certificate issuer) throws Exception {
+        String ocspUrl = RevocationClient.getOcspUrl(cert);
+        String crlUrl = RevocationClient.getCrlUrl(cert);
+        if (ocspUrl != null) {
+            try {
+                return getOcsp(ocspUrl, cert, issuer);
+            } catch (Exception e) {
+                if (crlUrl == null) {
+                    throw e;
+                }
+                logger.warn("OCSP查询失败，改用CRL: {}", e.getMessage());
+            }
+        }
+        return crlUrl != null ? getCrl(crlUrl, cert, issuer) : null;
+    }
+
+    /**
+     * 获取OCSP应答（按颁发者 + 序列号缓存）
+     */
+    public RevocationData getOcsp(final String url, final X509Certificate cert, final X509Certificate issuer)
+            throws Exception {
+        String key = "OCSP|" + issuer.getSubjectX500Principal().getName() + "|" + cert.getSerialNumber().toString(16);
+        return get(key, () -> client.fetchOcsp(url, cert, issuer));
+    }
+
+    /**
+     * 获取CRL（按颁发者 + 分发点地址缓存）
+     */
+    public RevocationData getCrl(final String url, final X509Certificate cert, final X509Certificate issuer)
+            throws Exception {
+        String key = "CRL|" + issuer.getSubjectX500Principal().getName() + "|" + url;
+        return get(key, () -> client.fetchCrl(url, cert, issuer));
+    }
+
+    /**
+     * 缓存命中次数（包括等待其他线程正在进行的同一请求）
+     */
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    /**
+     * 实际发起的网络请求次数
+     */
+    public long getFetchCount() {
+        return fetchCount.get();
+    }
+
+    /**
+     * 当前条目数（含尚未清理的过期条目）
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    private RevocationData get(String key, Loader loader) throws Exception {
+        RevocationData cached = lookup(key);
+        if (cached != null) {
+            hitCount.incrementAndGet();
+            return cached;
+        }
+
+        // 同一键只允许一个线程取数，其他线程等待其结果
+        CompletableFuture<RevocationData> future = new CompletableFuture<>();
+        CompletableFuture<RevocationData> inFlight = loading.putIfAbsent(key, future);
+        if (inFlight != null) {
+            hitCount.incrementAndGet();
+            try {
+                return inFlight.get();
+            } catch (ExecutionException e) {
+                throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+            }
+        }
+        try {
+            // 另一线程可能刚刚完成取数
+            cached = lookup(key);
+            if (cached == null) {
+                fetchCount.incrementAndGet();
+                cached = loader.load();
+                store(key, cached);
+            } else {
+                hitCount.incrementAndGet();
+            }
+            future.complete(cached);
+            return cached;
+        } catch (Exception e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(key, future);
+        }
+    }
+
+    private synchronized RevocationData lookup(String key) {
+        CachedRevocation entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (System.currentTimeMillis() >= entry.expiresAt) {
+            entries.remove(key);
+            return null;
+        }
+        return entry.data;
+    }
+
+    private synchronized void store(String key, RevocationData data) {
+        long now = System.currentTimeMillis();
+        long expiresAt = data.getNextUpdate() != null
+                ? data.getNextUpdate().getTime()
+                : now + DEFAULT_TTL_MILLIS;
+        if (expiresAt > now) {
+            entries.put(key, new CachedRevocation(data, expiresAt));
+        }
+    }
+
+    private interface Loader {
+        RevocationData load() throws Exception;
+    }
+
+    private static final class CachedRevocation {
+        final RevocationData data;
+        final long expiresAt;
+
+        CachedRevocation(RevocationData data, long expiresAt) {
+            this.data = data;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,278 @@
+package com.techhf.capdf.ltv;
+
+import com.techhf.capdf.cert.CryptoProviders;
+import org.bouncycastle.asn1.ASN1IA5String;
+import org.bouncycastle.asn1.x509.AccessDescription;
+import org.bouncycastle.asn1.x509.AuthorityInformationAccess;
+import org.bouncycastle.asn1.x509.CRLDistPoint;
+import org.bouncycastle.asn1.x509.DistributionPoint;
+import org.bouncycastle.asn1.x509.DistributionPointName;
+import org.bouncycastle.asn1.x509.Extension;
+import org.bouncycastle.asn1.x509.GeneralName;
+import org.bouncycastle.asn1.x509.GeneralNames;
+import org.bouncycastle.asn1.x509.X509ObjectIdentifiers;
+import org.bouncycastle.cert.X509CertificateHolder;
+import org.bouncycastle.cert.jcajce.JcaX509CertificateConverter;
+import org.bouncycastle.cert.jcajce.JcaX509CertificateHolder;
+import org.bouncycastle.cert.jcajce.JcaX509ExtensionUtils;
+import org.bouncycastle.cert.ocsp.BasicOCSPResp;
+import org.bouncycastle.cert.ocsp.CertificateID;
+import org.bouncycastle.cert.ocsp.OCSPReq;
+import org.bouncycastle.cert.ocsp.OCSPReqBuilder;
+import org.bouncycastle.cert.ocsp.OCSPResp;
+import org.bouncycastle.cert.ocsp.SingleResp;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.security.cert.CertificateFactory;
+import java.security.cert.X509CRL;
+import java.security.cert.X509Certificate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 吊销信息HTTP客户端
+ * <p>
+ * 按证书扩展中的地址获取吊销信息：OCSP 取自颁发机构信息访问扩展（AIA），
+ * CRL 取自CRL分发点扩展。取回后校验签名和对应关系，失败时抛出异常，不会返回未经校验的数据。
+ * 不带 nonce：应答会被 {@link RevocationCache} 在 nextUpdate 之前复用。
+ */
+public class RevocationClient {
+
+    private static final Logger logger = LoggerFactory.getLogger(RevocationClient.class);
+
+    /** 默认连接超时 */
+    public static final int DEFAULT_CONNECT_TIMEOUT_MILLIS = 3000;
+
+    /** 默认读取超时 */
+    public static final int DEFAULT_READ_TIMEOUT_MILLIS = 10000;
+
+    private final int connectTimeoutMillis;
+    private final int readTimeoutMillis;
+
+    public RevocationClient() {
+        this(DEFAULT_CONNECT_TIMEOUT_MILLIS, DEFAULT_READ_TIMEOUT_MILLIS);
+    }
+
+    /**
+     * @param connectTimeoutMillis 连接超时（毫秒）
+     * @param readTimeoutMillis 读取超时（毫秒）
+     */
+    public RevocationClient(int connectTimeoutMillis, int readTimeoutMillis) {
+        this.connectTimeoutMillis = connectTimeoutMillis;
+        this.readTimeoutMillis = readTimeoutMillis;
+    }
+
+    /**
+     * 查询证书的OCSP状态
+     *
+     * @param url OCSP服务地址
+     * @param cert 待查询证书
+     * @param issuer 颁发者证书
+     */
+    public RevocationData fetchOcsp(String url, X509Certificate cert, X509Certificate issuer) throws Exception {
+        // 1. 构建请求
+        X509CertificateHolder issuerHolder = new JcaX509CertificateHolder(issuer);
+        CertificateID id = new CertificateID(
+                CryptoProviders.getDefault().digestCalculatorProvider("SHA-1").get(CertificateID.HASH_SHA1),
+                issuerHolder, cert.getSerialNumber());
+        OCSPReq request = new OCSPReqBuilder().addRequest(id).build();
+
+        // 2. 发送并解析应答
+        long start = System.currentTimeMillis();
+        byte[] responseBytes = post(url, "application/ocsp-request", request.getEncoded());
+        OCSPResp response = new OCSPResp(responseBytes);
+        if (response.getStatus() != OCSPResp.SUCCESSFUL) {
+            throw new IOException("OCSP服务返回错误状态 " + response.getStatus() + ": " + url);
+        }
+        BasicOCSPResp basic = (BasicOCSPResp) response.getResponseObject();
+
+        // 3. 校验应答签名：由颁发者直接签名，或由颁发者签发的OCSP签名证书签名
+        List<X509Certificate> extraCerts = new ArrayList<>();
+        if (!basic.isSignatureValid(CryptoProviders.getDefault().contentVerifierProvider(issuer.getPublicKey()))) {
+            X509Certificate responderCert = findDelegatedResponder(basic, issuer);
+            if (responderCert == null) {
+                throw new IOException("OCSP应答签名无效: " + url);
+            }
+            extraCerts.add(responderCert);
+        }
+
+        // 4. 找到对应证书的单项应答
+        for (SingleResp single : basic.getResponses()) {
+            if (id.equals(single.getCertID())) {
+                if (single.getCertStatus() != null) {
+                    logger.warn("证书已被吊销: {}（序列号 {}）", cert.getSubjectX500Principal(),
+                            cert.getSerialNumber().toString(16).toUpperCase());
+                }
+                logger.debug("OCSP查询完成: {}，{} ms", url, System.currentTimeMillis() - start);
+                return new RevocationData(RevocationData.Type.OCSP, response.getEncoded(),
+                        single.getThisUpdate(), single.getNextUpdate(), extraCerts);
+            }
+        }
+        throw new IOException("OCSP应答中没有所查询的证书: " + url);
+    }
+
+    /**
+     * 下载并校验颁发者的CRL
+     *
+     * @param url CRL下载地址
+     * @param cert 待查询证书
+     * @param issuer 颁发者证书（CRL签发者）
+     */
+    public RevocationData fetchCrl(String url, X509Certificate cert, X509Certificate issuer) throws Exception {
+        long start = System.currentTimeMillis();
+        byte[] crlBytes = get(url);
+        X509CRL crl = (X509CRL) CertificateFactory.getInstance("X.509")
+                .generateCRL(new ByteArrayInputStream(crlBytes));
+        if (!crl.getIssuerX500Principal().equals(issuer.getSubjectX500Principal())) {
+            throw new IOException("CRL颁发者不匹配: " + crl.getIssuerX500Principal());
+        }
+        crl.verify(issuer.getPublicKey());
+
+        if (crl.getRevokedCertificate(cert.getSerialNumber()) != null) {
+            logger.warn("证书已被吊销: {}（序列号 {}）", cert.getSubjectX500Principal(),
+                    cert.getSerialNumber().toString(16).toUpperCase());
+        }
+        logger.debug("CRL下载完成: {}，{} bytes，{} ms", url, crlBytes.length, System.currentTimeMillis() - start);
+        return new RevocationData(RevocationData.Type.CRL, crlBytes, crl.getThisUpdate(), crl.getNextUpdate(),
+                Collections.<X509Certificate>emptyList());
+    }
+
+    /**
+     * 证书AIA扩展中的OCSP地址，没有时返回null
+     */
+    public static String getOcspUrl(X509Certificate cert) throws IOException {
+        byte[] extension = cert.getExtensionValue(Extension.authorityInfoAccess.getId());
+        if (extension == null) {
+            return null;
+        }
+        AuthorityInformationAccess aia = AuthorityInformationAccess.getInstance(
+                JcaX509ExtensionUtils.parseExtensionValue(extension));
+        for (AccessDescription description : aia.getAccessDescriptions()) {
+            if (X509ObjectIdentifiers.id_ad_ocsp.equals(description.getAccessMethod())) {
+                String url = toUrl(description.getAccessLocation());
+                if (url != null) {
+                    return url;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 证书CRL分发点扩展中的第一个HTTP地址，没有时返回null
+     */
+    public static String getCrlUrl(X509Certificate cert) throws IOException {
+        byte[] extension = cert.getExtensionValue(Extension.cRLDistributionPoints.getId());
+        if (extension == null) {
+            return null;
+        }
+        CRLDistPoint distPoint = CRLDistPoint.getInstance(JcaX509ExtensionUtils.parseExtensionValue(extension));
+        for (DistributionPoint point : distPoint.getDistributionPoints()) {
+            DistributionPointName name = point.getDistributionPoint();
+            if (name == null || name.getType() != DistributionPointName.FULL_NAME) {
+                continue;
+            }
+            for (GeneralName generalName : GeneralNames.getInstance(name.getName()).getNames()) {
+                String url = toUrl(generalName);
+                if (url != null) {
+                    return url;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static String toUrl(GeneralName name) {
+        if (name.getTagNo() != GeneralName.uniformResourceIdentifier) {
+            return null;
+        }
+        String url = ASN1IA5String.getInstance(name.getName()).getString();
+        return url.startsWith("http://") || url.startsWith("https://") ? url : null;
+    }
+
+    /**
+     * 应答中由颁发者签发、且能校验应答签名的证书
+     */
+    private static X509Certificate findDelegatedResponder(BasicOCSPResp basic, X509Certificate issuer)
+            throws Exception {
+        JcaX509CertificateConverter converter = new JcaX509CertificateConverter().setProvider("BC");
+        for (X509CertificateHolder holder : basic.getCerts()) {
+            X509Certificate candidate = converter.getCertificate(holder);
+            if (!candidate.getIssuerX500Principal().equals(issuer.getSubjectX500Principal())) {
+                continue;
+            }
+            try {
+                candidate.verify(issuer.getPublicKey());
+            } catch (Exception e) {
+                continue;
+            }
+            if (basic.isSignatureValid(CryptoProviders.getDefault()
+                    .contentVerifierProvider(candidate.getPublicKey()))) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    private byte[] post(String url, String contentType, byte[] body) throws IOException {
+        HttpURLConnection conn = open(url);
+        conn.setDoOutput(true);
+        conn.setRequestMethod("POST");
+        conn.setRequestProperty("Content-Type", contentType);
+        conn.setFixedLengthStreamingMode(body.length);
+        try (OutputStream out = conn.getOutputStream()) {
+            out.write(body);
+        }
+        return readResponse(conn);
+    }
+
+    private byte[] get(String url) throws IOException {
+        HttpURLConnection conn = open(url);
+        conn.setRequestMethod("GET");
+        return readResponse(conn);
+    }
+
+    private HttpURLConnection open(String url) throws IOException {
+        HttpURLConnection conn = (HttpURLConnection) new URL(url).openConnection();
+        conn.setConnectTimeout(connectTimeoutMillis);
+        conn.setReadTimeout(readTimeoutMillis);
+        conn.setUseCaches(false);
+        return conn;
+    }
+
+    private static byte[] readResponse(HttpURLConnection conn) throws IOException {
+        int status = conn.getResponseCode();
+        if (status != HttpURLConnection.HTTP_OK) {
+            // 读完错误应答，连接仍可复用
+            InputStream error = conn.getErrorStream();
+            if (error != null) {
+                try (InputStream in = error) {
+                    readAll(in);
+                }
+            }
+            throw new IOException("吊销信息服务返回HTTP " + status + ": " + conn.getURL());
+        }
+        try (InputStream in = conn.getInputStream()) {
+            return readAll(in);
+        }
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[4096];
+        int n;
+        while ((n = in.read(buffer)) != -1) {
+            out.write(buffer, 0, n);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,69 @@
+package com.techhf.capdf.ltv;
+
+import java.security.cert.X509Certificate;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * 一份吊销信息：DER编码的OCSP应答（OCSPResponse）或CRL
+ * <p>
+ * 只是供离线校验使用的证据，不代表某张证书的状态（一份CRL覆盖颁发者的所有证书）。
+ * 不可变对象，可在线程间和多个文档间共享。
+ */
+public final class RevocationData {
+
+    public enum Type {
+        OCSP,
+        CRL
+    }
+
+    private final Type type;
+    private final byte[] encoded;
+    private final Date thisUpdate;
+    private final Date nextUpdate;
+    private final List<X509Certificate> certificates;
+
+    RevocationData(Type type, byte[] encoded, Date thisUpdate, Date nextUpdate,
+                   List<X509Certificate> certificates) {
+        this.type = type;
+        this.encoded = encoded;
+        this.thisUpdate = thisUpdate;
+        this.nextUpdate = nextUpdate;
+        this.certificates = Collections.unmodifiableList(certificates);
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * DER编码（写入DSS时使用，调用方不得修改）
+     */
+    public byte[] getEncoded() {
+        return encoded;
+    }
+
+    public Date getThisUpdate() {
+        return thisUpdate;
+    }
+
+    /**
+     * 下次更新时间，可能为null（OCSP应答未给出时）
+     */
+    public Date getNextUpdate() {
+        return nextUpdate;
+    }
+
+    /**
+     * 校验这份吊销信息还需要的证书（如委托的OCSP签名证书），需要一并写入DSS
+     */
+    public List<X509Certificate> getCertificates() {
+        return certificates;
+    }
+
+    @Override
+    public String toString() {
+        return type + " [thisUpdate=" + thisUpdate + ", nextUpdate=" + nextUpdate + ", " + encoded.length + " bytes]";
+    }
+}
@@ -0,0 +1,175 @@
+package com.techhf.capdf.ltv;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 本地吊销信息HTTP服务（测试替身）
+ * <p>
+ * 基于 JDK 内置的 HttpServer：
+ * <pre>
+ * POST /ocsp          OCSP请求，由 {@link OcspResponder} 应答
+ * GET  /crl/{name}    下载 {@link #addCrl(String, File)} 注册的CRL文件（每次请求重新读取文件）
+ * </pre>
+ * 启动后再签发证书，把 {@link #getOcspUrl()}、{@link #getCrlUrl(String)} 写入证书扩展。
+ */
+public class RevocationServer implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(RevocationServer.class);
+
+    private static final String OCSP_PATH = "/ocsp";
+    private static final String CRL_PATH = "/crl/";
+
+    private final Map<String, File> crlFiles = new ConcurrentHashMap<>();
+    private final AtomicInteger ocspRequestCount = new AtomicInteger();
+    private final AtomicInteger crlRequestCount = new AtomicInteger();
+
+    private volatile OcspResponder ocspResponder;
+
+    private HttpServer server;
+    private ExecutorService executor;
+
+    /**
+     * 在本机随机端口启动服务
+     */
+    public RevocationServer start() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext(OCSP_PATH, this::handleOcsp);
+        server.createContext(CRL_PATH, this::handleCrl);
+        executor = Executors.newFixedThreadPool(4, r -> {
+            Thread thread = new Thread(r, "revocation-server");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.start();
+        logger.info("本地吊销信息服务已启动: http://127.0.0.1:{}", server.getAddress().getPort());
+        return this;
+    }
+
+    /**
+     * 设置OCSP响应器（未设置时OCSP请求返回 HTTP 404）
+     */
+    public RevocationServer setOcspResponder(OcspResponder ocspResponder) {
+        this.ocspResponder = ocspResponder;
+        return this;
+    }
+
+    /**
+     * 注册CRL文件，下载地址为 {@link #getCrlUrl(String)}
+     */
+    public RevocationServer addCrl(String name, File crlFile) {
+        crlFiles.put(name, crlFile);
+        return this;
+    }
+
+    public String getOcspUrl() {
+        return baseUrl() + OCSP_PATH;
+    }
+
+    public String getCrlUrl(String name) {
+        return baseUrl() + CRL_PATH + name;
+    }
+
+    /**
+     * 已收到的OCSP请求数
+     */
+    public int getOcspRequestCount() {
+        return ocspRequestCount.get();
+    }
+
+    /**
+     * 已收到的CRL下载请求数
+     */
+    public int getCrlRequestCount() {
+        return crlRequestCount.get();
+    }
+
+    @Override
+    public void close() {
+        if (server != null) {
+            server.stop(0);
+            executor.shutdownNow();
+            logger.info("本地吊销信息服务已停止");
+        }
+    }
+
+    private String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    private void handleOcsp(HttpExchange exchange) throws IOException {
+        ocspRequestCount.incrementAndGet();
+        try {
+            byte[] request = readAll(exchange.getRequestBody());
+            OcspResponder responder = ocspResponder;
+            if (responder == null) {
+                exchange.sendResponseHeaders(404, -1);
+                return;
+            }
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            send(exchange, "application/ocsp-response", responder.respond(request));
+        } catch (Exception e) {
+            logger.error("处理OCSP请求失败", e);
+            exchange.sendResponseHeaders(400, -1);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void handleCrl(HttpExchange exchange) throws IOException {
+        crlRequestCount.incrementAndGet();
+        try {
+            String name = exchange.getRequestURI().getPath().substring(CRL_PATH.length());
+            File crlFile = crlFiles.get(name);
+            if (crlFile == null || !crlFile.isFile()) {
+                exchange.sendResponseHeaders(404, -1);
+                return;
+            }
+            send(exchange, "application/pkix-crl", Files.readAllBytes(crlFile.toPath()));
+        } catch (Exception e) {
+            logger.error("处理CRL请求失败", e);
+            exchange.sendResponseHeaders(400, -1);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private static void send(HttpExchange exchange, String contentType, byte[] response) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(200, response.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(response);
+        }
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[4096];
+        int n;
+        while ((n = in.read(buffer)) != -1) {
+            out.write(buffer, 0, n);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,337 @@
+package com.techhf.capdf.remote;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.security.cert.Certificate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 合并请求的远程签名客户端
+ * <p>
+ * 各签名线程的请求先进入队列，由分发线程合并后发送：
+ * <ul>
+ *     <li>合并：取到第一个请求后最多再等待 lingerMillis，凑满 maxBatchSize 个或超时即发送；
+ *         同一批中按 密钥 + 算法 分组，每组一次往返</li>
+ *     <li>流水线：最多 maxInFlight 批同时在途，前一批等待应答时继续收集下一批；
+ *         在途批数达到上限时请求在队列中累积，下一批自然变大</li>
+ *     <li>超时：每个请求从提交开始计时，超过 timeoutMillis 抛出 {@link TimeoutException}</li>
+ * </ul>
+ * 证书链按密钥缓存。使用示例：
+ * <pre>
+ * try (BatchingRemoteSigner remote = new BatchingRemoteSigner(new HttpRemoteSigner(url))) {
+ *     SigningCredential credential = SigningCredential.remote(remote, "tenant-a");
+ *     PdfSigner.signPdf(input, output, credential, ...);
+ * }
+ * </pre>
+ */
+public class BatchingRemoteSigner implements RemoteSigner, Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(BatchingRemoteSigner.class);
+
+    /** 默认每批最大请求数 */
+    public static final int DEFAULT_MAX_BATCH_SIZE = 64;
+
+    /** 默认合并等待时间 */
+    public static final long DEFAULT_LINGER_MILLIS = 2;
+
+    /** 默认最大在途批数 */
+    public static final int DEFAULT_MAX_IN_FLIGHT = 4;
+
+    /** 默认请求超时 */
+    public static final long DEFAULT_TIMEOUT_MILLIS = 10000;
+
+    private final RemoteSigner delegate;
+    private final int maxBatchSize;
+    private final long lingerMillis;
+    private final long timeoutMillis;
+
+    private final BlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+    private final Semaphore inFlight;
+    private final ExecutorService executor;
+    private final Thread dispatcher;
+    private final ConcurrentMap<String, Certificate[]> certificateChains = new ConcurrentHashMap<>();
+
+    private final AtomicLong batchCount = new AtomicLong();
+    private final AtomicLong signatureCount = new AtomicLong();
+
+    private volatile boolean closed;
+
+    public BatchingRemoteSigner(RemoteSigner delegate) {
+        this(delegate, DEFAULT_MAX_BATCH_SIZE, DEFAULT_LINGER_MILLIS, DEFAULT_MAX_IN_FLIGHT, DEFAULT_TIMEOUT_MILLIS);
+    }
+
+    /**
+     * @param delegate 实际发送请求的远程签名服务
+     * @param maxBatchSize 每批最大请求数
+     * @param lingerMillis 收到第一个请求后的合并等待时间（毫秒）
+     * @param maxInFlight 最大在途批数
+     * @param timeoutMillis 单个请求的超时（毫秒）
+     */
+    public BatchingRemoteSigner(RemoteSigner delegate, int maxBatchSize, long lingerMillis,
+                                int maxInFlight, long timeoutMillis) {
+        if (maxBatchSize < 1 || maxInFlight < 1) {
+            throw new IllegalArgumentException("批大小和在途批数必须大于0");
+        }
+        this.delegate = delegate;
+        this.maxBatchSize = maxBatchSize;
+        this.lingerMillis = lingerMillis;
+        this.timeoutMillis = timeoutMillis;
+        this.inFlight = new Semaphore(maxInFlight);
+        this.executor = Executors.newFixedThreadPool(maxInFlight, new RemoteSignerThreadFactory("remote-signer-"));
+        this.dispatcher = new RemoteSignerThreadFactory("remote-signer-dispatcher-").newThread(this::dispatch);
+        this.dispatcher.start();
+    }
+
+    @Override
+    public Certificate[] getCertificateChain(String keyId) throws Exception {
+        Certificate[] chain = certificateChains.get(keyId);
+        if (chain == null) {
+            chain = delegate.getCertificateChain(keyId);
+            certificateChains.put(keyId, chain);
+        }
+        return chain.clone();
+    }
+
+    /**
+     * 提交请求并等待结果（每项单独合并，可能分属不同的批）
+     */
+    @Override
+    public List<byte[]> sign(String keyId, String signatureAlgorithm, List<byte[]> dataToSign) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        List<CompletableFuture<byte[]>> futures = new ArrayList<>(dataToSign.size());
+        for (byte[] data : dataToSign) {
+            futures.add(submit(keyId, signatureAlgorithm, data));
+        }
+        List<byte[]> signatures = new ArrayList<>(futures.size());
+        for (CompletableFuture<byte[]> future : futures) {
+            try {
+                signatures.add(future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS));
+            } catch (TimeoutException e) {
+                for (CompletableFuture<byte[]> pending : futures) {
+                    pending.cancel(false);
+                }
+                throw new TimeoutException("远程签名超时（" + timeoutMillis + " ms）: " + keyId);
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                throw cause instanceof Exception ? (Exception) cause : e;
+            }
+        }
+        return signatures;
+    }
+
+    /**
+     * 异步提交一个签名请求
+     */
+    public CompletableFuture<byte[]> submit(String keyId, String signatureAlgorithm, byte[] data) {
+        CompletableFuture<byte[]> future = new CompletableFuture<>();
+        if (closed) {
+            future.completeExceptionally(new IllegalStateException("远程签名客户端已关闭"));
+            return future;
+        }
+        Pending pending = new Pending(keyId, signatureAlgorithm, data, future);
+        queue.add(pending);
+        // 与 close() 并发时，入队可能晚于关闭时的清空，此时由提交方自行失败
+        if (closed && queue.remove(pending)) {
+            future.completeExceptionally(new IllegalStateException("远程签名客户端已关闭"));
+        }
+        return future;
+    }
+
+    /**
+     * 已发送的批数（往返次数）
+     */
+    public long getBatchCount() {
+        return batchCount.get();
+    }
+
+    /**
+     * 已发送的签名请求数
+     */
+    public long getSignatureCount() {
+        return signatureCount.get();
+    }
+
+    /**
+     * 平均每批请求数
+     */
+    public double getAverageBatchSize() {
+        long batches = batchCount.get();
+        return batches == 0 ? 0 : (double) signatureCount.get() / batches;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        dispatcher.interrupt();
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        Pending pending;
+        while ((pending = queue.poll()) != null) {
+            pending.future.completeExceptionally(new IllegalStateException("远程签名客户端已关闭"));
+        }
+        logger.info("远程签名客户端已关闭: {} 批，{} 个签名，平均每批 {}",
+                batchCount.get(), signatureCount.get(), String.format("%.1f", getAverageBatchSize()));
+    }
+
+    private void dispatch() {
+        List<Pending> batch = new ArrayList<>(maxBatchSize);
+        while (!closed) {
+            try {
+                // 1. 等待第一个请求，再在 linger 时间内凑批
+                batch.add(queue.take());
+                long lingerDeadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(lingerMillis);
+                while (batch.size() < maxBatchSize) {
+                    long remaining = lingerDeadline - System.nanoTime();
+                    Pending next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+
+                // 2. 按 密钥 + 算法 分组，每组占用一个在途名额；交给发送线程后由其负责完成
+                List<List<Pending>> groups = groupByKey(batch);
+                batch.clear();
+                for (int i = 0; i < groups.size(); i++) {
+                    List<Pending> group = groups.get(i);
+                    try {
+                        inFlight.acquire();
+                    } catch (InterruptedException e) {
+                        // 只有尚未交出的组需要失败
+                        for (List<Pending> remaining : groups.subList(i, groups.size())) {
+                            batch.addAll(remaining);
+                        }
+                        throw e;
+                    }
+                    try {
+                        executor.execute(() -> send(group));
+                    } catch (Throwable t) {
+                        // 发送线程池已关闭等：释放名额，只失败本组
+                        inFlight.release();
+                        fail(group, t);
+                    }
+                }
+            } catch (InterruptedException e) {
+                fail(batch, new IllegalStateException("远程签名客户端已关闭"));
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Throwable t) {
+                // 凑批时的 Error 只失败当前批，分发线程继续运行
+                fail(batch, t);
+            } finally {
+                batch = new ArrayList<>(maxBatchSize);
+            }
+        }
+    }
+
+    private void send(List<Pending> group) {
+        try {
+            // 已超时或取消的请求不再发送
+            List<Pending> live = new ArrayList<>(group.size());
+            for (Pending pending : group) {
+                if (!pending.future.isDone()) {
+                    live.add(pending);
+                }
+            }
+            if (live.isEmpty()) {
+                return;
+            }
+            List<byte[]> dataToSign = new ArrayList<>(live.size());
+            for (Pending pending : live) {
+                dataToSign.add(pending.data);
+            }
+            Pending first = live.get(0);
+            batchCount.incrementAndGet();
+            signatureCount.addAndGet(live.size());
+            List<byte[]> signatures = delegate.sign(first.keyId, first.signatureAlgorithm, dataToSign);
+            if (signatures.size() != live.size()) {
+                throw new IllegalStateException("远程签名应答数量不符: 请求 " + live.size()
+                        + "，应答 " + signatures.size());
+            }
+            for (int i = 0; i < live.size(); i++) {
+                live.get(i).future.complete(signatures.get(i));
+            }
+        } catch (Throwable t) {
+            // 包括 Error：否则本批的 Future 永远不会完成，等待方一直阻塞
+            fail(group, t);
+        } finally {
+            inFlight.release();
+        }
+    }
+
+    private static void fail(List<Pending> group, Throwable error) {
+        if (group.isEmpty()) {
+            return;
+        }
+        // 先完成 Future 再记日志，日志本身出错时也不会留下永远等待的请求
+        for (Pending pending : group) {
+            pending.future.completeExceptionally(error);
+        }
+        logger.warn("远程签名批次失败（{} 个请求）: {}", group.size(), error.toString());
+    }
+
+    private static List<List<Pending>> groupByKey(List<Pending> batch) {
+        Map<String, List<Pending>> groups = new LinkedHashMap<>();
+        for (Pending pending : batch) {
+            groups.computeIfAbsent(pending.keyId + '\n' + pending.signatureAlgorithm, k -> new ArrayList<>())
+                    .add(pending);
+        }
+        return new ArrayList<>(groups.values());
+    }
+
+    private static final class Pending {
+        final String keyId;
+        final String signatureAlgorithm;
+        final byte[] data;
+        final CompletableFuture<byte[]> future;
+
+        Pending(String keyId, String signatureAlgorithm, byte[] data, CompletableFuture<byte[]> future) {
+            this.keyId = keyId;
+            this.signatureAlgorithm = signatureAlgorithm;
+            this.data = data;
+            this.future = future;
+        }
+    }
+
+    private static final class RemoteSignerThreadFactory implements ThreadFactory {
+        private final String prefix;
+        private final AtomicInteger counter = new AtomicInteger();
+
+        RemoteSignerThreadFactory(String prefix) {
+            this.prefix = prefix;
+        }
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
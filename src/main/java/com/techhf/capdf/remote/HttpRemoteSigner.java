@@ -0,0 +1,119 @@
+package com.techhf.capdf.remote;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.security.cert.Certificate;
+import java.security.cert.CertificateFactory;
+import java.util.List;
+
+/**
+ * 远程签名服务HTTP客户端
+ * <p>
+ * 报文格式见 {@link RemoteSignerProtocol}。与 {@link com.techhf.capdf.tsa.HttpTimestampClient}
+ * 相同，每次完整读取并关闭应答流、不调用 disconnect()，以复用 keep-alive 连接。
+ * 通常包装在 {@link BatchingRemoteSigner} 中使用，使多个签名合并为一次往返。
+ */
+public class HttpRemoteSigner implements RemoteSigner {
+
+    private static final Logger logger = LoggerFactory.getLogger(HttpRemoteSigner.class);
+
+    /** 默认连接超时 */
+    public static final int DEFAULT_CONNECT_TIMEOUT_MILLIS = 3000;
+
+    /** 默认读取超时 */
+    public static final int DEFAULT_READ_TIMEOUT_MILLIS = 10000;
+
+    private final String baseUrl;
+    private final int connectTimeoutMillis;
+    private final int readTimeoutMillis;
+
+    public HttpRemoteSigner(String baseUrl) {
+        this(baseUrl, DEFAULT_CONNECT_TIMEOUT_MILLIS, DEFAULT_READ_TIMEOUT_MILLIS);
+    }
+
+    /**
+     * @param baseUrl 服务基础地址（例如 http://signer:8080/signer）
+     * @param connectTimeoutMillis 连接超时（毫秒）
+     * @param readTimeoutMillis 读取超时（毫秒）
+     */
+    public HttpRemoteSigner(String baseUrl, int connectTimeoutMillis, int readTimeoutMillis) {
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.connectTimeoutMillis = connectTimeoutMillis;
+        this.readTimeoutMillis = readTimeoutMillis;
+    }
+
+    @Override
+    public Certificate[] getCertificateChain(String keyId) throws Exception {
+        HttpURLConnection conn = open(baseUrl + "/certificates?keyId=" + URLEncoder.encode(keyId, "UTF-8"));
+        conn.setRequestMethod("GET");
+
+        List<byte[]> encoded = RemoteSignerProtocol.decodeList(readResponse(conn));
+        CertificateFactory factory = CertificateFactory.getInstance("X.509");
+        Certificate[] chain = new Certificate[encoded.size()];
+        for (int i = 0; i < chain.length; i++) {
+            chain[i] = factory.generateCertificate(new ByteArrayInputStream(encoded.get(i)));
+        }
+        return chain;
+    }
+
+    @Override
+    public List<byte[]> sign(String keyId, String signatureAlgorithm, List<byte[]> dataToSign) throws Exception {
+        byte[] requestBytes = RemoteSignerProtocol.encodeSignRequest(keyId, signatureAlgorithm, dataToSign);
+
+        long start = System.currentTimeMillis();
+        HttpURLConnection conn = open(baseUrl + "/sign");
+        conn.setDoOutput(true);
+        conn.setRequestMethod("POST");
+        conn.setRequestProperty("Content-Type", "application/octet-stream");
+        conn.setFixedLengthStreamingMode(requestBytes.length);
+        try (OutputStream out = conn.getOutputStream()) {
+            out.write(requestBytes);
+        }
+
+        List<byte[]> signatures = RemoteSignerProtocol.decodeList(readResponse(conn));
+        logger.debug("远程签名完成: {} 个，{} ms", signatures.size(), System.currentTimeMillis() - start);
+        return signatures;
+    }
+
+    public String getBaseUrl() {
+        return baseUrl;
+    }
+
+    @Override
+    public String toString() {
+        return baseUrl;
+    }
+
+    private HttpURLConnection open(String url) throws IOException {
+        HttpURLConnection conn = (HttpURLConnection) new URL(url).openConnection();
+        conn.setConnectTimeout(connectTimeoutMillis);
+        conn.setReadTimeout(readTimeoutMillis);
+        conn.setUseCaches(false);
+        return conn;
+    }
+
+    private static byte[] readResponse(HttpURLConnection conn) throws IOException {
+        int status = conn.getResponseCode();
+        if (status != HttpURLConnection.HTTP_OK) {
+            // 读完错误应答，连接仍可复用
+            InputStream error = conn.getErrorStream();
+            if (error != null) {
+                try (InputStream in = error) {
+                    RemoteSignerProtocol.readAll(in);
+                }
+            }
+            throw new IOException("远程签名服务返回HTTP " + status + ": " + conn.getURL());
+        }
+        try (InputStream in = conn.getInputStream()) {
+            return RemoteSignerProtocol.readAll(in);
+        }
+    }
+}
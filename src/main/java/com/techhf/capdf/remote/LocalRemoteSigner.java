@@ -0,0 +1,108 @@
+package com.techhf.capdf.remote;
+
+import com.techhf.capdf.cert.CryptoProviders;
+
+import java.security.PrivateKey;
+import java.security.Provider;
+import java.security.Signature;
+import java.security.cert.Certificate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 进程内远程签名服务（测试替身）
+ * <p>
+ * 在本进程中持有私钥并完成签名，可设置每次调用的往返延迟，模拟网络和HSM开销；
+ * 也可以作为 {@link RemoteSignerServer} 的后端对外提供HTTP服务。
+ */
+public class LocalRemoteSigner implements RemoteSigner {
+
+    private final ConcurrentMap<String, KeyEntry> keys = new ConcurrentHashMap<>();
+    private final AtomicLong callCount = new AtomicLong();
+    private final AtomicLong signatureCount = new AtomicLong();
+
+    private volatile long roundTripDelayMillis;
+
+    /**
+     * 注册密钥
+     *
+     * @param keyId 密钥标识
+     * @param privateKey 私钥
+     * @param certChain 证书链（第一个为签名证书）
+     */
+    public LocalRemoteSigner addKey(String keyId, PrivateKey privateKey, Certificate[] certChain) {
+        keys.put(keyId, new KeyEntry(privateKey, certChain.clone()));
+        return this;
+    }
+
+    /**
+     * 每次调用（不论批大小）的额外延迟，模拟一次网络往返
+     */
+    public void setRoundTripDelayMillis(long roundTripDelayMillis) {
+        this.roundTripDelayMillis = roundTripDelayMillis;
+    }
+
+    @Override
+    public Certificate[] getCertificateChain(String keyId) {
+        return key(keyId).certChain.clone();
+    }
+
+    @Override
+    public List<byte[]> sign(String keyId, String signatureAlgorithm, List<byte[]> dataToSign) throws Exception {
+        callCount.incrementAndGet();
+        KeyEntry entry = key(keyId);
+
+        long delay = roundTripDelayMillis;
+        if (delay > 0) {
+            Thread.sleep(delay);
+        }
+
+        Provider provider = CryptoProviders.getDefault().signatureProvider(entry.privateKey);
+        Signature signature = provider != null
+                ? Signature.getInstance(signatureAlgorithm, provider)
+                : Signature.getInstance(signatureAlgorithm);
+        signature.initSign(entry.privateKey);
+        List<byte[]> signatures = new ArrayList<>(dataToSign.size());
+        for (byte[] data : dataToSign) {
+            signature.update(data);
+            signatures.add(signature.sign());
+        }
+        signatureCount.addAndGet(dataToSign.size());
+        return signatures;
+    }
+
+    /**
+     * 收到的调用次数（往返次数）
+     */
+    public long getCallCount() {
+        return callCount.get();
+    }
+
+    /**
+     * 已完成的签名数
+     */
+    public long getSignatureCount() {
+        return signatureCount.get();
+    }
+
+    private KeyEntry key(String keyId) {
+        KeyEntry entry = keys.get(keyId);
+        if (entry == null) {
+            throw new IllegalArgumentException("未知的密钥: " + keyId);
+        }
+        return entry;
+    }
+
+    private static final class KeyEntry {
+        final PrivateKey privateKey;
+        final Certificate[] certChain;
+
+        KeyEntry(PrivateKey privateKey, Certificate[] certChain) {
+            this.privateKey = privateKey;
+            this.certChain = certChain;
+        }
+    }
+}
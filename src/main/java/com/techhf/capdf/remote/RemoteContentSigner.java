@@ -0,0 +1,59 @@
+package com.techhf.capdf.remote;
+
+import com.techhf.capdf.cert.SignatureAlgorithms;
+import org.bouncycastle.asn1.x509.AlgorithmIdentifier;
+import org.bouncycastle.operator.ContentSigner;
+import org.bouncycastle.operator.DefaultSignatureAlgorithmIdentifierFinder;
+import org.bouncycastle.operator.RuntimeOperatorException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.security.PublicKey;
+import java.util.Collections;
+
+/**
+ * 把 {@link RemoteSigner} 适配为 BouncyCastle 的 ContentSigner
+ * <p>
+ * CMS 生成器把 signed attributes 写入 {@link #getOutputStream()}，
+ * {@link #getSignature()} 时整体发给远程签名服务。每个实例只用于一次签名。
+ */
+public class RemoteContentSigner implements ContentSigner {
+
+    private final RemoteSigner remoteSigner;
+    private final String keyId;
+    private final String signatureAlgorithm;
+    private final AlgorithmIdentifier algorithmIdentifier;
+    private final ByteArrayOutputStream dataToSign = new ByteArrayOutputStream(512);
+
+    /**
+     * @param remoteSigner 远程签名服务
+     * @param keyId 密钥标识
+     * @param publicKey 签名证书公钥（用于确定签名算法）
+     */
+    public RemoteContentSigner(RemoteSigner remoteSigner, String keyId, PublicKey publicKey) {
+        this.remoteSigner = remoteSigner;
+        this.keyId = keyId;
+        this.signatureAlgorithm = SignatureAlgorithms.signatureAlgorithm(publicKey);
+        this.algorithmIdentifier = new DefaultSignatureAlgorithmIdentifierFinder().find(signatureAlgorithm);
+    }
+
+    @Override
+    public AlgorithmIdentifier getAlgorithmIdentifier() {
+        return algorithmIdentifier;
+    }
+
+    @Override
+    public OutputStream getOutputStream() {
+        return dataToSign;
+    }
+
+    @Override
+    public byte[] getSignature() {
+        try {
+            return remoteSigner.sign(keyId, signatureAlgorithm,
+                    Collections.singletonList(dataToSign.toByteArray())).get(0);
+        } catch (Exception e) {
+            throw new RuntimeOperatorException("远程签名失败: " + keyId + "，" + e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.techhf.capdf.remote;
+
+import java.security.cert.Certificate;
+import java.util.List;
+
+/**
+ * 远程签名服务（SPI）
+ * <p>
+ * 私钥保存在独立的签名服务中，本地只发送待签名数据：CMS 的 signed attributes
+ * （含文档摘要的 messageDigest 属性，DER编码通常只有几百字节），文档内容不离开本机。
+ * 签名算法由 {@link com.techhf.capdf.cert.SignatureAlgorithms} 按证书公钥确定，
+ * 服务端对待签名数据做完整的 hash-then-sign。
+ * <p>
+ * 接口按批定义，一次调用对应一次往返；多个签名线程的单个请求可由
+ * {@link BatchingRemoteSigner} 合并成批。实现必须线程安全。
+ */
+public interface RemoteSigner {
+
+    /**
+     * 密钥对应的证书链（第一个为签名证书）
+     *
+     * @param keyId 密钥标识
+     */
+    Certificate[] getCertificateChain(String keyId) throws Exception;
+
+    /**
+     * 批量签名
+     *
+     * @param keyId 密钥标识
+     * @param signatureAlgorithm JCA签名算法名称，例如 SHA256withRSA
+     * @param dataToSign 待签名数据
+     * @return 与 dataToSign 顺序一致的签名值
+     */
+    List<byte[]> sign(String keyId, String signatureAlgorithm, List<byte[]> dataToSign) throws Exception;
+}
@@ -0,0 +1,89 @@
+package com.techhf.capdf.remote;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 远程签名HTTP接口的报文格式（大端二进制）
+ * <pre>
+ * 签名请求  POST /sign           keyId(UTF) algorithm(UTF) count(int) { length(int) bytes }*
+ * 签名应答                       count(int) { length(int) bytes }*
+ * 证书链    GET  /certificates?keyId=...   count(int) { length(int) DER }*
+ * </pre>
+ */
+final class RemoteSignerProtocol {
+
+    /** 单项数据上限，防止异常报文导致大内存分配 */
+    private static final int MAX_ITEM_SIZE = 1024 * 1024;
+
+    /** 单批数量上限 */
+    private static final int MAX_ITEMS = 65536;
+
+    private RemoteSignerProtocol() {
+    }
+
+    static byte[] encodeSignRequest(String keyId, String signatureAlgorithm, List<byte[]> dataToSign)
+            throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeUTF(keyId);
+        out.writeUTF(signatureAlgorithm);
+        writeList(out, dataToSign);
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    static byte[] encodeList(List<byte[]> items) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        writeList(out, items);
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    static List<byte[]> decodeList(byte[] data) throws IOException {
+        return readList(new DataInputStream(new ByteArrayInputStream(data)));
+    }
+
+    static List<byte[]> readList(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        if (count < 0 || count > MAX_ITEMS) {
+            throw new IOException("无效的数量: " + count);
+        }
+        List<byte[]> items = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int length = in.readInt();
+            if (length < 0 || length > MAX_ITEM_SIZE) {
+                throw new IOException("无效的长度: " + length);
+            }
+            byte[] item = new byte[length];
+            in.readFully(item);
+            items.add(item);
+        }
+        return items;
+    }
+
+    static byte[] readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[4096];
+        int n;
+        while ((n = in.read(buffer)) != -1) {
+            out.write(buffer, 0, n);
+        }
+        return out.toByteArray();
+    }
+
+    private static void writeList(DataOutputStream out, List<byte[]> items) throws IOException {
+        out.writeInt(items.size());
+        for (byte[] item : items) {
+            out.writeInt(item.length);
+            out.write(item);
+        }
+    }
+}
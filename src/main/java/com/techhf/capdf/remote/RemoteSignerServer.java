@@ -0,0 +1,164 @@
+package com.techhf.capdf.remote;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.security.cert.Certificate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 本地远程签名HTTP服务（测试替身）
+ * <p>
+ * 基于 JDK 内置的 HttpServer，把任意 {@link RemoteSigner}（通常是 {@link LocalRemoteSigner}）
+ * 以 {@link RemoteSignerProtocol} 格式对外提供，用于联调和测试 {@link HttpRemoteSigner}。
+ * 可以人为设置响应延迟，模拟网络往返。
+ * <pre>
+ * try (RemoteSignerServer server = new RemoteSignerServer(backend).start()) {
+ *     RemoteSigner remote = new HttpRemoteSigner(server.getUrl());
+ * }
+ * </pre>
+ */
+public class RemoteSignerServer implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(RemoteSignerServer.class);
+
+    private static final String PATH = "/signer";
+
+    private final RemoteSigner backend;
+    private final AtomicInteger requestCount = new AtomicInteger();
+
+    private volatile long responseDelayMillis;
+
+    private HttpServer server;
+    private ExecutorService executor;
+
+    public RemoteSignerServer(RemoteSigner backend) {
+        this.backend = backend;
+    }
+
+    /**
+     * 在本机随机端口启动服务
+     */
+    public RemoteSignerServer start() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext(PATH + "/sign", this::handleSign);
+        server.createContext(PATH + "/certificates", this::handleCertificates);
+        executor = Executors.newFixedThreadPool(8, r -> {
+            Thread thread = new Thread(r, "remote-signer-server");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.start();
+        logger.info("本地远程签名服务已启动: {}", getUrl());
+        return this;
+    }
+
+    /**
+     * 服务地址（{@link HttpRemoteSigner} 的基础地址）
+     */
+    public String getUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + PATH;
+    }
+
+    /**
+     * 设置每个请求的额外响应延迟（模拟网络往返）
+     */
+    public void setResponseDelayMillis(long responseDelayMillis) {
+        this.responseDelayMillis = responseDelayMillis;
+    }
+
+    /**
+     * 已收到的请求数
+     */
+    public int getRequestCount() {
+        return requestCount.get();
+    }
+
+    @Override
+    public void close() {
+        if (server != null) {
+            server.stop(0);
+            executor.shutdownNow();
+            logger.info("本地远程签名服务已停止");
+        }
+    }
+
+    private void handleSign(HttpExchange exchange) throws IOException {
+        requestCount.incrementAndGet();
+        try {
+            byte[] request = RemoteSignerProtocol.readAll(exchange.getRequestBody());
+            delay();
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(request));
+            String keyId = in.readUTF();
+            String signatureAlgorithm = in.readUTF();
+            List<byte[]> dataToSign = RemoteSignerProtocol.readList(in);
+
+            send(exchange, RemoteSignerProtocol.encodeList(backend.sign(keyId, signatureAlgorithm, dataToSign)));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            logger.error("处理签名请求失败", e);
+            exchange.sendResponseHeaders(400, -1);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void handleCertificates(HttpExchange exchange) throws IOException {
+        requestCount.incrementAndGet();
+        try {
+            String query = exchange.getRequestURI().getRawQuery();
+            if (query == null || !query.startsWith("keyId=")) {
+                exchange.sendResponseHeaders(400, -1);
+                return;
+            }
+            String keyId = URLDecoder.decode(query.substring("keyId=".length()), "UTF-8");
+            List<byte[]> encoded = new ArrayList<>();
+            for (Certificate certificate : backend.getCertificateChain(keyId)) {
+                encoded.add(certificate.getEncoded());
+            }
+            send(exchange, RemoteSignerProtocol.encodeList(encoded));
+        } catch (IllegalArgumentException e) {
+            exchange.sendResponseHeaders(404, -1);
+        } catch (Exception e) {
+            logger.error("处理证书链请求失败", e);
+            exchange.sendResponseHeaders(400, -1);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void delay() throws InterruptedException {
+        long delay = responseDelayMillis;
+        if (delay > 0) {
+            Thread.sleep(delay);
+        }
+    }
+
+    private static void send(HttpExchange exchange, byte[] response) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/octet-stream");
+        exchange.sendResponseHeaders(200, response.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(response);
+        }
+    }
+}
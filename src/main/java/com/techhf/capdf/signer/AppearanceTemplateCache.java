@@ -0,0 +1,291 @@
+package com.techhf.capdf.signer;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.interactive.digitalsignature.visible.PDVisibleSigProperties;
+import org.apache.pdfbox.pdmodel.interactive.digitalsignature.visible.PDVisibleSignDesigner;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 可视化签章模板缓存
+ * <p>
+ * PDFBox 每次签名都要解码签章图片、重新压缩为图片 XObject 并生成外观流模板。
+ * 大多数签名使用同一个印章、同样的位置和大小，因此按
+ * "图片内容哈希 + 几何参数（x, y, width, height, zoom）+ 页面尺寸和旋转" 缓存构建好的模板，
+ * 命中时直接复用已编码的图片和表单 XObject。
+ * <p>
+ * 按条目数和模板总字节数进行LRU淘汰，线程安全。
+ */
+public class AppearanceTemplateCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(AppearanceTemplateCache.class);
+
+    /** 默认最大条目数 */
+    public static final int DEFAULT_MAXIMUM_SIZE = 256;
+
+    /** 默认模板总字节数上限：64MB */
+    public static final long DEFAULT_MAXIMUM_BYTES = 64L * 1024 * 1024;
+
+    private static final AppearanceTemplateCache SHARED =
+            new AppearanceTemplateCache(DEFAULT_MAXIMUM_SIZE, DEFAULT_MAXIMUM_BYTES);
+
+    private final int maximumSize;
+    private final long maximumBytes;
+
+    /** 访问顺序的LinkedHashMap，实现LRU；所有访问都在 this 上同步 */
+    private final LinkedHashMap<String, byte[]> templates = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong totalBuildNanos = new AtomicLong();
+
+    /**
+     * @param maximumSize 最大条目数
+     * @param maximumBytes 模板总字节数上限
+     */
+    public AppearanceTemplateCache(int maximumSize, long maximumBytes) {
+        if (maximumSize <= 0 || maximumBytes <= 0) {
+            throw new IllegalArgumentException("maximumSize 和 maximumBytes 必须大于0");
+        }
+        this.maximumSize = maximumSize;
+        this.maximumBytes = maximumBytes;
+    }
+
+    /**
+     * 进程内共享的默认缓存，{@link PdfSigner} 使用该实例
+     */
+    public static AppearanceTemplateCache shared() {
+        return SHARED;
+    }
+
+    /**
+     * 获取签章图片文件对应的模板，未命中时构建并缓存
+     *
+     * @param doc 待签名文档（用于确定页面尺寸）
+     * @param pageIndex 签章所在页（从0开始）
+     * @param imageFile 签章图片文件
+     * @param appearance 签章几何参数
+     * @return 可视化签章模板（PDF字节），调用方只读
+     */
+    public byte[] getTemplate(PDDocument doc, int pageIndex, File imageFile, SignatureAppearance appearance)
+            throws IOException {
+        byte[] imageBytes = Files.readAllBytes(imageFile.toPath());
+        String key = sha256Hex(imageBytes) + "|" + appearance.geometryKey() + "|" + pageKey(doc, pageIndex);
+
+        synchronized (this) {
+            byte[] template = templates.get(key);
+            if (template != null) {
+                hits.incrementAndGet();
+                return template;
+            }
+        }
+
+        misses.incrementAndGet();
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(imageBytes));
+        if (image == null) {
+            throw new IOException("无法解码签章图片: " + imageFile);
+        }
+        long start = System.nanoTime();
+        byte[] template = buildTemplate(doc, pageIndex, image, appearance);
+        totalBuildNanos.addAndGet(System.nanoTime() - start);
+
+        synchronized (this) {
+            byte[] previous = templates.put(key, template);
+            if (previous != null) {
+                totalBytes -= previous.length;
+            }
+            totalBytes += template.length;
+            evictOverflow();
+        }
+        logger.info("签章模板已缓存: {}，{} bytes", imageFile.getName(), template.length);
+        return template;
+    }
+
+    /**
+     * 直接构建模板（不缓存），用于每次内容都不同的自动生成签章
+     */
+    public static byte[] buildTemplate(PDDocument doc, int pageIndex, BufferedImage image,
+                                       SignatureAppearance appearance) throws IOException {
+        PDVisibleSignDesigner designer = new PDVisibleSignDesigner(
+                doc,
+                image,
+                pageIndex + 1  // PDFBox页码从1开始
+        );
+
+        // 设置签章位置和大小
+        designer.xAxis(appearance.getX())
+                .yAxis(appearance.getY())
+                .width(appearance.getWidth())
+                .height(appearance.getHeight())
+                .zoom(appearance.getZoom());
+
+        PDVisibleSigProperties properties = new PDVisibleSigProperties();
+        properties.preferredSize(0)
+                  .page(pageIndex)
+                  .visualSignEnabled(true)
+                  .setPdVisibleSignature(designer)
+                  .buildSignature();
+
+        try (InputStream in = properties.getVisibleSignature()) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int n;
+            while ((n = in.read(buffer)) != -1) {
+                out.write(buffer, 0, n);
+            }
+            return out.toByteArray();
+        }
+    }
+
+    /**
+     * 清空缓存
+     */
+    public synchronized void invalidateAll() {
+        templates.clear();
+        totalBytes = 0;
+    }
+
+    /**
+     * 当前条目数
+     */
+    public synchronized int size() {
+        return templates.size();
+    }
+
+    /**
+     * 当前模板总字节数
+     */
+    public synchronized long totalBytes() {
+        return totalBytes;
+    }
+
+    /**
+     * 获取统计信息快照
+     */
+    public Stats getStats() {
+        int size;
+        long bytes;
+        synchronized (this) {
+            size = templates.size();
+            bytes = totalBytes;
+        }
+        return new Stats(hits.get(), misses.get(), evictions.get(), totalBuildNanos.get(), size, bytes);
+    }
+
+    /**
+     * 调用方需持有 this 锁
+     */
+    private void evictOverflow() {
+        Iterator<Map.Entry<String, byte[]>> it = templates.entrySet().iterator();
+        while ((templates.size() > maximumSize || totalBytes > maximumBytes) && it.hasNext()) {
+            totalBytes -= it.next().getValue().length;
+            it.remove();
+            evictions.incrementAndGet();
+        }
+    }
+
+    private static String pageKey(PDDocument doc, int pageIndex) {
+        PDPage page = doc.getPage(pageIndex);
+        PDRectangle mediaBox = page.getMediaBox();
+        return mediaBox.getWidth() + "x" + mediaBox.getHeight() + "@" + page.getRotation();
+    }
+
+    private static String sha256Hex(byte[] data) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(data);
+            StringBuilder sb = new StringBuilder(hash.length * 2);
+            for (byte b : hash) {
+                sb.append(String.format("%02x", b));
+            }
+            return sb.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 缓存统计信息
+     */
+    public static final class Stats {
+        private final long hits;
+        private final long misses;
+        private final long evictions;
+        private final long totalBuildNanos;
+        private final int size;
+        private final long totalBytes;
+
+        Stats(long hits, long misses, long evictions, long totalBuildNanos, int size, long totalBytes) {
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+            this.totalBuildNanos = totalBuildNanos;
+            this.size = size;
+            this.totalBytes = totalBytes;
+        }
+
+        public long getHits() {
+            return hits;
+        }
+
+        public long getMisses() {
+            return misses;
+        }
+
+        public long getEvictions() {
+            return evictions;
+        }
+
+        public long getTotalBuildNanos() {
+            return totalBuildNanos;
+        }
+
+        public int getSize() {
+            return size;
+        }
+
+        public long getTotalBytes() {
+            return totalBytes;
+        }
+
+        /**
+         * 命中率（0~1）
+         */
+        public double getHitRate() {
+            long total = hits + misses;
+            return total == 0 ? 0.0 : (double) hits / total;
+        }
+
+        /**
+         * 平均模板构建耗时（毫秒）
+         */
+        public double getAverageBuildMillis() {
+            return misses == 0 ? 0.0 : totalBuildNanos / 1_000_000.0 / misses;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("hits=%d, misses=%d, hitRate=%.2f%%, evictions=%d, avgBuild=%.2fms, "
+                            + "size=%d, bytes=%d",
+                    hits, misses, getHitRate() * 100, evictions, getAverageBuildMillis(), size, totalBytes);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.techhf.capdf.signer;
+
+import com.techhf.capdf.util.LatencyHistogram;
+
+/**
+ * 批量签名汇总报告
+ * <p>
+ * 只包含计数和延迟分布，不保留每个任务的结果（逐个结果通过回调获取）。
+ */
+public class BatchReport {
+
+    private final long succeeded;
+    private final long failed;
+    private final long elapsedMillis;
+    private final LatencyHistogram signLatency;
+    private final LatencyHistogram queueLatency;
+
+    BatchReport(long succeeded, long failed, long elapsedMillis,
+                LatencyHistogram signLatency, LatencyHistogram queueLatency) {
+        this.succeeded = succeeded;
+        this.failed = failed;
+        this.elapsedMillis = elapsedMillis;
+        this.signLatency = signLatency;
+        this.queueLatency = queueLatency;
+    }
+
+    public long getTotal() {
+        return succeeded + failed;
+    }
+
+    public long getSucceeded() {
+        return succeeded;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    /**
+     * 单个任务的签名耗时分布
+     */
+    public LatencyHistogram getSignLatency() {
+        return signLatency;
+    }
+
+    /**
+     * 单个任务在提交队列中的等待时间分布
+     */
+    public LatencyHistogram getQueueLatency() {
+        return queueLatency;
+    }
+
+    /**
+     * 吞吐量（成功文档数/秒）
+     */
+    public double getDocsPerSecond() {
+        return elapsedMillis == 0 ? 0.0 : succeeded * 1000.0 / elapsedMillis;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("total=%d, succeeded=%d, failed=%d, elapsed=%dms, throughput=%.2f docs/s, "
+                        + "sign[%s], queue[%s]",
+                getTotal(), succeeded, failed, elapsedMillis, getDocsPerSecond(), signLatency, queueLatency);
+    }
+}
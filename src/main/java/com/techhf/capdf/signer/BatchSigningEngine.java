@@ -0,0 +1,221 @@
+package com.techhf.capdf.signer;
+
+import com.techhf.capdf.util.LatencyHistogram;
+import com.techhf.capdf.util.ThreadAllocationTracker;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.util.Iterator;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * 并发批量签名引擎
+ * <p>
+ * 固定大小的工作线程池 + 有界提交队列：队列满时提交方阻塞（背压），
+ * 避免一次性把成千上万个任务堆进内存。所有工作线程共享同一个
+ * {@link SigningCredentialStore}，同一证书只解密一次；相同签章图片和位置的
+ * 外观模板通过 {@link AppearanceTemplateCache} 在线程间共享。
+ * 单个文档失败只记录在其结果中，不影响批次中的其他文档。
+ * <p>
+ * 使用示例：
+ * <pre>
+ * try (BatchSigningEngine engine = new BatchSigningEngine(8, 64)) {
+ *     BatchReport report = engine.signAll(jobs, result -&gt; log(result));
+ * }
+ * </pre>
+ */
+public class BatchSigningEngine implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(BatchSigningEngine.class);
+
+    private final ThreadPoolExecutor executor;
+    private final SigningCredentialStore credentialStore;
+
+    /**
+     * 使用共享凭据缓存创建引擎
+     *
+     * @param workers 工作线程数
+     * @param queueCapacity 提交队列容量
+     */
+    public BatchSigningEngine(int workers, int queueCapacity) {
+        this(workers, queueCapacity, SigningCredentialStore.shared());
+    }
+
+    /**
+     * @param workers 工作线程数
+     * @param queueCapacity 提交队列容量
+     * @param credentialStore 签名凭据缓存
+     */
+    public BatchSigningEngine(int workers, int queueCapacity, SigningCredentialStore credentialStore) {
+        if (workers <= 0 || queueCapacity <= 0) {
+            throw new IllegalArgumentException("workers 和 queueCapacity 必须大于0");
+        }
+        this.credentialStore = credentialStore;
+        this.executor = new ThreadPoolExecutor(
+                workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<Runnable>(queueCapacity),
+                new SignerThreadFactory(),
+                new BlockingSubmitPolicy());
+    }
+
+    /**
+     * 提交单个任务，队列满时阻塞直到有空位
+     *
+     * @return 任务结果；签名失败时结果中带有异常，Future 本身不会异常完成
+     */
+    public CompletableFuture<SignJobResult> submit(SignJob job) {
+        CompletableFuture<SignJobResult> future = new CompletableFuture<>();
+        long submitTime = System.currentTimeMillis();
+        executor.execute(() -> future.complete(execute(job, submitTime)));
+        return future;
+    }
+
+    /**
+     * 依次提交一批任务并等待全部完成
+     *
+     * @param jobs 任务序列（可以是惰性生成的 Iterable）
+     * @param listener 每个任务完成时的回调（在工作线程中调用，可以为null），逐个结果只通过回调传递
+     * @return 汇总报告（计数和延迟分布）
+     */
+    public BatchReport signAll(Iterable<SignJob> jobs, Consumer<SignJobResult> listener) throws InterruptedException {
+        long start = System.currentTimeMillis();
+        // 只累计计数和延迟分布，不保留每个任务的结果
+        LongAdder succeeded = new LongAdder();
+        LongAdder failed = new LongAdder();
+        LatencyHistogram signLatency = new LatencyHistogram();
+        LatencyHistogram queueLatency = new LatencyHistogram();
+        AtomicInteger pending = new AtomicInteger();
+        Object monitor = new Object();
+
+        Iterator<SignJob> it = jobs.iterator();
+        while (it.hasNext()) {
+            SignJob job = it.next();
+            pending.incrementAndGet();
+            CompletableFuture<SignJobResult> future;
+            try {
+                future = submit(job);
+            } catch (RejectedExecutionException e) {
+                pending.decrementAndGet();
+                throw e;
+            }
+            future.thenAccept(result -> {
+                try {
+                    (result.isSuccess() ? succeeded : failed).increment();
+                    signLatency.recordNanos(TimeUnit.MILLISECONDS.toNanos(result.getSignMillis()));
+                    queueLatency.recordNanos(TimeUnit.MILLISECONDS.toNanos(result.getQueueMillis()));
+                    if (listener != null) {
+                        listener.accept(result);
+                    }
+                } catch (Throwable t) {
+                    // 回调中的 Error 也不能让等待方永远阻塞
+                    logger.warn("结果回调异常: {}", job, t);
+                } finally {
+                    synchronized (monitor) {
+                        pending.decrementAndGet();
+                        monitor.notifyAll();
+                    }
+                }
+            });
+        }
+
+        synchronized (monitor) {
+            while (pending.get() > 0) {
+                monitor.wait();
+            }
+        }
+
+        BatchReport report = new BatchReport(succeeded.sum(), failed.sum(), System.currentTimeMillis() - start,
+                signLatency, queueLatency);
+        logger.info("批量签名完成: {}", report);
+        return report;
+    }
+
+    /**
+     * 等待已提交任务完成并关闭线程池
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+        try {
+            while (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+                logger.info("等待签名任务完成，剩余队列: {}", executor.getQueue().size());
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private SignJobResult execute(SignJob job, long submitTime) {
+        long start = System.currentTimeMillis();
+        long queueMillis = start - submitTime;
+        // 按工作线程统计，并发任务之间互不干扰
+        ThreadAllocationTracker allocation = ThreadAllocationTracker.start();
+        try {
+            SigningCredential credential = job.resolveCredential(credentialStore);
+            PdfSigner.signPdf(
+                    job.getInputPdf(),
+                    job.getOutputPdf(),
+                    credential,
+                    job.getReason(),
+                    job.getLocation(),
+                    job.getAppearance(),
+                    job.resolveTimestampClient(),
+                    job.getSizing(),
+                    job.getMemoryPolicy());
+            if (job.isLtv()) {
+                LtvEnabler.addValidationInformation(job.getOutputPdf(), job.getOutputPdf(),
+                        job.getRevocationCache(), job.getMemoryPolicy());
+            }
+            return new SignJobResult(job, null, queueMillis, System.currentTimeMillis() - start,
+                    allocation.getAllocatedBytes());
+        } catch (Throwable t) {
+            logger.error("文档签名失败: {}", job, t);
+            return new SignJobResult(job, t, queueMillis, System.currentTimeMillis() - start,
+                    allocation.getAllocatedBytes());
+        }
+    }
+
+    /**
+     * 队列满时阻塞提交线程，而不是拒绝任务
+     */
+    private static final class BlockingSubmitPolicy implements RejectedExecutionHandler {
+        @Override
+        public void rejectedExecution(Runnable task, ThreadPoolExecutor executor) {
+            if (executor.isShutdown()) {
+                throw new RejectedExecutionException("签名引擎已关闭");
+            }
+            try {
+                executor.getQueue().put(task);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RejectedExecutionException("等待提交队列时被中断", e);
+            }
+            // 阻塞期间引擎可能已关闭，工作线程退出后队列不会再被消费
+            if (executor.isShutdown() && executor.remove(task)) {
+                throw new RejectedExecutionException("签名引擎已关闭");
+            }
+        }
+    }
+
+    private static final class SignerThreadFactory implements ThreadFactory {
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "pdf-signer-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,264 @@
+package com.techhf.capdf.signer;
+
+import com.techhf.capdf.cert.CryptoProviders;
+import com.techhf.capdf.cert.SignatureAlgorithms;
+import com.techhf.capdf.tsa.LocalTimestampClient;
+import com.techhf.capdf.tsa.TimestampClient;
+import org.bouncycastle.asn1.ASN1ObjectIdentifier;
+import org.bouncycastle.asn1.cms.AttributeTable;
+import org.bouncycastle.asn1.pkcs.PKCSObjectIdentifiers;
+import org.bouncycastle.cert.X509CertificateHolder;
+import org.bouncycastle.cms.*;
+import org.bouncycastle.cms.jcajce.JcaSignerInfoGeneratorBuilder;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.bouncycastle.operator.ContentSigner;
+import org.bouncycastle.tsp.*;
+import org.bouncycastle.util.CollectionStore;
+import org.bouncycastle.util.Store;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.PrivateKey;
+import java.security.Security;
+import java.security.cert.Certificate;
+import java.security.cert.X509Certificate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * CMS签名数据构建器
+ * <p>
+ * 以流式方式计算 ByteRange 内容的摘要，再用预先计算的摘要构建
+ * adbe.pkcs7.detached 签名（messageDigest 作为 signed attribute），
+ * 整个过程不缓存文档内容，峰值内存与文档大小无关。
+ */
+public class CmsSignatureBuilder {
+
+    private static final Logger logger = LoggerFactory.getLogger(CmsSignatureBuilder.class);
+
+    /** 默认内容摘要算法（RSA 密钥）；其它密钥的摘要算法见 {@link SignatureAlgorithms#digestAlgorithm} */
+    public static final String DIGEST_ALGORITHM = "SHA-256";
+
+    /** 摘要计算时的读缓冲区大小 */
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    static {
+        if (Security.getProvider(BouncyCastleProvider.PROVIDER_NAME) == null) {
+            Security.addProvider(new BouncyCastleProvider());
+        }
+    }
+
+    /**
+     * 流式计算内容摘要
+     *
+     * @param content         待签名内容（通常为 SignatureInterface.sign 的输入流）
+     * @param digestAlgorithm 摘要算法，须与签名密钥匹配（见 {@link SignatureAlgorithms#digestAlgorithm}）
+     * @return 内容摘要
+     */
+    public static byte[] digest(InputStream content, String digestAlgorithm)
+            throws IOException, NoSuchAlgorithmException {
+        MessageDigest md = CryptoProviders.getDefault().newMessageDigest(digestAlgorithm);
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int n;
+        while ((n = content.read(buffer)) != -1) {
+            md.update(buffer, 0, n);
+        }
+        return md.digest();
+    }
+
+    /**
+     * 根据内容摘要构建CMS签名数据
+     *
+     * @param contentDigest 内容摘要（算法由 {@link SignatureAlgorithms#digestAlgorithm} 按私钥确定）
+     * @param privateKey 签名私钥
+     * @param certChain 证书链
+     * @param addTimestamp 是否添加时间戳（使用进程内共享TSA签发）
+     * @return DER编码的CMS签名数据
+     */
+    public static byte[] build(
+            byte[] contentDigest,
+            PrivateKey privateKey,
+            Certificate[] certChain,
+            boolean addTimestamp) throws Exception {
+
+        TimestampClient timestampClient = addTimestamp
+                ? LocalTimestampClient.shared()
+                : null;
+        return build(contentDigest, privateKey, certChain, timestampClient);
+    }
+
+    /**
+     * 根据内容摘要构建CMS签名数据
+     *
+     * @param contentDigest 内容摘要（算法由 {@link SignatureAlgorithms#digestAlgorithm} 按私钥确定）
+     * @param privateKey 签名私钥
+     * @param certChain 证书链
+     * @param timestampClient 时间戳客户端（为null时不添加时间戳）
+     * @return DER编码的CMS签名数据
+     */
+    public static byte[] build(
+            byte[] contentDigest,
+            PrivateKey privateKey,
+            Certificate[] certChain,
+            TimestampClient timestampClient) throws Exception {
+        return build(contentDigest, new SigningCredential(privateKey, certChain), timestampClient);
+    }
+
+    /**
+     * 根据内容摘要构建CMS签名数据（本地私钥或远程签名服务）
+     *
+     * @param contentDigest 内容摘要（算法由 {@link SignatureAlgorithms#digestAlgorithm} 按证书公钥确定）
+     * @param credential 签名凭据
+     * @param timestampClient 时间戳客户端（为null时不添加时间戳）
+     * @return DER编码的CMS签名数据
+     */
+    public static byte[] build(
+            byte[] contentDigest,
+            SigningCredential credential,
+            TimestampClient timestampClient) throws Exception {
+
+        // 1. 生成不含内容的CMS签名，摘要由调用方预先计算
+        CMSSignedData signedData = generate(contentDigest, credential);
+
+        // 2. 如果需要，添加时间戳
+        if (timestampClient != null) {
+            logger.info("添加时间戳到签名...");
+            signedData = addTimestampToSignature(signedData, timestampClient);
+        }
+
+        byte[] signatureBytes = signedData.getEncoded();
+        logger.info("签名数据生成完成，大小: {} bytes", signatureBytes.length);
+        return signatureBytes;
+    }
+
+    /**
+     * 使用预计算的摘要生成CMS签名
+     */
+    private static CMSSignedData generate(
+            byte[] contentDigest,
+            SigningCredential credential) throws Exception {
+
+        CMSSignedDataGenerator gen = new CMSSignedDataGenerator();
+        Certificate[] certChain = credential.getCertChain();
+        X509Certificate cert = credential.getCertificate();
+
+        // 签名算法由密钥类型决定，SignerInfo 的摘要算法随之确定，预计算摘要必须与之一致
+        CryptoProviders providers = CryptoProviders.getDefault();
+        String digestAlgorithm = SignatureAlgorithms.digestAlgorithm(cert.getPublicKey());
+        int digestLength = providers.newMessageDigest(digestAlgorithm).getDigestLength();
+        if (contentDigest.length != digestLength) {
+            throw new IllegalArgumentException("内容摘要长度 " + contentDigest.length + " bytes 与 "
+                    + cert.getPublicKey().getAlgorithm() + " 密钥要求的 " + digestAlgorithm + " 不一致");
+        }
+
+        ContentSigner signer = credential.createContentSigner();
+
+        // 构建签名者信息生成器，messageDigest 属性使用预计算的摘要
+        JcaSignerInfoGeneratorBuilder signerBuilder = new JcaSignerInfoGeneratorBuilder(
+                providers.digestCalculatorProvider(digestAlgorithm));
+        signerBuilder.setSignedAttributeGenerator(new PrecomputedDigestAttributeGenerator(contentDigest));
+
+        gen.addSignerInfoGenerator(signerBuilder.build(signer, cert));
+
+        // 添加证书链
+        List<X509CertificateHolder> certs = new ArrayList<>(certChain.length);
+        for (Certificate c : certChain) {
+            certs.add(new X509CertificateHolder(c.getEncoded()));
+        }
+        Store<X509CertificateHolder> certStore = new CollectionStore<>(certs);
+        gen.addCertificates(certStore);
+
+        // 内容为空（detached），BouncyCastle 不再读取也不再缓存文档
+        return gen.generate(new CMSAbsentContent(), false);
+    }
+
+    /**
+     * 添加时间戳到签名
+     * 将时间戳作为 unsigned attribute 添加到 SignerInfo
+     */
+    private static CMSSignedData addTimestampToSignature(
+            CMSSignedData signedData,
+            TimestampClient timestampClient) throws Exception {
+
+        logger.info("生成时间戳令牌...");
+
+        // 获取原始签名信息
+        SignerInformationStore signerInfos = signedData.getSignerInfos();
+        SignerInformation signerInfo = signerInfos.getSigners().iterator().next();
+
+        // 1. 计算签名值的哈希
+        byte[] signature = signerInfo.getSignature();
+        byte[] signatureHash = newDigest().digest(signature);
+
+        // 2. 向TSA申请时间戳令牌
+        TimeStampToken tsToken = timestampClient.getTimeStampToken(signatureHash);
+
+        logger.info("时间戳生成成功");
+        logger.info("时间戳时间: {}", tsToken.getTimeStampInfo().getGenTime());
+
+        // 3. 将时间戳作为 unsigned attribute 添加到 SignerInfo
+        AttributeTable unsignedAttrs = signerInfo.getUnsignedAttributes();
+        if (unsignedAttrs == null) {
+            unsignedAttrs = new AttributeTable(new java.util.Hashtable<>());
+        }
+
+        // 添加时间戳属性（OID: 1.2.840.113549.1.9.16.2.14）
+        ASN1ObjectIdentifier tsAttrType = PKCSObjectIdentifiers.id_aa_signatureTimeStampToken;
+
+        // RFC 3161: 时间戳令牌必须作为 SignedData ContentInfo 结构存储
+        // 直接使用 toCMSSignedData().toASN1Structure() 获取 ContentInfo
+        org.bouncycastle.asn1.ASN1Encodable tsContentInfo = tsToken.toCMSSignedData().toASN1Structure();
+
+        // 直接添加时间戳属性，不要再次获取 AttrValues（避免嵌套 SET）
+        unsignedAttrs = unsignedAttrs.add(tsAttrType, tsContentInfo);
+
+        // 4. 重建 SignerInfo
+        SignerInformation newSignerInfo = SignerInformation.replaceUnsignedAttributes(signerInfo, unsignedAttrs);
+
+        // 5. 重建 CMSSignedData
+        SignerInformationStore newSignerInfos = new SignerInformationStore(Arrays.asList(newSignerInfo));
+
+        CMSSignedData newSignedData = CMSSignedData.replaceSigners(signedData, newSignerInfos);
+
+        logger.info("时间戳已嵌入到签名中");
+        return newSignedData;
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return CryptoProviders.getDefault().newMessageDigest(DIGEST_ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("不支持的摘要算法: " + DIGEST_ALGORITHM, e);
+        }
+    }
+
+    /**
+     * 使用预计算摘要的 signed attributes 生成器
+     * 忽略 BouncyCastle 对（空）内容计算出的摘要，改用调用方提供的摘要作为 messageDigest
+     */
+    private static final class PrecomputedDigestAttributeGenerator implements CMSAttributeTableGenerator {
+
+        private final CMSAttributeTableGenerator delegate = new DefaultSignedAttributeTableGenerator();
+        private final byte[] contentDigest;
+
+        PrecomputedDigestAttributeGenerator(byte[] contentDigest) {
+            this.contentDigest = contentDigest.clone();
+        }
+
+        @Override
+        @SuppressWarnings({"rawtypes", "unchecked"})
+        public AttributeTable getAttributes(Map parameters) throws CMSAttributeTableGenerationException {
+            Map params = new HashMap(parameters);
+            params.put(CMSAttributeTableGenerator.DIGEST, contentDigest.clone());
+            return delegate.getAttributes(Collections.unmodifiableMap(params));
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.techhf.capdf.signer;
+
+import com.techhf.capdf.util.SignImageGenerator;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * 骑缝章：印章按页数切成竖条，依次盖在各页右边缘，页面叠齐后拼成完整印章
+ * <p>
+ * 页数较多时按 {@link #maxStrips(int)} 分组，每组拼成一个完整印章
+ * （例如 1000 页、每组 20 条，则每 20 页拼出一个印章）。
+ * 每组的切条只嵌入一次，组与组之间复用，文件大小与页数基本无关。
+ * <pre>
+ * SignatureAppearance appearance = SignatureAppearance.ofImage("seal.png")
+ *         .crossPageSeal(CrossPageSeal.ofImage("seal.png").size(120).at(300));
+ * </pre>
+ * 不可变对象。
+ */
+public final class CrossPageSeal {
+
+    /** 默认每组最多切条数 */
+    public static final int DEFAULT_MAX_STRIPS = 20;
+
+    /** 按组织名称自动生成印章时的图片边长（像素） */
+    private static final int GENERATED_IMAGE_SIZE = 400;
+
+    private final String imagePath;
+    private final String organizationName;
+    private final float size;
+    private final float y;
+    private final PageSelection pages;
+    private final int maxStrips;
+
+    private CrossPageSeal(String imagePath, String organizationName, float size, float y,
+                          PageSelection pages, int maxStrips) {
+        this.imagePath = imagePath;
+        this.organizationName = organizationName;
+        this.size = size;
+        this.y = y;
+        this.pages = pages;
+        this.maxStrips = maxStrips;
+    }
+
+    /**
+     * 使用已有的印章图片
+     */
+    public static CrossPageSeal ofImage(String imagePath) {
+        if (imagePath == null) {
+            throw new IllegalArgumentException("骑缝章图片路径不能为空");
+        }
+        return new CrossPageSeal(imagePath, null, 120, 300, PageSelection.all(), DEFAULT_MAX_STRIPS);
+    }
+
+    /**
+     * 按组织名称自动生成印章（见 {@link SignImageGenerator#createSealImage}）
+     */
+    public static CrossPageSeal generated(String organizationName) {
+        if (organizationName == null || organizationName.isEmpty()) {
+            throw new IllegalArgumentException("组织名称不能为空");
+        }
+        return new CrossPageSeal(null, organizationName, 120, 300, PageSelection.all(), DEFAULT_MAX_STRIPS);
+    }
+
+    /**
+     * 印章拼合后的边长（PDF单位）
+     */
+    public CrossPageSeal size(float size) {
+        return new CrossPageSeal(imagePath, organizationName, size, y, pages, maxStrips);
+    }
+
+    /**
+     * 印章上边缘距页面顶部的距离（PDF单位）
+     */
+    public CrossPageSeal at(float y) {
+        return new CrossPageSeal(imagePath, organizationName, size, y, pages, maxStrips);
+    }
+
+    /**
+     * 参与骑缝的页面（默认全部页面）
+     */
+    public CrossPageSeal pages(PageSelection pages) {
+        return new CrossPageSeal(imagePath, organizationName, size, y,
+                pages != null ? pages : PageSelection.all(), maxStrips);
+    }
+
+    /**
+     * 每组最多切条数，页数超过时分组盖章
+     */
+    public CrossPageSeal maxStrips(int maxStrips) {
+        if (maxStrips < 1) {
+            throw new IllegalArgumentException("切条数必须大于0: " + maxStrips);
+        }
+        return new CrossPageSeal(imagePath, organizationName, size, y, pages, maxStrips);
+    }
+
+    public String getImagePath() {
+        return imagePath;
+    }
+
+    public String getOrganizationName() {
+        return organizationName;
+    }
+
+    public float getSize() {
+        return size;
+    }
+
+    public float getY() {
+        return y;
+    }
+
+    public PageSelection getPages() {
+        return pages;
+    }
+
+    public int getMaxStrips() {
+        return maxStrips;
+    }
+
+    /**
+     * 读取或生成印章图片（每次签名只调用一次）
+     */
+    BufferedImage loadImage() throws IOException {
+        if (imagePath == null) {
+            return SignImageGenerator.createSealImage(organizationName, GENERATED_IMAGE_SIZE, GENERATED_IMAGE_SIZE);
+        }
+        BufferedImage image = ImageIO.read(new File(imagePath));
+        if (image == null) {
+            throw new IOException("无法读取骑缝章图片: " + imagePath);
+        }
+        return image;
+    }
+
+    @Override
+    public String toString() {
+        return "CrossPageSeal[" + (imagePath != null ? "image=" + imagePath : "org=" + organizationName)
+                + ", size=" + size + ", y=" + y + ", pages=" + pages + ", maxStrips=" + maxStrips + "]";
+    }
+}
@@ -0,0 +1,126 @@
+package com.techhf.capdf.signer;
+
+import com.techhf.capdf.cert.SignatureAlgorithms;
+import com.techhf.capdf.util.MemoryPolicy;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.interactive.digitalsignature.PDSignature;
+import org.apache.pdfbox.pdmodel.interactive.digitalsignature.SignatureOptions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.security.cert.Certificate;
+import java.security.cert.X509Certificate;
+
+/**
+ * 两阶段（准备 / 完成）外部签名
+ * <p>
+ * 第一阶段写出带 /Contents 占位符的文档并返回 ByteRange 摘要，随即释放 PDFBox 文档；
+ * 私钥无需出现在本进程中，摘要可以批量交给外部签名服务处理。
+ * 第二阶段把CMS签名以十六进制原地写入占位符，不再解析PDF。
+ * <p>
+ * 使用示例：
+ * <pre>
+ * PreparedSignature prepared = ExternalPdfSigner.prepare(input, output, certChain, "原因", "地点", null);
+ * byte[] cms = CmsSignatureBuilder.build(prepared.getContentDigest(), privateKey, certChain, true);
+ * ExternalPdfSigner.complete(prepared, cms);
+ * </pre>
+ */
+public class ExternalPdfSigner {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExternalPdfSigner.class);
+
+    /**
+     * 第一阶段：写出带签名占位符的PDF并计算 ByteRange 摘要
+     *
+     * @param inputPdf 输入PDF文件
+     * @param outputPdf 输出PDF文件（包含全零的 /Contents 占位符）
+     * @param certChain 签名证书链（只用于签名字典和签章，不需要私钥）
+     * @param reason 签名原因
+     * @param location 签名地点
+     * @param signImagePath 签章图片路径（可选，传null则自动生成）
+     * @return 第二阶段使用的句柄
+     */
+    public static PreparedSignature prepare(
+            File inputPdf,
+            File outputPdf,
+            Certificate[] certChain,
+            String reason,
+            String location,
+            String signImagePath) throws Exception {
+
+        logger.info("准备外部签名: {}", inputPdf.getName());
+
+        X509Certificate cert = (X509Certificate) certChain[0];
+
+        try (PDDocument doc = MemoryPolicy.getDefault().load(inputPdf)) {
+
+            // 1. 创建签名字典和可视化签章
+            PDSignature signature = PdfSigner.createSignatureDictionary(cert, reason, location);
+
+            IncrementalUpdate update;
+            try (SignatureOptions signatureOptions = PdfSigner.createSignatureOptions(
+                    doc, signature, cert, reason, location, SignatureAppearance.ofImage(signImagePath))) {
+
+                doc.addSignature(signature, signatureOptions);
+
+                // 2. 只序列化增量部分
+                update = IncrementalUpdate.serialize(doc, signature, inputPdf.length());
+            }
+
+            // 3. 写出文档（/Contents 保持全零占位），按 ByteRange 计算待签名内容的摘要
+            update.writeTo(inputPdf, outputPdf);
+            String digestAlgorithm = SignatureAlgorithms.digestAlgorithm(cert.getPublicKey());
+            byte[] contentDigest = update.digest(outputPdf, digestAlgorithm);
+
+            long[] range = update.getByteRange();
+            long fileLength = range[2] + range[3];
+
+            logger.info("签名占位符已写出: {}，ByteRange: [{}, {}, {}, {}]",
+                    outputPdf.getName(), range[0], range[1], range[2], range[3]);
+
+            return new PreparedSignature(outputPdf.getAbsolutePath(), fileLength, range,
+                    digestAlgorithm, contentDigest);
+        }
+    }
+
+    /**
+     * 第二阶段：把CMS签名写入占位符
+     *
+     * @param prepared 第一阶段返回的句柄
+     * @param cmsSignature DER编码的CMS签名数据
+     */
+    public static void complete(PreparedSignature prepared, byte[] cmsSignature) throws IOException {
+        if (cmsSignature.length > prepared.getMaxSignatureLength()) {
+            throw new IOException("签名数据过大: " + cmsSignature.length
+                    + " bytes，占位符最多容纳 " + prepared.getMaxSignatureLength() + " bytes");
+        }
+
+        File outputPdf = new File(prepared.getOutputPath());
+        long contentsOffset = prepared.getContentsOffset();
+        long[] byteRange = prepared.getByteRange();
+
+        try (RandomAccessFile raf = new RandomAccessFile(outputPdf, "rw")) {
+            // 1. 校验文件未被改动，占位符仍在原位置
+            if (raf.length() != prepared.getFileLength()) {
+                throw new IOException("文件长度已变化，无法写入签名: " + outputPdf.getName());
+            }
+            raf.seek(contentsOffset);
+            if (raf.read() != '<') {
+                throw new IOException("未找到签名占位符起始位置: " + contentsOffset);
+            }
+            raf.seek(byteRange[2] - 1);
+            if (raf.read() != '>') {
+                throw new IOException("未找到签名占位符结束位置: " + (byteRange[2] - 1));
+            }
+
+            // 2. 原地写入十六进制签名，剩余部分保持为 '0'
+            raf.seek(contentsOffset + 1);
+            raf.write(IncrementalUpdate.toHex(cmsSignature));
+        }
+
+        logger.info("外部签名已写入: {}，签名大小: {} bytes", outputPdf.getName(), cmsSignature.length);
+    }
+}
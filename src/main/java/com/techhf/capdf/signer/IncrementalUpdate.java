@@ -0,0 +1,244 @@
+package com.techhf.capdf.signer;
+
+import com.techhf.capdf.util.ByteRangeDigest;
+import org.apache.pdfbox.io.RandomAccessRead;
+import org.apache.pdfbox.pdfwriter.COSWriter;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.interactive.digitalsignature.PDSignature;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * 签名增量更新的零拷贝输出
+ * <p>
+ * PDFBox 的 saveIncremental 会把原文档经用户态流完整复制一遍（计算摘要时还要再读一遍），
+ * 而新增内容通常只有几KB。这里只让 PDFBox 序列化增量部分（/Contents 为全零占位），然后：
+ * <ol>
+ *   <li>原文档用 {@link FileChannel#transferTo} 复制到输出文件（由内核完成，不经过堆）；
+ *       在同一文件上追加签名时不复制，直接把增量写在文件末尾</li>
+ *   <li>按 ByteRange 读取输出文件计算摘要</li>
+ *   <li>签名完成后按位置把十六进制签名写入 /Contents 占位符</li>
+ * </ol>
+ */
+final class IncrementalUpdate {
+
+    private static final Logger logger = LoggerFactory.getLogger(IncrementalUpdate.class);
+
+    private static final byte[] HEX_DIGITS = "0123456789ABCDEF".getBytes(StandardCharsets.US_ASCII);
+
+    private final byte[] increment;
+    private final long baseLength;
+    private final long[] byteRange;
+
+    private IncrementalUpdate(byte[] increment, long baseLength, int[] byteRange) {
+        this.increment = increment;
+        this.baseLength = baseLength;
+        this.byteRange = new long[byteRange.length];
+        for (int i = 0; i < byteRange.length; i++) {
+            this.byteRange[i] = byteRange[i];
+        }
+    }
+
+    /**
+     * 序列化已添加签名字典（未注册 SignatureInterface）的文档的增量部分
+     *
+     * @param doc 已调用 addSignature 的文档
+     * @param signature 本次签名的签名字典
+     * @param baseLength 原文档长度
+     */
+    static IncrementalUpdate serialize(PDDocument doc, PDSignature signature, long baseLength) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        // 原文档只提供长度（用于计算偏移），内容读取为空，因此输出中只有增量部分
+        COSWriter writer = new COSWriter(out, new LengthOnlyRead(baseLength));
+        try {
+            writer.write(doc);
+            writer.writeExternalSignature(new byte[0]);
+        } finally {
+            writer.close();
+        }
+        return new IncrementalUpdate(out.toByteArray(), baseLength, signature.getByteRange());
+    }
+
+    /**
+     * 序列化不含新签名的增量更新（如LTV的DSS字典），只用于 {@link #writeTo}
+     *
+     * @param doc 已修改并标记了待更新对象的文档
+     * @param baseLength 原文档长度
+     */
+    static IncrementalUpdate serialize(PDDocument doc, long baseLength) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        COSWriter writer = new COSWriter(out, new LengthOnlyRead(baseLength));
+        try {
+            writer.write(doc);
+        } finally {
+            writer.close();
+        }
+        return new IncrementalUpdate(out.toByteArray(), baseLength, new int[0]);
+    }
+
+    /**
+     * 写出完整文档：原文档 + 增量（/Contents 为占位符）
+     *
+     * @param source 原文档
+     * @param output 输出文件；与 source 相同时只追加增量
+     */
+    void writeTo(File source, File output) throws IOException {
+        boolean append = source.getCanonicalFile().equals(output.getCanonicalFile());
+        try (FileChannel out = append
+                ? FileChannel.open(output.toPath(), StandardOpenOption.WRITE)
+                : FileChannel.open(output.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                        StandardOpenOption.TRUNCATE_EXISTING)) {
+            if (!append) {
+                try (FileChannel in = FileChannel.open(source.toPath(), StandardOpenOption.READ)) {
+                    long position = 0;
+                    while (position < baseLength) {
+                        position += in.transferTo(position, baseLength - position, out);
+                    }
+                }
+            }
+            writeFully(out, ByteBuffer.wrap(increment), baseLength);
+        }
+        logger.debug("增量输出: 原文档 {} bytes（{}），增量 {} bytes",
+                baseLength, append ? "原位追加" : "transferTo", increment.length);
+    }
+
+    /**
+     * 按 ByteRange 计算输出文件的摘要
+     */
+    byte[] digest(File output, String algorithm) throws IOException {
+        return ByteRangeDigest.digest(output, byteRange, algorithm);
+    }
+
+    /**
+     * 按位置把签名写入 /Contents 占位符
+     *
+     * @throws IOException 签名超出占位大小
+     */
+    void patchContents(File output, byte[] cmsSignature) throws IOException {
+        if (cmsSignature.length > getMaxSignatureLength()) {
+            throw new IOException("签名数据过大: " + cmsSignature.length
+                    + " bytes，占位符最多容纳 " + getMaxSignatureLength() + " bytes");
+        }
+        try (FileChannel out = FileChannel.open(output.toPath(), StandardOpenOption.WRITE)) {
+            // 跳过 '<'
+            writeFully(out, ByteBuffer.wrap(toHex(cmsSignature)), byteRange[1] + 1);
+        }
+    }
+
+    /**
+     * 占位符可容纳的最大签名字节数
+     */
+    int getMaxSignatureLength() {
+        // 去掉 '<' 和 '>'，每字节两个十六进制字符
+        return (int) ((byteRange[2] - byteRange[1] - 2) / 2);
+    }
+
+    long[] getByteRange() {
+        return byteRange.clone();
+    }
+
+    int getIncrementLength() {
+        return increment.length;
+    }
+
+    static byte[] toHex(byte[] data) {
+        byte[] hex = new byte[data.length * 2];
+        for (int i = 0; i < data.length; i++) {
+            hex[2 * i] = HEX_DIGITS[(data[i] >> 4) & 0x0F];
+            hex[2 * i + 1] = HEX_DIGITS[data[i] & 0x0F];
+        }
+        return hex;
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    /**
+     * 只提供长度的原文档：COSWriter 用长度计算增量中各对象的偏移，
+     * 复制原文档时读到的是空内容
+     */
+    private static final class LengthOnlyRead implements RandomAccessRead {
+        private final long length;
+        private boolean closed;
+
+        LengthOnlyRead(long length) {
+            this.length = length;
+        }
+
+        @Override
+        public int read() {
+            return -1;
+        }
+
+        @Override
+        public int read(byte[] b) {
+            return -1;
+        }
+
+        @Override
+        public int read(byte[] b, int offset, int len) {
+            return -1;
+        }
+
+        @Override
+        public long getPosition() {
+            return length;
+        }
+
+        @Override
+        public void seek(long position) {
+            // 内容为空，无需定位
+        }
+
+        @Override
+        public long length() {
+            return length;
+        }
+
+        @Override
+        public boolean isClosed() {
+            return closed;
+        }
+
+        @Override
+        public int peek() {
+            return -1;
+        }
+
+        @Override
+        public void rewind(int bytes) {
+            // 内容为空，无需回退
+        }
+
+        @Override
+        public byte[] readFully(int len) throws IOException {
+            throw new IOException("原文档内容不可读");
+        }
+
+        @Override
+        public boolean isEOF() {
+            return true;
+        }
+
+        @Override
+        public int available() {
+            return 0;
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+}
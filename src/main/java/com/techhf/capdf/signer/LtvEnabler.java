@@ -0,0 +1,351 @@
+package com.techhf.capdf.signer;
+
+import com.techhf.capdf.ltv.RevocationCache;
+import com.techhf.capdf.ltv.RevocationData;
+import com.techhf.capdf.util.MemoryPolicy;
+import org.apache.pdfbox.cos.COSArray;
+import org.apache.pdfbox.cos.COSBase;
+import org.apache.pdfbox.cos.COSDictionary;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.cos.COSObject;
+import org.apache.pdfbox.cos.COSStream;
+import org.apache.pdfbox.io.IOUtils;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.interactive.digitalsignature.PDSignature;
+import org.bouncycastle.asn1.cms.Attribute;
+import org.bouncycastle.asn1.cms.AttributeTable;
+import org.bouncycastle.asn1.cms.ContentInfo;
+import org.bouncycastle.asn1.pkcs.PKCSObjectIdentifiers;
+import org.bouncycastle.cert.X509CertificateHolder;
+import org.bouncycastle.cert.jcajce.JcaX509CertificateConverter;
+import org.bouncycastle.cms.CMSSignedData;
+import org.bouncycastle.cms.SignerInformation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.cert.X509Certificate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * PAdES-LTV：在已签名文档中嵌入长期验证信息（DSS字典）
+ * <p>
+ * 签名之后执行，为文档中每个签名（包括其中的时间戳）收集证书链和吊销信息，写入文档安全存储（DSS）：
+ * <ol>
+ *   <li>吊销信息经 {@link RevocationCache} 获取，同一颁发者的证书在 nextUpdate 之前不会重复查询</li>
+ *   <li>相同的证书、OCSP应答、CRL 在 DSS 中只存一份，多个签名的 VRI 引用同一个对象；
+ *       文档已有的 DSS 条目同样参与去重</li>
+ *   <li>所有内容写入一次增量更新，不改动已有签名覆盖的字节</li>
+ * </ol>
+ * VRI 的键为签名 /Contents 的 SHA-1（大写十六进制），已有 VRI 的签名不再处理。
+ */
+public final class LtvEnabler {
+
+    private static final Logger logger = LoggerFactory.getLogger(LtvEnabler.class);
+
+    private static final COSName DSS = COSName.getPDFName("DSS");
+    private static final COSName VRI = COSName.getPDFName("VRI");
+    private static final COSName CERTS = COSName.getPDFName("Certs");
+    private static final COSName OCSPS = COSName.getPDFName("OCSPs");
+    private static final COSName CRLS = COSName.getPDFName("CRLs");
+    private static final COSName CERT = COSName.getPDFName("Cert");
+    private static final COSName OCSP = COSName.getPDFName("OCSP");
+    private static final COSName CRL = COSName.getPDFName("CRL");
+
+    private LtvEnabler() {
+    }
+
+    /**
+     * 使用共享的吊销信息缓存和默认内存策略嵌入长期验证信息
+     *
+     * @param inputPdf 已签名的PDF
+     * @param outputPdf 输出文件；与 inputPdf 相同时只把增量追加到文件末尾
+     */
+    public static void addValidationInformation(File inputPdf, File outputPdf) throws Exception {
+        addValidationInformation(inputPdf, outputPdf, RevocationCache.shared(), MemoryPolicy.getDefault());
+    }
+
+    /**
+     * 嵌入长期验证信息
+     *
+     * @param inputPdf 已签名的PDF
+     * @param outputPdf 输出文件；与 inputPdf 相同时只把增量追加到文件末尾
+     * @param cache 吊销信息缓存
+     * @param memoryPolicy 解析文档时的内存策略
+     * @return 本次新增 VRI 的签名数
+     */
+    public static int addValidationInformation(File inputPdf, File outputPdf, RevocationCache cache,
+                                               MemoryPolicy memoryPolicy) throws Exception {
+        long start = System.currentTimeMillis();
+        long baseLength = inputPdf.length();
+
+        // 1. 打开PDF文档
+        try (PDDocument doc = memoryPolicy.load(inputPdf)) {
+            COSDictionary catalog = doc.getDocumentCatalog().getCOSObject();
+            DssBuilder dss = new DssBuilder(doc, catalog.getCOSDictionary(DSS));
+
+            // 2. 逐个签名收集证书和吊销信息
+            int added = 0;
+            for (PDSignature signature : doc.getSignatureDictionaries()) {
+                byte[] contents = signature.getContents();
+                if (contents == null || contents.length == 0) {
+                    continue;
+                }
+                String vriKey = toHex(MessageDigest.getInstance("SHA-1").digest(contents));
+                if (dss.hasVri(vriKey)) {
+                    logger.debug("签名已有VRI，跳过: {}", vriKey);
+                    continue;
+                }
+                dss.addVri(vriKey, collect(new CMSSignedData(contents), cache));
+                added++;
+            }
+
+            // 3. 没有新增内容时保持原文档
+            if (added == 0) {
+                logger.info("没有需要补充长期验证信息的签名: {}", inputPdf.getName());
+                if (!inputPdf.getCanonicalFile().equals(outputPdf.getCanonicalFile())) {
+                    Files.copy(inputPdf.toPath(), outputPdf.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                }
+                return 0;
+            }
+
+            // 4. 新的DSS挂到目录上，作为一次增量更新写出
+            catalog.setItem(DSS, dss.build());
+            catalog.setNeedToBeUpdated(true);
+            IncrementalUpdate.serialize(doc, baseLength).writeTo(inputPdf, outputPdf);
+
+            logger.info("长期验证信息已嵌入: {}，{} 个签名，{}，{} ms",
+                    outputPdf.getName(), added, dss, System.currentTimeMillis() - start);
+            return added;
+        }
+    }
+
+    /**
+     * 收集一个签名（及其签名时间戳）需要的证书和吊销信息
+     */
+    private static Validation collect(CMSSignedData signedData, RevocationCache cache) throws Exception {
+        // 1. 签名和时间戳令牌中携带的全部证书
+        List<X509Certificate> certs = new ArrayList<>();
+        addCertificates(signedData, certs);
+        for (SignerInformation signer : signedData.getSignerInfos().getSigners()) {
+            AttributeTable unsigned = signer.getUnsignedAttributes();
+            Attribute tsAttr = unsigned != null
+                    ? unsigned.get(PKCSObjectIdentifiers.id_aa_signatureTimeStampToken) : null;
+            if (tsAttr != null && tsAttr.getAttrValues().size() > 0) {
+                addCertificates(new CMSSignedData(ContentInfo.getInstance(tsAttr.getAttrValues().getObjectAt(0))),
+                        certs);
+            }
+        }
+
+        // 2. 为每张非自签名证书找到颁发者并获取吊销信息
+        Validation validation = new Validation();
+        for (X509Certificate cert : certs) {
+            validation.certs.add(cert);
+            if (isSelfSigned(cert)) {
+                continue;
+            }
+            X509Certificate issuer = findIssuer(cert, certs);
+            if (issuer == null) {
+                logger.warn("签名中缺少颁发者证书，无法获取吊销信息: {}", cert.getSubjectX500Principal());
+                continue;
+            }
+            RevocationData data = cache.get(cert, issuer);
+            if (data == null) {
+                logger.warn("证书没有OCSP或CRL地址: {}", cert.getSubjectX500Principal());
+                continue;
+            }
+            validation.revocations.add(data);
+            validation.certs.addAll(data.getCertificates());
+        }
+        return validation;
+    }
+
+    private static void addCertificates(CMSSignedData signedData, List<X509Certificate> certs) throws Exception {
+        JcaX509CertificateConverter converter = new JcaX509CertificateConverter().setProvider("BC");
+        for (Object holder : signedData.getCertificates().getMatches(null)) {
+            X509Certificate cert = converter.getCertificate((X509CertificateHolder) holder);
+            if (!certs.contains(cert)) {
+                certs.add(cert);
+            }
+        }
+    }
+
+    private static boolean isSelfSigned(X509Certificate cert) {
+        if (!cert.getSubjectX500Principal().equals(cert.getIssuerX500Principal())) {
+            return false;
+        }
+        try {
+            cert.verify(cert.getPublicKey());
+            return true;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    private static X509Certificate findIssuer(X509Certificate cert, List<X509Certificate> candidates) {
+        for (X509Certificate candidate : candidates) {
+            if (candidate != cert
+                    && candidate.getSubjectX500Principal().equals(cert.getIssuerX500Principal())) {
+                try {
+                    cert.verify(candidate.getPublicKey());
+                    return candidate;
+                } catch (Exception e) {
+                    // 同名但不是实际颁发者，继续查找
+                }
+            }
+        }
+        return null;
+    }
+
+    static String toHex(byte[] data) {
+        return new String(IncrementalUpdate.toHex(data), StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * 一个签名的验证信息
+     */
+    private static final class Validation {
+        final List<X509Certificate> certs = new ArrayList<>();
+        final List<RevocationData> revocations = new ArrayList<>();
+    }
+
+    /**
+     * 构建新的DSS字典：保留已有条目（按原对象引用），新数据按内容摘要去重后以流对象写入
+     */
+    private static final class DssBuilder {
+        private final PDDocument doc;
+        private final Entries certs;
+        private final Entries ocsps;
+        private final Entries crls;
+        private final COSDictionary vri = new COSDictionary();
+
+        DssBuilder(PDDocument doc, COSDictionary existing) throws IOException {
+            this.doc = doc;
+            this.certs = new Entries(existing, CERTS);
+            this.ocsps = new Entries(existing, OCSPS);
+            this.crls = new Entries(existing, CRLS);
+            COSDictionary existingVri = existing != null ? existing.getCOSDictionary(VRI) : null;
+            if (existingVri != null) {
+                for (Map.Entry<COSName, COSBase> entry : existingVri.entrySet()) {
+                    vri.setItem(entry.getKey(), entry.getValue());
+                }
+            }
+        }
+
+        boolean hasVri(String key) {
+            return vri.containsKey(COSName.getPDFName(key));
+        }
+
+        void addVri(String key, Validation validation) throws Exception {
+            COSDictionary entry = new COSDictionary();
+            COSArray certRefs = new COSArray();
+            COSArray ocspRefs = new COSArray();
+            COSArray crlRefs = new COSArray();
+            for (X509Certificate cert : validation.certs) {
+                addOnce(certRefs, certs.add(doc, cert.getEncoded()));
+            }
+            for (RevocationData data : validation.revocations) {
+                if (data.getType() == RevocationData.Type.OCSP) {
+                    addOnce(ocspRefs, ocsps.add(doc, data.getEncoded()));
+                } else {
+                    addOnce(crlRefs, crls.add(doc, data.getEncoded()));
+                }
+            }
+            putIfNotEmpty(entry, CERT, certRefs);
+            putIfNotEmpty(entry, OCSP, ocspRefs);
+            putIfNotEmpty(entry, CRL, crlRefs);
+            entry.setDirect(true);
+            vri.setItem(COSName.getPDFName(key), entry);
+        }
+
+        COSDictionary build() {
+            COSDictionary dss = new COSDictionary();
+            putIfNotEmpty(dss, CERTS, certs.array);
+            putIfNotEmpty(dss, OCSPS, ocsps.array);
+            putIfNotEmpty(dss, CRLS, crls.array);
+            dss.setItem(VRI, vri);
+            return dss;
+        }
+
+        private void addOnce(COSArray refs, COSBase object) {
+            if (refs.indexOf(object) < 0) {
+                refs.add(object);
+            }
+        }
+
+        private static void putIfNotEmpty(COSDictionary dict, COSName key, COSArray array) {
+            if (array.size() > 0) {
+                dict.setItem(key, array);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "DSS: 证书 " + certs.array.size() + "，OCSP " + ocsps.array.size()
+                    + "，CRL " + crls.array.size() + "，复用 " + (certs.reused + ocsps.reused + crls.reused);
+        }
+    }
+
+    /**
+     * DSS中的一类条目（Certs / OCSPs / CRLs），按内容的SHA-256去重
+     */
+    private static final class Entries {
+        final COSArray array = new COSArray();
+        final Map<String, COSBase> byDigest = new HashMap<>();
+        int reused;
+
+        Entries(COSDictionary existing, COSName key) throws IOException {
+            COSArray existingArray = existing != null ? existing.getCOSArray(key) : null;
+            if (existingArray == null) {
+                return;
+            }
+            for (int i = 0; i < existingArray.size(); i++) {
+                COSBase item = existingArray.get(i);
+                COSBase resolved = item instanceof COSObject ? ((COSObject) item).getObject() : item;
+                if (resolved instanceof COSStream) {
+                    try (InputStream in = ((COSStream) resolved).createInputStream()) {
+                        byDigest.put(digest(IOUtils.toByteArray(in)), item);
+                    }
+                }
+                array.add(item);
+            }
+        }
+
+        /**
+         * 返回内容相同的已有对象，没有时新建一个压缩的流对象
+         */
+        COSBase add(PDDocument doc, byte[] encoded) throws IOException {
+            String digest = digest(encoded);
+            COSBase existing = byDigest.get(digest);
+            if (existing != null) {
+                reused++;
+                return existing;
+            }
+            COSStream stream = doc.getDocument().createCOSStream();
+            try (OutputStream out = stream.createOutputStream(COSName.FLATE_DECODE)) {
+                out.write(encoded);
+            }
+            byDigest.put(digest, stream);
+            array.add(stream);
+            return stream;
+        }
+
+        private static String digest(byte[] data) throws IOException {
+            try {
+                return toHex(MessageDigest.getInstance("SHA-256").digest(data));
+            } catch (Exception e) {
+                throw new IOException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.techhf.capdf.signer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 页面选择
+ * <p>
+ * 页码从1开始（与阅读器中显示的页码一致）。支持的写法：
+ * <pre>
+ * PageSelection.all()              全部页面
+ * PageSelection.odd()              奇数页
+ * PageSelection.even()             偶数页
+ * PageSelection.last()             最后一页
+ * PageSelection.range(3, 10)       第3~10页
+ * PageSelection.parse("1-3,7,10-") 第1~3页、第7页、第10页到最后
+ * </pre>
+ * 不可变对象，不依赖具体文档，判断时传入总页数。
+ */
+public final class PageSelection {
+
+    private interface Rule {
+        boolean matches(int pageNumber, int pageCount);
+    }
+
+    private final String description;
+    private final List<Rule> rules;
+
+    private PageSelection(String description, List<Rule> rules) {
+        this.description = description;
+        this.rules = rules;
+    }
+
+    private static PageSelection of(String description, Rule rule) {
+        return new PageSelection(description, Collections.singletonList(rule));
+    }
+
+    public static PageSelection all() {
+        return of("all", (page, count) -> true);
+    }
+
+    public static PageSelection odd() {
+        return of("odd", (page, count) -> page % 2 == 1);
+    }
+
+    public static PageSelection even() {
+        return of("even", (page, count) -> page % 2 == 0);
+    }
+
+    public static PageSelection last() {
+        return of("last", (page, count) -> page == count);
+    }
+
+    /**
+     * 连续页码范围（含两端）
+     *
+     * @param from 起始页（从1开始）
+     * @param to 结束页（含），超出总页数时截止到最后一页
+     */
+    public static PageSelection range(int from, int to) {
+        if (from < 1 || to < from) {
+            throw new IllegalArgumentException("无效的页码范围: " + from + "-" + to);
+        }
+        return of(from + "-" + to, (page, count) -> page >= from && page <= to);
+    }
+
+    /**
+     * 解析页码表达式，多个部分以逗号分隔，取并集
+     * 每一部分可以是 all / odd / even / last / N / N-M / N-（到最后一页）
+     */
+    public static PageSelection parse(String spec) {
+        if (spec == null || spec.trim().isEmpty()) {
+            throw new IllegalArgumentException("页码表达式不能为空");
+        }
+        List<Rule> rules = new ArrayList<>();
+        for (String part : spec.split(",")) {
+            rules.addAll(parsePart(part.trim().toLowerCase()).rules);
+        }
+        return new PageSelection(spec.trim(), Collections.unmodifiableList(rules));
+    }
+
+    private static PageSelection parsePart(String part) {
+        switch (part) {
+            case "all":
+                return all();
+            case "odd":
+                return odd();
+            case "even":
+                return even();
+            case "last":
+                return last();
+            default:
+                break;
+        }
+        try {
+            int dash = part.indexOf('-');
+            if (dash < 0) {
+                int page = Integer.parseInt(part);
+                return range(page, page);
+            }
+            int from = Integer.parseInt(part.substring(0, dash).trim());
+            String end = part.substring(dash + 1).trim();
+            return range(from, end.isEmpty() ? Integer.MAX_VALUE : Integer.parseInt(end));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("无效的页码表达式: " + part, e);
+        }
+    }
+
+    /**
+     * 判断页面是否被选中
+     *
+     * @param pageNumber 页码（从1开始）
+     * @param pageCount 文档总页数
+     */
+    public boolean includes(int pageNumber, int pageCount) {
+        for (Rule rule : rules) {
+            if (rule.matches(pageNumber, pageCount)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return description;
+    }
+}
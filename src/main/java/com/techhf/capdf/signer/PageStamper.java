@@ -0,0 +1,214 @@
+package com.techhf.capdf.signer;
+
+import org.apache.pdfbox.cos.COSArray;
+import org.apache.pdfbox.cos.COSBase;
+import org.apache.pdfbox.cos.COSDictionary;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.cos.COSObject;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.PDResources;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.graphics.form.PDFormXObject;
+import org.apache.pdfbox.pdmodel.graphics.image.LosslessFactory;
+import org.apache.pdfbox.pdmodel.graphics.image.PDImageXObject;
+import org.apache.pdfbox.pdmodel.interactive.annotation.PDAnnotationRubberStamp;
+import org.apache.pdfbox.pdmodel.interactive.annotation.PDAppearanceDictionary;
+import org.apache.pdfbox.pdmodel.interactive.annotation.PDAppearanceStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * 多页盖章与骑缝章
+ * <p>
+ * 签章图片（或骑缝章的每个竖条）只嵌入一次：图片 XObject 包在表单 XObject 中，
+ * 各页的印章注释（/Subtype /Stamp）的外观都引用同一个表单对象，
+ * 因此文件大小和耗时与页数基本无关，每页只增加一个很小的注释字典。
+ * 新增内容写在与签名相同的增量更新中，被签名覆盖。
+ */
+final class PageStamper {
+
+    private static final Logger logger = LoggerFactory.getLogger(PageStamper.class);
+
+    private PageStamper() {
+    }
+
+    /**
+     * 在选中的页面上盖章
+     *
+     * @param doc 待签名文档
+     * @param image 签章图片
+     * @param appearance 签章位置和大小（各页相同），以及页面选择
+     * @param skipPage 跳过的页（从0开始，通常为签名控件所在页，已有签章），-1表示不跳过
+     * @return 盖章的页数
+     */
+    static int addStamps(PDDocument doc, BufferedImage image, SignatureAppearance appearance, int skipPage)
+            throws IOException {
+        PageSelection selection = appearance.getStampPages();
+        float width = appearance.getEffectiveWidth();
+        float height = appearance.getEffectiveHeight();
+
+        // 1. 图片和表单 XObject 只创建一次
+        PDFormXObject form = createStampForm(doc, image, width, height);
+
+        // 2. 各页添加引用同一表单的印章注释
+        int pageCount = doc.getNumberOfPages();
+        int pageIndex = 0;
+        int stamped = 0;
+        for (PDPage page : doc.getPages()) {
+            if (pageIndex != skipPage && selection.includes(pageIndex + 1, pageCount)) {
+                // 与可视化签章一致：y 从页面顶部算起
+                PDRectangle mediaBox = page.getMediaBox();
+                addStampAnnotation(page, form, new PDRectangle(
+                        mediaBox.getLowerLeftX() + appearance.getX(),
+                        mediaBox.getUpperRightY() - appearance.getY() - height,
+                        width, height));
+                stamped++;
+            }
+            pageIndex++;
+        }
+
+        logger.info("多页盖章完成: {} 页（{}）", stamped, selection);
+        return stamped;
+    }
+
+    /**
+     * 加盖骑缝章
+     * <p>
+     * 印章只读取/绘制一次，按每组页数切成竖条，每个竖条嵌入一次，
+     * 各组复用同一套竖条；页数不能整除时，最后不足一组的页面另切一套，保证每组都能拼成完整印章。
+     *
+     * @param doc 待签名文档
+     * @param seal 骑缝章配置
+     * @return 盖章的页数
+     */
+    static int addCrossPageSeal(PDDocument doc, CrossPageSeal seal) throws IOException {
+        PageSelection selection = seal.getPages();
+        int pageCount = doc.getNumberOfPages();
+
+        // 1. 统计参与骑缝的页数（只判断页码，不访问页面对象）
+        int selected = 0;
+        for (int pageNumber = 1; pageNumber <= pageCount; pageNumber++) {
+            if (selection.includes(pageNumber, pageCount)) {
+                selected++;
+            }
+        }
+        if (selected == 0) {
+            logger.warn("骑缝章未选中任何页面: {}", selection);
+            return 0;
+        }
+
+        // 2. 绘制一次印章并切条
+        int groupSize = Math.min(selected, seal.getMaxStrips());
+        int remainder = selected % groupSize;
+        int tailStart = selected - remainder;
+        BufferedImage image = seal.loadImage();
+        PDFormXObject[] strips = createStripForms(doc, image, groupSize, seal.getSize());
+        PDFormXObject[] tailStrips = remainder > 0 ? createStripForms(doc, image, remainder, seal.getSize()) : null;
+
+        // 3. 各页右边缘放置对应竖条
+        int pageIndex = 0;
+        int position = 0;
+        for (PDPage page : doc.getPages()) {
+            if (selection.includes(pageIndex + 1, pageCount)) {
+                PDFormXObject strip = position < tailStart
+                        ? strips[position % groupSize]
+                        : tailStrips[position - tailStart];
+                float stripWidth = strip.getBBox().getWidth();
+                PDRectangle mediaBox = page.getMediaBox();
+                addStampAnnotation(page, strip, new PDRectangle(
+                        mediaBox.getUpperRightX() - stripWidth,
+                        mediaBox.getUpperRightY() - seal.getY() - seal.getSize(),
+                        stripWidth, seal.getSize()));
+                position++;
+            }
+            pageIndex++;
+        }
+
+        logger.info("骑缝章完成: {} 页，每组 {} 条", selected, groupSize);
+        return selected;
+    }
+
+    private static PDFormXObject[] createStripForms(PDDocument doc, BufferedImage image, int count, float size)
+            throws IOException {
+        int imageWidth = image.getWidth();
+        if (imageWidth < count) {
+            throw new IllegalArgumentException("骑缝章图片宽度 " + imageWidth + "px 不足以切成 " + count + " 条");
+        }
+        PDFormXObject[] forms = new PDFormXObject[count];
+        for (int i = 0; i < count; i++) {
+            // 像素边界取整，相邻竖条不重叠也不留缝
+            int left = (int) Math.round((double) i * imageWidth / count);
+            int right = (int) Math.round((double) (i + 1) * imageWidth / count);
+            BufferedImage slice = image.getSubimage(left, 0, right - left, image.getHeight());
+            forms[i] = createStampForm(doc, slice, size * (right - left) / imageWidth, size);
+        }
+        return forms;
+    }
+
+    private static PDFormXObject createStampForm(PDDocument doc, BufferedImage image, float width, float height)
+            throws IOException {
+        PDImageXObject imageXObject = LosslessFactory.createFromImage(doc, image);
+
+        PDFormXObject form = new PDFormXObject(doc);
+        form.setBBox(new PDRectangle(width, height));
+        form.setResources(new PDResources());
+        try (OutputStream os = form.getContentStream().createOutputStream();
+             PDPageContentStream cs = new PDPageContentStream(doc, form, os)) {
+            cs.drawImage(imageXObject, 0, 0, width, height);
+        }
+        return form;
+    }
+
+    private static void addStampAnnotation(PDPage page, PDFormXObject form, PDRectangle rectangle) {
+        PDAnnotationRubberStamp stamp = new PDAnnotationRubberStamp();
+        stamp.setRectangle(rectangle);
+        stamp.setPrinted(true);
+        stamp.setReadOnly(true);
+        stamp.setLocked(true);
+        stamp.setPage(page);
+
+        PDAppearanceDictionary appearance = new PDAppearanceDictionary();
+        appearance.setNormalAppearance(new PDAppearanceStream(form.getCOSObject()));
+        stamp.setAppearance(appearance);
+
+        // 直接操作 /Annots 数组，避免为已有注释创建包装对象
+        COSDictionary pageDict = page.getCOSObject();
+        COSBase annotsItem = pageDict.getItem(COSName.ANNOTS);
+        COSBase annotsBase = annotsItem instanceof COSObject ? ((COSObject) annotsItem).getObject() : annotsItem;
+        COSArray annots;
+        if (annotsBase instanceof COSArray) {
+            annots = (COSArray) annotsBase;
+            annots.setNeedToBeUpdated(true);
+        } else {
+            annots = new COSArray();
+            pageDict.setItem(COSName.ANNOTS, annots);
+        }
+        annots.add(stamp.getCOSObject());
+
+        markForIncrementalUpdate(pageDict);
+    }
+
+    /**
+     * 增量保存只写出标记为已修改的对象，需要标记从页面到页面树根的整条路径
+     */
+    private static void markForIncrementalUpdate(COSDictionary pageDict) {
+        COSDictionary node = pageDict;
+        while (node != null) {
+            if (node.isNeedToBeUpdated() && node != pageDict) {
+                break;  // 上层路径已由其他页面标记过
+            }
+            node.setNeedToBeUpdated(true);
+            COSBase kids = node.getDictionaryObject(COSName.KIDS);
+            if (kids instanceof COSArray) {
+                ((COSArray) kids).setNeedToBeUpdated(true);
+            }
+            node = node.getCOSDictionary(COSName.PARENT);
+        }
+    }
+}
@@ -1,36 +1,28 @@
 package com.techhf.capdf.signer;
 
+import com.techhf.capdf.cert.SignatureAlgorithms;
+import com.techhf.capdf.tsa.LocalTimestampClient;
+import com.techhf.capdf.tsa.TimestampClient;
+import com.techhf.capdf.util.MemoryPolicy;
+import com.techhf.capdf.util.ThreadAllocationTracker;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.pdmodel.interactive.digitalsignature.PDSignature;
-import org.apache.pdfbox.pdmodel.interactive.digitalsignature.SignatureInterface;
 import org.apache.pdfbox.pdmodel.interactive.digitalsignature.SignatureOptions;
-import org.apache.pdfbox.pdmodel.interactive.digitalsignature.visible.PDVisibleSigProperties;
-import org.apache.pdfbox.pdmodel.interactive.digitalsignature.visible.PDVisibleSignDesigner;
-import org.bouncycastle.asn1.ASN1ObjectIdentifier;
-import org.bouncycastle.asn1.cms.AttributeTable;
-import org.bouncycastle.asn1.pkcs.PKCSObjectIdentifiers;
-import org.bouncycastle.cert.jcajce.JcaCertStore;
-import org.bouncycastle.cms.*;
-import org.bouncycastle.cms.jcajce.JcaSignerInfoGeneratorBuilder;
 import org.bouncycastle.jce.provider.BouncyCastleProvider;
-import org.bouncycastle.operator.ContentSigner;
-import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
-import org.bouncycastle.operator.jcajce.JcaDigestCalculatorProviderBuilder;
-import org.bouncycastle.tsp.*;
-import org.bouncycastle.util.Store;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.imageio.ImageIO;
+
 import java.io.*;
-import java.math.BigInteger;
-import java.security.KeyStore;
-import java.security.PrivateKey;
 import java.security.Security;
 import java.security.cert.Certificate;
 import java.security.cert.X509Certificate;
-import java.util.Arrays;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.Calendar;
 import java.util.Date;
+import java.util.List;
 
 /**
  * PDF签名器
@@ -40,6 +32,9 @@ public class PdfSigner {
     
     private static final Logger logger = LoggerFactory.getLogger(PdfSigner.class);
     
+    /** 签名占位不足时的最大签名次数（含首次） */
+    private static final int MAX_SIGN_ATTEMPTS = 3;
+    
     static {
         if (Security.getProvider(BouncyCastleProvider.PROVIDER_NAME) == null) {
             Security.addProvider(new BouncyCastleProvider());
@@ -68,378 +63,436 @@ public class PdfSigner {
             String signImagePath,
             boolean addTimestamp) throws Exception {
         
-        logger.info("开始签名PDF: {}", inputPdf.getName());
+        // 1. 加载证书和私钥（同一证书文件在进程内只解密一次）
+        SigningCredential credential = SigningCredentialStore.shared().get(certPath, password);
         
-        // 处理空密码情况
-        char[] passwordChars = (password == null || password.isEmpty()) ? new char[0] : password.toCharArray();
+        signPdf(inputPdf, outputPdf, credential, reason, location, signImagePath, addTimestamp);
+    }
+
+    /**
+     * 使用已加载的签名凭据对PDF进行数字签名（带可视化签章）
+     * 
+     * @param inputPdf 输入PDF文件
+     * @param outputPdf 输出PDF文件
+     * @param credential 签名凭据（可由 {@link SigningCredentialStore} 获取）
+     * @param reason 签名原因
+     * @param location 签名地点
+     * @param signImagePath 签章图片路径（可选，传null则自动生成）
+     * @param addTimestamp 是否添加时间戳
+     */
+    public static void signPdf(
+            File inputPdf,
+            File outputPdf,
+            SigningCredential credential,
+            String reason,
+            String location,
+            String signImagePath,
+            boolean addTimestamp) throws Exception {
+        
+        signPdf(inputPdf, outputPdf, credential, reason, location,
+                SignatureAppearance.ofImage(signImagePath), addTimestamp);
+    }
+
+    /**
+     * 使用已加载的签名凭据和指定签章外观对PDF进行数字签名
+     * 签名占位大小按证书链和时间戳自适应估算
+     * 
+     * @param inputPdf 输入PDF文件
+     * @param outputPdf 输出PDF文件
+     * @param credential 签名凭据（可由 {@link SigningCredentialStore} 获取）
+     * @param reason 签名原因
+     * @param location 签名地点
+     * @param appearance 签章图片和位置
+     * @param addTimestamp 是否添加时间戳
+     */
+    public static void signPdf(
+            File inputPdf,
+            File outputPdf,
+            SigningCredential credential,
+            String reason,
+            String location,
+            SignatureAppearance appearance,
+            boolean addTimestamp) throws Exception {
         
-        // 1. 加载证书和私钥
-        KeyStore keyStore = KeyStore.getInstance("PKCS12");
-        try (FileInputStream fis = new FileInputStream(certPath)) {
-            keyStore.load(fis, passwordChars);
+        signPdf(inputPdf, outputPdf, credential, reason, location, appearance, addTimestamp,
+                SignatureSizing.ADAPTIVE);
+    }
+
+    /**
+     * 使用已加载的签名凭据和指定签章外观对PDF进行数字签名
+     * 
+     * @param inputPdf 输入PDF文件
+     * @param outputPdf 输出PDF文件
+     * @param credential 签名凭据（可由 {@link SigningCredentialStore} 获取）
+     * @param reason 签名原因
+     * @param location 签名地点
+     * @param appearance 签章图片和位置
+     * @param addTimestamp 是否添加时间戳（使用进程内共享TSA签发）
+     * @param sizing 签名占位大小的确定方式
+     */
+    public static void signPdf(
+            File inputPdf,
+            File outputPdf,
+            SigningCredential credential,
+            String reason,
+            String location,
+            SignatureAppearance appearance,
+            boolean addTimestamp,
+            SignatureSizing sizing) throws Exception {
+        
+        TimestampClient timestampClient = addTimestamp
+                ? LocalTimestampClient.shared()
+                : null;
+        signPdf(inputPdf, outputPdf, credential, reason, location, appearance, timestampClient, sizing);
+    }
+
+    /**
+     * 使用已加载的签名凭据和指定签章外观对PDF进行数字签名
+     * 
+     * @param inputPdf 输入PDF文件
+     * @param outputPdf 输出PDF文件
+     * @param credential 签名凭据（可由 {@link SigningCredentialStore} 获取）
+     * @param reason 签名原因
+     * @param location 签名地点
+     * @param appearance 签章图片和位置
+     * @param timestampClient 时间戳客户端（为null时不添加时间戳）
+     * @param sizing 签名占位大小的确定方式
+     */
+    public static void signPdf(
+            File inputPdf,
+            File outputPdf,
+            SigningCredential credential,
+            String reason,
+            String location,
+            SignatureAppearance appearance,
+            TimestampClient timestampClient,
+            SignatureSizing sizing) throws Exception {
+        signPdf(inputPdf, outputPdf, credential, reason, location, appearance, timestampClient, sizing,
+                MemoryPolicy.getDefault());
+    }
+
+    /**
+     * 使用指定内存策略对PDF进行数字签名（大文档可使用 {@link MemoryPolicy#tempFileOnly()}）
+     * 
+     * @param memoryPolicy 解析文档时的内存策略
+     * @see #signPdf(File, File, SigningCredential, String, String, SignatureAppearance, TimestampClient, SignatureSizing)
+     */
+    public static void signPdf(
+            File inputPdf,
+            File outputPdf,
+            SigningCredential credential,
+            String reason,
+            String location,
+            SignatureAppearance appearance,
+            TimestampClient timestampClient,
+            SignatureSizing sizing,
+            MemoryPolicy memoryPolicy) throws Exception {
+        
+        logger.info("开始签名PDF: {}（{}）", inputPdf.getName(), memoryPolicy);
+        
+        signRevision(inputPdf, outputPdf, false, credential, reason, location, appearance,
+                timestampClient, sizing, memoryPolicy);
+    }
+
+    /**
+     * 对同一文档依次施加多个签名（审批流程：多个部门依次签署）
+     * <p>
+     * 原文档只复制一次，之后每个签名只把自己的增量更新追加到输出文件末尾，
+     * 不再为每个签名重新写出完整副本。凭据和签章模板在步骤间复用。
+     * <p>
+     * 注意：PDFBox 2.0 的 PDDocument 在 saveIncremental 之后不能继续用于下一个修订，
+     * 且加载时会完整解析 trailer 可达的全部对象，因此 N 个签名仍然需要对不断增长的
+     * 输出文件做 N 次完整解析；节省的是 N 次完整写出，解析成本与逐个调用相同。
+     * 大文档可配合 {@link MemoryPolicy#tempFileOnly()} 控制每次解析的堆占用。
+     * 
+     * @param inputPdf 输入PDF文件
+     * @param outputPdf 输出PDF文件（不能与输入相同）
+     * @param steps 按签署顺序排列的签名步骤
+     */
+    public static void signPdf(File inputPdf, File outputPdf, List<SignatureStep> steps) throws Exception {
+        signPdf(inputPdf, outputPdf, steps, MemoryPolicy.getDefault());
+    }
+
+    /**
+     * 使用指定内存策略依次施加多个签名
+     * 
+     * @param memoryPolicy 解析文档时的内存策略
+     * @see #signPdf(File, File, List)
+     */
+    public static void signPdf(File inputPdf, File outputPdf, List<SignatureStep> steps,
+                               MemoryPolicy memoryPolicy) throws Exception {
+        if (steps == null || steps.isEmpty()) {
+            throw new IllegalArgumentException("至少需要一个签名步骤");
+        }
+        if (inputPdf.getCanonicalFile().equals(outputPdf.getCanonicalFile())) {
+            throw new IllegalArgumentException("输出文件不能与输入文件相同: " + outputPdf);
         }
         
-        String alias = keyStore.aliases().nextElement();
-        PrivateKey privateKey = (PrivateKey) keyStore.getKey(alias, passwordChars);
-        Certificate[] certChain = keyStore.getCertificateChain(alias);
-        X509Certificate cert = (X509Certificate) certChain[0];
+        logger.info("开始多重签名PDF: {}，共 {} 个签名", inputPdf.getName(), steps.size());
         
-        logger.info("证书加载成功: {}", cert.getSubjectDN());
+        // 1. 原文档只复制一次
+        Files.copy(inputPdf.toPath(), outputPdf.toPath(), StandardCopyOption.REPLACE_EXISTING);
         
-        // 如果没有提供签章图片，自动生成一个
-        String actualImagePath = signImagePath;
-        boolean autoGeneratedImage = false;
-        if (actualImagePath == null || !new File(actualImagePath).exists()) {
-            actualImagePath = "auto-generated-signature.png";
-            generateSignatureImage(
-                    getCommonName(cert.getSubjectDN().getName()),
-                    location,
-                    reason,
-                    actualImagePath
-            );
-            autoGeneratedImage = true;
-            logger.info("自动生成签章图片: {}", actualImagePath);
+        // 2. 依次追加每个签名的增量更新
+        for (int i = 0; i < steps.size(); i++) {
+            SignatureStep step = steps.get(i);
+            logger.info("第 {}/{} 个签名: {}", i + 1, steps.size(), step);
+            signRevision(outputPdf, outputPdf, true, step.getCredential(), step.getReason(), step.getLocation(),
+                    step.getAppearance(), step.getTimestampClient(), step.getSizing(), memoryPolicy);
         }
         
-        // 2. 打开PDF文档
-        try (PDDocument doc = PDDocument.load(inputPdf);
-             FileOutputStream fos = new FileOutputStream(outputPdf)) {
-            
-            // 3. 创建签名对象
-            PDSignature signature = new PDSignature();
-            signature.setFilter(PDSignature.FILTER_ADOBE_PPKLITE);
-            signature.setSubFilter(PDSignature.SUBFILTER_ADBE_PKCS7_DETACHED);
-            signature.setName(getCommonName(cert.getSubjectDN().getName()));
-            signature.setReason(reason != null ? reason : "Digital Signature");
-            signature.setLocation(location != null ? location : "Default Location");
-            signature.setSignDate(Calendar.getInstance());
-            
-            // 4. 配置签名选项（可视化签章）
-            SignatureOptions signatureOptions = new SignatureOptions();
-            signatureOptions.setPreferredSignatureSize(SignatureOptions.DEFAULT_SIGNATURE_SIZE * 2);
-            
-            // 创建可视化签章
-            createVisibleSignature(doc, signature, signatureOptions, actualImagePath);
-            
-            // 5. 注册签名接口
-            doc.addSignature(signature, new SignatureInterface() {
-                @Override
-                public byte[] sign(InputStream content) throws IOException {
+        logger.info("多重签名完成: {}", outputPdf.getName());
+    }
+    
+    /**
+     * 生成一个签名修订版本，占位不足时以实际大小重新签名
+     * 
+     * @param source 待签名文档
+     * @param output 输出文件
+     * @param append 为true时 source 与 output 为同一文件，只把增量更新追加到文件末尾
+     */
+    private static void signRevision(
+            File source,
+            File output,
+            boolean append,
+            SigningCredential credential,
+            String reason,
+            String location,
+            SignatureAppearance appearance,
+            TimestampClient timestampClient,
+            SignatureSizing sizing,
+            MemoryPolicy memoryPolicy) throws Exception {
+        
+        Certificate[] certChain = credential.getCertChain();
+        X509Certificate cert = credential.getCertificate();
+        
+        logger.info("使用证书: {}", cert.getSubjectX500Principal());
+        
+        int placeholderSize = sizing == SignatureSizing.ADAPTIVE
+                ? SignatureSizeEstimator.estimate(certChain, timestampClient)
+                : SignatureSizeEstimator.fixedSize();
+        long baseLength = source.length();
+        ThreadAllocationTracker allocation = ThreadAllocationTracker.start();
+        
+        for (int attempt = 1; ; attempt++) {
+            int[] signatureLength = new int[1];
+            try {
+                signOnce(source, output, baseLength, credential, reason, location, appearance,
+                        timestampClient, memoryPolicy, placeholderSize, signatureLength);
+                logger.info("PDF签名完成: {}，签名 {} bytes / 占位 {} bytes，本线程累计分配 {}（allocated bytes，非堆峰值）",
+                        output.getName(), signatureLength[0], placeholderSize,
+                        ThreadAllocationTracker.toMegabytes(allocation.getAllocatedBytes()));
+                return;
+            } catch (Exception e) {
+                if (append) {
+                    // 任何失败都丢弃写了一半的增量更新，恢复到本次签名之前的状态，
+                    // 否则下一个签名会追加在损坏的修订之后
                     try {
-                        return createSignature(content, privateKey, certChain, addTimestamp);
-                    } catch (Exception e) {
-                        throw new IOException("签名失败", e);
+                        truncate(output, baseLength);
+                    } catch (IOException truncateError) {
+                        e.addSuppressed(truncateError);
                     }
                 }
-            }, signatureOptions);
-            
-            // 6. 保存签名后的文档
-            doc.saveIncremental(fos);
-            logger.info("PDF签名完成: {}", outputPdf.getName());
-            
-            // 删除自动生成的临时图片
-            if (autoGeneratedImage) {
-                new File(actualImagePath).delete();
+                // 只有签名数据超出占位（IOException）时才重试，其他错误直接抛出
+                if (!(e instanceof IOException) || signatureLength[0] <= placeholderSize
+                        || attempt >= MAX_SIGN_ATTEMPTS) {
+                    throw e;
+                }
+                int retrySize = SignatureSizeEstimator.withMargin(signatureLength[0]);
+                logger.warn("签名占位不足（预留 {} bytes，实际 {} bytes），以 {} bytes 重新签名",
+                        placeholderSize, signatureLength[0], retrySize);
+                placeholderSize = retrySize;
             }
         }
     }
     
     /**
-     * 自动生成签章图片
+     * 执行一次签名
+     * 
+     * @param baseLength 原文档长度（追加模式下即输出文件中已有的字节数）
+     * @param placeholderSize 签名占位大小（字节）
+     * @param signatureLength 输出参数：实际生成的CMS签名大小
      */
-    private static void generateSignatureImage(String signerName, String location, String reason, String outputPath) {
-        try {
-            int width = 300;
-            int height = 150;
-            
-            java.awt.image.BufferedImage image = new java.awt.image.BufferedImage(
-                    width, height, java.awt.image.BufferedImage.TYPE_INT_RGB);
-            java.awt.Graphics2D g2d = image.createGraphics();
-            
-            // 抗锯齿
-            g2d.setRenderingHint(java.awt.RenderingHints.KEY_ANTIALIASING, 
-                               java.awt.RenderingHints.VALUE_ANTIALIAS_ON);
-            g2d.setRenderingHint(java.awt.RenderingHints.KEY_TEXT_ANTIALIASING, 
-                               java.awt.RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
-            
-            // 白色背景
-            g2d.setColor(java.awt.Color.WHITE);
-            g2d.fillRect(0, 0, width, height);
-            
-            // 蓝色边框
-            g2d.setColor(new java.awt.Color(0, 102, 204));
-            g2d.setStroke(new java.awt.BasicStroke(3));
-            g2d.drawRoundRect(5, 5, width - 10, height - 10, 15, 15);
-            
-            // 标题
-            g2d.setFont(new java.awt.Font("微软雅黑", java.awt.Font.BOLD, 20));
-            drawCenteredText(g2d, "数字签名", width / 2, 35);
-            
-            // 分隔线
-            g2d.setColor(new java.awt.Color(200, 200, 200));
-            g2d.setStroke(new java.awt.BasicStroke(1));
-            g2d.drawLine(20, 50, width - 20, 50);
-            
-            // 详细信息
-            g2d.setColor(java.awt.Color.BLACK);
-            g2d.setFont(new java.awt.Font("微软雅黑", java.awt.Font.PLAIN, 13));
+    private static void signOnce(
+            File source,
+            File output,
+            long baseLength,
+            SigningCredential credential,
+            String reason,
+            String location,
+            SignatureAppearance appearance,
+            TimestampClient timestampClient,
+            MemoryPolicy memoryPolicy,
+            int placeholderSize,
+            int[] signatureLength) throws Exception {
+        
+        X509Certificate cert = credential.getCertificate();
+        
+        // 2. 打开PDF文档
+        try (PDDocument doc = memoryPolicy.load(source)) {
             
-            int yPos = 75;
-            g2d.drawString("签名人: " + signerName, 20, yPos);
-            yPos += 25;
+            // 3. 创建签名对象
+            PDSignature signature = createSignatureDictionary(cert, reason, location);
             
-            if (location != null && !location.isEmpty()) {
-                g2d.drawString("位置: " + location, 20, yPos);
-                yPos += 25;
+            // 4. 配置签名选项（可视化签章）
+            IncrementalUpdate update;
+            try (SignatureOptions signatureOptions = createSignatureOptions(
+                    doc, signature, cert, reason, location, appearance)) {
+                signatureOptions.setPreferredSignatureSize(placeholderSize);
+                doc.addSignature(signature, signatureOptions);
+                
+                // 5. 只序列化增量部分，原文档以 transferTo 复制（追加模式下不复制）
+                update = IncrementalUpdate.serialize(doc, signature, baseLength);
             }
+            update.writeTo(source, output);
             
-            g2d.setFont(new java.awt.Font("微软雅黑", java.awt.Font.PLAIN, 11));
-            g2d.drawString("时间: " + new java.text.SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format(new Date()), 20, yPos);
-            
-            g2d.dispose();
+            // 6. 按 ByteRange 计算摘要并签名
+            logger.info("生成签名数据...");
+            byte[] contentDigest = update.digest(output, SignatureAlgorithms.digestAlgorithm(cert.getPublicKey()));
+            byte[] cms = CmsSignatureBuilder.build(contentDigest, credential, timestampClient);
+            signatureLength[0] = cms.length;
             
-            // 保存
-            javax.imageio.ImageIO.write(image, "PNG", new File(outputPath));
-            
-        } catch (Exception e) {
-            logger.warn("生成签章图片失败，将使用默认样式", e);
+            // 7. 按位置写入 /Contents
+            update.patchContents(output, cms);
+        }
+    }
+    
+    private static void truncate(File file, long length) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(length);
         }
     }
     
     /**
-     * 居中绘制文本
+     * 创建签名字典
      */
-    private static void drawCenteredText(java.awt.Graphics2D g2d, String text, int x, int y) {
-        java.awt.FontMetrics fm = g2d.getFontMetrics();
-        int textWidth = fm.stringWidth(text);
-        g2d.drawString(text, x - textWidth / 2, y);
+    static PDSignature createSignatureDictionary(X509Certificate cert, String reason, String location) {
+        PDSignature signature = new PDSignature();
+        signature.setFilter(PDSignature.FILTER_ADOBE_PPKLITE);
+        signature.setSubFilter(PDSignature.SUBFILTER_ADBE_PKCS7_DETACHED);
+        signature.setName(getCommonName(cert.getSubjectX500Principal().getName()));
+        signature.setReason(reason != null ? reason : "Digital Signature");
+        signature.setLocation(location != null ? location : "Default Location");
+        signature.setSignDate(Calendar.getInstance());
+        return signature;
     }
-
+    
     /**
-     * 创建可视化签章
+     * 配置签名选项（可视化签章）
+     * 调用方需在保存文档后关闭返回的 SignatureOptions
+     * 
+     * @param appearance 签章图片和位置（图片为null或不存在时自动生成）
      */
-    private static void createVisibleSignature(
+    static SignatureOptions createSignatureOptions(
             PDDocument doc,
             PDSignature signature,
-            SignatureOptions options,
-            String imagePath) throws IOException {
-        
-        try (FileInputStream imageStream = new FileInputStream(imagePath)) {
-            // 在最后一页的右下角创建签章
-            int pageNum = doc.getNumberOfPages() - 1;
-            
-            PDVisibleSignDesigner designer = new PDVisibleSignDesigner(
-                    doc,
-                    imageStream,
-                    pageNum + 1  // PDFBox页码从1开始
+            X509Certificate cert,
+            String reason,
+            String location,
+            SignatureAppearance appearance) throws IOException {
+        
+        // 签章所在页（默认最后一页）
+        int pageNum = appearance.resolvePage(doc.getNumberOfPages());
+        
+        // 提供了签章图片时复用缓存的模板；否则在内存中自动生成（内容含时间，不缓存）
+        byte[] template;
+        String signImagePath = appearance.getImagePath();
+        if (signImagePath != null && new File(signImagePath).exists()) {
+            template = AppearanceTemplateCache.shared().getTemplate(
+                    doc, pageNum, new File(signImagePath), appearance);
+        } else {
+            java.awt.image.BufferedImage signImage = generateSignatureImage(
+                    getCommonName(cert.getSubjectX500Principal().getName()),
+                    location,
+                    reason
             );
-            
-            // 设置签章位置和大小
-            designer.xAxis(400)   // X坐标
-                    .yAxis(50)    // Y坐标
-                    .width(150)   // 宽度
-                    .height(80)   // 高度
-                    .zoom(-50);   // 缩放
-            
-            PDVisibleSigProperties properties = new PDVisibleSigProperties();
-            properties.signerName(signature.getName())
-                      .signerLocation(signature.getLocation())
-                      .signatureReason(signature.getReason())
-                      .preferredSize(0)
-                      .page(pageNum)
-                      .visualSignEnabled(true)
-                      .setPdVisibleSignature(designer)
-                      .buildSignature();
-            
-            options.setVisualSignature(properties);
-            options.setPage(pageNum);
-            
-            logger.info("可视化签章配置完成");
+            logger.info("自动生成签章图片");
+            template = AppearanceTemplateCache.buildTemplate(doc, pageNum, signImage, appearance);
+            if (appearance.getStampPages() != null) {
+                PageStamper.addStamps(doc, signImage, appearance, pageNum);
+            }
         }
-    }
-
-    /**
-     * 创建PKCS#7签名数据
-     */
-    private static byte[] createSignature(
-            InputStream content,
-            PrivateKey privateKey,
-            Certificate[] certChain,
-            boolean addTimestamp) throws Exception {
-        
-        logger.info("生成签名数据...");
-        
-        // 1. 读取PDF内容
-        byte[] pdfContent = readAllBytes(content);
-        
-        // 2. 创建CMS签名生成器
-        CMSSignedDataGenerator gen = new CMSSignedDataGenerator();
-        
-        X509Certificate cert = (X509Certificate) certChain[0];
-        ContentSigner signer = new JcaContentSignerBuilder("SHA256withRSA")
-                .setProvider("BC")
-                .build(privateKey);
-        
-        // 3. 构建签名者信息生成器
-        JcaSignerInfoGeneratorBuilder signerBuilder = new JcaSignerInfoGeneratorBuilder(
-                new JcaDigestCalculatorProviderBuilder()
-                        .setProvider("BC")
-                        .build());
-        
-        gen.addSignerInfoGenerator(signerBuilder.build(signer, cert));
-        
-        // 4. 添加证书链
-        Store certStore = new JcaCertStore(Arrays.asList(certChain));
-        gen.addCertificates(certStore);
         
-        // 5. 生成签名
-        CMSSignedData signedData = gen.generate(
-                new org.bouncycastle.cms.CMSProcessableByteArray(pdfContent),
-                false
-        );
-        
-        // 6. 如果需要，添加时间戳
-        if (addTimestamp) {
-            logger.info("添加时间戳到签名...");
-            signedData = addTimestampToSignature(signedData, privateKey, cert);
+        // 其他页加盖相同印章、骑缝章（与签名写入同一增量更新）
+        if (appearance.getStampPages() != null && signImagePath != null && new File(signImagePath).exists()) {
+            PageStamper.addStamps(doc, ImageIO.read(new File(signImagePath)), appearance, pageNum);
+        }
+        if (appearance.getCrossPageSeal() != null) {
+            PageStamper.addCrossPageSeal(doc, appearance.getCrossPageSeal());
         }
         
-        byte[] signatureBytes = signedData.getEncoded();
-        logger.info("签名数据生成完成，大小: {} bytes", signatureBytes.length);
-        return signatureBytes;
+        SignatureOptions signatureOptions = new SignatureOptions();
+        signatureOptions.setPreferredSignatureSize(SignatureSizeEstimator.fixedSize());
+        signatureOptions.setVisualSignature(new ByteArrayInputStream(template));
+        signatureOptions.setPage(pageNum);
+        
+        logger.info("可视化签章配置完成");
+        return signatureOptions;
     }
-
+    
     /**
-     * 添加时间戳到签名
-     * 将时间戳作为 unsigned attribute 添加到 SignerInfo
+     * 自动生成签章图片（仅在内存中渲染，不落盘）
      */
-    private static CMSSignedData addTimestampToSignature(
-            CMSSignedData signedData,
-            PrivateKey tsaPrivateKey,
-            X509Certificate tsaCert) throws Exception {
-        
-        logger.info("生成时间戳令牌...");
-        
-        // 获取原始签名信息
-        SignerInformationStore signerInfos = signedData.getSignerInfos();
-        SignerInformation signerInfo = signerInfos.getSigners().iterator().next();
-        
-        // 1. 创建时间戳请求
-        TimeStampRequestGenerator tsReqGen = new TimeStampRequestGenerator();
-        tsReqGen.setCertReq(true);
-        
-        // 2. 计算签名值的哈希
-        byte[] signature = signerInfo.getSignature();
-        java.security.MessageDigest md = java.security.MessageDigest.getInstance("SHA-256");
-        byte[] signatureHash = md.digest(signature);
-        
-        // 3. 生成时间戳请求
-        TimeStampRequest tsRequest = tsReqGen.generate(
-                TSPAlgorithms.SHA256,
-                signatureHash,
-                BigInteger.valueOf(System.currentTimeMillis())
-        );
-        
-        // 4. 生成时间戳令牌（自签名时间戳）
-        TimeStampToken tsToken = generateTimeStampToken(tsRequest, tsaPrivateKey, tsaCert);
-        
-        logger.info("时间戳生成成功");
-        logger.info("时间戳时间: {}", tsToken.getTimeStampInfo().getGenTime());
-        
-        // 5. 将时间戳作为 unsigned attribute 添加到 SignerInfo
-        AttributeTable unsignedAttrs = signerInfo.getUnsignedAttributes();
-        if (unsignedAttrs == null) {
-            unsignedAttrs = new AttributeTable(new java.util.Hashtable<>());
+    private static java.awt.image.BufferedImage generateSignatureImage(String signerName, String location, String reason) {
+        int width = 300;
+        int height = 150;
+        
+        java.awt.image.BufferedImage image = new java.awt.image.BufferedImage(
+                width, height, java.awt.image.BufferedImage.TYPE_INT_RGB);
+        java.awt.Graphics2D g2d = image.createGraphics();
+        
+        // 抗锯齿
+        g2d.setRenderingHint(java.awt.RenderingHints.KEY_ANTIALIASING, 
+                           java.awt.RenderingHints.VALUE_ANTIALIAS_ON);
+        g2d.setRenderingHint(java.awt.RenderingHints.KEY_TEXT_ANTIALIASING, 
+                           java.awt.RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        
+        // 白色背景
+        g2d.setColor(java.awt.Color.WHITE);
+        g2d.fillRect(0, 0, width, height);
+        
+        // 蓝色边框
+        g2d.setColor(new java.awt.Color(0, 102, 204));
+        g2d.setStroke(new java.awt.BasicStroke(3));
+        g2d.drawRoundRect(5, 5, width - 10, height - 10, 15, 15);
+        
+        // 标题
+        g2d.setFont(new java.awt.Font("微软雅黑", java.awt.Font.BOLD, 20));
+        drawCenteredText(g2d, "数字签名", width / 2, 35);
+        
+        // 分隔线
+        g2d.setColor(new java.awt.Color(200, 200, 200));
+        g2d.setStroke(new java.awt.BasicStroke(1));
+        g2d.drawLine(20, 50, width - 20, 50);
+        
+        // 详细信息
+        g2d.setColor(java.awt.Color.BLACK);
+        g2d.setFont(new java.awt.Font("微软雅黑", java.awt.Font.PLAIN, 13));
+        
+        int yPos = 75;
+        g2d.drawString("签名人: " + signerName, 20, yPos);
+        yPos += 25;
+        
+        if (location != null && !location.isEmpty()) {
+            g2d.drawString("位置: " + location, 20, yPos);
+            yPos += 25;
         }
         
-        // 添加时间戳属性（OID: 1.2.840.113549.1.9.16.2.14）
-        ASN1ObjectIdentifier tsAttrType = PKCSObjectIdentifiers.id_aa_signatureTimeStampToken;
+        g2d.setFont(new java.awt.Font("微软雅黑", java.awt.Font.PLAIN, 11));
+        g2d.drawString("时间: " + new java.text.SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format(new Date()), 20, yPos);
         
-        // RFC 3161: 时间戳令牌必须作为 SignedData ContentInfo 结构存储
-        // 直接使用 toCMSSignedData().toASN1Structure() 获取 ContentInfo
-        org.bouncycastle.asn1.ASN1Encodable tsContentInfo = tsToken.toCMSSignedData().toASN1Structure();
+        g2d.dispose();
         
-        // 直接添加时间戳属性，不要再次获取 AttrValues（避免嵌套 SET）
-        unsignedAttrs = unsignedAttrs.add(tsAttrType, tsContentInfo);
-        
-        // 6. 重建 SignerInfo
-        SignerInformation newSignerInfo = SignerInformation.replaceUnsignedAttributes(signerInfo, unsignedAttrs);
-        
-        // 7. 重建 CMSSignedData
-        SignerInformationStore newSignerInfos = new SignerInformationStore(Arrays.asList(newSignerInfo));
-        
-        CMSSignedData newSignedData = CMSSignedData.replaceSigners(signedData, newSignerInfos);
-        
-        logger.info("时间戳已嵌入到签名中");
-        return newSignedData;
-    }
-
-    /**
-     * 生成时间戳令牌（自签名TSA）
-     * 注意：生产环境应该调用真实的TSA服务器
-     */
-    private static TimeStampToken generateTimeStampToken(
-            TimeStampRequest request,
-            PrivateKey tsaPrivateKey,
-            X509Certificate tsaCert) throws Exception {
-        
-        // 创建摘要计算器提供者
-        org.bouncycastle.operator.DigestCalculatorProvider digestCalcProvider = 
-                new JcaDigestCalculatorProviderBuilder()
-                        .setProvider("BC")
-                        .build();
-        
-        // 创建签名者信息生成器
-        ContentSigner signer = new JcaContentSignerBuilder("SHA256withRSA")
-                .setProvider("BC")
-                .build(tsaPrivateKey);
-        
-        org.bouncycastle.cms.SignerInfoGenerator signerInfoGen = new JcaSignerInfoGeneratorBuilder(digestCalcProvider)
-                .build(signer, tsaCert);
-        
-        // 创建时间戳令牌生成器
-        TimeStampTokenGenerator tsTokenGen = new TimeStampTokenGenerator(
-                signerInfoGen,
-                digestCalcProvider.get(
-                        new org.bouncycastle.operator.DefaultDigestAlgorithmIdentifierFinder().find("SHA-256")
-                ),
-                new org.bouncycastle.asn1.ASN1ObjectIdentifier("1.2.3.4.5.6.7.8.9") // TSA Policy OID
-        );
-        
-        // 添加证书
-        tsTokenGen.addCertificates(new JcaCertStore(Arrays.asList(tsaCert)));
-        
-        // 生成时间戳响应
-        TimeStampResponseGenerator tsRespGen = new TimeStampResponseGenerator(
-                tsTokenGen,
-                TSPAlgorithms.ALLOWED
-        );
-        
-        TimeStampResponse tsResponse = tsRespGen.generate(
-                request,
-                BigInteger.valueOf(System.currentTimeMillis()),
-                new Date()
-        );
-        
-        // 验证响应
-        tsResponse.validate(request);
-        
-        logger.warn("注意：当前使用自签名时间戳，生产环境请使用真实的TSA服务");
-        
-        return tsResponse.getTimeStampToken();
+        return image;
     }
-
+    
     /**
-     * 从输入流读取所有字节
+     * 居中绘制文本
      */
-    private static byte[] readAllBytes(InputStream input) throws IOException {
-        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
-        int nRead;
-        byte[] data = new byte[16384];
-        while ((nRead = input.read(data, 0, data.length)) != -1) {
-            buffer.write(data, 0, nRead);
-        }
-        return buffer.toByteArray();
+    private static void drawCenteredText(java.awt.Graphics2D g2d, String text, int x, int y) {
+        java.awt.FontMetrics fm = g2d.getFontMetrics();
+        int textWidth = fm.stringWidth(text);
+        g2d.drawString(text, x - textWidth / 2, y);
     }
 
     /**
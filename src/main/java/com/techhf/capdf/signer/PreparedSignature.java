@@ -0,0 +1,80 @@
+package com.techhf.capdf.signer;
+
+import java.io.Serializable;
+
+/**
+ * 两阶段签名的中间句柄
+ * <p>
+ * 由 {@link ExternalPdfSigner#prepare} 返回，记录已写出文档中 /Contents 占位符的位置
+ * 以及 ByteRange 内容的摘要。可序列化，两个阶段可以在不同的进程或时间执行。
+ */
+public class PreparedSignature implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String outputPath;
+    private final long fileLength;
+    private final long[] byteRange;
+    private final String digestAlgorithm;
+    private final byte[] contentDigest;
+
+    PreparedSignature(String outputPath, long fileLength, long[] byteRange,
+                      String digestAlgorithm, byte[] contentDigest) {
+        this.outputPath = outputPath;
+        this.fileLength = fileLength;
+        this.byteRange = byteRange.clone();
+        this.digestAlgorithm = digestAlgorithm;
+        this.contentDigest = contentDigest.clone();
+    }
+
+    /**
+     * 已写出（带占位符）的PDF文件路径
+     */
+    public String getOutputPath() {
+        return outputPath;
+    }
+
+    /**
+     * 写出时的文件长度，用于在第二阶段检测文件是否被改动
+     */
+    public long getFileLength() {
+        return fileLength;
+    }
+
+    /**
+     * 签名覆盖的字节范围 [offset1, length1, offset2, length2]
+     */
+    public long[] getByteRange() {
+        return byteRange.clone();
+    }
+
+    /**
+     * 摘要算法（例如 SHA-256）
+     */
+    public String getDigestAlgorithm() {
+        return digestAlgorithm;
+    }
+
+    /**
+     * ByteRange 内容的摘要，外部签名服务据此生成CMS签名
+     */
+    public byte[] getContentDigest() {
+        return contentDigest.clone();
+    }
+
+    /**
+     * /Contents 占位符的起始偏移（指向 '&lt;'）
+     */
+    public long getContentsOffset() {
+        return byteRange[0] + byteRange[1];
+    }
+
+    /**
+     * 占位符可容纳的CMS签名最大字节数
+     */
+    public int getMaxSignatureLength() {
+        long placeholderLength = byteRange[2] - getContentsOffset();
+        // 去掉首尾的 "<>"，每个字节编码为两个十六进制字符
+        return (int) ((placeholderLength - 2) / 2);
+    }
+}
@@ -0,0 +1,242 @@
+package com.techhf.capdf.signer;
+
+import com.techhf.capdf.ltv.RevocationCache;
+import com.techhf.capdf.tsa.LocalTimestampClient;
+import com.techhf.capdf.tsa.TimestampClient;
+import com.techhf.capdf.util.MemoryPolicy;
+
+import java.io.File;
+
+/**
+ * 批量签名任务
+ * 描述一个待签名文档：输入、输出、签名凭据引用、签章外观、时间戳和长期验证信息开关
+ * <p>
+ * 使用示例：
+ * <pre>
+ * SignJob job = SignJob.forTenant(input, output, "tenant-a")
+ *         .reason("合同签署")
+ *         .location("北京")
+ *         .signImagePath("seal.png")
+ *         .addTimestamp(true);
+ * </pre>
+ */
+public class SignJob {
+
+    private final File inputPdf;
+    private final File outputPdf;
+    private final String tenantId;
+    private final String certPath;
+    private final String password;
+    private final SigningCredential credential;
+
+    private String reason;
+    private String location;
+    private SignatureAppearance appearance = SignatureAppearance.DEFAULT;
+    private boolean addTimestamp;
+    private TimestampClient timestampClient;
+    private SignatureSizing sizing = SignatureSizing.ADAPTIVE;
+    private MemoryPolicy memoryPolicy;
+    private boolean ltv;
+    private RevocationCache revocationCache;
+
+    private SignJob(File inputPdf, File outputPdf, String tenantId, String certPath, String password,
+                    SigningCredential credential) {
+        this.inputPdf = inputPdf;
+        this.outputPdf = outputPdf;
+        this.tenantId = tenantId;
+        this.certPath = certPath;
+        this.password = password;
+        this.credential = credential;
+    }
+
+    /**
+     * 使用已在 {@link SigningCredentialStore} 中注册的租户证书
+     */
+    public static SignJob forTenant(File inputPdf, File outputPdf, String tenantId) {
+        return new SignJob(inputPdf, outputPdf, tenantId, null, null, null);
+    }
+
+    /**
+     * 使用证书文件
+     *
+     * @param certPath 证书路径(.p12)
+     * @param password 证书密码（可以为null或空字符串表示无密码）
+     */
+    public static SignJob withCertificate(File inputPdf, File outputPdf, String certPath, String password) {
+        return new SignJob(inputPdf, outputPdf, null, certPath, password, null);
+    }
+
+    /**
+     * 使用已有的签名凭据（例如 {@link SigningCredential#remote} 远程签名服务中的密钥）
+     */
+    public static SignJob withCredential(File inputPdf, File outputPdf, SigningCredential credential) {
+        if (credential == null) {
+            throw new IllegalArgumentException("签名凭据不能为空");
+        }
+        return new SignJob(inputPdf, outputPdf, null, null, null, credential);
+    }
+
+    public SignJob reason(String reason) {
+        this.reason = reason;
+        return this;
+    }
+
+    public SignJob location(String location) {
+        this.location = location;
+        return this;
+    }
+
+    /**
+     * 签章图片路径（可选，不设置则自动生成）
+     */
+    public SignJob signImagePath(String signImagePath) {
+        this.appearance = appearance.withImage(signImagePath);
+        return this;
+    }
+
+    /**
+     * 签章图片和位置（覆盖之前设置的签章图片路径）
+     */
+    public SignJob appearance(SignatureAppearance appearance) {
+        this.appearance = appearance != null ? appearance : SignatureAppearance.DEFAULT;
+        return this;
+    }
+
+    public SignJob addTimestamp(boolean addTimestamp) {
+        this.addTimestamp = addTimestamp;
+        return this;
+    }
+
+    /**
+     * 使用指定的时间戳客户端添加时间戳（优先于 {@link #addTimestamp(boolean)} 的进程内时间戳）
+     */
+    public SignJob timestampClient(TimestampClient timestampClient) {
+        this.timestampClient = timestampClient;
+        return this;
+    }
+
+    /**
+     * 签名占位大小的确定方式（默认自适应估算）
+     */
+    public SignJob sizing(SignatureSizing sizing) {
+        this.sizing = sizing;
+        return this;
+    }
+
+    /**
+     * 解析文档时的内存策略（不设置则使用 {@link MemoryPolicy#getDefault()}）
+     */
+    public SignJob memoryPolicy(MemoryPolicy memoryPolicy) {
+        this.memoryPolicy = memoryPolicy;
+        return this;
+    }
+
+    /**
+     * 签名后嵌入长期验证信息（DSS字典，PAdES-LTV）
+     */
+    public SignJob ltv(boolean ltv) {
+        this.ltv = ltv;
+        return this;
+    }
+
+    /**
+     * 嵌入长期验证信息时使用的吊销信息缓存（不设置则使用 {@link RevocationCache#shared()}）
+     */
+    public SignJob revocationCache(RevocationCache revocationCache) {
+        this.revocationCache = revocationCache;
+        return this;
+    }
+
+    /**
+     * 从凭据缓存中解析签名凭据
+     */
+    SigningCredential resolveCredential(SigningCredentialStore store) throws Exception {
+        if (credential != null) {
+            return credential;
+        }
+        if (tenantId != null) {
+            return store.getForTenant(tenantId);
+        }
+        return store.get(certPath, password);
+    }
+
+    /**
+     * 确定本任务使用的时间戳客户端，不需要时间戳时返回null
+     */
+    TimestampClient resolveTimestampClient() {
+        if (timestampClient != null) {
+            return timestampClient;
+        }
+        return addTimestamp ? LocalTimestampClient.shared() : null;
+    }
+
+    public File getInputPdf() {
+        return inputPdf;
+    }
+
+    public File getOutputPdf() {
+        return outputPdf;
+    }
+
+    public String getTenantId() {
+        return tenantId;
+    }
+
+    public String getCertPath() {
+        return certPath;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    public String getLocation() {
+        return location;
+    }
+
+    public String getSignImagePath() {
+        return appearance.getImagePath();
+    }
+
+    public SignatureAppearance getAppearance() {
+        return appearance;
+    }
+
+    public boolean isAddTimestamp() {
+        return addTimestamp;
+    }
+
+    public TimestampClient getTimestampClient() {
+        return timestampClient;
+    }
+
+    public SignatureSizing getSizing() {
+        return sizing;
+    }
+
+    /**
+     * 本任务实际使用的内存策略
+     */
+    public MemoryPolicy getMemoryPolicy() {
+        return memoryPolicy != null ? memoryPolicy : MemoryPolicy.getDefault();
+    }
+
+    public boolean isLtv() {
+        return ltv;
+    }
+
+    /**
+     * 本任务实际使用的吊销信息缓存
+     */
+    public RevocationCache getRevocationCache() {
+        return revocationCache != null ? revocationCache : RevocationCache.shared();
+    }
+
+    @Override
+    public String toString() {
+        return inputPdf.getName() + " -> " + outputPdf.getName()
+                + (tenantId != null ? " [tenant=" + tenantId + "]"
+                : credential != null ? " [credential=" + credential.getCertificate().getSubjectX500Principal() + "]"
+                : " [cert=" + certPath + "]");
+    }
+}
@@ -0,0 +1,68 @@
+package com.techhf.capdf.signer;
+
+import com.techhf.capdf.util.ThreadAllocationTracker;
+
+/**
+ * 批量签名中单个任务的结果
+ */
+public class SignJobResult {
+
+    private final SignJob job;
+    private final Throwable error;
+    private final long queueMillis;
+    private final long signMillis;
+    private final long allocatedBytes;
+
+    SignJobResult(SignJob job, Throwable error, long queueMillis, long signMillis, long allocatedBytes) {
+        this.job = job;
+        this.error = error;
+        this.queueMillis = queueMillis;
+        this.signMillis = signMillis;
+        this.allocatedBytes = allocatedBytes;
+    }
+
+    public SignJob getJob() {
+        return job;
+    }
+
+    public boolean isSuccess() {
+        return error == null;
+    }
+
+    /**
+     * 失败原因，成功时为null
+     */
+    public Throwable getError() {
+        return error;
+    }
+
+    /**
+     * 任务在提交队列中等待的时间（毫秒）
+     */
+    public long getQueueMillis() {
+        return queueMillis;
+    }
+
+    /**
+     * 签名耗时（毫秒）
+     */
+    public long getSignMillis() {
+        return signMillis;
+    }
+
+    /**
+     * 签名期间工作线程累计分配的字节数（allocated bytes，不是堆峰值，可能远大于峰值），
+     * 不受并发任务影响；JVM 不支持时为 -1，
+     * 见 {@link ThreadAllocationTracker}
+     */
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    @Override
+    public String toString() {
+        return job + (isSuccess() ? " 成功" : " 失败: " + error.getMessage())
+                + "，排队 " + queueMillis + " ms，签名 " + signMillis + " ms"
+                + "，累计分配 " + ThreadAllocationTracker.toMegabytes(allocatedBytes);
+    }
+}
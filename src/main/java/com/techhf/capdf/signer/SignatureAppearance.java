@@ -0,0 +1,181 @@
+package com.techhf.capdf.signer;
+
+/**
+ * 可视化签章外观：签章图片以及在页面上的位置和大小
+ * <p>
+ * 不可变对象，可在多个签名任务和线程之间共享，也用作签章模板缓存的键的一部分。
+ * <pre>
+ * SignatureAppearance appearance = SignatureAppearance.ofImage("seal.png").at(400, 50, 150, 80);
+ * </pre>
+ */
+public final class SignatureAppearance {
+
+    /** 最后一页 */
+    public static final int LAST_PAGE = -1;
+
+    /** 默认外观：自动生成签章图片，最后一页右下角 */
+    public static final SignatureAppearance DEFAULT =
+            new SignatureAppearance(null, LAST_PAGE, 400, 50, 150, 80, -50, null, null);
+
+    private final String imagePath;
+    private final int page;
+    private final float x;
+    private final float y;
+    private final float width;
+    private final float height;
+    private final float zoom;
+    private final PageSelection stampPages;
+    private final CrossPageSeal crossPageSeal;
+
+    private SignatureAppearance(String imagePath, int page, float x, float y, float width, float height,
+                                float zoom, PageSelection stampPages, CrossPageSeal crossPageSeal) {
+        this.imagePath = imagePath;
+        this.page = page;
+        this.x = x;
+        this.y = y;
+        this.width = width;
+        this.height = height;
+        this.zoom = zoom;
+        this.stampPages = stampPages;
+        this.crossPageSeal = crossPageSeal;
+    }
+
+    /**
+     * 使用指定签章图片和默认位置
+     *
+     * @param imagePath 签章图片路径（传null则自动生成）
+     */
+    public static SignatureAppearance ofImage(String imagePath) {
+        return DEFAULT.withImage(imagePath);
+    }
+
+    public SignatureAppearance withImage(String imagePath) {
+        return new SignatureAppearance(imagePath, page, x, y, width, height, zoom, stampPages, crossPageSeal);
+    }
+
+    /**
+     * 设置签章所在页
+     *
+     * @param page 页码（从0开始），{@link #LAST_PAGE} 表示最后一页
+     */
+    public SignatureAppearance onPage(int page) {
+        return new SignatureAppearance(imagePath, page, x, y, width, height, zoom, stampPages, crossPageSeal);
+    }
+
+    /**
+     * 设置位置和大小（PDF坐标，原点在页面左上角）
+     */
+    public SignatureAppearance at(float x, float y, float width, float height) {
+        return new SignatureAppearance(imagePath, page, x, y, width, height, zoom, stampPages, crossPageSeal);
+    }
+
+    /**
+     * 设置图片缩放百分比（例如 -50 表示缩小一半）
+     */
+    public SignatureAppearance zoom(float zoom) {
+        return new SignatureAppearance(imagePath, page, x, y, width, height, zoom, stampPages, crossPageSeal);
+    }
+
+    /**
+     * 在签名页之外的其他页面上加盖相同的印章（同一位置和大小）
+     * 印章图片在文件中只嵌入一次，各页共享，文件大小与页数基本无关
+     *
+     * @param stampPages 盖章页面，null 表示只在签名页显示签章
+     */
+    public SignatureAppearance stampOn(PageSelection stampPages) {
+        return new SignatureAppearance(imagePath, page, x, y, width, height, zoom, stampPages, crossPageSeal);
+    }
+
+    /**
+     * 同时加盖骑缝章（与签名写入同一增量更新）
+     *
+     * @param crossPageSeal 骑缝章配置，null 表示不加盖
+     */
+    public SignatureAppearance crossPageSeal(CrossPageSeal crossPageSeal) {
+        return new SignatureAppearance(imagePath, page, x, y, width, height, zoom, stampPages, crossPageSeal);
+    }
+
+    /**
+     * 签章图片路径，null 表示自动生成
+     */
+    public String getImagePath() {
+        return imagePath;
+    }
+
+    public int getPage() {
+        return page;
+    }
+
+    /**
+     * 解析签章在指定文档中的实际页码（从0开始）
+     */
+    int resolvePage(int numberOfPages) {
+        int resolved = page == LAST_PAGE ? numberOfPages - 1 : page;
+        if (resolved < 0 || resolved >= numberOfPages) {
+            throw new IllegalArgumentException("签章页码超出范围: " + page + "，文档共 " + numberOfPages + " 页");
+        }
+        return resolved;
+    }
+
+    public float getX() {
+        return x;
+    }
+
+    public float getY() {
+        return y;
+    }
+
+    public float getWidth() {
+        return width;
+    }
+
+    public float getHeight() {
+        return height;
+    }
+
+    public float getZoom() {
+        return zoom;
+    }
+
+    /**
+     * 额外盖章的页面，null 表示不额外盖章
+     */
+    public PageSelection getStampPages() {
+        return stampPages;
+    }
+
+    /**
+     * 骑缝章配置，null 表示不加盖
+     */
+    public CrossPageSeal getCrossPageSeal() {
+        return crossPageSeal;
+    }
+
+    /**
+     * 缩放后的实际宽度（与签名页上的签章一致）
+     */
+    float getEffectiveWidth() {
+        return width * (1 + zoom / 100);
+    }
+
+    /**
+     * 缩放后的实际高度
+     */
+    float getEffectiveHeight() {
+        return height * (1 + zoom / 100);
+    }
+
+    /**
+     * 几何参数描述（不含图片），用于缓存键
+     */
+    String geometryKey() {
+        return x + "," + y + "," + width + "," + height + "," + zoom;
+    }
+
+    @Override
+    public String toString() {
+        return "SignatureAppearance[image=" + imagePath + ", page=" + page + ", " + geometryKey()
+                + (stampPages != null ? ", stampOn=" + stampPages : "")
+                + (crossPageSeal != null ? ", " + crossPageSeal : "") + "]";
+    }
+}
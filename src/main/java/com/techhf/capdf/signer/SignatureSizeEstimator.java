@@ -0,0 +1,76 @@
+package com.techhf.capdf.signer;
+
+import com.techhf.capdf.cert.SignatureAlgorithms;
+import com.techhf.capdf.tsa.TimestampClient;
+import org.apache.pdfbox.pdmodel.interactive.digitalsignature.SignatureOptions;
+
+import java.security.cert.Certificate;
+import java.security.cert.CertificateEncodingException;
+import java.security.cert.X509Certificate;
+
+/**
+ * CMS签名大小估算
+ * <p>
+ * adbe.pkcs7.detached 签名的大小主要由以下部分组成：
+ * <ul>
+ *     <li>嵌入的证书链（各证书DER编码长度之和）</li>
+ *     <li>SignerInfo：签发者名称、序列号、算法标识、signed attributes 和签名值</li>
+ *     <li>可选的时间戳令牌，大小取自 {@link TimestampClient#getEstimatedTokenSize()}</li>
+ * </ul>
+ * 逐项累加后再加上安全余量，作为 /Contents 占位大小。
+ */
+public final class SignatureSizeEstimator {
+
+    /** ContentInfo/SignedData 外层结构、版本、算法集合等固定开销 */
+    private static final int CMS_OVERHEAD = 256;
+
+    /** SignerInfo 中除签发者名称和签名值以外的部分（序列号、算法标识、signed attributes） */
+    private static final int SIGNER_INFO_OVERHEAD = 320;
+
+    /** 安全余量：估算值的10%再加512字节 */
+    private static final int MARGIN_PERCENT = 10;
+    private static final int MARGIN_BYTES = 512;
+
+    private SignatureSizeEstimator() {
+    }
+
+    /**
+     * 估算占位大小（字节）
+     *
+     * @param certChain 签名证书链
+     * @param timestampClient 时间戳客户端（为null表示不嵌入时间戳），令牌大小取其预估值
+     * @return 包含安全余量的占位大小（字节）
+     */
+    public static int estimate(Certificate[] certChain, TimestampClient timestampClient)
+            throws CertificateEncodingException {
+        return estimate(certChain, timestampClient != null ? timestampClient.getEstimatedTokenSize() : 0);
+    }
+
+    private static int estimate(Certificate[] certChain, int timestampTokenSize) throws CertificateEncodingException {
+        X509Certificate cert = (X509Certificate) certChain[0];
+
+        int size = CMS_OVERHEAD;
+        for (Certificate c : certChain) {
+            size += c.getEncoded().length;
+        }
+        size += SIGNER_INFO_OVERHEAD + cert.getIssuerX500Principal().getEncoded().length
+                + SignatureAlgorithms.maxSignatureLength(cert.getPublicKey());
+        size += timestampTokenSize;
+
+        return withMargin(size);
+    }
+
+    /**
+     * 在实际签名大小基础上加上安全余量，用于估算不足后的重试
+     */
+    static int withMargin(int size) {
+        return size + size * MARGIN_PERCENT / 100 + MARGIN_BYTES;
+    }
+
+    /**
+     * 固定模式的占位大小
+     */
+    static int fixedSize() {
+        return SignatureOptions.DEFAULT_SIGNATURE_SIZE * 2;
+    }
+}
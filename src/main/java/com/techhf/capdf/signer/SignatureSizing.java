@@ -0,0 +1,18 @@
+package com.techhf.capdf.signer;
+
+/**
+ * 签名占位（/Contents）大小的确定方式
+ */
+public enum SignatureSizing {
+
+    /**
+     * 固定预留 {@code SignatureOptions.DEFAULT_SIGNATURE_SIZE * 2} 字节（约20KB十六进制零）
+     */
+    FIXED,
+
+    /**
+     * 根据证书链、密钥长度和是否嵌入时间戳估算CMS大小，并留出安全余量；
+     * 估算不足时以实际大小重新签名
+     */
+    ADAPTIVE
+}
@@ -0,0 +1,115 @@
+package com.techhf.capdf.signer;
+
+import com.techhf.capdf.tsa.LocalTimestampClient;
+import com.techhf.capdf.tsa.TimestampClient;
+
+/**
+ * 多重签名中的一个签名步骤
+ * 描述签名人凭据、签名原因/地点、签章外观（含页码）和时间戳
+ * <p>
+ * 使用示例：
+ * <pre>
+ * List&lt;SignatureStep&gt; steps = Arrays.asList(
+ *         SignatureStep.of(financeCredential).reason("财务审批")
+ *                 .appearance(SignatureAppearance.ofImage("finance.png").at(60, 50, 120, 120)),
+ *         SignatureStep.of(legalCredential).reason("法务审批")
+ *                 .appearance(SignatureAppearance.ofImage("legal.png").at(230, 50, 120, 120))
+ *                 .addTimestamp(true));
+ * PdfSigner.signPdf(input, output, steps);
+ * </pre>
+ */
+public class SignatureStep {
+
+    private final SigningCredential credential;
+
+    private String reason;
+    private String location;
+    private SignatureAppearance appearance = SignatureAppearance.DEFAULT;
+    private TimestampClient timestampClient;
+    private SignatureSizing sizing = SignatureSizing.ADAPTIVE;
+
+    private SignatureStep(SigningCredential credential) {
+        if (credential == null) {
+            throw new IllegalArgumentException("签名凭据不能为空");
+        }
+        this.credential = credential;
+    }
+
+    /**
+     * @param credential 签名凭据（可由 {@link SigningCredentialStore} 获取）
+     */
+    public static SignatureStep of(SigningCredential credential) {
+        return new SignatureStep(credential);
+    }
+
+    public SignatureStep reason(String reason) {
+        this.reason = reason;
+        return this;
+    }
+
+    public SignatureStep location(String location) {
+        this.location = location;
+        return this;
+    }
+
+    /**
+     * 签章图片、页码和位置
+     */
+    public SignatureStep appearance(SignatureAppearance appearance) {
+        this.appearance = appearance != null ? appearance : SignatureAppearance.DEFAULT;
+        return this;
+    }
+
+    /**
+     * 使用进程内共享TSA添加时间戳
+     */
+    public SignatureStep addTimestamp(boolean addTimestamp) {
+        this.timestampClient = addTimestamp ? LocalTimestampClient.shared() : null;
+        return this;
+    }
+
+    /**
+     * 使用指定的时间戳客户端添加时间戳
+     */
+    public SignatureStep timestampClient(TimestampClient timestampClient) {
+        this.timestampClient = timestampClient;
+        return this;
+    }
+
+    /**
+     * 签名占位大小的确定方式（默认自适应估算）
+     */
+    public SignatureStep sizing(SignatureSizing sizing) {
+        this.sizing = sizing;
+        return this;
+    }
+
+    public SigningCredential getCredential() {
+        return credential;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    public String getLocation() {
+        return location;
+    }
+
+    public SignatureAppearance getAppearance() {
+        return appearance;
+    }
+
+    public TimestampClient getTimestampClient() {
+        return timestampClient;
+    }
+
+    public SignatureSizing getSizing() {
+        return sizing;
+    }
+
+    @Override
+    public String toString() {
+        return credential.getCertificate().getSubjectX500Principal() + " " + appearance;
+    }
+}
@@ -0,0 +1,114 @@
+package com.techhf.capdf.signer;
+
+import com.techhf.capdf.cert.CryptoProviders;
+import com.techhf.capdf.remote.RemoteContentSigner;
+import com.techhf.capdf.remote.RemoteSigner;
+import org.bouncycastle.operator.ContentSigner;
+import org.bouncycastle.operator.OperatorCreationException;
+
+import java.io.FileInputStream;
+import java.security.KeyStore;
+import java.security.PrivateKey;
+import java.security.cert.Certificate;
+import java.security.cert.X509Certificate;
+
+/**
+ * 签名凭据
+ * 已解密的私钥及其证书链，可在多次签名之间复用；
+ * 也可以是远程签名服务中的密钥（{@link #remote}），此时本地只有证书链
+ */
+public class SigningCredential {
+
+    private final PrivateKey privateKey;
+    private final Certificate[] certChain;
+    private final RemoteSigner remoteSigner;
+    private final String keyId;
+
+    public SigningCredential(PrivateKey privateKey, Certificate[] certChain) {
+        this(privateKey, certChain, null, null);
+        if (privateKey == null) {
+            throw new IllegalArgumentException("私钥不能为空");
+        }
+    }
+
+    private SigningCredential(PrivateKey privateKey, Certificate[] certChain, RemoteSigner remoteSigner, String keyId) {
+        if (certChain == null || certChain.length == 0) {
+            throw new IllegalArgumentException("证书链不能为空");
+        }
+        this.privateKey = privateKey;
+        this.certChain = certChain.clone();
+        this.remoteSigner = remoteSigner;
+        this.keyId = keyId;
+    }
+
+    /**
+     * 远程签名服务中的密钥（证书链从服务获取一次）
+     *
+     * @param remoteSigner 远程签名服务（高并发时使用 {@link com.techhf.capdf.remote.BatchingRemoteSigner}）
+     * @param keyId 密钥标识
+     */
+    public static SigningCredential remote(RemoteSigner remoteSigner, String keyId) throws Exception {
+        if (remoteSigner == null || keyId == null) {
+            throw new IllegalArgumentException("远程签名服务和密钥标识不能为空");
+        }
+        return new SigningCredential(null, remoteSigner.getCertificateChain(keyId), remoteSigner, keyId);
+    }
+
+    /**
+     * 从PKCS#12文件加载签名凭据（取第一个别名）
+     *
+     * @param certPath 证书路径(.p12)
+     * @param passwordChars 证书密码（无密码时传空数组）
+     */
+    public static SigningCredential load(String certPath, char[] passwordChars) throws Exception {
+        KeyStore keyStore = CryptoProviders.getDefault().newKeyStore("PKCS12");
+        try (FileInputStream fis = new FileInputStream(certPath)) {
+            keyStore.load(fis, passwordChars);
+        }
+
+        String alias = keyStore.aliases().nextElement();
+        PrivateKey privateKey = (PrivateKey) keyStore.getKey(alias, passwordChars);
+        Certificate[] certChain = keyStore.getCertificateChain(alias);
+        return new SigningCredential(privateKey, certChain);
+    }
+
+    /**
+     * 本地私钥
+     *
+     * @throws IllegalStateException 远程签名凭据没有本地私钥
+     */
+    public PrivateKey getPrivateKey() {
+        if (privateKey == null) {
+            throw new IllegalStateException("远程签名凭据没有本地私钥: " + keyId);
+        }
+        return privateKey;
+    }
+
+    /**
+     * 是否为远程签名凭据
+     */
+    public boolean isRemote() {
+        return remoteSigner != null;
+    }
+
+    /**
+     * 为一次签名创建 ContentSigner：本地私钥使用配置的加密提供者，远程密钥只发送 signed attributes
+     */
+    public ContentSigner createContentSigner() throws OperatorCreationException {
+        if (remoteSigner != null) {
+            return new RemoteContentSigner(remoteSigner, keyId, getCertificate().getPublicKey());
+        }
+        return CryptoProviders.getDefault().contentSignerBuilder(privateKey).build(privateKey);
+    }
+
+    public Certificate[] getCertChain() {
+        return certChain.clone();
+    }
+
+    /**
+     * 签名证书（证书链第一个）
+     */
+    public X509Certificate getCertificate() {
+        return (X509Certificate) certChain[0];
+    }
+}
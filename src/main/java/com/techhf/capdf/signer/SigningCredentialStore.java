@@ -0,0 +1,435 @@
+package com.techhf.capdf.signer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 签名凭据缓存
+ * 按证书路径或租户ID缓存已解密的私钥和证书链，避免每次签名都重新执行
+ * KeyStore.load（PBE密钥派生）和 getKey。
+ * <p>
+ * 特性：
+ * <ul>
+ *     <li>按容量上限进行LRU淘汰</li>
+ *     <li>空闲超时（TTL）后失效</li>
+ *     <li>.p12文件在磁盘上被修改（修改时间或大小变化）时自动重新加载</li>
+ *     <li>条目被淘汰或失效时清零缓存的密码字符数组</li>
+ *     <li>提供命中、未命中、加载耗时等统计</li>
+ * </ul>
+ * 线程安全，可在多个签名线程之间共享。
+ */
+public class SigningCredentialStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(SigningCredentialStore.class);
+
+    /** 默认最大缓存条目数 */
+    public static final int DEFAULT_MAXIMUM_SIZE = 512;
+
+    /** 默认空闲超时：30分钟 */
+    public static final long DEFAULT_IDLE_TIMEOUT_MILLIS = 30L * 60 * 1000;
+
+    private static final SigningCredentialStore SHARED =
+            new SigningCredentialStore(DEFAULT_MAXIMUM_SIZE, DEFAULT_IDLE_TIMEOUT_MILLIS);
+
+    private static final String PATH_KEY_PREFIX = "path:";
+    private static final String TENANT_KEY_PREFIX = "tenant:";
+
+    private final int maximumSize;
+    private final long idleTimeoutMillis;
+
+    /** 访问顺序的LinkedHashMap，实现LRU；所有访问都在 this 上同步 */
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    /** 正在加载的条目，同一证书并发未命中时只加载一次 */
+    private final Map<String, CountDownLatch> inFlight = new ConcurrentHashMap<>();
+
+    /** 租户ID -> 证书位置 */
+    private final Map<String, TenantRegistration> tenants = new ConcurrentHashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong loads = new AtomicLong();
+    private final AtomicLong loadFailures = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong totalLoadNanos = new AtomicLong();
+
+    /**
+     * @param maximumSize 最大缓存条目数
+     * @param idleTimeoutMillis 空闲超时（毫秒），小于等于0表示不过期
+     */
+    public SigningCredentialStore(int maximumSize, long idleTimeoutMillis) {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("maximumSize 必须大于0: " + maximumSize);
+        }
+        this.maximumSize = maximumSize;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+    }
+
+    /**
+     * 进程内共享的默认缓存，{@link PdfSigner#signPdf} 使用该实例
+     */
+    public static SigningCredentialStore shared() {
+        return SHARED;
+    }
+
+    /**
+     * 按证书路径获取签名凭据
+     *
+     * @param certPath 证书路径(.p12)
+     * @param password 证书密码（可以为null或空字符串表示无密码）
+     */
+    public SigningCredential get(String certPath, String password) throws Exception {
+        char[] passwordChars = toChars(password);
+        try {
+            return get(PATH_KEY_PREFIX + new File(certPath).getAbsolutePath(), certPath, passwordChars);
+        } finally {
+            Arrays.fill(passwordChars, '\0');
+        }
+    }
+
+    /**
+     * 注册租户的证书位置，之后可通过 {@link #getForTenant(String)} 获取凭据
+     *
+     * @param tenantId 租户ID
+     * @param certPath 证书路径(.p12)
+     * @param password 证书密码（可以为null或空字符串表示无密码）
+     */
+    public void registerTenant(String tenantId, String certPath, String password) {
+        TenantRegistration previous = tenants.put(tenantId, new TenantRegistration(certPath, toChars(password)));
+        if (previous != null) {
+            previous.clear();
+            invalidateKey(TENANT_KEY_PREFIX + tenantId);
+        }
+    }
+
+    /**
+     * 注销租户并清除其缓存的凭据
+     */
+    public void unregisterTenant(String tenantId) {
+        TenantRegistration previous = tenants.remove(tenantId);
+        if (previous != null) {
+            previous.clear();
+        }
+        invalidateKey(TENANT_KEY_PREFIX + tenantId);
+    }
+
+    /**
+     * 按租户ID获取签名凭据
+     */
+    public SigningCredential getForTenant(String tenantId) throws Exception {
+        while (true) {
+            TenantRegistration registration = tenants.get(tenantId);
+            if (registration == null) {
+                throw new IllegalArgumentException("未注册的租户: " + tenantId);
+            }
+            // 每次加载使用自己的密码副本，注册被替换或注销时清零原数组不影响进行中的加载
+            char[] passwordChars = registration.copyPassword();
+            if (passwordChars == null) {
+                continue;
+            }
+            try {
+                return get(TENANT_KEY_PREFIX + tenantId, registration.certPath, passwordChars);
+            } finally {
+                Arrays.fill(passwordChars, '\0');
+            }
+        }
+    }
+
+    /**
+     * 使指定证书路径的缓存失效
+     */
+    public void invalidate(String certPath) {
+        invalidateKey(PATH_KEY_PREFIX + new File(certPath).getAbsolutePath());
+    }
+
+    /**
+     * 清空全部缓存
+     */
+    public synchronized void invalidateAll() {
+        for (Entry entry : entries.values()) {
+            entry.clear();
+        }
+        entries.clear();
+    }
+
+    /**
+     * 当前缓存条目数
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * 获取统计信息快照
+     */
+    public Stats getStats() {
+        return new Stats(hits.get(), misses.get(), loads.get(), loadFailures.get(),
+                evictions.get(), totalLoadNanos.get(), size());
+    }
+
+    private SigningCredential get(String key, String certPath, char[] passwordChars) throws Exception {
+        File certFile = new File(certPath);
+        long lastModified = certFile.lastModified();
+        long length = certFile.length();
+        long now = System.currentTimeMillis();
+
+        synchronized (this) {
+            expireIdle(now);
+            Entry entry = entries.get(key);
+            if (entry != null) {
+                if (entry.matches(lastModified, length, passwordChars)) {
+                    entry.lastAccess = now;
+                    hits.incrementAndGet();
+                    return entry.credential;
+                }
+                // 文件已变更或密码不同：旧条目保留，只有用新参数加载成功后才替换，
+                // 避免一个错误密码的调用方把其他调用方正在使用的凭据挤出缓存
+                logger.info("证书或密码与缓存不一致，重新校验: {}", certPath);
+            }
+        }
+
+        // 其他线程正在加载同一条目时等待其完成，再重新查找
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch existing = inFlight.putIfAbsent(key, loading);
+        if (existing != null) {
+            existing.await();
+            return get(key, certPath, passwordChars);
+        }
+
+        try {
+            misses.incrementAndGet();
+            if (lastModified == 0L && !certFile.exists()) {
+                loadFailures.incrementAndGet();
+                throw new FileNotFoundException("证书文件不存在: " + certPath);
+            }
+
+            // 在锁外加载，避免一个租户的慢加载阻塞其他租户
+            long start = System.nanoTime();
+            SigningCredential credential;
+            try {
+                credential = SigningCredential.load(certPath, passwordChars);
+            } catch (Exception e) {
+                loadFailures.incrementAndGet();
+                throw e;
+            }
+            long elapsed = System.nanoTime() - start;
+            loads.incrementAndGet();
+            totalLoadNanos.addAndGet(elapsed);
+            logger.info("证书加载成功: {}，耗时 {} ms",
+                    credential.getCertificate().getSubjectX500Principal(), elapsed / 1_000_000);
+
+            synchronized (this) {
+                Entry previous = entries.put(key,
+                        new Entry(credential, passwordChars.clone(), lastModified, length, now));
+                if (previous != null) {
+                    previous.clear();
+                    evictions.incrementAndGet();
+                }
+                evictOverflow();
+            }
+            return credential;
+        } finally {
+            inFlight.remove(key, loading);
+            loading.countDown();
+        }
+    }
+
+    private void invalidateKey(String key) {
+        synchronized (this) {
+            Entry entry = entries.remove(key);
+            if (entry != null) {
+                entry.clear();
+            }
+        }
+    }
+
+    /**
+     * 调用方需持有 this 锁
+     */
+    private void expireIdle(long now) {
+        if (idleTimeoutMillis <= 0) {
+            return;
+        }
+        Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+        while (it.hasNext()) {
+            Entry entry = it.next().getValue();
+            if (now - entry.lastAccess > idleTimeoutMillis) {
+                it.remove();
+                entry.clear();
+                evictions.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * 调用方需持有 this 锁
+     */
+    private void evictOverflow() {
+        List<String> eldest = new ArrayList<>();
+        int overflow = entries.size() - maximumSize;
+        Iterator<String> it = entries.keySet().iterator();
+        while (overflow-- > 0 && it.hasNext()) {
+            eldest.add(it.next());
+        }
+        for (String key : eldest) {
+            entries.remove(key).clear();
+            evictions.incrementAndGet();
+        }
+    }
+
+    private static char[] toChars(String password) {
+        return (password == null || password.isEmpty()) ? new char[0] : password.toCharArray();
+    }
+
+    /**
+     * 缓存条目
+     */
+    private static final class Entry {
+        final SigningCredential credential;
+        final char[] passwordChars;
+        final long lastModified;
+        final long length;
+        long lastAccess;
+
+        Entry(SigningCredential credential, char[] passwordChars, long lastModified, long length, long lastAccess) {
+            this.credential = credential;
+            this.passwordChars = passwordChars;
+            this.lastModified = lastModified;
+            this.length = length;
+            this.lastAccess = lastAccess;
+        }
+
+        boolean matches(long lastModified, long length, char[] passwordChars) {
+            return this.lastModified == lastModified
+                    && this.length == length
+                    && constantTimeEquals(this.passwordChars, passwordChars);
+        }
+
+        void clear() {
+            Arrays.fill(passwordChars, '\0');
+        }
+
+        private static boolean constantTimeEquals(char[] a, char[] b) {
+            if (a.length != b.length) {
+                return false;
+            }
+            int diff = 0;
+            for (int i = 0; i < a.length; i++) {
+                diff |= a[i] ^ b[i];
+            }
+            return diff == 0;
+        }
+    }
+
+    /**
+     * 租户注册信息
+     */
+    private static final class TenantRegistration {
+        final String certPath;
+        private final char[] passwordChars;
+        private boolean cleared;
+
+        TenantRegistration(String certPath, char[] passwordChars) {
+            this.certPath = certPath;
+            this.passwordChars = passwordChars;
+        }
+
+        /**
+         * 密码副本，注册已被清除时返回null
+         */
+        synchronized char[] copyPassword() {
+            return cleared ? null : passwordChars.clone();
+        }
+
+        synchronized void clear() {
+            cleared = true;
+            Arrays.fill(passwordChars, '\0');
+        }
+    }
+
+    /**
+     * 缓存统计信息
+     */
+    public static final class Stats {
+        private final long hits;
+        private final long misses;
+        private final long loads;
+        private final long loadFailures;
+        private final long evictions;
+        private final long totalLoadNanos;
+        private final int size;
+
+        Stats(long hits, long misses, long loads, long loadFailures, long evictions, long totalLoadNanos, int size) {
+            this.hits = hits;
+            this.misses = misses;
+            this.loads = loads;
+            this.loadFailures = loadFailures;
+            this.evictions = evictions;
+            this.totalLoadNanos = totalLoadNanos;
+            this.size = size;
+        }
+
+        public long getHits() {
+            return hits;
+        }
+
+        public long getMisses() {
+            return misses;
+        }
+
+        public long getLoads() {
+            return loads;
+        }
+
+        public long getLoadFailures() {
+            return loadFailures;
+        }
+
+        public long getEvictions() {
+            return evictions;
+        }
+
+        public long getTotalLoadNanos() {
+            return totalLoadNanos;
+        }
+
+        public int getSize() {
+            return size;
+        }
+
+        /**
+         * 命中率（0~1）
+         */
+        public double getHitRate() {
+            long total = hits + misses;
+            return total == 0 ? 0.0 : (double) hits / total;
+        }
+
+        /**
+         * 平均加载耗时（毫秒）
+         */
+        public double getAverageLoadMillis() {
+            return loads == 0 ? 0.0 : totalLoadNanos / 1_000_000.0 / loads;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("hits=%d, misses=%d, hitRate=%.2f%%, loads=%d, loadFailures=%d, "
+                            + "evictions=%d, avgLoad=%.2fms, size=%d",
+                    hits, misses, getHitRate() * 100, loads, loadFailures, evictions,
+                    getAverageLoadMillis(), size);
+        }
+    }
+}
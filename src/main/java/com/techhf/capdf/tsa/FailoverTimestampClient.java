@@ -0,0 +1,200 @@
+package com.techhf.capdf.tsa;
+
+import org.bouncycastle.tsp.TimeStampToken;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 多TSA故障转移客户端
+ * <p>
+ * 按顺序使用多个TSA：
+ * <ul>
+ *     <li>故障转移：当前TSA失败（含超时，超时由各 {@link HttpTimestampClient} 自行配置）时立即尝试下一个</li>
+ *     <li>对冲请求：开启后，若当前请求在阈值时间内未返回，再向下一个TSA并发发送请求，取先成功的结果</li>
+ *     <li>熔断：每个TSA一个 {@link CircuitBreaker}，连续失败后一段时间内跳过该TSA</li>
+ * </ul>
+ * 使用示例：
+ * <pre>
+ * FailoverTimestampClient tsa = new FailoverTimestampClient(Arrays.asList(primary, backup))
+ *         .hedgeAfter(300)
+ *         .circuitBreaker(3, 30000);
+ * </pre>
+ */
+public class FailoverTimestampClient implements TimestampClient, Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(FailoverTimestampClient.class);
+
+    /** 默认熔断阈值：连续失败3次 */
+    public static final int DEFAULT_FAILURE_THRESHOLD = 3;
+
+    /** 默认熔断时间：30秒 */
+    public static final long DEFAULT_OPEN_MILLIS = 30L * 1000;
+
+    private final List<TimestampClient> endpoints;
+    private volatile List<CircuitBreaker> breakers;
+    private volatile long hedgeDelayMillis;
+
+    private final ExecutorService executor = Executors.newCachedThreadPool(new TsaThreadFactory());
+
+    /**
+     * @param endpoints 按优先级排列的TSA
+     */
+    public FailoverTimestampClient(List<? extends TimestampClient> endpoints) {
+        if (endpoints == null || endpoints.isEmpty()) {
+            throw new IllegalArgumentException("至少需要一个TSA");
+        }
+        this.endpoints = new ArrayList<>(endpoints);
+        circuitBreaker(DEFAULT_FAILURE_THRESHOLD, DEFAULT_OPEN_MILLIS);
+    }
+
+    /**
+     * 开启对冲请求
+     *
+     * @param hedgeDelayMillis 当前请求超过该时间未返回时向下一个TSA并发请求；小于等于0表示关闭
+     */
+    public FailoverTimestampClient hedgeAfter(long hedgeDelayMillis) {
+        this.hedgeDelayMillis = hedgeDelayMillis;
+        return this;
+    }
+
+    /**
+     * 配置熔断器（重置所有TSA的熔断状态）
+     *
+     * @param failureThreshold 连续失败多少次后断开
+     * @param openMillis 断开持续时间（毫秒）
+     */
+    public FailoverTimestampClient circuitBreaker(int failureThreshold, long openMillis) {
+        List<CircuitBreaker> list = new ArrayList<>();
+        for (int i = 0; i < endpoints.size(); i++) {
+            list.add(new CircuitBreaker(failureThreshold, openMillis));
+        }
+        this.breakers = list;
+        return this;
+    }
+
+    @Override
+    public TimeStampToken getTimeStampToken(byte[] messageImprint) throws Exception {
+        List<CircuitBreaker> breakers = this.breakers;
+        long hedgeDelay = this.hedgeDelayMillis;
+
+        CompletionService<TimeStampToken> completion = new ExecutorCompletionService<>(executor);
+        IOException failure = new IOException("所有TSA均请求失败或已熔断");
+        int next = 0;
+        int inFlight = 0;
+
+        // 先返回的请求胜出；其余请求不取消，让其自然结束并如实更新熔断状态
+        while (true) {
+            // 没有进行中的请求时（首次或上一个失败）立即启动下一个可用TSA
+            if (inFlight == 0) {
+                next = launchNext(completion, breakers, next, messageImprint);
+                if (next < 0) {
+                    throw failure;
+                }
+                inFlight++;
+            }
+
+            boolean canHedge = hedgeDelay > 0 && next < endpoints.size();
+            Future<TimeStampToken> done = canHedge
+                    ? completion.poll(hedgeDelay, TimeUnit.MILLISECONDS)
+                    : completion.take();
+
+            if (done == null) {
+                // 超过对冲阈值仍未返回，并发请求下一个TSA
+                int launchedNext = launchNext(completion, breakers, next, messageImprint);
+                if (launchedNext < 0) {
+                    next = endpoints.size();
+                } else {
+                    logger.info("TSA响应超过 {} ms，发起对冲请求: {}", hedgeDelay, endpoints.get(launchedNext - 1));
+                    next = launchedNext;
+                    inFlight++;
+                }
+                continue;
+            }
+
+            inFlight--;
+            try {
+                return done.get();
+            } catch (ExecutionException e) {
+                failure.addSuppressed(e.getCause());
+            }
+        }
+    }
+
+    @Override
+    public int getEstimatedTokenSize() {
+        int max = 0;
+        for (TimestampClient endpoint : endpoints) {
+            max = Math.max(max, endpoint.getEstimatedTokenSize());
+        }
+        return max;
+    }
+
+    /**
+     * 获取指定TSA的熔断状态
+     */
+    public CircuitBreaker.State getState(int endpointIndex) {
+        return breakers.get(endpointIndex).getState();
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 从 start 开始找到第一个熔断器放行的TSA并发起请求
+     *
+     * @return 下一次查找的起始位置；没有可用TSA时返回-1
+     */
+    private int launchNext(CompletionService<TimeStampToken> completion,
+                           List<CircuitBreaker> breakers,
+                           int start,
+                           byte[] messageImprint) {
+        for (int i = start; i < endpoints.size(); i++) {
+            CircuitBreaker breaker = breakers.get(i);
+            if (!breaker.tryAcquire()) {
+                logger.debug("TSA已熔断，跳过: {}", endpoints.get(i));
+                continue;
+            }
+            TimestampClient endpoint = endpoints.get(i);
+            completion.submit(() -> {
+                try {
+                    TimeStampToken token = endpoint.getTimeStampToken(messageImprint);
+                    breaker.recordSuccess();
+                    return token;
+                } catch (Exception e) {
+                    breaker.recordFailure();
+                    logger.warn("TSA请求失败: {}，{}", endpoint, e.toString());
+                    throw e;
+                }
+            });
+            return i + 1;
+        }
+        return -1;
+    }
+
+    private static final class TsaThreadFactory implements ThreadFactory {
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "tsa-client-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.techhf.capdf.tsa;
+
+import org.bouncycastle.tsp.TimeStampRequest;
+import org.bouncycastle.tsp.TimeStampResponse;
+import org.bouncycastle.tsp.TimeStampToken;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * RFC 3161 HTTP 时间戳客户端
+ * <p>
+ * 以 application/timestamp-query 向TSA发送请求。每次都完整读取并关闭应答流、
+ * 不调用 disconnect()，使 HttpURLConnection 的 keep-alive 连接池得以复用底层
+ * TCP/TLS 连接（池大小由系统属性 http.maxConnections 控制，默认5）。
+ */
+public class HttpTimestampClient implements TimestampClient {
+
+    private static final Logger logger = LoggerFactory.getLogger(HttpTimestampClient.class);
+
+    /** 默认连接超时 */
+    public static final int DEFAULT_CONNECT_TIMEOUT_MILLIS = 3000;
+
+    /** 默认读取超时 */
+    public static final int DEFAULT_READ_TIMEOUT_MILLIS = 10000;
+
+    /** 尚未收到任何应答时预估的令牌大小（含TSA证书链） */
+    private static final int DEFAULT_ESTIMATED_TOKEN_SIZE = 6 * 1024;
+
+    private final URL url;
+    private final int connectTimeoutMillis;
+    private final int readTimeoutMillis;
+
+    /** 已观察到的最大令牌大小 */
+    private final AtomicInteger maxTokenSize = new AtomicInteger();
+
+    public HttpTimestampClient(String url) throws IOException {
+        this(url, DEFAULT_CONNECT_TIMEOUT_MILLIS, DEFAULT_READ_TIMEOUT_MILLIS);
+    }
+
+    /**
+     * @param url TSA地址
+     * @param connectTimeoutMillis 连接超时（毫秒）
+     * @param readTimeoutMillis 读取超时（毫秒）
+     */
+    public HttpTimestampClient(String url, int connectTimeoutMillis, int readTimeoutMillis) throws IOException {
+        this.url = new URL(url);
+        this.connectTimeoutMillis = connectTimeoutMillis;
+        this.readTimeoutMillis = readTimeoutMillis;
+    }
+
+    @Override
+    public TimeStampToken getTimeStampToken(byte[] messageImprint) throws Exception {
+        TimeStampRequest request = TimestampRequests.create(messageImprint);
+        byte[] requestBytes = request.getEncoded();
+
+        long start = System.currentTimeMillis();
+        HttpURLConnection conn = (HttpURLConnection) url.openConnection();
+        conn.setConnectTimeout(connectTimeoutMillis);
+        conn.setReadTimeout(readTimeoutMillis);
+        conn.setDoOutput(true);
+        conn.setUseCaches(false);
+        conn.setRequestMethod("POST");
+        conn.setRequestProperty("Content-Type", "application/timestamp-query");
+        conn.setFixedLengthStreamingMode(requestBytes.length);
+
+        try (OutputStream out = conn.getOutputStream()) {
+            out.write(requestBytes);
+        }
+
+        int status = conn.getResponseCode();
+        if (status != HttpURLConnection.HTTP_OK) {
+            // 读完错误应答，连接仍可复用
+            drain(conn.getErrorStream());
+            throw new IOException("TSA返回HTTP " + status + ": " + url);
+        }
+
+        byte[] responseBytes;
+        try (InputStream in = conn.getInputStream()) {
+            responseBytes = readAll(in);
+        }
+
+        TimeStampToken token = TimestampRequests.validate(request, new TimeStampResponse(responseBytes));
+        int tokenSize = token.getEncoded().length;
+        maxTokenSize.accumulateAndGet(tokenSize, Math::max);
+
+        logger.debug("时间戳获取成功: {}，{} ms，令牌 {} bytes",
+                url, System.currentTimeMillis() - start, tokenSize);
+        return token;
+    }
+
+    @Override
+    public int getEstimatedTokenSize() {
+        int observed = maxTokenSize.get();
+        return observed > 0 ? observed : DEFAULT_ESTIMATED_TOKEN_SIZE;
+    }
+
+    public URL getUrl() {
+        return url;
+    }
+
+    @Override
+    public String toString() {
+        return url.toString();
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[4096];
+        int n;
+        while ((n = in.read(buffer)) != -1) {
+            out.write(buffer, 0, n);
+        }
+        return out.toByteArray();
+    }
+
+    private static void drain(InputStream in) {
+        if (in == null) {
+            return;
+        }
+        try (InputStream stream = in) {
+            readAll(stream);
+        } catch (IOException ignored) {
+            // 连接无法复用，忽略
+        }
+    }
+}
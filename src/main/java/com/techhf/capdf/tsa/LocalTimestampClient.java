@@ -0,0 +1,75 @@
+package com.techhf.capdf.tsa;
+
+import com.techhf.capdf.cert.SignatureAlgorithms;
+import org.bouncycastle.tsp.TimeStampRequest;
+import org.bouncycastle.tsp.TimeStampToken;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.security.PrivateKey;
+import java.security.cert.CertificateEncodingException;
+import java.security.cert.X509Certificate;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 进程内时间戳客户端
+ * 直接调用 {@link TimestampResponder} 签发时间戳，不经过网络，仅用于测试和演示。
+ */
+public class LocalTimestampClient implements TimestampClient {
+
+    private static final Logger logger = LoggerFactory.getLogger(LocalTimestampClient.class);
+
+    /** 令牌中除TSA证书和签名值外的开销（TSTInfo、签名属性等） */
+    private static final int TOKEN_OVERHEAD = 1024;
+
+    /** 进程内时间戳的提醒只输出一次，批量签名时不会每个令牌刷一条 WARN */
+    private static final AtomicBoolean WARNED = new AtomicBoolean();
+
+    private final TimestampResponder responder;
+
+    public LocalTimestampClient(TimestampResponder responder) {
+        this.responder = responder;
+    }
+
+    /**
+     * @param tsaPrivateKey TSA签名私钥
+     * @param tsaCert TSA证书
+     */
+    public LocalTimestampClient(PrivateKey tsaPrivateKey, X509Certificate tsaCert) throws Exception {
+        this(new TimestampResponder(tsaPrivateKey, tsaCert));
+    }
+
+    /**
+     * 使用进程内共享TSA（{@link TimestampResponder#shared()}）的客户端
+     */
+    public static LocalTimestampClient shared() {
+        return SharedHolder.INSTANCE;
+    }
+
+    @Override
+    public TimeStampToken getTimeStampToken(byte[] messageImprint) throws Exception {
+        TimeStampRequest request = TimestampRequests.create(messageImprint);
+        TimeStampToken token = TimestampRequests.validate(request, responder.respond(request));
+
+        if (WARNED.compareAndSet(false, true)) {
+            logger.warn("注意：当前使用进程内时间戳，生产环境请使用真实的TSA服务");
+        }
+        return token;
+    }
+
+    @Override
+    public int getEstimatedTokenSize() {
+        X509Certificate cert = responder.getCertificate();
+        int signatureLength = SignatureAlgorithms.maxSignatureLength(cert.getPublicKey());
+        try {
+            return TOKEN_OVERHEAD + cert.getEncoded().length
+                    + cert.getIssuerX500Principal().getEncoded().length + signatureLength;
+        } catch (CertificateEncodingException e) {
+            throw new IllegalStateException("TSA证书编码失败", e);
+        }
+    }
+
+    private static final class SharedHolder {
+        static final LocalTimestampClient INSTANCE = new LocalTimestampClient(TimestampResponder.shared());
+    }
+}
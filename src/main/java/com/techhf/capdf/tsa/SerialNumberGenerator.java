@@ -0,0 +1,33 @@
+package com.techhf.capdf.tsa;
+
+import java.math.BigInteger;
+import java.security.SecureRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 时间戳序列号生成器
+ * <p>
+ * 生成128位正整数：高64位为实例创建时的随机前缀（最高位清零），低64位为单调递增计数器。
+ * 同一实例内严格不重复，不同实例（多进程、重启）之间依靠随机前缀避免冲突。线程安全。
+ */
+public class SerialNumberGenerator {
+
+    private final BigInteger prefix;
+    private final AtomicLong counter = new AtomicLong();
+
+    public SerialNumberGenerator() {
+        this(new SecureRandom());
+    }
+
+    SerialNumberGenerator(SecureRandom random) {
+        this.prefix = BigInteger.valueOf(random.nextLong() & Long.MAX_VALUE).shiftLeft(64);
+    }
+
+    /**
+     * 下一个序列号
+     */
+    public BigInteger next() {
+        // 计数器为正数，2^63 个值足以覆盖一个实例的生命周期
+        return prefix.or(BigInteger.valueOf(counter.incrementAndGet()));
+    }
+}
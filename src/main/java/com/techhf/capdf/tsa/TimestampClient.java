@@ -0,0 +1,25 @@
+package com.techhf.capdf.tsa;
+
+import org.bouncycastle.tsp.TimeStampToken;
+
+/**
+ * 时间戳客户端（RFC 3161）
+ * <p>
+ * 对签名值的摘要申请时间戳令牌，令牌作为 signatureTimeStampToken
+ * unsigned attribute 嵌入CMS签名。实现必须线程安全。
+ */
+public interface TimestampClient {
+
+    /**
+     * 申请时间戳令牌
+     *
+     * @param messageImprint 待加时间戳数据的SHA-256摘要
+     * @return 已校验过与请求匹配的时间戳令牌
+     */
+    TimeStampToken getTimeStampToken(byte[] messageImprint) throws Exception;
+
+    /**
+     * 预估时间戳令牌的DER编码大小（字节），用于计算签名占位大小
+     */
+    int getEstimatedTokenSize();
+}
@@ -0,0 +1,44 @@
+package com.techhf.capdf.tsa;
+
+import org.bouncycastle.tsp.TSPAlgorithms;
+import org.bouncycastle.tsp.TSPException;
+import org.bouncycastle.tsp.TimeStampRequest;
+import org.bouncycastle.tsp.TimeStampRequestGenerator;
+import org.bouncycastle.tsp.TimeStampResponse;
+import org.bouncycastle.tsp.TimeStampToken;
+
+import java.math.BigInteger;
+import java.security.SecureRandom;
+
+/**
+ * 时间戳请求构建和应答校验
+ */
+final class TimestampRequests {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private TimestampRequests() {
+    }
+
+    /**
+     * 创建带随机nonce、要求返回TSA证书的SHA-256时间戳请求
+     */
+    static TimeStampRequest create(byte[] messageImprint) {
+        TimeStampRequestGenerator generator = new TimeStampRequestGenerator();
+        generator.setCertReq(true);
+        return generator.generate(TSPAlgorithms.SHA256, messageImprint, new BigInteger(64, RANDOM));
+    }
+
+    /**
+     * 校验应答与请求匹配（状态、摘要、nonce）并取出时间戳令牌
+     */
+    static TimeStampToken validate(TimeStampRequest request, TimeStampResponse response) throws TSPException {
+        response.validate(request);
+        TimeStampToken token = response.getTimeStampToken();
+        if (token == null) {
+            throw new TSPException("TSA拒绝请求: status=" + response.getStatus()
+                    + ", " + response.getStatusString());
+        }
+        return token;
+    }
+}
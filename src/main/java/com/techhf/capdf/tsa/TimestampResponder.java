@@ -0,0 +1,212 @@
+package com.techhf.capdf.tsa;
+
+import com.techhf.capdf.cert.CertificateGenerator;
+import com.techhf.capdf.cert.CryptoProviders;
+import com.techhf.capdf.cert.KeyAlgorithm;
+import com.techhf.capdf.cert.SignatureAlgorithms;
+import org.bouncycastle.asn1.ASN1ObjectIdentifier;
+import org.bouncycastle.cert.X509CertificateHolder;
+import org.bouncycastle.cert.jcajce.JcaX509CertificateHolder;
+import org.bouncycastle.cms.SignerInfoGenerator;
+import org.bouncycastle.cms.jcajce.JcaSignerInfoGeneratorBuilder;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.bouncycastle.operator.ContentSigner;
+import org.bouncycastle.operator.DefaultDigestAlgorithmIdentifierFinder;
+import org.bouncycastle.operator.DigestCalculatorProvider;
+import org.bouncycastle.tsp.TSPAlgorithms;
+import org.bouncycastle.tsp.TimeStampRequest;
+import org.bouncycastle.tsp.TimeStampResponse;
+import org.bouncycastle.tsp.TimeStampResponseGenerator;
+import org.bouncycastle.tsp.TimeStampTokenGenerator;
+import org.bouncycastle.util.CollectionStore;
+import org.bouncycastle.util.Store;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.security.KeyPair;
+import java.security.PrivateKey;
+import java.security.Security;
+import java.security.cert.X509Certificate;
+import java.util.Collections;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 进程内时间戳服务（TSA服务端逻辑）
+ * <p>
+ * 长期存活、线程安全的时间戳引擎：
+ * <ul>
+ *     <li>使用独立于文档签名证书的TSA私钥和证书</li>
+ *     <li>摘要计算器、证书集合在构造时创建一次；ContentSigner 有状态，
+ *         每个线程各持有一套 SignerInfoGenerator / TimeStampTokenGenerator / TimeStampResponseGenerator</li>
+ *     <li>序列号由 {@link SerialNumberGenerator} 生成（128位，同一毫秒内也不会重复）</li>
+ *     <li>TSA策略OID可配置</li>
+ * </ul>
+ * 供 {@link LocalTimestampClient} 和 {@link TimestampServer} 共用。
+ * 注意：生产环境应该使用真实的TSA服务器
+ */
+public class TimestampResponder {
+
+    private static final Logger logger = LoggerFactory.getLogger(TimestampResponder.class);
+
+    /** 默认TSA策略OID */
+    public static final String DEFAULT_POLICY_OID = "1.2.3.4.5.6.7.8.9";
+
+    /** 进程内默认TSA的证书主题 */
+    public static final String DEFAULT_TSA_SUBJECT = "CN=Local Timestamp Authority,O=Example Company,C=CN";
+
+    static {
+        if (Security.getProvider(BouncyCastleProvider.PROVIDER_NAME) == null) {
+            Security.addProvider(new BouncyCastleProvider());
+        }
+    }
+
+    private final PrivateKey tsaPrivateKey;
+    private final X509Certificate tsaCert;
+    private final ASN1ObjectIdentifier policy;
+    private final DigestCalculatorProvider digestCalcProvider;
+    private final Store<X509CertificateHolder> certStore;
+    private final SerialNumberGenerator serials = new SerialNumberGenerator();
+    private final AtomicLong issued = new AtomicLong();
+
+    /** 每个线程一套应答生成器（ContentSigner 不是线程安全的） */
+    private final ThreadLocal<TimeStampResponseGenerator> generators = new ThreadLocal<TimeStampResponseGenerator>() {
+        @Override
+        protected TimeStampResponseGenerator initialValue() {
+            try {
+                return createResponseGenerator();
+            } catch (Exception e) {
+                throw new IllegalStateException("初始化时间戳生成器失败", e);
+            }
+        }
+    };
+
+    /**
+     * 使用默认策略OID
+     *
+     * @param tsaPrivateKey TSA签名私钥
+     * @param tsaCert TSA证书（须带有 id-kp-timeStamping 扩展密钥用途）
+     */
+    public TimestampResponder(PrivateKey tsaPrivateKey, X509Certificate tsaCert) throws Exception {
+        this(tsaPrivateKey, tsaCert, DEFAULT_POLICY_OID);
+    }
+
+    /**
+     * @param tsaPrivateKey TSA签名私钥
+     * @param tsaCert TSA证书（须带有 id-kp-timeStamping 扩展密钥用途）
+     * @param policyOid TSA策略OID
+     */
+    public TimestampResponder(PrivateKey tsaPrivateKey, X509Certificate tsaCert, String policyOid) throws Exception {
+        this.tsaPrivateKey = tsaPrivateKey;
+        this.tsaCert = tsaCert;
+        this.policy = new ASN1ObjectIdentifier(policyOid);
+        this.digestCalcProvider = CryptoProviders.getDefault()
+                .digestCalculatorProvider(SignatureAlgorithms.digestAlgorithm(tsaPrivateKey));
+        this.certStore = new CollectionStore<>(
+                Collections.<X509CertificateHolder>singletonList(new JcaX509CertificateHolder(tsaCert)));
+
+        // 立即创建当前线程的生成器，配置错误（如证书缺少时间戳用途）在构造时暴露
+        generators.get();
+    }
+
+    /**
+     * 生成一个带新密钥和自签名证书的TSA
+     *
+     * @param subject TSA证书主题
+     * @param policyOid TSA策略OID
+     */
+    public static TimestampResponder generate(String subject, String policyOid) throws Exception {
+        return generate(subject, policyOid, KeyAlgorithm.RSA_2048);
+    }
+
+    /**
+     * 生成一个带指定类型新密钥和自签名证书的TSA
+     *
+     * @param subject TSA证书主题
+     * @param policyOid TSA策略OID
+     * @param keyAlgorithm TSA密钥类型
+     */
+    public static TimestampResponder generate(String subject, String policyOid, KeyAlgorithm keyAlgorithm)
+            throws Exception {
+        KeyPair keyPair = keyAlgorithm.generateKeyPair();
+        X509Certificate cert = CertificateGenerator.buildSelfSignedCertificate(subject, keyPair, 10);
+        logger.info("已生成TSA证书: {}", cert.getSubjectX500Principal());
+        return new TimestampResponder(keyPair.getPrivate(), cert, policyOid);
+    }
+
+    /**
+     * 进程内共享的默认TSA（首次使用时生成密钥和证书），
+     * {@code addTimestamp=true} 时使用
+     */
+    public static TimestampResponder shared() {
+        return SharedHolder.INSTANCE;
+    }
+
+    public X509Certificate getCertificate() {
+        return tsaCert;
+    }
+
+    public String getPolicyOid() {
+        return policy.getId();
+    }
+
+    /**
+     * 已签发的时间戳数量
+     */
+    public long getIssuedCount() {
+        return issued.get();
+    }
+
+    /**
+     * 生成时间戳应答
+     *
+     * @param request 时间戳请求
+     * @return 时间戳应答（请求不被接受时为拒绝应答）
+     */
+    public TimeStampResponse respond(TimeStampRequest request) throws Exception {
+        TimeStampResponse response = generators.get().generate(request, serials.next(), new Date());
+        issued.incrementAndGet();
+        return response;
+    }
+
+    /**
+     * 处理DER编码的时间戳请求，返回DER编码的应答（HTTP服务使用）
+     */
+    public byte[] respond(byte[] requestBytes) throws Exception {
+        return respond(new TimeStampRequest(requestBytes)).getEncoded();
+    }
+
+    private TimeStampResponseGenerator createResponseGenerator() throws Exception {
+        // 创建签名者信息生成器（签名算法由TSA密钥类型决定）
+        ContentSigner signer = CryptoProviders.getDefault()
+                .contentSignerBuilder(tsaPrivateKey)
+                .build(tsaPrivateKey);
+
+        SignerInfoGenerator signerInfoGen = new JcaSignerInfoGeneratorBuilder(digestCalcProvider)
+                .build(signer, tsaCert);
+
+        // 创建时间戳令牌生成器
+        TimeStampTokenGenerator tsTokenGen = new TimeStampTokenGenerator(
+                signerInfoGen,
+                digestCalcProvider.get(new DefaultDigestAlgorithmIdentifierFinder().find("SHA-256")),
+                policy
+        );
+
+        // 添加证书
+        tsTokenGen.addCertificates(certStore);
+
+        return new TimeStampResponseGenerator(tsTokenGen, TSPAlgorithms.ALLOWED);
+    }
+
+    private static final class SharedHolder {
+        static final TimestampResponder INSTANCE = createShared();
+
+        private static TimestampResponder createShared() {
+            try {
+                return generate(DEFAULT_TSA_SUBJECT, DEFAULT_POLICY_OID);
+            } catch (Exception e) {
+                throw new IllegalStateException("初始化进程内TSA失败", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.techhf.capdf.tsa;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 本地 RFC 3161 HTTP 时间戳服务
+ * <p>
+ * 基于 JDK 内置的 HttpServer 和 {@link TimestampResponder}，用于联调和测试
+ * HTTP 时间戳客户端。可以人为设置响应延迟或故障，模拟慢速/不可用的TSA。
+ * <pre>
+ * try (TimestampServer server = new TimestampServer(responder).start()) {
+ *     TimestampClient client = new HttpTimestampClient(server.getUrl());
+ * }
+ * </pre>
+ */
+public class TimestampServer implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(TimestampServer.class);
+
+    private static final String PATH = "/tsa";
+
+    private final TimestampResponder responder;
+    private final AtomicInteger requestCount = new AtomicInteger();
+
+    private volatile long responseDelayMillis;
+    private volatile boolean failing;
+
+    private HttpServer server;
+    private ExecutorService executor;
+
+    public TimestampServer(TimestampResponder responder) {
+        this.responder = responder;
+    }
+
+    /**
+     * 在本机随机端口启动服务
+     */
+    public TimestampServer start() throws IOException {
+        return start(0);
+    }
+
+    /**
+     * 在本机指定端口启动服务
+     *
+     * @param port 端口（0表示随机端口）
+     */
+    public TimestampServer start(int port) throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        server.createContext(PATH, this::handle);
+        executor = Executors.newFixedThreadPool(8, r -> {
+            Thread thread = new Thread(r, "tsa-server");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.start();
+        logger.info("本地时间戳服务已启动: {}", getUrl());
+        return this;
+    }
+
+    /**
+     * 时间戳服务地址
+     */
+    public String getUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + PATH;
+    }
+
+    /**
+     * 设置每个请求的额外响应延迟（模拟慢速TSA）
+     */
+    public void setResponseDelayMillis(long responseDelayMillis) {
+        this.responseDelayMillis = responseDelayMillis;
+    }
+
+    /**
+     * 设置为故障状态时所有请求返回 HTTP 503
+     */
+    public void setFailing(boolean failing) {
+        this.failing = failing;
+    }
+
+    /**
+     * 已收到的请求数
+     */
+    public int getRequestCount() {
+        return requestCount.get();
+    }
+
+    @Override
+    public void close() {
+        if (server != null) {
+            server.stop(0);
+            executor.shutdownNow();
+            logger.info("本地时间戳服务已停止");
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requestCount.incrementAndGet();
+        try {
+            byte[] request = readAll(exchange.getRequestBody());
+
+            long delay = responseDelayMillis;
+            if (delay > 0) {
+                Thread.sleep(delay);
+            }
+            if (failing || !"POST".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(failing ? 503 : 405, -1);
+                return;
+            }
+
+            byte[] response = responder.respond(request);
+            exchange.getResponseHeaders().set("Content-Type", "application/timestamp-reply");
+            exchange.sendResponseHeaders(200, response.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(response);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            logger.error("处理时间戳请求失败", e);
+            exchange.sendResponseHeaders(400, -1);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[4096];
+        int n;
+        while ((n = in.read(buffer)) != -1) {
+            out.write(buffer, 0, n);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,87 @@
+package com.techhf.capdf.tsa;
+
+import java.security.cert.X509Certificate;
+import java.util.Date;
+
+/**
+ * 时间戳令牌的校验结果
+ * <p>
+ * 由 {@link TimestampVerifier} 生成，按顺序检查：
+ * <ul>
+ *   <li>印记：令牌中的 messageImprint 与被盖时间戳的数据（签名值或文档 ByteRange）的摘要一致</li>
+ *   <li>TSA证书：令牌带有签发者证书，且扩展密钥用途为关键扩展并且只含 id-kp-timeStamping</li>
+ *   <li>令牌签名：TSA证书公钥能校验令牌签名，且 genTime 在TSA证书有效期内</li>
+ *   <li>证书链：TSA证书按 genTime 能构建到信任锚的路径（信任库为空时不检查）</li>
+ * </ul>
+ * 第一个未通过的检查即为失败原因。
+ */
+public final class TimestampVerificationResult {
+
+    Date genTime;
+    X509Certificate tsaCertificate;
+    boolean imprintValid;
+    boolean signatureValid;
+    boolean chainChecked;
+    boolean chainValid;
+    String failureReason;
+
+    TimestampVerificationResult() {
+    }
+
+    /**
+     * 所有检查均通过（不检查证书链时不要求证书链）
+     */
+    public boolean isValid() {
+        return failureReason == null && imprintValid && signatureValid && (!chainChecked || chainValid);
+    }
+
+    /**
+     * 时间戳时间，无法解析时为null
+     */
+    public Date getGenTime() {
+        return genTime;
+    }
+
+    /**
+     * TSA证书，令牌中没有时为null
+     */
+    public X509Certificate getTsaCertificate() {
+        return tsaCertificate;
+    }
+
+    public boolean isImprintValid() {
+        return imprintValid;
+    }
+
+    public boolean isSignatureValid() {
+        return signatureValid;
+    }
+
+    public boolean isChainChecked() {
+        return chainChecked;
+    }
+
+    public boolean isChainValid() {
+        return chainValid;
+    }
+
+    /**
+     * 第一个未通过的检查及原因，全部通过时为null
+     */
+    public String getFailureReason() {
+        return failureReason;
+    }
+
+    void fail(String reason) {
+        if (failureReason == null) {
+            failureReason = reason;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "时间戳 " + genTime + " " + (isValid() ? "有效" : "无效: " + failureReason)
+                + (tsaCertificate != null ? "，TSA " + tsaCertificate.getSubjectX500Principal() : "")
+                + (chainChecked ? "，证书链 " + chainValid : "");
+    }
+}
@@ -0,0 +1,319 @@
+package com.techhf.capdf.tsa;
+
+import com.techhf.capdf.cert.CertPathValidationCache;
+import com.techhf.capdf.cert.CertPathValidationResult;
+import com.techhf.capdf.cert.CryptoProviders;
+import com.techhf.capdf.cert.TrustStore;
+import org.bouncycastle.asn1.x509.ExtendedKeyUsage;
+import org.bouncycastle.asn1.x509.Extension;
+import org.bouncycastle.asn1.x509.KeyPurposeId;
+import org.bouncycastle.cert.X509CertificateHolder;
+import org.bouncycastle.cert.jcajce.JcaX509CertificateConverter;
+import org.bouncycastle.cms.DefaultCMSSignatureAlgorithmNameGenerator;
+import org.bouncycastle.cms.SignerInformationVerifier;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.bouncycastle.operator.DefaultSignatureAlgorithmIdentifierFinder;
+import org.bouncycastle.tsp.TimeStampToken;
+
+import java.security.MessageDigest;
+import java.security.Security;
+import java.security.cert.X509Certificate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 时间戳令牌校验
+ * <p>
+ * 检查印记、TSA证书扩展密钥用途、令牌签名和TSA证书链（见 {@link TimestampVerificationResult}）。
+ * 大量令牌来自少数几个TSA，因此按TSA证书缓存：
+ * <ul>
+ *   <li>解析后的TSA证书和扩展密钥用途检查结论</li>
+ *   <li>每种摘要算法一个 {@link SignerInformationVerifier}（公钥解析、提供者选择只做一次）</li>
+ *   <li>令牌中携带的其他证书（证书链构建用）的解析结果</li>
+ * </ul>
+ * 证书链结论由 {@link CertPathValidationCache#shared()} 缓存，每个令牌只剩摘要和签名值校验的开销。
+ * 默认 {@link CryptoProviders} 更换后，缓存的校验器按新提供者重建。
+ * <p>
+ * 线程安全，通常使用进程内共享实例 {@link #shared()}。
+ */
+public class TimestampVerifier {
+
+    /** 默认缓存的TSA证书数 */
+    public static final int DEFAULT_MAX_TSAS = 1000;
+
+    private static final TimestampVerifier SHARED = new TimestampVerifier(DEFAULT_MAX_TSAS);
+
+    private static final DefaultCMSSignatureAlgorithmNameGenerator SIGNATURE_NAMES =
+            new DefaultCMSSignatureAlgorithmNameGenerator();
+
+    private static final DefaultSignatureAlgorithmIdentifierFinder SIGNATURE_ALGORITHMS =
+            new DefaultSignatureAlgorithmIdentifierFinder();
+
+    private static final JcaX509CertificateConverter CERT_CONVERTER =
+            new JcaX509CertificateConverter().setProvider(BouncyCastleProvider.PROVIDER_NAME);
+
+    static {
+        if (Security.getProvider(BouncyCastleProvider.PROVIDER_NAME) == null) {
+            Security.addProvider(new BouncyCastleProvider());
+        }
+    }
+
+    private final Map<X509CertificateHolder, TsaEntry> tsas;
+    private final Map<X509CertificateHolder, X509Certificate> certificates;
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+
+    public TimestampVerifier() {
+        this(DEFAULT_MAX_TSAS);
+    }
+
+    /**
+     * @param maxTsas 最多缓存的TSA证书数（令牌中的其他证书最多缓存其4倍）
+     */
+    public TimestampVerifier(final int maxTsas) {
+        if (maxTsas <= 0) {
+            throw new IllegalArgumentException("最大TSA数必须大于0: " + maxTsas);
+        }
+        this.tsas = new LinkedHashMap<X509CertificateHolder, TsaEntry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<X509CertificateHolder, TsaEntry> eldest) {
+                return size() > maxTsas;
+            }
+        };
+        this.certificates = new LinkedHashMap<X509CertificateHolder, X509Certificate>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<X509CertificateHolder, X509Certificate> eldest) {
+                return size() > maxTsas * 4;
+            }
+        };
+    }
+
+    /**
+     * 进程内共享实例
+     */
+    public static TimestampVerifier shared() {
+        return SHARED;
+    }
+
+    /**
+     * 校验签名时间戳（signatureTimeStampToken 属性）：印记应为签名值的摘要
+     *
+     * @param token 时间戳令牌
+     * @param signatureValue 被盖时间戳的签名值
+     * @param trustStore TSA证书链的信任锚，为null或空时不检查证书链
+     */
+    public TimestampVerificationResult verifySignatureTimestamp(TimeStampToken token, byte[] signatureValue,
+                                                                TrustStore trustStore) {
+        TimestampVerificationResult result = new TimestampVerificationResult();
+        try {
+            String imprintOid = token.getTimeStampInfo().getMessageImprintAlgOID().getId();
+            byte[] expected = CryptoProviders.getDefault().newMessageDigest(imprintOid).digest(signatureValue);
+            return verify(token, expected, trustStore, result, "时间戳印记与签名值不一致");
+        } catch (Exception e) {
+            result.fail("无法计算时间戳印记: " + e.getMessage());
+            return result;
+        }
+    }
+
+    /**
+     * 校验时间戳令牌，印记与已计算好的摘要比较（文档时间戳即 ByteRange 摘要）
+     *
+     * @param token 时间戳令牌
+     * @param expectedImprint 按令牌印记算法计算的被盖数据摘要
+     * @param trustStore TSA证书链的信任锚，为null或空时不检查证书链
+     */
+    public TimestampVerificationResult verify(TimeStampToken token, byte[] expectedImprint, TrustStore trustStore) {
+        return verify(token, expectedImprint, trustStore, new TimestampVerificationResult(),
+                "文档内容与时间戳印记不一致");
+    }
+
+    private TimestampVerificationResult verify(TimeStampToken token, byte[] expectedImprint, TrustStore trustStore,
+                                               TimestampVerificationResult result, String imprintMismatch) {
+        if (trustStore == null) {
+            trustStore = TrustStore.empty();
+        }
+        result.genTime = token.getTimeStampInfo().getGenTime();
+
+        // 1. 印记（不一致时继续检查其余各项，便于区分内容被改和令牌伪造）
+        result.imprintValid = MessageDigest.isEqual(expectedImprint,
+                token.getTimeStampInfo().getMessageImprintDigest());
+        if (!result.imprintValid) {
+            result.fail(imprintMismatch);
+        }
+
+        // 2. TSA证书及其扩展密钥用途
+        @SuppressWarnings("unchecked")
+        Collection<X509CertificateHolder> matches = token.getCertificates().getMatches(token.getSID());
+        if (matches.isEmpty()) {
+            result.fail("时间戳中未找到TSA证书");
+            return result;
+        }
+        TsaEntry tsa;
+        try {
+            tsa = tsa(matches.iterator().next());
+        } catch (Exception e) {
+            result.fail("无法解析TSA证书: " + e.getMessage());
+            return result;
+        }
+        result.tsaCertificate = tsa.certificate;
+        if (tsa.keyUsageFailure != null) {
+            result.fail(tsa.keyUsageFailure);
+            return result;
+        }
+
+        // 3. 令牌签名（同时检查 genTime 在TSA证书有效期内）
+        try {
+            token.validate(tsa.verifier(token.getTimeStampInfo().getMessageImprintAlgOID().getId()));
+            result.signatureValid = true;
+        } catch (Exception e) {
+            result.fail("时间戳签名无效: " + e.getMessage());
+            return result;
+        }
+
+        // 4. 证书链：按 genTime 校验
+        if (!trustStore.isEmpty()) {
+            result.chainChecked = true;
+            try {
+                CertPathValidationResult chain = CertPathValidationCache.shared().validate(
+                        tsa.certificate, tokenCertificates(token), trustStore, result.genTime);
+                result.chainValid = chain.isValid();
+                if (!result.chainValid) {
+                    result.fail("TSA证书链无效: " + chain.getFailureReason());
+                }
+            } catch (Exception e) {
+                result.fail("TSA证书链校验异常: " + e.getMessage());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * TSA缓存命中次数
+     */
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    /**
+     * 首次遇到（或已被淘汰）的TSA证书次数
+     */
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    /**
+     * 当前缓存的TSA证书数
+     */
+    public synchronized int getTsaCount() {
+        return tsas.size();
+    }
+
+    public synchronized void clear() {
+        tsas.clear();
+        certificates.clear();
+    }
+
+    @Override
+    public String toString() {
+        return "TimestampVerifier[TSA " + getTsaCount() + "，命中 " + getHitCount() + "，未命中 " + getMissCount() + "]";
+    }
+
+    private TsaEntry tsa(X509CertificateHolder holder) throws Exception {
+        synchronized (this) {
+            TsaEntry entry = tsas.get(holder);
+            if (entry != null && entry.providers == CryptoProviders.getDefault()) {
+                hitCount.incrementAndGet();
+                return entry;
+            }
+        }
+        // 解析在锁外进行；并发首次遇到同一TSA时可能重复解析，结果相同
+        missCount.incrementAndGet();
+        TsaEntry entry = new TsaEntry(holder, certificate(holder), CryptoProviders.getDefault());
+        synchronized (this) {
+            tsas.put(holder, entry);
+        }
+        return entry;
+    }
+
+    private List<X509Certificate> tokenCertificates(TimeStampToken token) throws Exception {
+        @SuppressWarnings("unchecked")
+        Collection<X509CertificateHolder> holders = token.getCertificates().getMatches(null);
+        List<X509Certificate> result = new ArrayList<>(holders.size());
+        for (X509CertificateHolder holder : holders) {
+            result.add(certificate(holder));
+        }
+        return result;
+    }
+
+    private X509Certificate certificate(X509CertificateHolder holder) throws Exception {
+        synchronized (this) {
+            X509Certificate cached = certificates.get(holder);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        X509Certificate cert = CERT_CONVERTER.getCertificate(holder);
+        synchronized (this) {
+            certificates.put(holder, cert);
+        }
+        return cert;
+    }
+
+    /**
+     * RFC 3161：TSA证书的扩展密钥用途必须是关键扩展，且只含 id-kp-timeStamping
+     */
+    static String checkKeyUsage(X509CertificateHolder holder) {
+        Extension extension = holder.getExtension(Extension.extendedKeyUsage);
+        if (extension == null) {
+            return "TSA证书缺少扩展密钥用途";
+        }
+        if (!extension.isCritical()) {
+            return "TSA证书的扩展密钥用途不是关键扩展";
+        }
+        ExtendedKeyUsage usage = ExtendedKeyUsage.getInstance(extension.getParsedValue());
+        if (!usage.hasKeyPurposeId(KeyPurposeId.id_kp_timeStamping) || usage.size() != 1) {
+            return "TSA证书的扩展密钥用途不是仅 id-kp-timeStamping";
+        }
+        return null;
+    }
+
+    /**
+     * 一个TSA证书的缓存内容
+     */
+    private static final class TsaEntry {
+        final X509CertificateHolder holder;
+        final X509Certificate certificate;
+        final CryptoProviders providers;
+        final String keyUsageFailure;
+        final ConcurrentMap<String, SignerInformationVerifier> verifiers = new ConcurrentHashMap<>();
+
+        TsaEntry(X509CertificateHolder holder, X509Certificate certificate, CryptoProviders providers) {
+            this.holder = holder;
+            this.certificate = certificate;
+            this.providers = providers;
+            this.keyUsageFailure = checkKeyUsage(holder);
+        }
+
+        /**
+         * 签名值校验和摘要计算分别使用创建条目时的提供者
+         */
+        SignerInformationVerifier verifier(String digestOid) throws Exception {
+            SignerInformationVerifier verifier = verifiers.get(digestOid);
+            if (verifier == null) {
+                verifier = new SignerInformationVerifier(
+                        SIGNATURE_NAMES,
+                        SIGNATURE_ALGORITHMS,
+                        providers.contentVerifierProvider(holder),
+                        providers.digestCalculatorProvider(digestOid));
+                verifiers.put(digestOid, verifier);
+            }
+            return verifier;
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.techhf.capdf.util;
+
+/**
+ * 批量校验汇总报告
+ * <p>
+ * 只包含计数和延迟分布，不保留每个文档的结果（逐个结果已写入结果文件或回调）。
+ */
+public class BulkVerificationReport {
+
+    private final long valid;
+    private final long invalid;
+    private final long unsigned;
+    private final long errors;
+    private final long signatures;
+    private final long bytes;
+    private final long elapsedMillis;
+    private final int peakOpenDocuments;
+    private final LatencyHistogram latency;
+
+    BulkVerificationReport(long valid, long invalid, long unsigned, long errors, long signatures, long bytes,
+                           long elapsedMillis, int peakOpenDocuments, LatencyHistogram latency) {
+        this.valid = valid;
+        this.invalid = invalid;
+        this.unsigned = unsigned;
+        this.errors = errors;
+        this.signatures = signatures;
+        this.bytes = bytes;
+        this.elapsedMillis = elapsedMillis;
+        this.peakOpenDocuments = peakOpenDocuments;
+        this.latency = latency;
+    }
+
+    public long getTotal() {
+        return valid + invalid + unsigned + errors;
+    }
+
+    /**
+     * 所有签名都有效的文档数
+     */
+    public long getValid() {
+        return valid;
+    }
+
+    /**
+     * 至少有一个签名无效的文档数
+     */
+    public long getInvalid() {
+        return invalid;
+    }
+
+    /**
+     * 没有签名的文档数
+     */
+    public long getUnsigned() {
+        return unsigned;
+    }
+
+    /**
+     * 无法打开或解析的文档数
+     */
+    public long getErrors() {
+        return errors;
+    }
+
+    /**
+     * 未通过校验的文档数（无效 + 无签名 + 无法解析）
+     */
+    public long getFailed() {
+        return invalid + unsigned + errors;
+    }
+
+    /**
+     * 校验的签名总数
+     */
+    public long getSignatures() {
+        return signatures;
+    }
+
+    /**
+     * 校验的文档总字节数
+     */
+    public long getBytes() {
+        return bytes;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    /**
+     * 同时打开的文档数峰值
+     */
+    public int getPeakOpenDocuments() {
+        return peakOpenDocuments;
+    }
+
+    /**
+     * 单个文档的校验延迟分布（压缩包内的文档包含解压时间）
+     */
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+
+    /**
+     * 吞吐量（文档数/秒）
+     */
+    public double getDocsPerSecond() {
+        return elapsedMillis == 0 ? 0.0 : getTotal() * 1000.0 / elapsedMillis;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("total=%d, valid=%d, invalid=%d, unsigned=%d, errors=%d, signatures=%d, "
+                        + "elapsed=%dms, throughput=%.2f docs/s (%.2f MB/s), peakOpen=%d, latency[%s]",
+                getTotal(), valid, invalid, unsigned, errors, signatures, elapsedMillis, getDocsPerSecond(),
+                elapsedMillis == 0 ? 0.0 : bytes / 1024.0 / 1024.0 * 1000.0 / elapsedMillis,
+                peakOpenDocuments, latency);
+    }
+}
@@ -0,0 +1,496 @@
+package com.techhf.capdf.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * 并行批量签名校验
+ * <p>
+ * 遍历目录（递归）、单个PDF和ZIP压缩包，用 work-stealing 线程池（{@link ForkJoinPool}）并行校验：
+ * 每个子目录、压缩包和文档都是一个任务，空闲线程从其他线程的队列中窃取，
+ * 目录大小不均时也能占满所有核。同时打开的文档数由信号量限制，与线程数无关，
+ * 控制大文档的堆和临时文件占用。
+ * <p>
+ * 每个文档校验完成后立即以一行 TSV 写入结果文件（来源、状态、签名数、耗时、原因），
+ * 不在内存中保留逐个结果；汇总报告只有计数和延迟分布，可以处理数百万个文件。
+ * 压缩包内的 PDF 解压到临时文件（{@link MemoryPolicy#getScratchDir()}）后校验，校验后删除。
+ * <p>
+ * 使用示例：
+ * <pre>
+ * try (BulkVerifier verifier = new BulkVerifier()) {
+ *     BulkVerificationReport report = verifier.verifyAll(new File("/archive"), new File("verify.tsv"));
+ * }
+ * </pre>
+ */
+public class BulkVerifier implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkVerifier.class);
+
+    /** 结果文件的表头 */
+    private static final String HEADER = "# source\tstatus\tsignatures\tmillis\tdetail";
+
+    private final ForkJoinPool pool;
+    private final int maxOpenDocuments;
+    private final MemoryPolicy memoryPolicy;
+
+    /**
+     * 线程数和同时打开的文档数都等于CPU核数
+     */
+    public BulkVerifier() {
+        this(Runtime.getRuntime().availableProcessors(), Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param parallelism 工作线程数
+     * @param maxOpenDocuments 同时打开的文档数上限
+     */
+    public BulkVerifier(int parallelism, int maxOpenDocuments) {
+        this(parallelism, maxOpenDocuments, MemoryPolicy.getDefault());
+    }
+
+    /**
+     * @param parallelism 工作线程数
+     * @param maxOpenDocuments 同时打开的文档数上限
+     * @param memoryPolicy 打开文档的内存策略
+     */
+    public BulkVerifier(int parallelism, int maxOpenDocuments, MemoryPolicy memoryPolicy) {
+        if (parallelism <= 0 || maxOpenDocuments <= 0) {
+            throw new IllegalArgumentException("parallelism 和 maxOpenDocuments 必须大于0");
+        }
+        this.pool = new ForkJoinPool(parallelism, new VerifierThreadFactory(), null, false);
+        this.maxOpenDocuments = maxOpenDocuments;
+        this.memoryPolicy = memoryPolicy;
+    }
+
+    /**
+     * 校验目录、PDF或ZIP压缩包，结果写入文件
+     *
+     * @param root 目录（递归）、PDF文件或ZIP压缩包
+     * @param resultFile 结果文件（TSV，每个文档一行）
+     * @return 汇总报告
+     */
+    public BulkVerificationReport verifyAll(File root, File resultFile) throws IOException {
+        return verifyAll(Collections.singletonList(root), resultFile, null);
+    }
+
+    /**
+     * 校验多个目录、PDF或ZIP压缩包
+     *
+     * @param roots 目录（递归）、PDF文件或ZIP压缩包
+     * @param resultFile 结果文件（TSV，每个文档一行，可以为null）
+     * @param listener 每个文档完成时的回调（在工作线程中调用，可以为null）
+     * @return 汇总报告
+     */
+    public BulkVerificationReport verifyAll(Collection<File> roots, File resultFile,
+                                            Consumer<DocumentVerificationResult> listener) throws IOException {
+        long start = System.currentTimeMillis();
+        Writer writer = null;
+        if (resultFile != null) {
+            writer = Files.newBufferedWriter(resultFile.toPath(), StandardCharsets.UTF_8);
+            writer.write(HEADER);
+            writer.write('\n');
+        }
+        Run run = new Run(writer, listener);
+        try {
+            List<RecursiveAction> tasks = new ArrayList<>();
+            for (File root : roots) {
+                RecursiveAction task = run.taskFor(root.toPath(), true);
+                if (task != null) {
+                    tasks.add(task);
+                }
+            }
+            pool.invoke(run.new AllTask(tasks));
+        } finally {
+            if (writer != null) {
+                writer.close();
+            }
+        }
+        if (run.writeFailure != null) {
+            throw run.writeFailure;
+        }
+
+        BulkVerificationReport report = new BulkVerificationReport(run.valid.sum(), run.invalid.sum(),
+                run.unsigned.sum(), run.errors.sum(), run.signatures.sum(), run.bytes.sum(),
+                System.currentTimeMillis() - start, run.peakOpen.get(), run.latency);
+        logger.info("批量校验完成: {}", report);
+        return report;
+    }
+
+    /**
+     * 等待正在执行的校验完成并关闭线程池
+     */
+    @Override
+    public void close() {
+        pool.shutdown();
+        try {
+            while (!pool.awaitTermination(1, TimeUnit.MINUTES)) {
+                logger.info("等待校验任务完成，活动线程: {}", pool.getActiveThreadCount());
+            }
+        } catch (InterruptedException e) {
+            pool.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static boolean hasExtension(Path path, String extension) {
+        return path.getFileName() != null
+                && path.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(extension);
+    }
+
+    /**
+     * 一次 verifyAll 调用的状态：计数、延迟分布、结果输出
+     */
+    private final class Run {
+
+        private final Writer writer;
+        private final Consumer<DocumentVerificationResult> listener;
+        private final Semaphore openDocuments = new Semaphore(maxOpenDocuments);
+        private final AtomicInteger open = new AtomicInteger();
+        private final AtomicInteger peakOpen = new AtomicInteger();
+        private final LongAdder valid = new LongAdder();
+        private final LongAdder invalid = new LongAdder();
+        private final LongAdder unsigned = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder signatures = new LongAdder();
+        private final LongAdder bytes = new LongAdder();
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private volatile IOException writeFailure;
+
+        Run(Writer writer, Consumer<DocumentVerificationResult> listener) {
+            this.writer = writer;
+            this.listener = listener;
+        }
+
+        /**
+         * 按路径类型生成任务，不是目录、PDF或ZIP时返回null（显式指定的根路径记为错误）
+         */
+        RecursiveAction taskFor(Path path, boolean explicit) {
+            if (Files.isDirectory(path, LinkOption.NOFOLLOW_LINKS) || (explicit && Files.isDirectory(path))) {
+                return new DirectoryTask(path);
+            }
+            if (hasExtension(path, ".pdf") && Files.isRegularFile(path)) {
+                return new DocumentTask(path.toFile());
+            }
+            if (hasExtension(path, ".zip") && Files.isRegularFile(path)) {
+                return new ArchiveTask(path.toFile());
+            }
+            if (explicit) {
+                recordError(path.toString(), new IOException("不是目录、PDF或ZIP文件: " + path));
+            }
+            return null;
+        }
+
+        /**
+         * 占用一个打开文档的名额；持有名额的任务不等待其他任务，不会死锁
+         */
+        void acquire() throws InterruptedException {
+            openDocuments.acquire();
+            int current = open.incrementAndGet();
+            peakOpen.accumulateAndGet(current, Math::max);
+        }
+
+        void release() {
+            open.decrementAndGet();
+            openDocuments.release();
+        }
+
+        void record(DocumentVerificationResult result, long nanos) {
+            String status;
+            String detail = "";
+            if (result.getError() != null) {
+                errors.increment();
+                status = "ERROR";
+                detail = String.valueOf(result.getError().getMessage());
+            } else if (result.getSignatureCount() == 0) {
+                unsigned.increment();
+                status = "UNSIGNED";
+            } else if (result.isValid()) {
+                valid.increment();
+                status = "VALID";
+            } else {
+                invalid.increment();
+                status = "INVALID";
+                for (SignatureVerificationResult signature : result.getSignatures()) {
+                    if (!signature.isValid()) {
+                        detail = "#" + (signature.getIndex() + 1) + " " + signature.getFailureReason();
+                        break;
+                    }
+                }
+            }
+            signatures.add(result.getSignatureCount());
+            bytes.add(result.getFileLength());
+            latency.recordNanos(nanos);
+
+            if (writer != null && writeFailure == null) {
+                String line = clean(result.getSource()) + '\t' + status + '\t' + result.getSignatureCount()
+                        + '\t' + String.format(Locale.ROOT, "%.2f", nanos / 1e6) + '\t' + clean(detail) + '\n';
+                try {
+                    synchronized (writer) {
+                        writer.write(line);
+                    }
+                } catch (IOException e) {
+                    writeFailure = e;
+                    logger.error("写入校验结果失败", e);
+                }
+            }
+            if (listener != null) {
+                try {
+                    listener.accept(result);
+                } catch (RuntimeException e) {
+                    logger.warn("结果回调异常: {}", result.getSource(), e);
+                }
+            }
+        }
+
+        void recordError(String source, Throwable error) {
+            DocumentVerificationResult result = new DocumentVerificationResult(new File(source), source);
+            result.error = error;
+            record(result, 0);
+        }
+
+        private String clean(String text) {
+            return text.replace('\t', ' ').replace('\n', ' ').replace('\r', ' ');
+        }
+
+        /**
+         * 多个根路径
+         */
+        final class AllTask extends RecursiveAction {
+
+            private static final long serialVersionUID = 1L;
+
+            private final List<RecursiveAction> tasks;
+
+            AllTask(List<RecursiveAction> tasks) {
+                this.tasks = tasks;
+            }
+
+            @Override
+            protected void compute() {
+                invokeAll(tasks);
+            }
+        }
+
+        /**
+         * 目录：为每个子目录、PDF和压缩包生成子任务（不跟随符号链接的子目录，避免循环）
+         */
+        final class DirectoryTask extends RecursiveAction {
+
+            private static final long serialVersionUID = 1L;
+
+            private final Path dir;
+
+            DirectoryTask(Path dir) {
+                this.dir = dir;
+            }
+
+            @Override
+            protected void compute() {
+                List<RecursiveAction> tasks = new ArrayList<>();
+                try (DirectoryStream<Path> children = Files.newDirectoryStream(dir)) {
+                    for (Path child : children) {
+                        RecursiveAction task = taskFor(child, false);
+                        if (task != null) {
+                            tasks.add(task);
+                        }
+                    }
+                } catch (IOException | RuntimeException e) {
+                    logger.warn("无法读取目录: {}", dir, e);
+                    recordError(dir.toString(), e);
+                }
+                invokeAll(tasks);
+            }
+        }
+
+        /**
+         * 单个PDF文件
+         */
+        final class DocumentTask extends RecursiveAction {
+
+            private static final long serialVersionUID = 1L;
+
+            private final File file;
+
+            DocumentTask(File file) {
+                this.file = file;
+            }
+
+            @Override
+            protected void compute() {
+                try {
+                    acquire();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    recordError(file.getPath(), e);
+                    return;
+                }
+                DocumentVerificationResult result;
+                long start = System.nanoTime();
+                try {
+                    result = SignatureVerifier.verify(file, file.getPath(), memoryPolicy, true);
+                } finally {
+                    release();
+                }
+                record(result, System.nanoTime() - start);
+            }
+        }
+
+        /**
+         * ZIP压缩包：每个PDF条目一个子任务，全部完成后关闭压缩包
+         */
+        final class ArchiveTask extends RecursiveAction {
+
+            private static final long serialVersionUID = 1L;
+
+            private final File archive;
+
+            ArchiveTask(File archive) {
+                this.archive = archive;
+            }
+
+            @Override
+            protected void compute() {
+                try (ZipFile zip = new ZipFile(archive)) {
+                    List<EntryTask> tasks = new ArrayList<>();
+                    Enumeration<? extends ZipEntry> entries = zip.entries();
+                    while (entries.hasMoreElements()) {
+                        ZipEntry entry = entries.nextElement();
+                        if (!entry.isDirectory() && entry.getName().toLowerCase(Locale.ROOT).endsWith(".pdf")) {
+                            tasks.add(new EntryTask(zip, entry, archive.getPath() + "!/" + entry.getName()));
+                        }
+                    }
+                    invokeAll(tasks);
+                } catch (IOException | RuntimeException e) {
+                    logger.warn("无法读取压缩包: {}", archive, e);
+                    recordError(archive.getPath(), e);
+                }
+            }
+        }
+
+        /**
+         * 压缩包内的PDF：解压到临时文件后校验，耗时包含解压
+         */
+        final class EntryTask extends RecursiveAction {
+
+            private static final long serialVersionUID = 1L;
+
+            private final ZipFile zip;
+            private final ZipEntry entry;
+            private final String source;
+
+            EntryTask(ZipFile zip, ZipEntry entry, String source) {
+                this.zip = zip;
+                this.entry = entry;
+                this.source = source;
+            }
+
+            @Override
+            protected void compute() {
+                try {
+                    acquire();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    recordError(source, e);
+                    return;
+                }
+                DocumentVerificationResult result;
+                long start = System.nanoTime();
+                File temp = null;
+                try {
+                    File scratchDir = memoryPolicy.getScratchDir();
+                    temp = scratchDir != null
+                            ? File.createTempFile("capdf-verify-", ".pdf", scratchDir)
+                            : File.createTempFile("capdf-verify-", ".pdf");
+                    try (InputStream in = zip.getInputStream(entry)) {
+                        Files.copy(in, temp.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                    }
+                    result = SignatureVerifier.verify(temp, source, memoryPolicy, true);
+                } catch (IOException | RuntimeException e) {
+                    result = new DocumentVerificationResult(new File(source), source);
+                    result.error = e;
+                } finally {
+                    if (temp != null && !temp.delete()) {
+                        temp.deleteOnExit();
+                    }
+                    release();
+                }
+                record(result, System.nanoTime() - start);
+            }
+        }
+    }
+
+    private static class VerifierThreadFactory implements ForkJoinPool.ForkJoinWorkerThreadFactory {
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public ForkJoinWorkerThread newThread(ForkJoinPool pool) {
+            ForkJoinWorkerThread thread =
+                    ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("pdf-verifier-" + counter.incrementAndGet());
+            return thread;
+        }
+    }
+
+    /**
+     * 命令行入口
+     * <pre>
+     * BulkVerifier [-o 结果文件] [-t 线程数] [-m 最大打开文档数] 目录|PDF|ZIP...
+     * </pre>
+     */
+    public static void main(String[] args) {
+        File resultFile = new File("verify-results.tsv");
+        int threads = Runtime.getRuntime().availableProcessors();
+        int maxOpen = threads;
+        List<File> roots = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            if ("-o".equals(args[i]) && i + 1 < args.length) {
+                resultFile = new File(args[++i]);
+            } else if ("-t".equals(args[i]) && i + 1 < args.length) {
+                threads = Integer.parseInt(args[++i]);
+            } else if ("-m".equals(args[i]) && i + 1 < args.length) {
+                maxOpen = Integer.parseInt(args[++i]);
+            } else {
+                roots.add(new File(args[i]));
+            }
+        }
+        if (roots.isEmpty()) {
+            System.out.println("用法: BulkVerifier [-o 结果文件] [-t 线程数] [-m 最大打开文档数] 目录|PDF|ZIP...");
+            return;
+        }
+        try (BulkVerifier verifier = new BulkVerifier(threads, maxOpen)) {
+            BulkVerificationReport report = verifier.verifyAll(roots, resultFile, null);
+            System.out.println(report);
+            System.out.println("结果文件: " + resultFile.getAbsolutePath());
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.techhf.capdf.util;
+
+import com.techhf.capdf.cert.CryptoProviders;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 按签名字典的 ByteRange 直接从文件计算摘要
+ * <p>
+ * 只用一个固定大小的缓冲区按位置读取文件，不经过 PDFBox，也不把签名内容读入内存，
+ * 签名和验证共用。多个签名可以用 {@link #digestAll} 一次读取同时计算。
+ */
+public final class ByteRangeDigest {
+
+    /** 读缓冲区大小 */
+    private static final int BUFFER_SIZE = 256 * 1024;
+
+    private ByteRangeDigest() {
+    }
+
+    /**
+     * 计算摘要
+     *
+     * @param pdfFile 已签名（或已写入占位符）的PDF文件
+     * @param byteRange 签名字典的 ByteRange
+     * @param algorithm 摘要算法名称或OID（例如 SHA-256、2.16.840.1.101.3.4.2.1）
+     */
+    public static byte[] digest(File pdfFile, int[] byteRange, String algorithm) throws IOException {
+        long[] range = new long[byteRange.length];
+        for (int i = 0; i < byteRange.length; i++) {
+            range[i] = byteRange[i];
+        }
+        return digest(pdfFile, range, algorithm);
+    }
+
+    /**
+     * 计算摘要
+     *
+     * @param pdfFile 已签名（或已写入占位符）的PDF文件
+     * @param byteRange 签名字典的 ByteRange
+     * @param algorithm 摘要算法名称或OID（例如 SHA-256、2.16.840.1.101.3.4.2.1）
+     */
+    public static byte[] digest(File pdfFile, long[] byteRange, String algorithm) throws IOException {
+        MessageDigest md;
+        try {
+            md = CryptoProviders.getDefault().newMessageDigest(algorithm);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("不支持的摘要算法: " + algorithm, e);
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        try (FileChannel in = FileChannel.open(pdfFile.toPath(), StandardOpenOption.READ)) {
+            for (int i = 0; i + 1 < byteRange.length; i += 2) {
+                long position = byteRange[i];
+                long end = position + byteRange[i + 1];
+                while (position < end) {
+                    buffer.clear();
+                    buffer.limit((int) Math.min(buffer.capacity(), end - position));
+                    int n = in.read(buffer, position);
+                    if (n < 0) {
+                        throw new IOException("文件长度不足 ByteRange: " + pdfFile.getName());
+                    }
+                    md.update(buffer.array(), 0, n);
+                    position += n;
+                }
+            }
+        }
+        return md.digest();
+    }
+
+    /**
+     * 单次顺序读取计算多个签名的摘要
+     * <p>
+     * 多次签名的文档中各签名的 ByteRange 互相重叠（后一个签名覆盖前一个签名的全部内容），
+     * 逐个计算需要把文件读 K 遍。这里把所有 ByteRange 合并成不重叠的区间，按顺序只读一遍，
+     * 每个缓冲区同时喂给覆盖它的所有摘要；没有任何签名覆盖的区域（最后一个签名的 /Contents）不读取。
+     *
+     * @param pdfFile 已签名的PDF文件
+     * @param byteRanges 每个签名的 ByteRange
+     * @param algorithms 每个签名的摘要算法名称或OID，与 byteRanges 一一对应
+     * @return 每个签名的摘要，与 byteRanges 一一对应
+     */
+    public static byte[][] digestAll(File pdfFile, List<long[]> byteRanges, List<String> algorithms)
+            throws IOException {
+        if (byteRanges.size() != algorithms.size()) {
+            throw new IllegalArgumentException("ByteRange 与摘要算法数量不一致");
+        }
+        MessageDigest[] digests = new MessageDigest[byteRanges.size()];
+        for (int k = 0; k < digests.length; k++) {
+            try {
+                digests[k] = CryptoProviders.getDefault().newMessageDigest(algorithms.get(k));
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("不支持的摘要算法: " + algorithms.get(k), e);
+            }
+        }
+
+        // 1. 合并所有区间，得到需要读取的位置
+        List<long[]> segments = new ArrayList<>();
+        for (long[] range : byteRanges) {
+            for (int i = 0; i + 1 < range.length; i += 2) {
+                if (range[i + 1] > 0) {
+                    segments.add(new long[]{range[i], range[i] + range[i + 1]});
+                }
+            }
+        }
+        segments.sort((a, b) -> Long.compare(a[0], b[0]));
+        List<long[]> merged = new ArrayList<>();
+        for (long[] segment : segments) {
+            long[] last = merged.isEmpty() ? null : merged.get(merged.size() - 1);
+            if (last != null && segment[0] <= last[1]) {
+                last[1] = Math.max(last[1], segment[1]);
+            } else {
+                merged.add(segment.clone());
+            }
+        }
+
+        // 2. 顺序读取，每块数据按各签名的区间分别更新摘要
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        try (FileChannel in = FileChannel.open(pdfFile.toPath(), StandardOpenOption.READ)) {
+            for (long[] segment : merged) {
+                long position = segment[0];
+                while (position < segment[1]) {
+                    buffer.clear();
+                    buffer.limit((int) Math.min(buffer.capacity(), segment[1] - position));
+                    int n = in.read(buffer, position);
+                    if (n < 0) {
+                        throw new IOException("文件长度不足 ByteRange: " + pdfFile.getName());
+                    }
+                    long end = position + n;
+                    for (int k = 0; k < digests.length; k++) {
+                        long[] range = byteRanges.get(k);
+                        for (int i = 0; i + 1 < range.length; i += 2) {
+                            long from = Math.max(position, range[i]);
+                            long to = Math.min(end, range[i] + range[i + 1]);
+                            if (from < to) {
+                                digests[k].update(buffer.array(), (int) (from - position), (int) (to - from));
+                            }
+                        }
+                    }
+                    position = end;
+                }
+            }
+        }
+
+        byte[][] results = new byte[digests.length][];
+        for (int k = 0; k < digests.length; k++) {
+            results[k] = digests[k].digest();
+        }
+        return results;
+    }
+}
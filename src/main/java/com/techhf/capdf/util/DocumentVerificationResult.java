@@ -0,0 +1,130 @@
+package com.techhf.capdf.util;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 一个文档的签名校验结果
+ * <p>
+ * {@link SignatureVerifier#verify(File)} 不抛出异常：文档无法打开或解析时记录在 {@link #getError()} 中。
+ */
+public final class DocumentVerificationResult {
+
+    private final File file;
+    private final String source;
+    private final List<SignatureVerificationResult> signatures = new ArrayList<>();
+
+    long fileLength;
+    Throwable error;
+    long loadNanos;
+    long digestNanos;
+    long totalNanos;
+    long allocatedBytes = -1;
+
+    DocumentVerificationResult(File file) {
+        this(file, file.getPath());
+    }
+
+    DocumentVerificationResult(File file, String source) {
+        this.file = file;
+        this.source = source;
+    }
+
+    /**
+     * 实际校验的文件；压缩包内的文档为解压出的临时文件，校验后即删除
+     */
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * 文档来源：文件路径，压缩包内的文档为 archive.zip!/entry.pdf
+     */
+    public String getSource() {
+        return source;
+    }
+
+    public long getFileLength() {
+        return fileLength;
+    }
+
+    /**
+     * 文档可以解析、至少有一个签名，且所有签名都有效
+     */
+    public boolean isValid() {
+        if (error != null || signatures.isEmpty()) {
+            return false;
+        }
+        for (SignatureVerificationResult signature : signatures) {
+            if (!signature.isValid()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public int getSignatureCount() {
+        return signatures.size();
+    }
+
+    public List<SignatureVerificationResult> getSignatures() {
+        return Collections.unmodifiableList(signatures);
+    }
+
+    /**
+     * 打开或解析文档时的异常，成功时为null
+     */
+    public Throwable getError() {
+        return error;
+    }
+
+    /**
+     * 打开文档并找到签名字典的耗时（纳秒）
+     */
+    public long getLoadNanos() {
+        return loadNanos;
+    }
+
+    /**
+     * 计算所有签名 ByteRange 摘要的耗时（纳秒）；单次遍历模式下为那一次顺序读取的耗时
+     */
+    public long getDigestNanos() {
+        return digestNanos;
+    }
+
+    /**
+     * 校验整个文档的耗时（纳秒）
+     */
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    /**
+     * 校验期间校验线程累计分配的字节数（allocated bytes，不是堆峰值，可能远大于峰值），
+     * 并发校验时也只计本文档；JVM 不支持时为 -1，
+     * 见 {@link ThreadAllocationTracker}
+     */
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    void add(SignatureVerificationResult signature) {
+        signatures.add(signature);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(new File(source).getName());
+        if (error != null) {
+            sb.append(" 无法校验: ").append(error.getMessage());
+        } else {
+            sb.append(isValid() ? " 有效" : " 无效").append("，").append(signatures.size()).append(" 个签名");
+            for (SignatureVerificationResult signature : signatures) {
+                sb.append("\n  ").append(signature);
+            }
+        }
+        return sb.toString();
+    }
+}
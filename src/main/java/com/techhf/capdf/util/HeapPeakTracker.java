@@ -0,0 +1,69 @@
+package com.techhf.capdf.util;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 堆内存峰值统计
+ * <p>
+ * 开始时重置各堆内存池的峰值记录，结束时汇总各池峰值，
+ * 用于评估单个文档签名/验证时的堆占用并调整 {@link MemoryPolicy}。
+ * <p>
+ * 峰值记录是进程级的，重置会影响同一进程中的所有统计，因此只用于单线程诊断
+ * （如命令行验证、逐个签名的测试）；并发签名/验证的代码路径中不要使用。
+ * 各池峰值出现的时刻可能不同，汇总值略高于真实峰值。
+ */
+public final class HeapPeakTracker {
+
+    private final List<MemoryPoolMXBean> heapPools;
+    private final long baselineBytes;
+
+    private HeapPeakTracker(List<MemoryPoolMXBean> heapPools, long baselineBytes) {
+        this.heapPools = heapPools;
+        this.baselineBytes = baselineBytes;
+    }
+
+    /**
+     * 重置峰值并开始统计（进程级副作用，只在单线程诊断时调用）
+     */
+    public static HeapPeakTracker start() {
+        List<MemoryPoolMXBean> pools = new ArrayList<>();
+        long used = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP && pool.isValid()) {
+                pool.resetPeakUsage();
+                pools.add(pool);
+                used += pool.getUsage().getUsed();
+            }
+        }
+        return new HeapPeakTracker(pools, used);
+    }
+
+    /**
+     * 开始统计时的堆占用（字节）
+     */
+    public long getBaselineBytes() {
+        return baselineBytes;
+    }
+
+    /**
+     * 开始统计以来的堆占用峰值（字节）
+     */
+    public long getPeakBytes() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : heapPools) {
+            peak += pool.getPeakUsage().getUsed();
+        }
+        return peak;
+    }
+
+    /**
+     * 格式化为 MB，便于日志输出
+     */
+    public static String toMegabytes(long bytes) {
+        return String.format("%.1f MB", bytes / (1024.0 * 1024.0));
+    }
+}
@@ -0,0 +1,105 @@
+package com.techhf.capdf.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 线程安全的延迟直方图（微秒）
+ * <p>
+ * 对数-线性分桶：每个2的幂区间分为64个桶，相对误差不超过约1.6%。
+ * 占用固定内存，与记录次数无关，适合对数百万个文档统计百分位数。
+ */
+public final class LatencyHistogram {
+
+    /** 每个2的幂区间的桶数 */
+    private static final int SUB_BUCKETS = 64;
+
+    /** 小于该值的延迟每微秒一个桶 */
+    private static final long LINEAR_LIMIT = 2 * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(indexOf(Long.MAX_VALUE) + 1);
+    private final LongAdder total = new LongAdder();
+    private final LongAdder sumMicros = new LongAdder();
+
+    /**
+     * 记录一次延迟
+     */
+    public void recordNanos(long nanos) {
+        long micros = Math.max(0, nanos / 1000);
+        counts.incrementAndGet(indexOf(micros));
+        total.increment();
+        sumMicros.add(micros);
+    }
+
+    public long getCount() {
+        return total.sum();
+    }
+
+    /**
+     * 平均延迟（毫秒）
+     */
+    public double getMeanMillis() {
+        long count = total.sum();
+        return count == 0 ? 0.0 : sumMicros.sum() / 1000.0 / count;
+    }
+
+    /**
+     * 百分位延迟（毫秒，取所在桶的上界）
+     *
+     * @param percentile 0~100，例如 50、99、99.9
+     */
+    public double getPercentileMillis(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("百分位必须在0~100之间: " + percentile);
+        }
+        long count = total.sum();
+        if (count == 0) {
+            return 0.0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(count * percentile / 100.0));
+        long seen = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return upperBoundOf(i) / 1000.0;
+            }
+        }
+        return upperBoundOf(counts.length() - 1) / 1000.0;
+    }
+
+    /**
+     * 最大延迟（毫秒，取所在桶的上界）
+     */
+    public double getMaxMillis() {
+        for (int i = counts.length() - 1; i >= 0; i--) {
+            if (counts.get(i) > 0) {
+                return upperBoundOf(i) / 1000.0;
+            }
+        }
+        return 0.0;
+    }
+
+    private static int indexOf(long micros) {
+        if (micros < LINEAR_LIMIT) {
+            return (int) micros;
+        }
+        // 右移后落在 [64, 128) 之间
+        int shift = 63 - Long.numberOfLeadingZeros(micros) - 6;
+        return SUB_BUCKETS * (shift + 1) + (int) (micros >>> shift) - SUB_BUCKETS;
+    }
+
+    private static long upperBoundOf(int index) {
+        if (index < LINEAR_LIMIT) {
+            return index;
+        }
+        int shift = index / SUB_BUCKETS - 1;
+        long sub = index % SUB_BUCKETS + SUB_BUCKETS;
+        return ((sub + 1) << shift) - 1;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("p50=%.2fms, p90=%.2fms, p99=%.2fms, max=%.2fms",
+                getPercentileMillis(50), getPercentileMillis(90), getPercentileMillis(99), getMaxMillis());
+    }
+}
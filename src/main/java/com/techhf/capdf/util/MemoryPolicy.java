@@ -0,0 +1,165 @@
+package com.techhf.capdf.util;
+
+import org.apache.pdfbox.io.MemoryUsageSetting;
+import org.apache.pdfbox.pdmodel.PDDocument;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * 文档加载的内存策略
+ * <p>
+ * 决定解析PDF时流数据（页面内容、图片、字体等）存放的位置：
+ * <ul>
+ *   <li>{@link #mainMemoryOnly()}：全部放在堆内，速度最快，适合小文档（默认，与以前的行为一致）</li>
+ *   <li>{@link #mixed(long)}：堆内最多放指定字节数（默认32MB），超出部分写入临时文件</li>
+ *   <li>{@link #tempFileOnly()}：全部写入临时文件，堆占用最小，适合GB级图纸</li>
+ * </ul>
+ * 对象字典和交叉引用表始终在堆内，与流数据大小无关。
+ * <p>
+ * 混合和临时文件模式需要显式传入，或通过系统属性把默认策略改为它们：
+ * <pre>
+ * -Dcapdf.memory.mode=main|mixed|temp
+ * -Dcapdf.memory.maxMainBytes=33554432
+ * -Dcapdf.memory.scratchDir=/data/tmp
+ * </pre>
+ * 不可变对象。
+ */
+public final class MemoryPolicy {
+
+    public enum Mode {
+        /** 只使用堆内存 */
+        MAIN_MEMORY,
+        /** 堆内存 + 临时文件 */
+        MIXED,
+        /** 只使用临时文件 */
+        TEMP_FILE
+    }
+
+    /** 混合模式默认堆内上限 */
+    public static final long DEFAULT_MAX_MAIN_MEMORY_BYTES = 32L * 1024 * 1024;
+
+    private static volatile MemoryPolicy defaultPolicy = fromSystemProperties();
+
+    private final Mode mode;
+    private final long maxMainMemoryBytes;
+    private final File scratchDir;
+
+    private MemoryPolicy(Mode mode, long maxMainMemoryBytes, File scratchDir) {
+        this.mode = mode;
+        this.maxMainMemoryBytes = maxMainMemoryBytes;
+        this.scratchDir = scratchDir;
+    }
+
+    public static MemoryPolicy mainMemoryOnly() {
+        return new MemoryPolicy(Mode.MAIN_MEMORY, -1, null);
+    }
+
+    /**
+     * @param maxMainMemoryBytes 每个文档在堆内缓存流数据的上限
+     */
+    public static MemoryPolicy mixed(long maxMainMemoryBytes) {
+        if (maxMainMemoryBytes <= 0) {
+            throw new IllegalArgumentException("堆内存上限必须大于0: " + maxMainMemoryBytes);
+        }
+        return new MemoryPolicy(Mode.MIXED, maxMainMemoryBytes, null);
+    }
+
+    public static MemoryPolicy tempFileOnly() {
+        return new MemoryPolicy(Mode.TEMP_FILE, 0, null);
+    }
+
+    /**
+     * 临时文件目录（默认 java.io.tmpdir），对只使用堆内存的策略无效
+     */
+    public MemoryPolicy withScratchDir(File scratchDir) {
+        if (scratchDir != null && !scratchDir.isDirectory()) {
+            throw new IllegalArgumentException("临时文件目录不存在: " + scratchDir);
+        }
+        return new MemoryPolicy(mode, maxMainMemoryBytes, scratchDir);
+    }
+
+    /**
+     * 当前默认策略（签名和验证未指定策略时使用）
+     */
+    public static MemoryPolicy getDefault() {
+        return defaultPolicy;
+    }
+
+    public static void setDefault(MemoryPolicy policy) {
+        if (policy == null) {
+            throw new IllegalArgumentException("内存策略不能为空");
+        }
+        defaultPolicy = policy;
+    }
+
+    /**
+     * 从系统属性读取策略，未配置时只使用堆内存
+     */
+    static MemoryPolicy fromSystemProperties() {
+        String mode = System.getProperty("capdf.memory.mode", "main").trim().toLowerCase();
+        MemoryPolicy policy;
+        switch (mode) {
+            case "main":
+                policy = mainMemoryOnly();
+                break;
+            case "temp":
+                policy = tempFileOnly();
+                break;
+            case "mixed":
+                policy = mixed(Long.getLong("capdf.memory.maxMainBytes", DEFAULT_MAX_MAIN_MEMORY_BYTES));
+                break;
+            default:
+                throw new IllegalArgumentException("无效的 capdf.memory.mode: " + mode);
+        }
+        String scratchDir = System.getProperty("capdf.memory.scratchDir");
+        return scratchDir != null ? policy.withScratchDir(new File(scratchDir)) : policy;
+    }
+
+    /**
+     * 按本策略打开PDF文档
+     */
+    public PDDocument load(File pdfFile) throws IOException {
+        return PDDocument.load(pdfFile, toMemoryUsageSetting());
+    }
+
+    /**
+     * 转换为 PDFBox 的内存设置（每次新建，PDFBox 会按文档修改其中的状态）
+     */
+    public MemoryUsageSetting toMemoryUsageSetting() {
+        MemoryUsageSetting setting;
+        switch (mode) {
+            case MAIN_MEMORY:
+                return MemoryUsageSetting.setupMainMemoryOnly();
+            case TEMP_FILE:
+                setting = MemoryUsageSetting.setupTempFileOnly();
+                break;
+            default:
+                setting = MemoryUsageSetting.setupMixed(maxMainMemoryBytes);
+                break;
+        }
+        return scratchDir != null ? setting.setTempDir(scratchDir) : setting;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * 混合模式下的堆内上限，其他模式无意义
+     */
+    public long getMaxMainMemoryBytes() {
+        return maxMainMemoryBytes;
+    }
+
+    public File getScratchDir() {
+        return scratchDir;
+    }
+
+    @Override
+    public String toString() {
+        return "MemoryPolicy[" + mode
+                + (mode == Mode.MIXED ? ", maxMainBytes=" + maxMainMemoryBytes : "")
+                + (scratchDir != null ? ", scratchDir=" + scratchDir : "") + "]";
+    }
+}
@@ -23,6 +23,20 @@ public class SignImageGenerator {
      * @param height 图片高度
      */
     public static void generateSealImage(String organizationName, String outputPath, int width, int height) throws IOException {
+        BufferedImage image = createSealImage(organizationName, width, height);
+        
+        // 保存图片
+        ImageIO.write(image, "PNG", new File(outputPath));
+    }
+
+    /**
+     * 在内存中绘制印章样式的签章图片（不写文件）
+     * 
+     * @param organizationName 组织名称
+     * @param width 图片宽度
+     * @param height 图片高度
+     */
+    public static BufferedImage createSealImage(String organizationName, int width, int height) {
         // 创建图片
         BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
         Graphics2D g2d = image.createGraphics();
@@ -63,9 +77,7 @@ public class SignImageGenerator {
         drawCircleText(g2d, organizationName, width / 2, height / 2, diameter / 2 - 20, sealColor);
         
         g2d.dispose();
-        
-        // 保存图片
-        ImageIO.write(image, "PNG", new File(outputPath));
+        return image;
     }
 
     /**
@@ -0,0 +1,1023 @@
+package com.techhf.capdf.util;
+
+import org.apache.pdfbox.cos.COSArray;
+import org.apache.pdfbox.cos.COSBase;
+import org.apache.pdfbox.cos.COSBoolean;
+import org.apache.pdfbox.cos.COSDictionary;
+import org.apache.pdfbox.cos.COSFloat;
+import org.apache.pdfbox.cos.COSInteger;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.cos.COSNull;
+import org.apache.pdfbox.cos.COSNumber;
+import org.apache.pdfbox.cos.COSObject;
+import org.apache.pdfbox.cos.COSString;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.interactive.digitalsignature.PDSignature;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * 签名字典快速提取
+ * <p>
+ * 不经过 {@link PDDocument#load}：从文件末尾的 startxref 开始沿 /Prev 读取所有修订版本的交叉引用
+ * （传统 xref 表、xref 流和混合引用），然后只解析 Catalog → AcroForm → 签名字段 → 签名字典
+ * 这条路径上的几个对象（包括位于对象流中的对象）。传统 xref 表每行定长20字节，只记录子段位置，
+ * 按对象编号直接定位到行；读取量与签名数量和修订版本数有关，与文档大小无关。
+ * <p>
+ * 返回的 {@link PDSignature} 与文件脱离，只包含签名字典中的直接数据（ByteRange、Contents、
+ * Name、M、Reason 等），文件关闭后仍可使用。文件结构不规范（偏移量错误、不支持的过滤器等）时
+ * {@link #scan(File)} 抛出异常，{@link #findSignatures(File, MemoryPolicy)} 则回退到 PDFBox 的容错解析。
+ */
+public final class SignatureScanner {
+
+    private static final Logger logger = LoggerFactory.getLogger(SignatureScanner.class);
+
+    /** 在文件末尾查找 startxref 的范围 */
+    private static final int TAIL_SIZE = 4096;
+
+    /** 传统 xref 表每行固定20字节 */
+    private static final int XREF_ROW_LENGTH = 20;
+
+    /** 文件读取窗口大小 */
+    private static final int WINDOW_SIZE = 16 * 1024;
+
+    /** 签名字典中复制到结果的键 */
+    private static final COSName[] SIGNATURE_KEYS = {
+            COSName.TYPE, COSName.FILTER, COSName.SUB_FILTER, COSName.BYTERANGE, COSName.CONTENTS,
+            COSName.NAME, COSName.M, COSName.REASON, COSName.LOCATION, COSName.CONTACT_INFO
+    };
+
+    private static final COSName SIG = COSName.getPDFName("Sig");
+
+    private SignatureScanner() {
+    }
+
+    /**
+     * 快速提取签名字典，顺序与 {@link PDDocument#getSignatureDictionaries()} 相同
+     *
+     * @throws IOException 文件结构无法按快速路径解析
+     */
+    public static List<PDSignature> scan(File pdfFile) throws IOException {
+        try (FileChannel channel = FileChannel.open(pdfFile.toPath(), StandardOpenOption.READ)) {
+            return new Scan(new FileSource(channel)).signatures();
+        } catch (RuntimeException e) {
+            throw new IOException("无法解析文件结构: " + e, e);
+        }
+    }
+
+    /**
+     * 提取签名字典：先走快速路径，失败时用 PDFBox 按内存策略完整打开文档
+     */
+    public static List<PDSignature> findSignatures(File pdfFile, MemoryPolicy memoryPolicy) throws IOException {
+        try {
+            return scan(pdfFile);
+        } catch (IOException e) {
+            logger.debug("快速提取签名失败，回退到 PDFBox: {} ({})", pdfFile.getName(), e.getMessage());
+        }
+        try (PDDocument doc = memoryPolicy.load(pdfFile)) {
+            List<PDSignature> signatures = new ArrayList<>();
+            for (PDSignature signature : doc.getSignatureDictionaries()) {
+                signatures.add(detach(signature.getCOSObject(), null));
+            }
+            return signatures;
+        }
+    }
+
+    /**
+     * 复制签名字典中的直接数据，引用通过 scan 解析（PDFBox 的字典已解析引用时 scan 为null）
+     */
+    private static PDSignature detach(COSDictionary source, Scan scan) throws IOException {
+        COSDictionary copy = new COSDictionary();
+        for (COSName key : SIGNATURE_KEYS) {
+            COSBase value = scan != null ? scan.resolve(source.getItem(key)) : source.getDictionaryObject(key);
+            if (value instanceof COSArray) {
+                COSArray array = new COSArray();
+                for (int i = 0; i < ((COSArray) value).size(); i++) {
+                    COSBase item = ((COSArray) value).get(i);
+                    array.add(scan != null ? scan.resolve(item) : ((COSArray) value).getObject(i));
+                }
+                value = array;
+            } else if (value instanceof COSString) {
+                value = new COSString(((COSString) value).getBytes());
+            }
+            if (value != null && !(value instanceof COSNull)) {
+                copy.setItem(key, value);
+            }
+        }
+        return new PDSignature(copy);
+    }
+
+    /**
+     * 交叉引用表中的一项：文件偏移，或对象流编号和流内序号
+     */
+    private static final class XrefEntry {
+        final long offset;
+        final long streamNumber;
+        final int index;
+
+        /** 被释放的对象（f 行或 xref 流类型0），查找到此为止，不再看更早的版本 */
+        static final XrefEntry FREE = new XrefEntry(-1, -1, 0);
+
+        XrefEntry(long offset, long streamNumber, int index) {
+            this.offset = offset;
+            this.streamNumber = streamNumber;
+            this.index = index;
+        }
+
+        boolean isCompressed() {
+            return streamNumber >= 0;
+        }
+    }
+
+    /**
+     * 一个交叉引用段：传统表的子段只记录位置，按对象编号直接定位到行再读取；
+     * xref 流整体解码后放在 entries 中
+     */
+    private static final class XrefSection {
+        final long start;
+        final long count;
+        final long rowsOffset;
+        final Map<Long, XrefEntry> entries;
+
+        XrefSection(long start, long count, long rowsOffset) {
+            this.start = start;
+            this.count = count;
+            this.rowsOffset = rowsOffset;
+            this.entries = null;
+        }
+
+        XrefSection(Map<Long, XrefEntry> entries) {
+            this.start = 0;
+            this.count = 0;
+            this.rowsOffset = -1;
+            this.entries = entries;
+        }
+    }
+
+    /**
+     * 一次扫描：交叉引用、对象缓存、对象流缓存
+     */
+    private static final class Scan {
+
+        private final Source file;
+        /** 从新到旧排列，先找到的条目有效 */
+        private final List<XrefSection> sections = new ArrayList<>();
+        private final Map<Long, COSBase> objects = new HashMap<>();
+        private final Map<Long, ObjectStream> objectStreams = new HashMap<>();
+        private final Set<Long> loading = new HashSet<>();
+        private COSDictionary trailer;
+
+        Scan(Source file) throws IOException {
+            this.file = file;
+            readXrefChain(findStartXref());
+        }
+
+        List<PDSignature> signatures() throws IOException {
+            List<PDSignature> signatures = new ArrayList<>();
+            COSBase root = resolve(trailer.getItem(COSName.ROOT));
+            if (!(root instanceof COSDictionary)) {
+                throw new IOException("缺少 /Root");
+            }
+            COSBase acroForm = resolve(((COSDictionary) root).getItem(COSName.ACRO_FORM));
+            if (!(acroForm instanceof COSDictionary)) {
+                return signatures;
+            }
+            COSBase fields = resolve(((COSDictionary) acroForm).getItem(COSName.FIELDS));
+            if (!(fields instanceof COSArray)) {
+                return signatures;
+            }
+            Set<Object> visited = new HashSet<>();
+            for (COSBase field : (COSArray) fields) {
+                collect(field, null, visited, signatures);
+            }
+            return signatures;
+        }
+
+        /**
+         * 按 PDFBox 字段树的先序遍历顺序收集签名字段的 /V（字段类型可从父字段继承）
+         */
+        private void collect(COSBase fieldRef, COSName inheritedType, Set<Object> visited,
+                             List<PDSignature> signatures) throws IOException {
+            Object identity = fieldRef instanceof COSObject ? ((COSObject) fieldRef).getObjectNumber() : fieldRef;
+            COSBase resolved = resolve(fieldRef);
+            if (!(resolved instanceof COSDictionary) || !visited.add(identity)) {
+                return;
+            }
+            COSDictionary field = (COSDictionary) resolved;
+            COSBase ownType = resolve(field.getItem(COSName.FT));
+            COSName type = ownType instanceof COSName ? (COSName) ownType : inheritedType;
+
+            COSBase kids = resolve(field.getItem(COSName.KIDS));
+            if (kids instanceof COSArray && hasChildFields((COSArray) kids)) {
+                for (COSBase kid : (COSArray) kids) {
+                    collect(kid, type, visited, signatures);
+                }
+                return;
+            }
+            if (SIG.equals(type)) {
+                COSBase value = resolve(field.getItem(COSName.V));
+                if (value instanceof COSDictionary) {
+                    signatures.add(detach((COSDictionary) value, this));
+                }
+            }
+        }
+
+        /**
+         * 子节点带 /T 时是子字段，否则是控件注释（与 PDFBox 判断非终端字段的方式一致）
+         */
+        private boolean hasChildFields(COSArray kids) throws IOException {
+            for (COSBase kid : kids) {
+                COSBase resolved = resolve(kid);
+                if (resolved instanceof COSDictionary && ((COSDictionary) resolved).containsKey(COSName.T)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        COSBase resolve(COSBase value) throws IOException {
+            if (!(value instanceof COSObject)) {
+                return value;
+            }
+            long number = ((COSObject) value).getObjectNumber();
+            COSBase cached = objects.get(number);
+            if (cached == null) {
+                if (!loading.add(number)) {
+                    throw new IOException("对象循环引用: " + number);
+                }
+                try {
+                    cached = load(number);
+                } finally {
+                    loading.remove(number);
+                }
+                objects.put(number, cached);
+            }
+            return cached;
+        }
+
+        private COSBase load(long number) throws IOException {
+            XrefEntry entry = lookup(number);
+            if (entry == null) {
+                return COSNull.NULL;
+            }
+            if (entry.isCompressed()) {
+                ObjectStream stream = objectStreams.get(entry.streamNumber);
+                if (stream == null) {
+                    stream = new ObjectStream(entry.streamNumber);
+                    objectStreams.put(entry.streamNumber, stream);
+                }
+                return stream.get(number, entry.index);
+            }
+            Parser parser = new Parser(file, entry.offset);
+            parser.readObjectHeader(number);
+            return parser.readObject();
+        }
+
+        // ---------- 交叉引用 ----------
+
+        private long findStartXref() throws IOException {
+            long length = file.length();
+            long tailStart = Math.max(0, length - TAIL_SIZE);
+            byte[] tail = file.read(tailStart, (int) (length - tailStart));
+            String text = new String(tail, StandardCharsets.ISO_8859_1);
+            int index = text.lastIndexOf("startxref");
+            if (index < 0) {
+                throw new IOException("文件末尾没有 startxref");
+            }
+            Parser parser = new Parser(file, tailStart + index + "startxref".length());
+            return parser.readLong();
+        }
+
+        /**
+         * 从最新修订版本开始沿 /Prev 读取，新版本中的条目优先
+         */
+        private void readXrefChain(long offset) throws IOException {
+            Set<Long> seen = new HashSet<>();
+            Long next = offset;
+            while (next != null) {
+                if (!seen.add(next) || next < 0 || next >= file.length()) {
+                    throw new IOException("交叉引用偏移无效: " + next);
+                }
+                Parser parser = new Parser(file, next);
+                COSDictionary sectionTrailer;
+                if (parser.peekKeyword("xref")) {
+                    int tableIndex = sections.size();
+                    sectionTrailer = readXrefTable(parser);
+                    // 混合引用：同一修订版本的 xref 流补充对象流中的对象，
+                    // 这些对象在表中标为 f，因此 xref 流排在表之前
+                    COSBase xrefStm = sectionTrailer.getItem(COSName.XREF_STM);
+                    if (xrefStm instanceof COSNumber) {
+                        readXrefStream(new Parser(file, ((COSNumber) xrefStm).longValue()));
+                        sections.add(tableIndex, sections.remove(sections.size() - 1));
+                    }
+                } else {
+                    sectionTrailer = readXrefStream(parser);
+                }
+                if (trailer == null) {
+                    trailer = sectionTrailer;
+                }
+                COSBase prev = sectionTrailer.getItem(COSName.PREV);
+                next = prev instanceof COSNumber ? ((COSNumber) prev).longValue() : null;
+            }
+        }
+
+        /**
+         * 查找对象的位置；最新版本中被释放的对象返回null，不再查找更早的版本
+         */
+        private XrefEntry lookup(long number) throws IOException {
+            for (XrefSection section : sections) {
+                if (section.entries != null) {
+                    XrefEntry entry = section.entries.get(number);
+                    if (entry != null) {
+                        return entry == XrefEntry.FREE ? null : entry;
+                    }
+                } else if (number >= section.start && number < section.start + section.count) {
+                    Parser row = new Parser(file, section.rowsOffset + (number - section.start) * XREF_ROW_LENGTH);
+                    long offset = row.readLong();
+                    row.readLong();
+                    String type = row.readKeyword();
+                    if ("n".equals(type)) {
+                        return new XrefEntry(offset, -1, 0);
+                    } else if ("f".equals(type)) {
+                        return null;
+                    }
+                    throw new IOException("无效的交叉引用条目: " + type);
+                }
+            }
+            return null;
+        }
+
+        /**
+         * 传统 xref 表：只记录每个子段的位置，跳过各行
+         */
+        private COSDictionary readXrefTable(Parser parser) throws IOException {
+            parser.expectKeyword("xref");
+            while (!parser.peekKeyword("trailer")) {
+                long start = parser.readLong();
+                long count = parser.readLong();
+                sections.add(new XrefSection(start, count, parser.skip(count * XREF_ROW_LENGTH)));
+            }
+            parser.expectKeyword("trailer");
+            COSBase dict = parser.readObject();
+            if (!(dict instanceof COSDictionary)) {
+                throw new IOException("无效的 trailer");
+            }
+            return (COSDictionary) dict;
+        }
+
+        private COSDictionary readXrefStream(Parser parser) throws IOException {
+            parser.readObjectHeader(-1);
+            COSBase dict = parser.readObject();
+            if (!(dict instanceof COSDictionary)) {
+                throw new IOException("无效的交叉引用流");
+            }
+            COSDictionary stream = (COSDictionary) dict;
+            byte[] data = parser.readStreamData(stream, this);
+
+            COSArray w = (COSArray) stream.getItem(COSName.W);
+            int[] widths = {((COSNumber) w.get(0)).intValue(), ((COSNumber) w.get(1)).intValue(),
+                    ((COSNumber) w.get(2)).intValue()};
+            int rowLength = widths[0] + widths[1] + widths[2];
+            COSBase index = stream.getItem(COSName.INDEX);
+            COSArray ranges;
+            if (index instanceof COSArray) {
+                ranges = (COSArray) index;
+            } else {
+                ranges = new COSArray();
+                ranges.add(COSInteger.ZERO);
+                ranges.add(stream.getItem(COSName.SIZE));
+            }
+            Map<Long, XrefEntry> entries = new HashMap<>();
+            int position = 0;
+            for (int r = 0; r + 1 < ranges.size(); r += 2) {
+                long start = ((COSNumber) ranges.get(r)).longValue();
+                long count = ((COSNumber) ranges.get(r + 1)).longValue();
+                for (long i = 0; i < count; i++) {
+                    if (position + rowLength > data.length) {
+                        throw new IOException("交叉引用流长度不足");
+                    }
+                    long type = widths[0] == 0 ? 1 : field(data, position, widths[0]);
+                    long second = field(data, position + widths[0], widths[1]);
+                    long third = field(data, position + widths[0] + widths[1], widths[2]);
+                    position += rowLength;
+                    if (type == 0) {
+                        entries.put(start + i, XrefEntry.FREE);
+                    } else if (type == 1) {
+                        entries.put(start + i, new XrefEntry(second, -1, 0));
+                    } else if (type == 2) {
+                        entries.put(start + i, new XrefEntry(-1, second, (int) third));
+                    }
+                }
+            }
+            sections.add(new XrefSection(entries));
+            return stream;
+        }
+
+        private static long field(byte[] data, int position, int width) {
+            long value = 0;
+            for (int i = 0; i < width; i++) {
+                value = (value << 8) | (data[position + i] & 0xff);
+            }
+            return value;
+        }
+
+        /**
+         * 对象流：解码一次，按需解析其中的对象
+         */
+        private final class ObjectStream {
+            private final Source data;
+            private final long[] numbers;
+            private final long[] offsets;
+
+            ObjectStream(long number) throws IOException {
+                XrefEntry entry = lookup(number);
+                if (entry == null || entry.isCompressed()) {
+                    throw new IOException("对象流位置无效: " + number);
+                }
+                Parser parser = new Parser(file, entry.offset);
+                parser.readObjectHeader(number);
+                COSDictionary dict = (COSDictionary) parser.readObject();
+                int count = ((COSNumber) resolve(dict.getItem(COSName.N))).intValue();
+                long first = ((COSNumber) resolve(dict.getItem(COSName.FIRST))).longValue();
+                data = new ByteSource(parser.readStreamData(dict, Scan.this));
+                numbers = new long[count];
+                offsets = new long[count];
+                Parser header = new Parser(data, 0);
+                for (int i = 0; i < count; i++) {
+                    numbers[i] = header.readLong();
+                    offsets[i] = first + header.readLong();
+                }
+            }
+
+            COSBase get(long number, int index) throws IOException {
+                if (index < 0 || index >= numbers.length || numbers[index] != number) {
+                    // 序号不符时按编号查找
+                    index = -1;
+                    for (int i = 0; i < numbers.length; i++) {
+                        if (numbers[i] == number) {
+                            index = i;
+                            break;
+                        }
+                    }
+                    if (index < 0) {
+                        throw new IOException("对象流中没有对象: " + number);
+                    }
+                }
+                return new Parser(data, offsets[index]).readObject();
+            }
+        }
+    }
+
+    // ---------- 数据源 ----------
+
+    /**
+     * 按位置读取的字节源
+     */
+    private abstract static class Source {
+        /** 读取一个字节，超出末尾时返回-1 */
+        abstract int get(long position) throws IOException;
+
+        abstract long length();
+
+        byte[] read(long position, int length) throws IOException {
+            if (position < 0 || position + length > length()) {
+                throw new IOException("读取超出文件末尾: " + position + "+" + length);
+            }
+            byte[] bytes = new byte[length];
+            for (int i = 0; i < length; i++) {
+                bytes[i] = (byte) get(position + i);
+            }
+            return bytes;
+        }
+    }
+
+    /**
+     * 文件：按窗口缓存读取，只读取用到的区域
+     */
+    private static final class FileSource extends Source {
+        private final FileChannel channel;
+        private final long length;
+        private final ByteBuffer window = ByteBuffer.allocate(WINDOW_SIZE);
+        private long windowStart = -1;
+        private int windowLength;
+
+        FileSource(FileChannel channel) throws IOException {
+            this.channel = channel;
+            this.length = channel.size();
+        }
+
+        @Override
+        int get(long position) throws IOException {
+            if (position < 0 || position >= length) {
+                return -1;
+            }
+            if (position < windowStart || position >= windowStart + windowLength) {
+                window.clear();
+                windowStart = position;
+                windowLength = 0;
+                while (window.hasRemaining()) {
+                    int n = channel.read(window, windowStart + windowLength);
+                    if (n < 0) {
+                        break;
+                    }
+                    windowLength += n;
+                }
+            }
+            return window.get((int) (position - windowStart)) & 0xff;
+        }
+
+        @Override
+        byte[] read(long position, int length) throws IOException {
+            if (position < 0 || position + length > this.length) {
+                throw new IOException("读取超出文件末尾: " + position + "+" + length);
+            }
+            ByteBuffer buffer = ByteBuffer.allocate(length);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, position + buffer.position()) < 0) {
+                    throw new IOException("读取超出文件末尾: " + position + "+" + length);
+                }
+            }
+            return buffer.array();
+        }
+
+        @Override
+        long length() {
+            return length;
+        }
+    }
+
+    /**
+     * 已解码的流数据
+     */
+    private static final class ByteSource extends Source {
+        private final byte[] data;
+
+        ByteSource(byte[] data) {
+            this.data = data;
+        }
+
+        @Override
+        int get(long position) {
+            return position >= 0 && position < data.length ? data[(int) position] & 0xff : -1;
+        }
+
+        @Override
+        long length() {
+            return data.length;
+        }
+    }
+
+    // ---------- 对象解析 ----------
+
+    /**
+     * 只支持扫描需要的语法：字典、数组、名称、数字、字符串、布尔、null 和间接引用
+     */
+    private static final class Parser {
+        private final Source source;
+        private long position;
+
+        Parser(Source source, long position) {
+            this.source = source;
+            this.position = position;
+        }
+
+        /**
+         * 读取 "n g obj"，expectedNumber 为-1时不检查对象编号
+         */
+        void readObjectHeader(long expectedNumber) throws IOException {
+            long number = readLong();
+            readLong();
+            expectKeyword("obj");
+            if (expectedNumber >= 0 && number != expectedNumber) {
+                throw new IOException("交叉引用偏移处是对象 " + number + "，应为 " + expectedNumber);
+            }
+        }
+
+        /**
+         * 读取 stream 关键字后的数据并按 /Filter 解码（只支持 FlateDecode 和 PNG 预测器）
+         */
+        byte[] readStreamData(COSDictionary dict, Scan scan) throws IOException {
+            expectKeyword("stream");
+            if (source.get(position) == '\r') {
+                position++;
+            }
+            if (source.get(position) == '\n') {
+                position++;
+            }
+            COSBase length = scan.resolve(dict.getItem(COSName.LENGTH));
+            if (!(length instanceof COSNumber)) {
+                throw new IOException("流缺少 /Length");
+            }
+            byte[] raw = source.read(position, ((COSNumber) length).intValue());
+
+            COSBase filter = scan.resolve(dict.getItem(COSName.FILTER));
+            COSBase params = scan.resolve(dict.getItem(COSName.DECODE_PARMS));
+            if (filter instanceof COSArray && ((COSArray) filter).size() == 1) {
+                filter = scan.resolve(((COSArray) filter).get(0));
+                params = params instanceof COSArray ? scan.resolve(((COSArray) params).get(0)) : params;
+            }
+            if (filter == null) {
+                return raw;
+            }
+            if (!COSName.FLATE_DECODE.equals(filter)) {
+                throw new IOException("不支持的过滤器: " + filter);
+            }
+            byte[] decoded = inflate(raw);
+            return params instanceof COSDictionary ? unpredict(decoded, (COSDictionary) params) : decoded;
+        }
+
+        COSBase readObject() throws IOException {
+            skipSpace();
+            int c = source.get(position);
+            switch (c) {
+                case '<':
+                    if (source.get(position + 1) == '<') {
+                        return readDictionary();
+                    }
+                    return readHexString();
+                case '[':
+                    return readArray();
+                case '/':
+                    return readName();
+                case '(':
+                    return readLiteralString();
+                case -1:
+                    throw new IOException("意外的文件末尾");
+                default:
+                    break;
+            }
+            if (c == '+' || c == '-' || c == '.' || (c >= '0' && c <= '9')) {
+                return readNumberOrReference();
+            }
+            String keyword = readKeyword();
+            switch (keyword) {
+                case "true":
+                    return COSBoolean.TRUE;
+                case "false":
+                    return COSBoolean.FALSE;
+                case "null":
+                    return COSNull.NULL;
+                default:
+                    throw new IOException("无法解析的关键字: " + keyword + " @" + position);
+            }
+        }
+
+        private COSDictionary readDictionary() throws IOException {
+            position += 2;
+            COSDictionary dict = new COSDictionary();
+            while (true) {
+                skipSpace();
+                int c = source.get(position);
+                if (c == '>' && source.get(position + 1) == '>') {
+                    position += 2;
+                    return dict;
+                }
+                if (c != '/') {
+                    throw new IOException("字典键应为名称 @" + position);
+                }
+                COSName key = readName();
+                dict.setItem(key, readObject());
+            }
+        }
+
+        private COSArray readArray() throws IOException {
+            position++;
+            COSArray array = new COSArray();
+            while (true) {
+                skipSpace();
+                if (source.get(position) == ']') {
+                    position++;
+                    return array;
+                }
+                array.add(readObject());
+            }
+        }
+
+        private COSName readName() throws IOException {
+            position++;
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            int c;
+            while ((c = source.get(position)) != -1 && !isWhitespace(c) && !isDelimiter(c)) {
+                if (c == '#' && isHex(source.get(position + 1)) && isHex(source.get(position + 2))) {
+                    out.write(Character.digit(source.get(position + 1), 16) * 16
+                            + Character.digit(source.get(position + 2), 16));
+                    position += 3;
+                } else {
+                    out.write(c);
+                    position++;
+                }
+            }
+            return COSName.getPDFName(new String(out.toByteArray(), StandardCharsets.UTF_8));
+        }
+
+        private COSString readHexString() throws IOException {
+            position++;
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            int high = -1;
+            int c;
+            while ((c = source.get(position++)) != '>') {
+                if (c == -1) {
+                    throw new IOException("十六进制字符串未结束");
+                }
+                if (isWhitespace(c)) {
+                    continue;
+                }
+                int digit = Character.digit(c, 16);
+                if (digit < 0) {
+                    throw new IOException("无效的十六进制字符 @" + (position - 1));
+                }
+                if (high < 0) {
+                    high = digit;
+                } else {
+                    out.write(high * 16 + digit);
+                    high = -1;
+                }
+            }
+            if (high >= 0) {
+                out.write(high * 16);
+            }
+            return new COSString(out.toByteArray());
+        }
+
+        private COSString readLiteralString() throws IOException {
+            position++;
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            int depth = 1;
+            while (true) {
+                int c = source.get(position++);
+                if (c == -1) {
+                    throw new IOException("字符串未结束");
+                }
+                if (c == '(') {
+                    depth++;
+                } else if (c == ')') {
+                    if (--depth == 0) {
+                        return new COSString(out.toByteArray());
+                    }
+                } else if (c == '\\') {
+                    c = source.get(position++);
+                    switch (c) {
+                        case 'n':
+                            out.write('\n');
+                            continue;
+                        case 'r':
+                            out.write('\r');
+                            continue;
+                        case 't':
+                            out.write('\t');
+                            continue;
+                        case 'b':
+                            out.write('\b');
+                            continue;
+                        case 'f':
+                            out.write('\f');
+                            continue;
+                        case '\r':
+                            if (source.get(position) == '\n') {
+                                position++;
+                            }
+                            continue;
+                        case '\n':
+                            continue;
+                        default:
+                            break;
+                    }
+                    if (c >= '0' && c <= '7') {
+                        int value = c - '0';
+                        for (int i = 0; i < 2 && source.get(position) >= '0' && source.get(position) <= '7'; i++) {
+                            value = value * 8 + source.get(position++) - '0';
+                        }
+                        out.write(value);
+                        continue;
+                    }
+                }
+                out.write(c);
+            }
+        }
+
+        private COSBase readNumberOrReference() throws IOException {
+            String token = readKeyword();
+            if (token.indexOf('.') >= 0) {
+                return new COSFloat(token);
+            }
+            long value;
+            try {
+                value = Long.parseLong(token.startsWith("+") ? token.substring(1) : token);
+            } catch (NumberFormatException e) {
+                throw new IOException("无效的数字: " + token);
+            }
+            // "n g R" 为间接引用
+            long mark = position;
+            skipSpace();
+            int c = source.get(position);
+            if (value >= 0 && c >= '0' && c <= '9') {
+                String generation = readKeyword();
+                skipSpace();
+                if (source.get(position) == 'R' && isEnd(source.get(position + 1)) && isDigits(generation)) {
+                    position++;
+                    COSObject reference = new COSObject(null);
+                    reference.setObjectNumber(value);
+                    reference.setGenerationNumber(Integer.parseInt(generation));
+                    return reference;
+                }
+            }
+            position = mark;
+            return COSInteger.get(value);
+        }
+
+        /**
+         * 跳过空白后再跳过 length 个字节，返回跳过部分的起始位置
+         */
+        long skip(long length) throws IOException {
+            skipSpace();
+            long start = position;
+            position += length;
+            return start;
+        }
+
+        long readLong() throws IOException {
+            skipSpace();
+            String token = readKeyword();
+            try {
+                return Long.parseLong(token);
+            } catch (NumberFormatException e) {
+                throw new IOException("应为整数: " + token + " @" + position);
+            }
+        }
+
+        /**
+         * 读取到空白或分隔符为止的一个记号
+         */
+        String readKeyword() throws IOException {
+            skipSpace();
+            StringBuilder sb = new StringBuilder();
+            int c;
+            while ((c = source.get(position)) != -1 && !isWhitespace(c) && !isDelimiter(c)) {
+                sb.append((char) c);
+                position++;
+            }
+            if (sb.length() == 0) {
+                throw new IOException("意外的字符 @" + position);
+            }
+            return sb.toString();
+        }
+
+        boolean peekKeyword(String keyword) throws IOException {
+            skipSpace();
+            for (int i = 0; i < keyword.length(); i++) {
+                if (source.get(position + i) != keyword.charAt(i)) {
+                    return false;
+                }
+            }
+            return isEnd(source.get(position + keyword.length()));
+        }
+
+        void expectKeyword(String keyword) throws IOException {
+            if (!peekKeyword(keyword)) {
+                throw new IOException("应为 " + keyword + " @" + position);
+            }
+            position += keyword.length();
+        }
+
+        private void skipSpace() throws IOException {
+            while (true) {
+                int c = source.get(position);
+                if (c == '%') {
+                    while ((c = source.get(position)) != -1 && c != '\r' && c != '\n') {
+                        position++;
+                    }
+                } else if (c != -1 && isWhitespace(c)) {
+                    position++;
+                } else {
+                    return;
+                }
+            }
+        }
+
+        private static boolean isDigits(String token) {
+            for (int i = 0; i < token.length(); i++) {
+                if (token.charAt(i) < '0' || token.charAt(i) > '9') {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static boolean isEnd(int c) {
+            return c == -1 || isWhitespace(c) || isDelimiter(c);
+        }
+
+        private static boolean isWhitespace(int c) {
+            return c == ' ' || c == '\n' || c == '\r' || c == '\t' || c == '\f' || c == 0;
+        }
+
+        private static boolean isDelimiter(int c) {
+            return c == '(' || c == ')' || c == '<' || c == '>' || c == '[' || c == ']'
+                    || c == '{' || c == '}' || c == '/' || c == '%';
+        }
+
+        private static boolean isHex(int c) {
+            return c != -1 && Character.digit(c, 16) >= 0;
+        }
+    }
+
+    // ---------- 解码 ----------
+
+    private static byte[] inflate(byte[] raw) throws IOException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(raw);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(raw.length * 4);
+            byte[] buffer = new byte[8192];
+            while (!inflater.finished()) {
+                int n = inflater.inflate(buffer);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                out.write(buffer, 0, n);
+            }
+            return out.toByteArray();
+        } catch (DataFormatException e) {
+            throw new IOException("FlateDecode 解码失败: " + e.getMessage(), e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    /**
+     * PNG 预测器（Predictor 10~15），xref 流和对象流常用
+     */
+    private static byte[] unpredict(byte[] data, COSDictionary params) throws IOException {
+        int predictor = params.getInt(COSName.PREDICTOR, 1);
+        if (predictor == 1) {
+            return data;
+        }
+        if (predictor < 10) {
+            throw new IOException("不支持的预测器: " + predictor);
+        }
+        int colors = params.getInt(COSName.COLORS, 1);
+        int bitsPerComponent = params.getInt(COSName.BITS_PER_COMPONENT, 8);
+        int columns = params.getInt(COSName.COLUMNS, 1);
+        int bytesPerPixel = Math.max(1, colors * bitsPerComponent / 8);
+        int rowLength = (columns * colors * bitsPerComponent + 7) / 8;
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(data.length);
+        byte[] previous = new byte[rowLength];
+        byte[] row = new byte[rowLength];
+        for (int offset = 0; offset < data.length; offset += rowLength + 1) {
+            int type = data[offset] & 0xff;
+            int available = Math.min(rowLength, data.length - offset - 1);
+            System.arraycopy(data, offset + 1, row, 0, available);
+            for (int i = 0; i < rowLength; i++) {
+                int left = i >= bytesPerPixel ? row[i - bytesPerPixel] & 0xff : 0;
+                int up = previous[i] & 0xff;
+                int upLeft = i >= bytesPerPixel ? previous[i - bytesPerPixel] & 0xff : 0;
+                int value = row[i] & 0xff;
+                switch (type) {
+                    case 0:
+                        break;
+                    case 1:
+                        value += left;
+                        break;
+                    case 2:
+                        value += up;
+                        break;
+                    case 3:
+                        value += (left + up) / 2;
+                        break;
+                    case 4:
+                        int p = left + up - upLeft;
+                        int pa = Math.abs(p - left);
+                        int pb = Math.abs(p - up);
+                        int pc = Math.abs(p - upLeft);
+                        value += pa <= pb && pa <= pc ? left : pb <= pc ? up : upLeft;
+                        break;
+                    default:
+                        throw new IOException("无效的PNG预测类型: " + type);
+                }
+                row[i] = (byte) value;
+            }
+            out.write(row, 0, rowLength);
+            byte[] swap = previous;
+            previous = row;
+            row = swap;
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,222 @@
+package com.techhf.capdf.util;
+
+import org.bouncycastle.asn1.ASN1ObjectIdentifier;
+import org.bouncycastle.asn1.x509.AlgorithmIdentifier;
+import org.bouncycastle.operator.DefaultAlgorithmNameFinder;
+
+import java.security.cert.X509Certificate;
+import java.util.Calendar;
+import java.util.Date;
+
+/**
+ * 单个签名的校验结果
+ * <p>
+ * 由 {@link SignatureVerifier#verify(java.io.File)} 生成。各项检查相互独立：
+ * <ul>
+ *   <li>完整性：按 ByteRange 重新计算的摘要与签名中的 messageDigest 属性一致</li>
+ *   <li>签名值：签名证书的公钥能校验 signed attributes 上的签名值</li>
+ *   <li>时间戳：印记与签名值的摘要一致，且令牌签名有效（没有时间戳时不参与 {@link #isValid()}）</li>
+ *   <li>证书链：签名证书能构建到信任锚的有效路径，有效时间戳存在时按时间戳时间校验
+ *       （信任库为空时不检查，不参与 {@link #isValid()}）</li>
+ * </ul>
+ * 算法名称等字符串只在调用对应 getter 时生成，批量校验不产生格式化开销。
+ */
+public final class SignatureVerificationResult {
+
+    private static final DefaultAlgorithmNameFinder ALGORITHM_NAMES = new DefaultAlgorithmNameFinder();
+
+    private final int index;
+
+    String name;
+    String subFilter;
+    Calendar signDate;
+    long[] byteRange;
+    boolean coversWholeDocument;
+    String digestAlgorithmOid;
+    String signatureAlgorithmOid;
+    X509Certificate signerCertificate;
+    boolean integrityValid;
+    boolean signatureValid;
+    boolean timestampPresent;
+    Date timestampTime;
+    boolean timestampValid;
+    boolean chainChecked;
+    boolean chainValid;
+    String failureReason;
+
+    long parseNanos;
+    long digestNanos;
+    long signatureNanos;
+    long timestampNanos;
+    long chainNanos;
+
+    SignatureVerificationResult(int index) {
+        this.index = index;
+    }
+
+    /**
+     * 签名在文档中的序号（从0开始，按签名字段顺序）
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * 完整性、签名值均通过，且有时间戳时时间戳也通过、检查证书链时证书链也通过
+     */
+    public boolean isValid() {
+        return integrityValid && signatureValid && (!timestampPresent || timestampValid)
+                && (!chainChecked || chainValid);
+    }
+
+    public boolean isIntegrityValid() {
+        return integrityValid;
+    }
+
+    public boolean isSignatureValid() {
+        return signatureValid;
+    }
+
+    /**
+     * 签名是否覆盖整个文件（之后没有增量更新；嵌入LTV信息或后续签名后为false）
+     */
+    public boolean isCoversWholeDocument() {
+        return coversWholeDocument;
+    }
+
+    public boolean isTimestampPresent() {
+        return timestampPresent;
+    }
+
+    /**
+     * 时间戳时间，没有时间戳或无法解析时为null
+     */
+    public Date getTimestampTime() {
+        return timestampTime;
+    }
+
+    public boolean isTimestampValid() {
+        return timestampValid;
+    }
+
+    /**
+     * 是否做了证书链检查（配置了信任库时检查）
+     */
+    public boolean isChainChecked() {
+        return chainChecked;
+    }
+
+    public boolean isChainValid() {
+        return chainValid;
+    }
+
+    /**
+     * 签名证书，无法解析时为null
+     */
+    public X509Certificate getSignerCertificate() {
+        return signerCertificate;
+    }
+
+    /**
+     * 签名字典中的 /Name
+     */
+    public String getName() {
+        return name;
+    }
+
+    public String getSubFilter() {
+        return subFilter;
+    }
+
+    public Calendar getSignDate() {
+        return signDate;
+    }
+
+    public long[] getByteRange() {
+        return byteRange != null ? byteRange.clone() : null;
+    }
+
+    public String getDigestAlgorithmOid() {
+        return digestAlgorithmOid;
+    }
+
+    public String getSignatureAlgorithmOid() {
+        return signatureAlgorithmOid;
+    }
+
+    /**
+     * 摘要算法名称（例如 SHA256）
+     */
+    public String getDigestAlgorithmName() {
+        return digestAlgorithmOid != null
+                ? ALGORITHM_NAMES.getAlgorithmName(new ASN1ObjectIdentifier(digestAlgorithmOid)) : null;
+    }
+
+    /**
+     * 签名算法名称（例如 SHA256WITHRSA、SHA256WITHECDSA、Ed25519）
+     */
+    public String getSignatureAlgorithmName() {
+        return signatureAlgorithmOid != null
+                ? ALGORITHM_NAMES.getAlgorithmName(new AlgorithmIdentifier(
+                        new ASN1ObjectIdentifier(signatureAlgorithmOid))) : null;
+    }
+
+    /**
+     * 第一个未通过的检查及原因，全部通过时为null
+     */
+    public String getFailureReason() {
+        return failureReason;
+    }
+
+    /**
+     * 解析CMS签名数据和签名证书的耗时（纳秒）
+     */
+    public long getParseNanos() {
+        return parseNanos;
+    }
+
+    /**
+     * 按 ByteRange 计算摘要的耗时（纳秒）；多个签名单次遍历计算时为0，
+     * 见 {@link DocumentVerificationResult#getDigestNanos()}
+     */
+    public long getDigestNanos() {
+        return digestNanos;
+    }
+
+    /**
+     * 校验签名值的耗时（纳秒）
+     */
+    public long getSignatureNanos() {
+        return signatureNanos;
+    }
+
+    /**
+     * 校验时间戳的耗时（纳秒）
+     */
+    public long getTimestampNanos() {
+        return timestampNanos;
+    }
+
+    /**
+     * 证书链校验的耗时（纳秒），命中 {@link com.techhf.capdf.cert.CertPathValidationCache} 时接近0
+     */
+    public long getChainNanos() {
+        return chainNanos;
+    }
+
+    void fail(String reason) {
+        if (failureReason == null) {
+            failureReason = reason;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "签名 #" + (index + 1) + " [" + name + "] "
+                + (isValid() ? "有效" : "无效: " + failureReason)
+                + "，完整性 " + integrityValid + "，签名值 " + signatureValid
+                + (timestampPresent ? "，时间戳 " + timestampTime + " " + timestampValid : "，无时间戳")
+                + (chainChecked ? "，证书链 " + chainValid : "")
+                + (coversWholeDocument ? "，覆盖整个文件" : "");
+    }
+}
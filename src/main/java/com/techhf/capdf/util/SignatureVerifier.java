@@ -1,163 +1,600 @@
 package com.techhf.capdf.util;
 
-import org.apache.pdfbox.pdmodel.PDDocument;
+import com.techhf.capdf.cert.CertPathValidationCache;
+import com.techhf.capdf.cert.CertPathValidationResult;
+import com.techhf.capdf.cert.CryptoProviders;
+import com.techhf.capdf.cert.TrustStore;
+import com.techhf.capdf.tsa.TimestampVerificationResult;
+import com.techhf.capdf.tsa.TimestampVerifier;
 import org.apache.pdfbox.pdmodel.interactive.digitalsignature.PDSignature;
 import org.bouncycastle.asn1.ASN1ObjectIdentifier;
+import org.bouncycastle.asn1.ASN1OctetString;
 import org.bouncycastle.asn1.cms.Attribute;
 import org.bouncycastle.asn1.cms.AttributeTable;
+import org.bouncycastle.asn1.cms.CMSAttributes;
+import org.bouncycastle.asn1.cms.ContentInfo;
 import org.bouncycastle.asn1.pkcs.PKCSObjectIdentifiers;
+import org.bouncycastle.asn1.x509.AlgorithmIdentifier;
 import org.bouncycastle.cert.X509CertificateHolder;
+import org.bouncycastle.cert.jcajce.JcaX509CertificateConverter;
 import org.bouncycastle.cms.CMSSignedData;
 import org.bouncycastle.cms.SignerInformation;
 import org.bouncycastle.cms.SignerInformationStore;
+import org.bouncycastle.cms.DefaultCMSSignatureAlgorithmNameGenerator;
+import org.bouncycastle.cms.SignerInformationVerifier;
+import org.bouncycastle.operator.DefaultSignatureAlgorithmIdentifierFinder;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.bouncycastle.operator.ContentVerifier;
+import org.bouncycastle.operator.DefaultAlgorithmNameFinder;
 import org.bouncycastle.tsp.TimeStampToken;
 import org.bouncycastle.util.Store;
 
 import java.io.File;
+import java.io.OutputStream;
+import java.security.MessageDigest;
+import java.security.PublicKey;
+import java.security.Security;
+import java.security.cert.X509Certificate;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
 import java.util.List;
 
 /**
  * PDF签名验证工具
- * 用于验证和显示PDF签名中的时间戳信息
+ * 用于校验PDF签名值（RSA / ECDSA / Ed25519）并显示签名中的时间戳信息；
+ * {@link #verify(File)} 返回结构化结果，不输出到控制台
  */
 public class SignatureVerifier {
 
+    private static final DefaultAlgorithmNameFinder ALGORITHM_NAMES = new DefaultAlgorithmNameFinder();
+
+    private static final DefaultCMSSignatureAlgorithmNameGenerator SIGNATURE_NAMES =
+            new DefaultCMSSignatureAlgorithmNameGenerator();
+
+    private static final DefaultSignatureAlgorithmIdentifierFinder SIGNATURE_ALGORITHMS =
+            new DefaultSignatureAlgorithmIdentifierFinder();
+
+    private static final JcaX509CertificateConverter CERT_CONVERTER =
+            new JcaX509CertificateConverter().setProvider(BouncyCastleProvider.PROVIDER_NAME);
+
+    /** 文档时间戳的子过滤器 */
+    private static final String SUBFILTER_RFC3161 = "ETSI.RFC3161";
+
+    static {
+        if (Security.getProvider(BouncyCastleProvider.PROVIDER_NAME) == null) {
+            Security.addProvider(new BouncyCastleProvider());
+        }
+    }
+
+    /**
+     * 校验PDF中的所有签名，返回结构化结果
+     * <p>
+     * 重新计算 ByteRange 摘要、校验签名值和时间戳，配置了默认信任库（{@link TrustStore#getDefault()}）时
+     * 还校验证书链；不向控制台输出，也不抛出异常，适合在批量审计任务中大量调用。
+     */
+    public static DocumentVerificationResult verify(File pdfFile) {
+        return verify(pdfFile, MemoryPolicy.getDefault());
+    }
+
+    /**
+     * 使用指定内存策略校验PDF中的所有签名，返回结构化结果
+     */
+    public static DocumentVerificationResult verify(File pdfFile, MemoryPolicy memoryPolicy) {
+        return verify(pdfFile, pdfFile.getPath(), memoryPolicy, true);
+    }
+
+    /**
+     * 使用指定内存策略和摘要计算方式校验PDF中的所有签名
+     *
+     * @param singlePass true 时所有签名的 ByteRange 摘要在一次顺序读取中同时计算（默认，见
+     *                   {@link ByteRangeDigest#digestAll}）；false 时每个签名单独读取一遍文件
+     */
+    public static DocumentVerificationResult verify(File pdfFile, MemoryPolicy memoryPolicy, boolean singlePass) {
+        return verify(pdfFile, pdfFile.getPath(), memoryPolicy, singlePass);
+    }
+
+    /**
+     * 使用指定信任库校验PDF中的所有签名，包括签名证书到信任锚的证书链
+     * <p>
+     * 证书链结果缓存在 {@link CertPathValidationCache#shared()} 中，同一签名证书的大量文档只构建一次路径。
+     *
+     * @param trustStore 信任库，为null或空时不检查证书链
+     */
+    public static DocumentVerificationResult verify(File pdfFile, MemoryPolicy memoryPolicy, TrustStore trustStore) {
+        return verify(pdfFile, pdfFile.getPath(), memoryPolicy, true,
+                trustStore != null ? trustStore : TrustStore.empty());
+    }
+
+    /**
+     * 校验文件，结果中的来源记为 source（压缩包内的文档解压到临时文件后校验）
+     */
+    static DocumentVerificationResult verify(File pdfFile, String source, MemoryPolicy memoryPolicy,
+                                             boolean singlePass) {
+        return verify(pdfFile, source, memoryPolicy, singlePass, TrustStore.getDefault());
+    }
+
+    private static DocumentVerificationResult verify(File pdfFile, String source, MemoryPolicy memoryPolicy,
+                                                     boolean singlePass, TrustStore trustStore) {
+        long start = System.nanoTime();
+        ThreadAllocationTracker allocation = ThreadAllocationTracker.start();
+        DocumentVerificationResult result = new DocumentVerificationResult(pdfFile, source);
+        result.fileLength = pdfFile.length();
+        try {
+            List<PDSignature> signatures = SignatureScanner.findSignatures(pdfFile, memoryPolicy);
+            result.loadNanos = System.nanoTime() - start;
+
+            // 1. 解析每个签名的CMS数据，确定摘要算法
+            List<ParsedSignature> parsed = new ArrayList<>();
+            for (int i = 0; i < signatures.size(); i++) {
+                PDSignature signature = signatures.get(i);
+                SignatureVerificationResult signatureResult = new SignatureVerificationResult(i);
+                signatureResult.name = signature.getName();
+                signatureResult.subFilter = signature.getSubFilter();
+                signatureResult.signDate = signature.getSignDate();
+                result.add(signatureResult);
+                ParsedSignature p = parse(result.fileLength, signature.getByteRange(), signature.getContents(),
+                        signatureResult);
+                if (p != null) {
+                    parsed.add(p);
+                }
+            }
+
+            // 2. 计算 ByteRange 摘要
+            long digestStart = System.nanoTime();
+            if (singlePass && parsed.size() > 1) {
+                digestAll(pdfFile, parsed);
+            } else {
+                for (ParsedSignature p : parsed) {
+                    long signatureStart = System.nanoTime();
+                    try {
+                        p.contentDigest = ByteRangeDigest.digest(pdfFile, p.result.byteRange, p.digestOid);
+                    } catch (Exception e) {
+                        p.result.fail("无法计算文档摘要: " + e.getMessage());
+                    }
+                    p.result.digestNanos = System.nanoTime() - signatureStart;
+                }
+            }
+            result.digestNanos = System.nanoTime() - digestStart;
+
+            // 3. 完整性、签名值、时间戳、证书链
+            for (ParsedSignature p : parsed) {
+                if (p.contentDigest != null) {
+                    check(p, trustStore);
+                    if (!trustStore.isEmpty() && p.documentTimestamp == null) {
+                        verifyChain(p, trustStore);
+                    }
+                }
+            }
+        } catch (Exception e) {
+            result.error = e;
+        }
+        result.totalNanos = System.nanoTime() - start;
+        result.allocatedBytes = allocation.getAllocatedBytes();
+        return result;
+    }
+
+    /**
+     * 解析后待计算摘要的签名
+     */
+    private static final class ParsedSignature {
+        final SignatureVerificationResult result;
+        final X509CertificateHolder signerCert;
+        /** 签名数据中携带的所有证书，用于构建证书链 */
+        Store<X509CertificateHolder> certificates;
+        /** 普通签名的签名者，文档时间戳为null */
+        SignerInformation signer;
+        /** 文档时间戳（ETSI.RFC3161）的令牌，普通签名为null */
+        TimeStampToken documentTimestamp;
+        String digestOid;
+        byte[] contentDigest;
+
+        ParsedSignature(SignatureVerificationResult result, X509CertificateHolder signerCert) {
+            this.result = result;
+            this.signerCert = signerCert;
+        }
+    }
+
+    /**
+     * 检查 ByteRange，解析CMS签名数据和签名证书；失败时记录原因并返回null
+     */
+    private static ParsedSignature parse(long fileLength, int[] byteRange, byte[] contents,
+                                         SignatureVerificationResult result) {
+        if (byteRange == null || byteRange.length != 4 || contents == null || contents.length == 0) {
+            result.fail("签名字典缺少 /ByteRange 或 /Contents");
+            return null;
+        }
+        result.byteRange = new long[]{byteRange[0], byteRange[1], byteRange[2], byteRange[3]};
+        long end = (long) byteRange[2] + byteRange[3];
+        if (byteRange[0] < 0 || byteRange[1] < 0 || byteRange[2] < 0 || byteRange[3] < 0 || end > fileLength) {
+            result.fail("ByteRange 超出文件范围");
+            return null;
+        }
+        result.coversWholeDocument = byteRange[0] == 0 && end == fileLength;
+
+        long start = System.nanoTime();
+        try {
+            CMSSignedData signedData = new CMSSignedData(contents);
+            SignerInformation signer = signedData.getSignerInfos().getSigners().iterator().next();
+            result.digestAlgorithmOid = signer.getDigestAlgOID();
+            result.signatureAlgorithmOid = signer.getEncryptionAlgOID();
+            @SuppressWarnings("unchecked")
+            Collection<X509CertificateHolder> certs = signedData.getCertificates().getMatches(signer.getSID());
+            if (certs.isEmpty()) {
+                result.fail("未找到签名证书");
+                return null;
+            }
+            X509CertificateHolder signerCert = certs.iterator().next();
+            result.signerCertificate = CERT_CONVERTER.getCertificate(signerCert);
+
+            ParsedSignature parsed = new ParsedSignature(result, signerCert);
+            @SuppressWarnings("unchecked")
+            Store<X509CertificateHolder> certificates = signedData.getCertificates();
+            parsed.certificates = certificates;
+            if (SUBFILTER_RFC3161.equals(result.subFilter)) {
+                // 文档时间戳：签名数据本身就是时间戳令牌，印记即 ByteRange 摘要
+                result.timestampPresent = true;
+                parsed.documentTimestamp = new TimeStampToken(signedData);
+                result.timestampTime = parsed.documentTimestamp.getTimeStampInfo().getGenTime();
+                parsed.digestOid = parsed.documentTimestamp.getTimeStampInfo().getMessageImprintAlgOID().getId();
+            } else {
+                parsed.signer = signer;
+                parsed.digestOid = signer.getDigestAlgOID();
+            }
+            return parsed;
+        } catch (Exception e) {
+            result.fail("无法解析签名数据: " + e.getMessage());
+            return null;
+        } finally {
+            result.parseNanos = System.nanoTime() - start;
+        }
+    }
+
+    /**
+     * 所有签名的摘要在一次顺序读取中计算，单个签名的摘要耗时记为0（总耗时见文档结果）
+     */
+    private static void digestAll(File pdfFile, List<ParsedSignature> parsed) {
+        List<long[]> byteRanges = new ArrayList<>(parsed.size());
+        List<String> algorithms = new ArrayList<>(parsed.size());
+        for (ParsedSignature p : parsed) {
+            byteRanges.add(p.result.byteRange);
+            algorithms.add(p.digestOid);
+        }
+        try {
+            byte[][] digests = ByteRangeDigest.digestAll(pdfFile, byteRanges, algorithms);
+            for (int k = 0; k < digests.length; k++) {
+                parsed.get(k).contentDigest = digests[k];
+            }
+        } catch (Exception e) {
+            for (ParsedSignature p : parsed) {
+                p.result.fail("无法计算文档摘要: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 完整性、签名值、时间戳
+     */
+    private static void check(ParsedSignature parsed, TrustStore trustStore) {
+        SignatureVerificationResult result = parsed.result;
+        if (parsed.documentTimestamp != null) {
+            verifyDocumentTimestamp(parsed, trustStore);
+            return;
+        }
+        SignerInformation signer = parsed.signer;
+
+        // 2. 完整性：ByteRange 摘要与 messageDigest 属性比较
+        try {
+            AttributeTable signedAttrs = signer.getSignedAttributes();
+            Attribute messageDigest = signedAttrs != null ? signedAttrs.get(CMSAttributes.messageDigest) : null;
+            if (messageDigest == null) {
+                result.fail("缺少 messageDigest 属性");
+            } else {
+                byte[] signedDigest = ASN1OctetString.getInstance(
+                        messageDigest.getAttrValues().getObjectAt(0)).getOctets();
+                result.integrityValid = MessageDigest.isEqual(signedDigest, parsed.contentDigest);
+                if (!result.integrityValid) {
+                    result.fail("文档内容与签名摘要不一致");
+                }
+            }
+        } catch (Exception e) {
+            result.fail("无法读取 messageDigest 属性: " + e.getMessage());
+        }
+
+        // 3. 签名值：用签名证书公钥校验 signed attributes 上的签名
+        long start = System.nanoTime();
+        try {
+            ContentVerifier verifier = signerVerifier(parsed.signerCert, parsed.digestOid).getContentVerifier(
+                    signer.toASN1Structure().getDigestEncryptionAlgorithm(), signer.getDigestAlgorithmID());
+            try (OutputStream out = verifier.getOutputStream()) {
+                out.write(signer.getEncodedSignedAttributes());
+            }
+            result.signatureValid = verifier.verify(signer.getSignature());
+            if (!result.signatureValid) {
+                result.fail("签名值校验失败");
+            }
+        } catch (Exception e) {
+            result.fail("签名值校验异常: " + e.getMessage());
+        } finally {
+            result.signatureNanos = System.nanoTime() - start;
+        }
+
+        // 4. 签名时间戳：印记为签名值的摘要
+        AttributeTable unsignedAttrs = signer.getUnsignedAttributes();
+        Attribute tsAttr = unsignedAttrs != null
+                ? unsignedAttrs.get(PKCSObjectIdentifiers.id_aa_signatureTimeStampToken) : null;
+        if (tsAttr == null) {
+            return;
+        }
+        result.timestampPresent = true;
+        start = System.nanoTime();
+        try {
+            TimeStampToken token = new TimeStampToken(ContentInfo.getInstance(tsAttr.getAttrValues().getObjectAt(0)));
+            result.timestampTime = token.getTimeStampInfo().getGenTime();
+            TimestampVerificationResult timestamp = TimestampVerifier.shared()
+                    .verifySignatureTimestamp(token, signer.getSignature(), trustStore);
+            result.timestampValid = timestamp.isValid();
+            if (!result.timestampValid) {
+                result.fail(timestamp.getFailureReason());
+            }
+        } catch (Exception e) {
+            result.fail("无法解析时间戳: " + e.getMessage());
+        } finally {
+            result.timestampNanos = System.nanoTime() - start;
+        }
+    }
+
+    /**
+     * 证书链：有效时间戳存在时按时间戳时间校验，否则按当前时间
+     */
+    private static void verifyChain(ParsedSignature parsed, TrustStore trustStore) {
+        SignatureVerificationResult result = parsed.result;
+        result.chainChecked = true;
+        long start = System.nanoTime();
+        try {
+            List<X509Certificate> certificates = new ArrayList<>();
+            for (X509CertificateHolder holder : parsed.certificates.getMatches(null)) {
+                certificates.add(CERT_CONVERTER.getCertificate(holder));
+            }
+            Date validationTime = result.timestampValid && result.timestampTime != null
+                    ? result.timestampTime : new Date();
+            CertPathValidationResult chain = CertPathValidationCache.shared().validate(
+                    result.signerCertificate, certificates, trustStore, validationTime);
+            result.chainValid = chain.isValid();
+            if (!result.chainValid) {
+                result.fail(chain.getFailureReason());
+            }
+        } catch (Exception e) {
+            result.fail("证书链校验异常: " + e.getMessage());
+        } finally {
+            result.chainNanos = System.nanoTime() - start;
+        }
+    }
+
+    /**
+     * 文档时间戳（ETSI.RFC3161）：印记与 ByteRange 摘要比较，令牌签名即签名值，
+     * TSA证书链按令牌自身的时间校验
+     */
+    private static void verifyDocumentTimestamp(ParsedSignature parsed, TrustStore trustStore) {
+        SignatureVerificationResult result = parsed.result;
+        long start = System.nanoTime();
+        TimestampVerificationResult timestamp = TimestampVerifier.shared()
+                .verify(parsed.documentTimestamp, parsed.contentDigest, trustStore);
+        result.signatureNanos = System.nanoTime() - start;
+        result.integrityValid = timestamp.isImprintValid();
+        result.signatureValid = timestamp.isSignatureValid();
+        result.timestampValid = timestamp.isValid();
+        result.chainChecked = timestamp.isChainChecked();
+        result.chainValid = timestamp.isChainValid();
+        if (!result.timestampValid) {
+            result.fail(timestamp.getFailureReason());
+        }
+    }
+
+    /**
+     * 签名值校验和摘要计算分别使用配置的提供者
+     */
+    private static SignerInformationVerifier signerVerifier(X509CertificateHolder cert, String digestOid)
+            throws Exception {
+        CryptoProviders providers = CryptoProviders.getDefault();
+        return new SignerInformationVerifier(
+                SIGNATURE_NAMES,
+                SIGNATURE_ALGORITHMS,
+                providers.contentVerifierProvider(cert),
+                providers.digestCalculatorProvider(digestOid));
+    }
+
     /**
      * 验证并显示PDF签名信息
      */
     public static void verifySignature(File pdfFile) throws Exception {
+        verifySignature(pdfFile, MemoryPolicy.getDefault());
+    }
+
+    /**
+     * 使用指定内存策略验证并显示PDF签名信息（大文档可使用 {@link MemoryPolicy#tempFileOnly()}）
+     */
+    public static void verifySignature(File pdfFile, MemoryPolicy memoryPolicy) throws Exception {
         System.out.println("\n========== PDF签名验证 ==========");
         System.out.println("文件: " + pdfFile.getName());
+        System.out.println("内存策略: " + memoryPolicy);
         System.out.println();
         
-        try (PDDocument doc = PDDocument.load(pdfFile)) {
-            List<PDSignature> signatures = doc.getSignatureDictionaries();
-            
-            if (signatures.isEmpty()) {
-                System.out.println("❌ 该PDF没有签名");
-                return;
-            }
+        HeapPeakTracker heap = HeapPeakTracker.start();
+        List<PDSignature> signatures = SignatureScanner.findSignatures(pdfFile, memoryPolicy);
+        
+        if (signatures.isEmpty()) {
+            System.out.println("❌ 该PDF没有签名");
+            return;
+        }
+        
+        System.out.println("✓ 找到 " + signatures.size() + " 个签名");
+        System.out.println();
+        
+        for (int i = 0; i < signatures.size(); i++) {
+            PDSignature signature = signatures.get(i);
+            System.out.println("【签名 #" + (i + 1) + "】");
+            System.out.println("  签名人: " + signature.getName());
+            System.out.println("  原因: " + signature.getReason());
+            System.out.println("  位置: " + signature.getLocation());
+            System.out.println("  签名时间: " + signature.getSignDate().getTime());
+            System.out.println("  子过滤器: " + signature.getSubFilter());
             
-            System.out.println("✓ 找到 " + signatures.size() + " 个签名");
-            System.out.println();
+            // 获取签名内容
+            byte[] signatureContent = signature.getContents();
             
-            for (int i = 0; i < signatures.size(); i++) {
-                PDSignature signature = signatures.get(i);
-                System.out.println("【签名 #" + (i + 1) + "】");
-                System.out.println("  签名人: " + signature.getName());
-                System.out.println("  原因: " + signature.getReason());
-                System.out.println("  位置: " + signature.getLocation());
-                System.out.println("  签名时间: " + signature.getSignDate().getTime());
-                System.out.println("  子过滤器: " + signature.getSubFilter());
+            if (signatureContent != null) {
+                System.out.println("  签名数据大小: " + signatureContent.length + " bytes");
                 
-                // 获取签名内容
-                byte[] signatureContent = signature.getContents();
+                // 解析CMS签名数据
+                CMSSignedData cmsSignedData = new CMSSignedData(signatureContent);
                 
-                if (signatureContent != null) {
-                    System.out.println("  签名数据大小: " + signatureContent.length + " bytes");
-                    
-                    // 解析CMS签名数据
-                    CMSSignedData cmsSignedData = new CMSSignedData(signatureContent);
-                    
-                    // 获取签名者信息
-                    SignerInformationStore signerInfos = cmsSignedData.getSignerInfos();
-                    Collection<SignerInformation> signers = signerInfos.getSigners();
+                // 获取签名者信息
+                SignerInformationStore signerInfos = cmsSignedData.getSignerInfos();
+                Collection<SignerInformation> signers = signerInfos.getSigners();
+                
+                System.out.println("  签名者数量: " + signers.size());
+                
+                for (SignerInformation signerInfo : signers) {
+                    System.out.println("\n  --- 签名者详情 ---");
+                    System.out.println("  签名算法: " + ALGORITHM_NAMES.getAlgorithmName(
+                            new AlgorithmIdentifier(new ASN1ObjectIdentifier(signerInfo.getEncryptionAlgOID()))));
+                    System.out.println("  摘要算法: " + ALGORITHM_NAMES.getAlgorithmName(signerInfo.getDigestAlgorithmID()));
+                    System.out.println("  签名值大小: " + signerInfo.getSignature().length + " bytes");
+                    System.out.println("  签名值校验: " + (verifySigner(pdfFile, signature, signatureContent, signerInfo)
+                            ? "✓ 通过" : "❌ 失败"));
                     
-                    System.out.println("  签名者数量: " + signers.size());
+                    // 检查 unsigned attributes（时间戳应该在这里）
+                    AttributeTable unsignedAttrs = signerInfo.getUnsignedAttributes();
                     
-                    for (SignerInformation signerInfo : signers) {
-                        System.out.println("\n  --- 签名者详情 ---");
-                        System.out.println("  签名算法: " + signerInfo.getDigestAlgOID());
-                        System.out.println("  签名值大小: " + signerInfo.getSignature().length + " bytes");
+                    if (unsignedAttrs == null) {
+                        System.out.println("  ❌ 没有找到 unsigned attributes");
+                    } else {
+                        System.out.println("  ✓ 找到 unsigned attributes");
+                        System.out.println("  Unsigned attributes 数量: " + unsignedAttrs.size());
                         
-                        // 检查 unsigned attributes（时间戳应该在这里）
-                        AttributeTable unsignedAttrs = signerInfo.getUnsignedAttributes();
+                        // 查找时间戳属性
+                        ASN1ObjectIdentifier tsAttrType = PKCSObjectIdentifiers.id_aa_signatureTimeStampToken;
+                        Attribute tsAttr = unsignedAttrs.get(tsAttrType);
                         
-                        if (unsignedAttrs == null) {
-                            System.out.println("  ❌ 没有找到 unsigned attributes");
-                        } else {
-                            System.out.println("  ✓ 找到 unsigned attributes");
-                            System.out.println("  Unsigned attributes 数量: " + unsignedAttrs.size());
+                        if (tsAttr == null) {
+                            System.out.println("  ❌ 未找到时间戳属性 (OID: " + tsAttrType + ")");
                             
-                            // 查找时间戳属性
-                            ASN1ObjectIdentifier tsAttrType = PKCSObjectIdentifiers.id_aa_signatureTimeStampToken;
-                            Attribute tsAttr = unsignedAttrs.get(tsAttrType);
+                            // 列出所有 unsigned attributes
+                            System.out.println("\n  所有 Unsigned Attributes:");
+                            for (Object oid : unsignedAttrs.toHashtable().keySet()) {
+                                System.out.println("    - " + oid);
+                            }
+                        } else {
+                            System.out.println("  ✓✓✓ 找到时间戳属性！");
+                            System.out.println("  时间戳属性值数量: " + tsAttr.getAttrValues().size());
                             
-                            if (tsAttr == null) {
-                                System.out.println("  ❌ 未找到时间戳属性 (OID: " + tsAttrType + ")");
+                            try {
+                                // 解析时间戳令牌
+                                // RFC 3161: 时间戳作为 ContentInfo 结构存储在 Attribute 的 SET 中
+                                org.bouncycastle.asn1.ASN1Set tsValueSet = tsAttr.getAttrValues();
+                                
+                                // 从 SET 中提取第一个元素
+                                org.bouncycastle.asn1.ASN1Encodable tsValue = tsValueSet.getObjectAt(0);
+                                
+                                // 编码并重新解析为 ContentInfo（避免类型转换问题）
+                                byte[] tsBytes = tsValue.toASN1Primitive().getEncoded();
+                                
+                                // 直接从字节创建 ContentInfo
+                                org.bouncycastle.asn1.cms.ContentInfo tsContentInfo = 
+                                    org.bouncycastle.asn1.cms.ContentInfo.getInstance(
+                                        org.bouncycastle.asn1.ASN1Primitive.fromByteArray(tsBytes)
+                                    );
                                 
-                                // 列出所有 unsigned attributes
-                                System.out.println("\n  所有 Unsigned Attributes:");
-                                for (Object oid : unsignedAttrs.toHashtable().keySet()) {
-                                    System.out.println("    - " + oid);
+                                // 从 ContentInfo 创建 CMSSignedData，再创建 TimeStampToken
+                                CMSSignedData tsSignedData = new CMSSignedData(tsContentInfo);
+                                TimeStampToken tsToken = new TimeStampToken(tsSignedData);
+                                
+                                System.out.println("\n  ✓✓✓ 时间戳解析成功！");
+                                System.out.println("  ═══════════════════════════════════════");
+                                System.out.println("  时间戳时间: " + tsToken.getTimeStampInfo().getGenTime());
+                                System.out.println("  时间戳序列号: " + tsToken.getTimeStampInfo().getSerialNumber());
+                                if (tsToken.getTimeStampInfo().getTsa() != null) {
+                                    System.out.println("  TSA名称: " + tsToken.getTimeStampInfo().getTsa());
                                 }
-                            } else {
-                                System.out.println("  ✓✓✓ 找到时间戳属性！");
-                                System.out.println("  时间戳属性值数量: " + tsAttr.getAttrValues().size());
                                 
-                                try {
-                                    // 解析时间戳令牌
-                                    // RFC 3161: 时间戳作为 ContentInfo 结构存储在 Attribute 的 SET 中
-                                    org.bouncycastle.asn1.ASN1Set tsValueSet = tsAttr.getAttrValues();
-                                    
-                                    // 从 SET 中提取第一个元素
-                                    org.bouncycastle.asn1.ASN1Encodable tsValue = tsValueSet.getObjectAt(0);
-                                    
-                                    // 编码并重新解析为 ContentInfo（避免类型转换问题）
-                                    byte[] tsBytes = tsValue.toASN1Primitive().getEncoded();
-                                    
-                                    // 直接从字节创建 ContentInfo
-                                    org.bouncycastle.asn1.cms.ContentInfo tsContentInfo = 
-                                        org.bouncycastle.asn1.cms.ContentInfo.getInstance(
-                                            org.bouncycastle.asn1.ASN1Primitive.fromByteArray(tsBytes)
-                                        );
-                                    
-                                    // 从 ContentInfo 创建 CMSSignedData，再创建 TimeStampToken
-                                    CMSSignedData tsSignedData = new CMSSignedData(tsContentInfo);
-                                    TimeStampToken tsToken = new TimeStampToken(tsSignedData);
-                                    
-                                    System.out.println("\n  ✓✓✓ 时间戳解析成功！");
-                                    System.out.println("  ═══════════════════════════════════════");
-                                    System.out.println("  时间戳时间: " + tsToken.getTimeStampInfo().getGenTime());
-                                    System.out.println("  时间戳序列号: " + tsToken.getTimeStampInfo().getSerialNumber());
-                                    if (tsToken.getTimeStampInfo().getTsa() != null) {
-                                        System.out.println("  TSA名称: " + tsToken.getTimeStampInfo().getTsa());
-                                    }
-                                    
-                                    // 获取TSA证书
-                                    Store certStore = tsToken.getCertificates();
-                                    Collection<X509CertificateHolder> certs = certStore.getMatches(null);
-                                    System.out.println("  TSA证书数量: " + certs.size());
-                                    
-                                    for (X509CertificateHolder cert : certs) {
-                                        System.out.println("  TSA证书主题: " + cert.getSubject());
-                                    }
-                                    System.out.println("  ═══════════════════════════════════════");
-                                } catch (Exception e) {
-                                    System.out.println("  ❌ 时间戳解析失败: " + e.getMessage());
-                                    e.printStackTrace();
+                                // 获取TSA证书
+                                Store<X509CertificateHolder> certStore = tsToken.getCertificates();
+                                Collection<X509CertificateHolder> certs = certStore.getMatches(null);
+                                System.out.println("  TSA证书数量: " + certs.size());
+                                
+                                for (X509CertificateHolder cert : certs) {
+                                    System.out.println("  TSA证书主题: " + cert.getSubject());
                                 }
+                                TimestampVerificationResult tsResult = TimestampVerifier.shared()
+                                        .verifySignatureTimestamp(tsToken, signerInfo.getSignature(),
+                                                TrustStore.getDefault());
+                                System.out.println("  时间戳校验: " + (tsResult.isValid()
+                                        ? "✓ 通过" : "❌ " + tsResult.getFailureReason()));
+                                System.out.println("  ═══════════════════════════════════════");
+                            } catch (Exception e) {
+                                System.out.println("  ❌ 时间戳解析失败: " + e.getMessage());
+                                e.printStackTrace();
                             }
                         }
-                        
-                        // 检查 signed attributes
-                        AttributeTable signedAttrs = signerInfo.getSignedAttributes();
-                        if (signedAttrs != null) {
-                            System.out.println("\n  Signed attributes 数量: " + signedAttrs.size());
-                        }
                     }
-                } else {
-                    System.out.println("  ❌ 无法读取签名内容");
+                    
+                    // 检查 signed attributes
+                    AttributeTable signedAttrs = signerInfo.getSignedAttributes();
+                    if (signedAttrs != null) {
+                        System.out.println("\n  Signed attributes 数量: " + signedAttrs.size());
+                    }
                 }
-                
-                System.out.println();
+            } else {
+                System.out.println("  ❌ 无法读取签名内容");
             }
+            
+            System.out.println();
         }
         
+        System.out.println("堆内存峰值: " + HeapPeakTracker.toMegabytes(heap.getPeakBytes()));
         System.out.println("========== 验证完成 ==========\n");
     }
 
+    /**
+     * 按 SignerInfo 的摘要算法计算 ByteRange 摘要，并用签名证书校验签名值
+     * （RSA、ECDSA、Ed25519 均由 BouncyCastle 按 SignerInfo 中的算法标识处理）
+     */
+    private static boolean verifySigner(File pdfFile, PDSignature signature, byte[] signatureContent,
+                                        SignerInformation signerInfo) {
+        try {
+            String digestOid = signerInfo.getDigestAlgOID();
+            byte[] contentDigest = ByteRangeDigest.digest(pdfFile, signature.getByteRange(), digestOid);
+
+            // detached 签名：以预计算摘要代替内容重新解析
+            CMSSignedData detached = new CMSSignedData(
+                    Collections.singletonMap(digestOid, contentDigest), signatureContent);
+            SignerInformation signer = detached.getSignerInfos().get(signerInfo.getSID());
+
+            @SuppressWarnings("unchecked")
+            Collection<X509CertificateHolder> certs = detached.getCertificates().getMatches(signer.getSID());
+            if (certs.isEmpty()) {
+                System.out.println("  ❌ 未找到签名证书");
+                return false;
+            }
+            PublicKey publicKey = new JcaX509CertificateConverter()
+                    .setProvider(BouncyCastleProvider.PROVIDER_NAME)
+                    .getCertificate(certs.iterator().next())
+                    .getPublicKey();
+            // 签名值校验和 signed attributes 摘要分别使用配置的提供者
+            CryptoProviders providers = CryptoProviders.getDefault();
+            return signer.verify(new SignerInformationVerifier(
+                    new DefaultCMSSignatureAlgorithmNameGenerator(),
+                    new DefaultSignatureAlgorithmIdentifierFinder(),
+                    providers.contentVerifierProvider(publicKey),
+                    providers.digestCalculatorProvider(digestOid)));
+        } catch (Exception e) {
+            System.out.println("  ❌ 签名值校验异常: " + e.getMessage());
+            return false;
+        }
+    }
+
     /**
      * 测试验证
      */
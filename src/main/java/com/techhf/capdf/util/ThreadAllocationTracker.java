@@ -0,0 +1,81 @@
+package com.techhf.capdf.util;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * 当前线程的累计分配字节数（allocated bytes）统计
+ * <p>
+ * 基于 {@code com.sun.management.ThreadMXBean#getThreadAllocatedBytes}，只统计调用线程自己分配的字节数，
+ * 不受其他线程影响，可以在并发签名/验证中按文档报告内存开销（与 {@link HeapPeakTracker} 的进程级峰值不同）。
+ * 分配量是累计值而不是驻留峰值；委托给其他线程的工作（如时间戳对冲请求）不计入。
+ * JVM 不支持时各统计值为 -1。
+ */
+public final class ThreadAllocationTracker {
+
+    private static final com.sun.management.ThreadMXBean THREAD_BEAN = resolveThreadBean();
+
+    private final long threadId;
+    private final long startBytes;
+
+    private ThreadAllocationTracker(long threadId, long startBytes) {
+        this.threadId = threadId;
+        this.startBytes = startBytes;
+    }
+
+    /**
+     * 当前 JVM 是否支持按线程统计分配量
+     */
+    public static boolean isSupported() {
+        return THREAD_BEAN != null;
+    }
+
+    /**
+     * 从当前线程的当前分配量开始统计
+     */
+    public static ThreadAllocationTracker start() {
+        long threadId = Thread.currentThread().getId();
+        return new ThreadAllocationTracker(threadId, currentBytes(threadId));
+    }
+
+    /**
+     * 开始统计以来当前线程累计分配的字节数（不是峰值），不支持时为 -1
+     */
+    public long getAllocatedBytes() {
+        if (startBytes < 0) {
+            return -1;
+        }
+        long now = currentBytes(threadId);
+        return now < 0 ? -1 : now - startBytes;
+    }
+
+    /**
+     * 格式化为 MB，不支持时输出 n/a
+     */
+    public static String toMegabytes(long bytes) {
+        return bytes < 0 ? "n/a" : HeapPeakTracker.toMegabytes(bytes);
+    }
+
+    private static long currentBytes(long threadId) {
+        return THREAD_BEAN == null ? -1 : THREAD_BEAN.getThreadAllocatedBytes(threadId);
+    }
+
+    private static com.sun.management.ThreadMXBean resolveThreadBean() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (!(bean instanceof com.sun.management.ThreadMXBean)) {
+            return null;
+        }
+        com.sun.management.ThreadMXBean sunBean = (com.sun.management.ThreadMXBean) bean;
+        try {
+            if (!sunBean.isThreadAllocatedMemorySupported()) {
+                return null;
+            }
+            if (!sunBean.isThreadAllocatedMemoryEnabled()) {
+                sunBean.setThreadAllocatedMemoryEnabled(true);
+            }
+            return sunBean;
+        } catch (UnsupportedOperationException | SecurityException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.techhf.capdf.test;
+
+import com.techhf.capdf.cert.CertificateGenerator;
+import com.techhf.capdf.signer.AppearanceTemplateCache;
+import com.techhf.capdf.signer.PdfSigner;
+import com.techhf.capdf.signer.SignatureAppearance;
+import com.techhf.capdf.signer.SigningCredential;
+import com.techhf.capdf.signer.SigningCredentialStore;
+import com.techhf.capdf.util.SignImageGenerator;
+import com.techhf.capdf.util.SimplePdfCreator;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.junit.Test;
+
+import java.io.File;
+
+import static org.junit.Assert.*;
+
+/**
+ * 签章模板缓存测试
+ * 同一签章图片和位置重复签名时只构建一次模板；超出容量时按LRU淘汰
+ */
+public class AppearanceTemplateCacheTest {
+
+    @Test
+    public void testTemplateReuse() {
+        try {
+            System.out.println("\n========== 签章模板缓存测试 ==========\n");
+
+            File outputDir = new File("test-output/appearance-cache");
+            if (!outputDir.exists()) {
+                outputDir.mkdirs();
+            }
+
+            System.out.println("【步骤1】准备证书、签章和待签名PDF...");
+            String certPath = new File(outputDir, "test-cert.p12").getPath();
+            CertificateGenerator.generateSelfSignedCert("CN=Template Cache,O=Example Company,C=CN",
+                    certPath, "123456", 1);
+            String sealImagePath = new File(outputDir, "template-seal.png").getPath();
+            SignImageGenerator.generateSealImage("Template Cache Org", sealImagePath, 200, 200);
+            File inputPdf = new File(outputDir, "test-unsigned.pdf");
+            SimplePdfCreator.createSimplePdf(inputPdf, "Appearance template cache test");
+
+            SigningCredential credential = SigningCredentialStore.shared().get(certPath, "123456");
+            SignatureAppearance appearance = SignatureAppearance.ofImage(sealImagePath).at(350, 60, 120, 120);
+
+            System.out.println("\n【步骤2】同一签章连续签名5次...");
+            AppearanceTemplateCache.Stats before = AppearanceTemplateCache.shared().getStats();
+            for (int i = 0; i < 5; i++) {
+                File outputPdf = new File(outputDir, "signed-" + i + ".pdf");
+                PdfSigner.signPdf(inputPdf, outputPdf, credential, "Template Test", "Beijing", appearance, false);
+                try (PDDocument doc = PDDocument.load(outputPdf)) {
+                    assertEquals(1, doc.getSignatureDictionaries().size());
+                }
+            }
+            AppearanceTemplateCache.Stats after = AppearanceTemplateCache.shared().getStats();
+
+            assertEquals(1, after.getMisses() - before.getMisses());
+            assertEquals(4, after.getHits() - before.getHits());
+            System.out.println("✓ 模板缓存: " + after);
+
+            System.out.println("\n【步骤3】容量为2的缓存按LRU淘汰...");
+            AppearanceTemplateCache cache = new AppearanceTemplateCache(2, Long.MAX_VALUE);
+            try (PDDocument doc = PDDocument.load(inputPdf)) {
+                cache.getTemplate(doc, 0, new File(sealImagePath), appearance);
+                cache.getTemplate(doc, 0, new File(sealImagePath), appearance.zoom(-30));
+                cache.getTemplate(doc, 0, new File(sealImagePath), appearance);
+                cache.getTemplate(doc, 0, new File(sealImagePath), appearance.at(100, 100, 80, 80));
+            }
+            AppearanceTemplateCache.Stats stats = cache.getStats();
+            assertEquals(2, stats.getSize());
+            assertEquals(1, stats.getEvictions());
+            assertEquals(1, stats.getHits());
+            System.out.println("✓ " + stats);
+
+            System.out.println("\n========== 测试完成 ==========\n");
+
+        } catch (Exception e) {
+            System.err.println("测试失败: " + e.getMessage());
+            e.printStackTrace();
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.techhf.capdf.test;
+
+import com.techhf.capdf.cert.CertificateGenerator;
+import com.techhf.capdf.signer.BatchReport;
+import com.techhf.capdf.signer.BatchSigningEngine;
+import com.techhf.capdf.signer.SignJob;
+import com.techhf.capdf.signer.SigningCredentialStore;
+import com.techhf.capdf.util.SignImageGenerator;
+import com.techhf.capdf.util.SimplePdfCreator;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * 批量签名引擎测试
+ * 多租户、多线程签名，其中一个任务失败不影响其他任务
+ */
+public class BatchSigningTest {
+
+    @Test
+    public void testBatchSigning() {
+        try {
+            System.out.println("\n========== 批量签名测试 ==========\n");
+
+            File outputDir = new File("test-output/batch-sign");
+            if (!outputDir.exists()) {
+                outputDir.mkdirs();
+            }
+
+            System.out.println("【步骤1】准备租户证书、签章和待签名PDF...");
+            SigningCredentialStore store = new SigningCredentialStore(16, 0);
+            for (String tenant : new String[]{"tenant-a", "tenant-b"}) {
+                String certPath = new File(outputDir, tenant + ".p12").getPath();
+                CertificateGenerator.generateSelfSignedCert("CN=" + tenant + ",O=Example Company,C=CN",
+                        certPath, "123456", 1);
+                store.registerTenant(tenant, certPath, "123456");
+            }
+            String sealImagePath = new File(outputDir, "sign-seal.png").getPath();
+            SignImageGenerator.generateSealImage("Example Org", sealImagePath, 200, 200);
+
+            File inputPdf = new File(outputDir, "test-unsigned.pdf");
+            SimplePdfCreator.createSimplePdf(inputPdf, "Batch signing test");
+
+            List<SignJob> jobs = new ArrayList<>();
+            for (int i = 0; i < 12; i++) {
+                String tenant = i % 2 == 0 ? "tenant-a" : "tenant-b";
+                jobs.add(SignJob.forTenant(inputPdf, new File(outputDir, "signed-" + i + ".pdf"), tenant)
+                        .reason("Batch Test")
+                        .location("Beijing")
+                        .signImagePath(sealImagePath)
+                        .addTimestamp(i % 3 == 0));
+            }
+            // 一个输入不存在的任务
+            jobs.add(SignJob.forTenant(new File(outputDir, "missing.pdf"),
+                    new File(outputDir, "signed-missing.pdf"), "tenant-a"));
+
+            System.out.println("\n【步骤2】4个工作线程、队列容量2执行批量签名...");
+            AtomicInteger callbacks = new AtomicInteger();
+            BatchReport report;
+            try (BatchSigningEngine engine = new BatchSigningEngine(4, 2, store)) {
+                report = engine.signAll(jobs, result -> callbacks.incrementAndGet());
+            }
+
+            assertEquals(13, report.getTotal());
+            assertEquals(12, report.getSucceeded());
+            assertEquals(1, report.getFailed());
+            assertEquals(13, callbacks.get());
+            assertEquals(2, store.getStats().getLoads());
+            System.out.println("✓ " + report);
+            System.out.println("✓ 凭据缓存: " + store.getStats());
+
+            System.out.println("\n========== 测试完成 ==========\n");
+
+        } catch (Exception e) {
+            System.err.println("测试失败: " + e.getMessage());
+            e.printStackTrace();
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Test
+    public void testConcurrentAutoGeneratedAppearance() {
+        try {
+            System.out.println("\n========== 并发自动生成签章测试 ==========\n");
+
+            File outputDir = new File("test-output/batch-auto-appearance");
+            if (!outputDir.exists()) {
+                outputDir.mkdirs();
+            }
+
+            String certPath = new File(outputDir, "test-cert.p12").getPath();
+            CertificateGenerator.generateSelfSignedCert("CN=Auto Appearance,O=Example Company,C=CN",
+                    certPath, null, 1);
+            File inputPdf = new File(outputDir, "test-unsigned.pdf");
+            SimplePdfCreator.createSimplePdf(inputPdf, "Auto appearance test");
+
+            // 不提供签章图片，各线程同时在内存中生成签章
+            List<SignJob> jobs = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                jobs.add(SignJob.withCertificate(inputPdf, new File(outputDir, "signed-" + i + ".pdf"), certPath, null)
+                        .reason("Auto Appearance Test")
+                        .location("Shanghai"));
+            }
+
+            BatchReport report;
+            try (BatchSigningEngine engine = new BatchSigningEngine(4, 4)) {
+                report = engine.signAll(jobs, null);
+            }
+
+            assertEquals(8, report.getSucceeded());
+            assertFalse("签章不应写入工作目录", new File("auto-generated-signature.png").exists());
+            System.out.println("✓ " + report);
+
+            System.out.println("\n========== 测试完成 ==========\n");
+
+        } catch (Exception e) {
+            System.err.println("测试失败: " + e.getMessage());
+            e.printStackTrace();
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Test(timeout = 30000)
+    public void testListenerErrorDoesNotBlockBatch() throws Exception {
+        File outputDir = new File("test-output/batch-listener-error");
+        if (!outputDir.exists()) {
+            outputDir.mkdirs();
+        }
+
+        // 输入不存在的任务会立即失败，回调抛出 Error 时 signAll 仍应返回
+        List<SignJob> jobs = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            jobs.add(SignJob.withCertificate(new File(outputDir, "missing-" + i + ".pdf"),
+                    new File(outputDir, "signed-" + i + ".pdf"), new File(outputDir, "missing.p12").getPath(), null));
+        }
+
+        BatchReport report;
+        try (BatchSigningEngine engine = new BatchSigningEngine(2, 2)) {
+            report = engine.signAll(jobs, result -> {
+                throw new AssertionError("listener failure");
+            });
+        }
+        assertEquals(6, report.getFailed());
+    }
+}
@@ -0,0 +1,157 @@
+package com.techhf.capdf.test;
+
+import com.techhf.capdf.cert.CertificateGenerator;
+import com.techhf.capdf.signer.PdfSigner;
+import com.techhf.capdf.signer.SigningCredential;
+import com.techhf.capdf.util.BulkVerificationReport;
+import com.techhf.capdf.util.BulkVerifier;
+import com.techhf.capdf.util.LatencyHistogram;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.Assert.*;
+
+/**
+ * 并行批量校验测试
+ * 目录树 + ZIP压缩包中混有有效、被篡改、未签名和损坏的文档，
+ * 检查分类计数、结果文件、打开文档数上限和延迟分布
+ * <p>
+ * 文档数可通过系统属性 capdf.bulkDocuments 调整（默认40）
+ */
+public class BulkVerifierTest {
+
+    @Test
+    public void testBulkVerification() {
+        try {
+            System.out.println("\n========== 并行批量校验测试 ==========\n");
+
+            File outputDir = new File("test-output/bulk-verify");
+            File archiveDir = new File(outputDir, "archive");
+            deleteRecursively(archiveDir);
+            new File(archiveDir, "2025/01").mkdirs();
+            new File(archiveDir, "2025/02").mkdirs();
+            int documents = Integer.getInteger("capdf.bulkDocuments", 40);
+
+            System.out.println("【步骤1】生成归档目录...");
+            String certPath = new File(outputDir, "signer.p12").getPath();
+            CertificateGenerator.generateSelfSignedCert("CN=Bulk Signer,O=Example Company,C=CN", certPath, null, 1);
+            SigningCredential credential = SigningCredential.load(certPath, new char[0]);
+            File unsigned = new File(outputDir, "unsigned.pdf");
+            try (PDDocument document = new PDDocument()) {
+                document.addPage(new PDPage(PDRectangle.A4));
+                document.save(unsigned);
+            }
+            File signed = new File(outputDir, "signed.pdf");
+            PdfSigner.signPdf(unsigned, signed, credential, "Bulk Target", "Beijing", (String) null, false);
+
+            for (int i = 0; i < documents; i++) {
+                File dir = new File(archiveDir, i % 2 == 0 ? "2025/01" : "2025/02");
+                Files.copy(signed.toPath(), new File(dir, "doc-" + i + ".pdf").toPath(),
+                        StandardCopyOption.REPLACE_EXISTING);
+            }
+            File tampered = new File(archiveDir, "tampered.pdf");
+            byte[] data = Files.readAllBytes(signed.toPath());
+            String text = new String(data, StandardCharsets.ISO_8859_1).replace("Bulk Target", "Bulk Tarmet");
+            Files.write(tampered.toPath(), text.getBytes(StandardCharsets.ISO_8859_1));
+            Files.copy(unsigned.toPath(), new File(archiveDir, "unsigned.pdf").toPath(),
+                    StandardCopyOption.REPLACE_EXISTING);
+            Files.write(new File(archiveDir, "corrupt.pdf").toPath(), "not a pdf".getBytes(StandardCharsets.US_ASCII));
+            Files.write(new File(archiveDir, "notes.txt").toPath(), "ignored".getBytes(StandardCharsets.US_ASCII));
+
+            try (ZipOutputStream zip = new ZipOutputStream(new FileOutputStream(new File(archiveDir, "2024.zip")))) {
+                for (int i = 0; i < 5; i++) {
+                    zip.putNextEntry(new ZipEntry("2024/zipped-" + i + ".pdf"));
+                    zip.write(i == 4 ? text.getBytes(StandardCharsets.ISO_8859_1) : data);
+                    zip.closeEntry();
+                }
+                zip.putNextEntry(new ZipEntry("2024/readme.txt"));
+                zip.write("ignored".getBytes(StandardCharsets.US_ASCII));
+                zip.closeEntry();
+            }
+            int total = documents + 3 + 5;
+            System.out.println("✓ " + total + " 个PDF（其中压缩包内5个）");
+
+            System.out.println("\n【步骤2】并行校验，最多同时打开2个文档...");
+            int threads = Math.max(2, Runtime.getRuntime().availableProcessors());
+            File resultFile = new File(outputDir, "results.tsv");
+            AtomicInteger callbacks = new AtomicInteger();
+            BulkVerificationReport report;
+            try (BulkVerifier verifier = new BulkVerifier(threads, 2)) {
+                report = verifier.verifyAll(Arrays.asList(archiveDir, new File(outputDir, "missing")), resultFile,
+                        result -> callbacks.incrementAndGet());
+            }
+            System.out.println("✓ " + report);
+            assertEquals(total + 1, report.getTotal());
+            assertEquals(total + 1, callbacks.get());
+            assertEquals(documents + 4, report.getValid());
+            assertEquals(2, report.getInvalid());
+            assertEquals(1, report.getUnsigned());
+            assertEquals("损坏的文档和不存在的根路径", 2, report.getErrors());
+            assertTrue("同时打开的文档数不超过上限", report.getPeakOpenDocuments() <= 2);
+            assertEquals(total + 1, report.getLatency().getCount());
+            assertTrue(report.getLatency().getPercentileMillis(50) <= report.getLatency().getPercentileMillis(99));
+
+            List<String> lines = Files.readAllLines(resultFile.toPath(), StandardCharsets.UTF_8);
+            assertEquals(total + 2, lines.size());
+            assertTrue(lines.get(0).startsWith("#"));
+            String zippedTampered = null;
+            for (String line : lines) {
+                if (line.contains("2024.zip!/2024/zipped-4.pdf")) {
+                    zippedTampered = line;
+                }
+            }
+            assertNotNull("压缩包内文档按 archive.zip!/entry 记录", zippedTampered);
+            assertEquals("INVALID", zippedTampered.split("\t")[1]);
+            System.out.println("✓ 结果文件 " + lines.size() + " 行，例如: " + zippedTampered);
+
+            System.out.println("\n【步骤3】单线程对比...");
+            try (BulkVerifier verifier = new BulkVerifier(1, 1)) {
+                BulkVerificationReport single = verifier.verifyAll(archiveDir, new File(outputDir, "results-1.tsv"));
+                assertEquals(total, single.getTotal());
+                System.out.println(String.format("✓ 单线程 %.2f docs/s，%d 线程 %.2f docs/s（CPU核数 %d）",
+                        single.getDocsPerSecond(), threads, report.getDocsPerSecond(),
+                        Runtime.getRuntime().availableProcessors()));
+            }
+
+            System.out.println("\n【步骤4】延迟直方图精度...");
+            LatencyHistogram histogram = new LatencyHistogram();
+            for (int i = 1; i <= 1000; i++) {
+                histogram.recordNanos(i * 1_000_000L);
+            }
+            assertEquals(500, histogram.getPercentileMillis(50), 500 * 0.02);
+            assertEquals(990, histogram.getPercentileMillis(99), 990 * 0.02);
+            assertEquals(1000, histogram.getMaxMillis(), 1000 * 0.02);
+            System.out.println("✓ " + histogram);
+
+            System.out.println("\n========== 测试完成 ==========\n");
+
+        } catch (Exception e) {
+            System.err.println("测试失败: " + e.getMessage());
+            e.printStackTrace();
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static void deleteRecursively(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                deleteRecursively(child);
+            }
+        }
+        file.delete();
+    }
+}
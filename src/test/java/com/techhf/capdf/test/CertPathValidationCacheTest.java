@@ -0,0 +1,183 @@
+package com.techhf.capdf.test;
+
+import com.techhf.capdf.cert.CertPathValidationCache;
+import com.techhf.capdf.cert.CertPathValidationResult;
+import com.techhf.capdf.cert.CertificateGenerator;
+import com.techhf.capdf.cert.TrustStore;
+import com.techhf.capdf.signer.PdfSigner;
+import com.techhf.capdf.signer.SigningCredential;
+import com.techhf.capdf.util.DocumentVerificationResult;
+import com.techhf.capdf.util.MemoryPolicy;
+import com.techhf.capdf.util.SignatureVerificationResult;
+import com.techhf.capdf.util.SignatureVerifier;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.junit.Test;
+
+import java.io.File;
+import java.security.cert.Certificate;
+import java.security.cert.X509Certificate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.*;
+
+/**
+ * 证书链校验缓存测试
+ * 同一签名证书的大量文档只构建一次PKIX路径；检查信任锚不匹配、时间窗口、条目上限和并发单次计算
+ * <p>
+ * 文档数可通过系统属性 capdf.certPathDocuments 调整（默认200）
+ */
+public class CertPathValidationCacheTest {
+
+    @Test
+    public void testCertPathValidationCache() {
+        try {
+            System.out.println("\n========== 证书链校验缓存测试 ==========\n");
+
+            File outputDir = new File("test-output/cert-path-cache");
+            if (!outputDir.exists()) {
+                outputDir.mkdirs();
+            }
+            int documents = Integer.getInteger("capdf.certPathDocuments", 200);
+
+            System.out.println("【步骤1】生成CA，签发签名证书并签署文档...");
+            String caPath = new File(outputDir, "ca.p12").getPath();
+            X509Certificate caCert = CertificateGenerator.generateCaCert(
+                    "CN=Path Test Root CA,O=Example Company,C=CN", caPath, null, 5);
+            SigningCredential ca = SigningCredential.load(caPath, new char[0]);
+            String signerPath = new File(outputDir, "signer.p12").getPath();
+            X509Certificate signerCert = CertificateGenerator.issueCert("CN=Path Signer,O=Example Company,C=CN",
+                    caCert, ca.getPrivateKey(), null, null, signerPath, null, 1);
+            X509Certificate otherCa = CertificateGenerator.generateCaCert(
+                    "CN=Other Root CA,O=Example Company,C=CN", new File(outputDir, "other-ca.p12").getPath(), null, 5);
+
+            File inputPdf = new File(outputDir, "unsigned.pdf");
+            try (PDDocument document = new PDDocument()) {
+                document.addPage(new PDPage(PDRectangle.A4));
+                document.save(inputPdf);
+            }
+            File signedPdf = new File(outputDir, "signed.pdf");
+            PdfSigner.signPdf(inputPdf, signedPdf, SigningCredential.load(signerPath, new char[0]),
+                    "Path Test", "Beijing", (String) null, false);
+            TrustStore trustStore = TrustStore.load(caPath, new char[0]);
+            assertTrue(trustStore.contains(caCert));
+            assertEquals(TrustStore.of(caCert).getId(), trustStore.getId());
+            System.out.println("✓ " + trustStore);
+
+            System.out.println("\n【步骤2】同一签名证书校验 " + documents + " 次...");
+            CertPathValidationCache shared = CertPathValidationCache.shared();
+            long hitsBefore = shared.getHitCount();
+            long validationsBefore = shared.getValidationCount();
+            long first = 0;
+            long rest = 0;
+            for (int i = 0; i < documents; i++) {
+                DocumentVerificationResult result = SignatureVerifier.verify(signedPdf, MemoryPolicy.getDefault(),
+                        trustStore);
+                SignatureVerificationResult signature = result.getSignatures().get(0);
+                assertTrue(signature.isChainChecked());
+                assertTrue(signature.toString(), signature.isValid());
+                if (i == 0) {
+                    first = signature.getChainNanos();
+                } else {
+                    rest += signature.getChainNanos();
+                }
+            }
+            assertEquals(1, shared.getValidationCount() - validationsBefore);
+            assertEquals(documents - 1, shared.getHitCount() - hitsBefore);
+            assertTrue(shared.getTimeSavedNanos() > 0);
+            System.out.println("✓ " + shared);
+            System.out.println(String.format("✓ 证书链耗时：首次 %.3f ms，命中平均 %.3f ms",
+                    first / 1e6, rest / 1e6 / Math.max(1, documents - 1)));
+
+            System.out.println("\n【步骤3】信任库不匹配 / 未配置信任库...");
+            SignatureVerificationResult untrusted = SignatureVerifier.verify(signedPdf, MemoryPolicy.getDefault(),
+                    TrustStore.of(otherCa)).getSignatures().get(0);
+            assertTrue(untrusted.isChainChecked());
+            assertFalse(untrusted.isChainValid());
+            assertFalse(untrusted.isValid());
+            assertTrue(untrusted.isIntegrityValid() && untrusted.isSignatureValid());
+            System.out.println("✓ " + untrusted);
+            SignatureVerificationResult unchecked = SignatureVerifier.verify(signedPdf, MemoryPolicy.getDefault(),
+                    TrustStore.empty()).getSignatures().get(0);
+            assertFalse(unchecked.isChainChecked());
+            assertTrue(unchecked.isValid());
+            System.out.println("✓ 空信任库不检查证书链");
+
+            System.out.println("\n【步骤4】时间窗口...");
+            List<X509Certificate> chain = new ArrayList<>();
+            for (Certificate c : SigningCredential.load(signerPath, new char[0]).getCertChain()) {
+                chain.add((X509Certificate) c);
+            }
+            CertPathValidationCache cache = new CertPathValidationCache();
+            Date beforeIssue = new Date(signerCert.getNotBefore().getTime() - 24 * 3600_000L);
+            CertPathValidationResult early = cache.validate(signerCert, chain, trustStore, beforeIssue);
+            assertFalse("签发之前校验失败", early.isValid());
+            assertEquals("窗口外的失败结果不缓存", 0, cache.size());
+            CertPathValidationResult now = cache.validate(signerCert, chain, trustStore, new Date());
+            assertTrue(now.isValid());
+            assertEquals(1, now.getPath().size());
+            assertFalse(now.getNotAfter().after(signerCert.getNotAfter()));
+            CertPathValidationResult later = cache.validate(signerCert, chain, trustStore,
+                    new Date(signerCert.getNotAfter().getTime() - 3600_000L));
+            assertSame("窗口内命中", now, later);
+            CertPathValidationResult expired = cache.validate(signerCert, chain, trustStore,
+                    new Date(signerCert.getNotAfter().getTime() + 3600_000L));
+            assertFalse("过期之后校验失败", expired.isValid());
+            assertSame("过期证书的条目仍可用于历史时间", now, cache.validate(signerCert, chain, trustStore, new Date()));
+            assertEquals(3, cache.getValidationCount());
+            assertEquals(2, cache.getHitCount());
+            System.out.println("✓ " + now);
+            System.out.println("✓ " + cache);
+
+            System.out.println("\n【步骤5】条目上限...");
+            CertPathValidationCache bounded = new CertPathValidationCache(2);
+            for (TrustStore store : Arrays.asList(TrustStore.of(caCert), TrustStore.of(otherCa),
+                    TrustStore.of(caCert, otherCa))) {
+                bounded.validate(signerCert, chain, store, new Date());
+            }
+            assertEquals(2, bounded.size());
+            System.out.println("✓ " + bounded);
+
+            System.out.println("\n【步骤6】并发校验同一证书只计算一次...");
+            final CertPathValidationCache concurrent = new CertPathValidationCache();
+            final int threads = 8;
+            ExecutorService executor = Executors.newFixedThreadPool(threads);
+            try {
+                List<Future<CertPathValidationResult>> futures = new ArrayList<>();
+                for (int i = 0; i < threads * 4; i++) {
+                    futures.add(executor.submit(new Callable<CertPathValidationResult>() {
+                        @Override
+                        public CertPathValidationResult call() throws Exception {
+                            return concurrent.validate(signerCert, Collections.singletonList(caCert), trustStore,
+                                    new Date());
+                        }
+                    }));
+                }
+                for (Future<CertPathValidationResult> future : futures) {
+                    assertTrue(future.get().isValid());
+                }
+            } finally {
+                executor.shutdown();
+            }
+            assertEquals(1, concurrent.getValidationCount());
+            assertEquals(threads * 4 - 1, concurrent.getHitCount());
+            System.out.println("✓ " + concurrent);
+
+            System.out.println("\n========== 测试完成 ==========\n");
+
+        } catch (Exception e) {
+            System.err.println("测试失败: " + e.getMessage());
+            e.printStackTrace();
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.techhf.capdf.test;
+
+import com.techhf.capdf.cert.CertificateGenerator;
+import com.techhf.capdf.signer.CrossPageSeal;
+import com.techhf.capdf.signer.PdfSigner;
+import com.techhf.capdf.signer.SignatureAppearance;
+import com.techhf.capdf.signer.SignatureSizing;
+import com.techhf.capdf.signer.SigningCredential;
+import com.techhf.capdf.util.SignImageGenerator;
+import org.apache.pdfbox.cos.COSBase;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.interactive.annotation.PDAnnotation;
+import org.apache.pdfbox.pdmodel.interactive.annotation.PDAnnotationRubberStamp;
+import org.apache.pdfbox.pdmodel.interactive.digitalsignature.PDSignature;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * 骑缝章测试
+ * 千页文档按每组20条分组盖骑缝章，检查竖条位置、拼合宽度和外观流复用
+ */
+public class CrossPageSealTest {
+
+    private static final int PAGE_COUNT = 1005;
+    private static final int MAX_STRIPS = 20;
+    private static final float SEAL_SIZE = 120;
+
+    @Test
+    public void testCrossPageSeal() {
+        try {
+            System.out.println("\n========== 骑缝章测试 ==========\n");
+
+            File outputDir = new File("test-output/cross-page-seal");
+            if (!outputDir.exists()) {
+                outputDir.mkdirs();
+            }
+
+            System.out.println("【步骤1】准备 " + PAGE_COUNT + " 页文档和证书...");
+            File inputPdf = new File(outputDir, "test-unsigned.pdf");
+            createMultiPagePdf(inputPdf, PAGE_COUNT);
+            String certPath = new File(outputDir, "test.p12").getPath();
+            CertificateGenerator.generateSelfSignedCert("CN=Seal Test,O=Example Company,C=CN", certPath, null, 1);
+            String sealPath = new File(outputDir, "seal.png").getPath();
+            SignImageGenerator.generateSealImage("Seal Test", sealPath, 200, 200);
+            SigningCredential credential = SigningCredential.load(certPath, new char[0]);
+            System.out.println("✓ 原始文件: " + inputPdf.length() + " bytes");
+
+            System.out.println("\n【步骤2】签名并加盖骑缝章...");
+            File outputPdf = new File(outputDir, "signed-cross-page.pdf");
+            SignatureAppearance appearance = SignatureAppearance.ofImage(sealPath)
+                    .crossPageSeal(CrossPageSeal.generated("Seal Test").size(SEAL_SIZE).maxStrips(MAX_STRIPS));
+            long start = System.nanoTime();
+            PdfSigner.signPdf(inputPdf, outputPdf, credential, "Contract", "Beijing", appearance,
+                    false, SignatureSizing.ADAPTIVE);
+            long millis = (System.nanoTime() - start) / 1_000_000;
+            long growth = outputPdf.length() - inputPdf.length();
+            System.out.println("✓ 耗时 " + millis + " ms，文件增加 " + growth + " bytes（每页约 "
+                    + growth / PAGE_COUNT + " bytes）");
+
+            System.out.println("\n【步骤3】检查各页竖条...");
+            try (PDDocument doc = PDDocument.load(outputPdf)) {
+                Map<COSBase, Boolean> appearanceStreams = new IdentityHashMap<>();
+                float groupWidth = 0;
+                for (int i = 0; i < PAGE_COUNT; i++) {
+                    PDPage page = doc.getPage(i);
+                    PDAnnotationRubberStamp strip = null;
+                    for (PDAnnotation annotation : page.getAnnotations()) {
+                        if (annotation instanceof PDAnnotationRubberStamp) {
+                            assertNull("第 " + (i + 1) + " 页有多个竖条", strip);
+                            strip = (PDAnnotationRubberStamp) annotation;
+                        }
+                    }
+                    assertNotNull("第 " + (i + 1) + " 页缺少竖条", strip);
+                    appearanceStreams.put(strip.getNormalAppearanceStream().getCOSObject(), true);
+
+                    // 竖条贴在页面右边缘
+                    PDRectangle rect = strip.getRectangle();
+                    assertEquals(page.getMediaBox().getUpperRightX(), rect.getUpperRightX(), 0.01f);
+                    assertEquals(SEAL_SIZE, rect.getHeight(), 0.01f);
+
+                    // 每组竖条拼合后为完整印章宽度
+                    groupWidth += rect.getWidth();
+                    if ((i + 1) % MAX_STRIPS == 0 || i == PAGE_COUNT - 1) {
+                        assertEquals("第 " + (i + 1) + " 页所在组宽度", SEAL_SIZE, groupWidth, 0.01f);
+                        groupWidth = 0;
+                    }
+                }
+                // 整组20条 + 最后5页另切5条
+                assertEquals(MAX_STRIPS + PAGE_COUNT % MAX_STRIPS, appearanceStreams.size());
+
+                PDSignature signature = doc.getLastSignatureDictionary();
+                int[] byteRange = signature.getByteRange();
+                assertEquals(outputPdf.length(), (long) byteRange[2] + byteRange[3]);
+            }
+            assertTrue("每页增量过大: " + growth, growth < PAGE_COUNT * 1024L + 64 * 1024);
+            System.out.println("✓ " + PAGE_COUNT + " 页均有竖条，共嵌入 "
+                    + (MAX_STRIPS + PAGE_COUNT % MAX_STRIPS) + " 个竖条对象");
+
+            System.out.println("\n========== 测试完成 ==========\n");
+
+        } catch (Exception e) {
+            System.err.println("测试失败: " + e.getMessage());
+            e.printStackTrace();
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static void createMultiPagePdf(File file, int pages) throws Exception {
+        try (PDDocument doc = new PDDocument()) {
+            for (int i = 1; i <= pages; i++) {
+                PDPage page = new PDPage(PDRectangle.A4);
+                doc.addPage(page);
+                try (PDPageContentStream cs = new PDPageContentStream(doc, page)) {
+                    cs.beginText();
+                    cs.setFont(PDType1Font.HELVETICA, 14);
+                    cs.newLineAtOffset(72, 760);
+                    cs.showText("Page " + i);
+                    cs.endText();
+                }
+            }
+            doc.save(file);
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package com.techhf.capdf.test;
+
+import com.techhf.capdf.cert.CertificateGenerator;
+import com.techhf.capdf.cert.CryptoProviders;
+import com.techhf.capdf.cert.KeyAlgorithm;
+import com.techhf.capdf.cert.SignatureAlgorithms;
+import com.techhf.capdf.signer.CmsSignatureBuilder;
+import com.techhf.capdf.signer.PdfSigner;
+import com.techhf.capdf.signer.SignatureAppearance;
+import com.techhf.capdf.signer.SignatureSizing;
+import com.techhf.capdf.signer.SigningCredential;
+import com.techhf.capdf.util.SignatureVerifier;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.junit.Test;
+
+import java.io.File;
+import java.security.PrivateKey;
+import java.security.cert.X509Certificate;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * 加密提供者配置测试
+ * 对比全部使用 BC 与 AUTO（按基准测试选择）两种配置的签名吞吐量，
+ * 并检查按操作指定提供者、AUTO 选择结果和未注册提供者的报错
+ * <p>
+ * 每种配置的签名次数可通过系统属性 capdf.providerBenchSignatures 调整（默认100）
+ */
+public class CryptoProvidersTest {
+
+    @Test
+    public void testProviderSelection() {
+        CryptoProviders original = CryptoProviders.getDefault();
+        try {
+            System.out.println("\n========== 加密提供者配置测试 ==========\n");
+
+            File outputDir = new File("test-output/crypto-providers");
+            if (!outputDir.exists()) {
+                outputDir.mkdirs();
+            }
+            int signatures = Integer.getInteger("capdf.providerBenchSignatures", 100);
+
+            System.out.println("【步骤1】生成测试文档和证书...");
+            File inputPdf = new File(outputDir, "test-unsigned.pdf");
+            try (PDDocument document = new PDDocument()) {
+                document.addPage(new PDPage(PDRectangle.A4));
+                document.save(inputPdf);
+            }
+            String rsaCertPath = new File(outputDir, "rsa.p12").getPath();
+            String ecCertPath = new File(outputDir, "ec.p12").getPath();
+            CertificateGenerator.generateSelfSignedCert("CN=RSA Provider Test,O=Example Company,C=CN",
+                    rsaCertPath, null, 1, KeyAlgorithm.RSA_2048);
+            CertificateGenerator.generateSelfSignedCert("CN=EC Provider Test,O=Example Company,C=CN",
+                    ecCertPath, null, 1, KeyAlgorithm.EC_P256);
+
+            System.out.println("\n【步骤2】对比 BC 与 AUTO 的签名吞吐量（每种 " + signatures + " 次）...");
+            CryptoProviders auto = CryptoProviders.auto();
+            for (String certPath : new String[]{rsaCertPath, ecCertPath}) {
+                SigningCredential credential = SigningCredential.load(certPath, new char[0]);
+                double bcRate = signaturesPerSecond(CryptoProviders.bouncyCastle(), credential, signatures);
+                double autoRate = signaturesPerSecond(auto, credential, signatures);
+                System.out.println(String.format("✓ %-16s BC %6.0f sigs/sec，AUTO(%s) %6.0f sigs/sec",
+                        SignatureAlgorithms.signatureAlgorithm(credential.getPrivateKey()), bcRate,
+                        auto.signatureProvider(credential.getPrivateKey()).getName(), autoRate));
+            }
+
+            System.out.println("\n【步骤3】AUTO 配置下签名并验证...");
+            CryptoProviders.setDefault(auto);
+            SigningCredential credential = SigningCredential.load(ecCertPath, new char[0]);
+            File signedPdf = new File(outputDir, "signed-auto.pdf");
+            PdfSigner.signPdf(inputPdf, signedPdf, credential, "Provider Test", "Beijing",
+                    SignatureAppearance.DEFAULT, null, SignatureSizing.ADAPTIVE);
+            SignatureVerifier.verifySignature(signedPdf);
+
+            Map<String, String> selections = auto.getAutoSelections();
+            for (Map.Entry<String, String> entry : selections.entrySet()) {
+                System.out.println("  " + entry.getKey() + " → " + entry.getValue());
+            }
+            assertTrue(selections.keySet().stream().anyMatch(k -> k.startsWith("SIGNATURE SHA256withECDSA")));
+            assertTrue(selections.keySet().stream().anyMatch(k -> k.startsWith("DIGEST SHA-256")));
+
+            System.out.println("\n【步骤4】按操作指定提供者...");
+            CryptoProviders jdk = CryptoProviders.bouncyCastle()
+                    .with(CryptoProviders.Operation.KEY_STORE, CryptoProviders.JCA_DEFAULT)
+                    .with(CryptoProviders.Operation.SIGNATURE, "SunRsaSign")
+                    .with(CryptoProviders.Operation.DIGEST, "SUN");
+            CryptoProviders.setDefault(jdk);
+            SigningCredential rsaCredential = SigningCredential.load(rsaCertPath, new char[0]);
+            assertEquals("SunRsaSign", jdk.signatureProvider(rsaCredential.getPrivateKey()).getName());
+            assertEquals("SUN", jdk.newMessageDigest("SHA-256").getProvider().getName());
+            File jdkSignedPdf = new File(outputDir, "signed-jdk.pdf");
+            PdfSigner.signPdf(inputPdf, jdkSignedPdf, rsaCredential, "Provider Test", "Beijing",
+                    SignatureAppearance.DEFAULT, null, SignatureSizing.ADAPTIVE);
+            System.out.println("✓ " + jdk);
+
+            try {
+                CryptoProviders.of("NoSuchProvider").newMessageDigest("SHA-256");
+                fail("未注册的提供者应报错");
+            } catch (IllegalStateException expected) {
+                System.out.println("✓ 未注册的提供者: " + expected.getMessage());
+            }
+
+            System.out.println("\n========== 测试完成 ==========\n");
+
+        } catch (Exception e) {
+            System.err.println("测试失败: " + e.getMessage());
+            e.printStackTrace();
+            throw new RuntimeException(e);
+        } finally {
+            CryptoProviders.setDefault(original);
+        }
+    }
+
+    /**
+     * 默认配置下密钥文件按 JCA 注册顺序加载，
+     * 检查 BC 和 JCA 默认提供者生成的证书文件（有无密码、带CA证书链）都能在默认配置下加载
+     */
+    @Test
+    public void testKeyStoreProviders() throws Exception {
+        CryptoProviders original = CryptoProviders.getDefault();
+        try {
+            System.out.println("\n========== 密钥文件提供者兼容性测试 ==========\n");
+
+            File outputDir = new File("test-output/crypto-providers");
+            if (!outputDir.exists()) {
+                outputDir.mkdirs();
+            }
+            assertEquals(CryptoProviders.JCA_DEFAULT, original.getSetting(CryptoProviders.Operation.KEY_STORE));
+
+            String[] keyStoreProviders = {"BC", CryptoProviders.JCA_DEFAULT};
+            String[] passwords = {"", "123456"};
+            for (String writer : keyStoreProviders) {
+                for (String password : passwords) {
+                    CryptoProviders.setDefault(original.with(CryptoProviders.Operation.KEY_STORE, writer));
+                    String name = writer + (password.isEmpty() ? "-nopass" : "-pass");
+                    String caPath = new File(outputDir, "ca-" + name + ".p12").getPath();
+                    String certPath = new File(outputDir, "user-" + name + ".p12").getPath();
+                    X509Certificate caCert = CertificateGenerator.generateCaCert(
+                            "CN=KeyStore Test CA,O=Example Company,C=CN", caPath, password, 1);
+                    PrivateKey caKey = SigningCredential.load(caPath, password.toCharArray()).getPrivateKey();
+                    X509Certificate userCert = CertificateGenerator.issueCert(
+                            "CN=KeyStore Test User,O=Example Company,C=CN", caCert, caKey,
+                            null, null, certPath, password, 1);
+
+                    for (String reader : keyStoreProviders) {
+                        if ("BC".equals(reader) && !"BC".equals(writer)) {
+                            // BC 读取 JDK 写出的文件：无密码时报 password empty，有密码时丢失证书链，
+                            // 默认配置因此不使用 BC 加载
+                            continue;
+                        }
+                        CryptoProviders.setDefault(original.with(CryptoProviders.Operation.KEY_STORE, reader));
+                        SigningCredential credential = SigningCredential.load(certPath, password.toCharArray());
+                        assertNotNull(credential.getPrivateKey());
+                        assertEquals(2, credential.getCertChain().length);
+                        assertEquals(userCert, credential.getCertChain()[0]);
+                        assertEquals(caCert, credential.getCertChain()[1]);
+                        System.out.println("✓ " + name + " 由 " + reader + " 加载成功");
+                    }
+                }
+            }
+
+            System.out.println("\n========== 测试完成 ==========\n");
+        } finally {
+            CryptoProviders.setDefault(original);
+        }
+    }
+
+    private static double signaturesPerSecond(CryptoProviders providers, SigningCredential credential,
+                                              int signatures) throws Exception {
+        CryptoProviders.setDefault(providers);
+        byte[] contentDigest = providers.newMessageDigest(
+                SignatureAlgorithms.digestAlgorithm(credential.getPrivateKey())).digest(new byte[1024]);
+        // 预热（AUTO 模式的基准测试也在这里完成）
+        for (int i = 0; i < 20; i++) {
+            CmsSignatureBuilder.build(contentDigest, credential.getPrivateKey(), credential.getCertChain(), null);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < signatures; i++) {
+            CmsSignatureBuilder.build(contentDigest, credential.getPrivateKey(), credential.getCertChain(), null);
+        }
+        return signatures / ((System.nanoTime() - start) / 1e9);
+    }
+}
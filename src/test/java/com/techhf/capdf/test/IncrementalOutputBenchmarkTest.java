@@ -0,0 +1,182 @@
+package com.techhf.capdf.test;
+
+import com.techhf.capdf.cert.CertificateGenerator;
+import com.techhf.capdf.cert.SignatureAlgorithms;
+import com.techhf.capdf.signer.CmsSignatureBuilder;
+import com.techhf.capdf.signer.PdfSigner;
+import com.techhf.capdf.signer.SignatureAppearance;
+import com.techhf.capdf.signer.SignatureSizing;
+import com.techhf.capdf.signer.SigningCredential;
+import org.apache.pdfbox.io.MemoryUsageSetting;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.common.PDStream;
+import org.apache.pdfbox.pdmodel.interactive.digitalsignature.PDSignature;
+import org.apache.pdfbox.pdmodel.interactive.digitalsignature.SignatureOptions;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Calendar;
+
+import static org.junit.Assert.*;
+
+/**
+ * 增量输出基准测试
+ * 对比 PDFBox saveIncremental（经用户态流复制原文档）与零拷贝输出（transferTo + 位置写入）
+ * 的签名耗时和经 JVM 写出的字节数
+ * <p>
+ * 文件大小可通过系统属性 capdf.benchPdfMb 调整（默认 128MB），轮数通过 capdf.benchRounds 调整（默认 3）
+ */
+public class IncrementalOutputBenchmarkTest {
+
+    @Test
+    public void testIncrementalOutput() {
+        File inputPdf = null;
+        File streamPdf = null;
+        File zeroCopyPdf = null;
+        try {
+            System.out.println("\n========== 增量输出基准测试 ==========\n");
+
+            File outputDir = new File("test-output/incremental-output");
+            if (!outputDir.exists()) {
+                outputDir.mkdirs();
+            }
+
+            long sizeMb = Long.getLong("capdf.benchPdfMb", 128L);
+            int rounds = Integer.getInteger("capdf.benchRounds", 3);
+
+            System.out.println("【步骤1】生成 " + sizeMb + " MB 测试文档和证书...");
+            inputPdf = new File(outputDir, "bench-unsigned.pdf");
+            createLargePdf(inputPdf, sizeMb * 1024 * 1024);
+            String certPath = new File(outputDir, "bench.p12").getPath();
+            CertificateGenerator.generateSelfSignedCert("CN=Bench Signer,O=Example Company,C=CN", certPath, null, 1);
+            SigningCredential credential = SigningCredential.load(certPath, new char[0]);
+
+            streamPdf = new File(outputDir, "bench-signed-stream.pdf");
+            zeroCopyPdf = new File(outputDir, "bench-signed-zero-copy.pdf");
+
+            // 预热
+            signWithSaveIncremental(inputPdf, streamPdf, credential);
+            PdfSigner.signPdf(inputPdf, zeroCopyPdf, credential, "Bench", "Beijing",
+                    SignatureAppearance.DEFAULT, null, SignatureSizing.ADAPTIVE);
+
+            System.out.println("\n【步骤2】saveIncremental（流式复制）...");
+            long streamMillis = Long.MAX_VALUE;
+            long streamBytes = 0;
+            for (int i = 0; i < rounds; i++) {
+                long start = System.nanoTime();
+                streamBytes = signWithSaveIncremental(inputPdf, streamPdf, credential);
+                streamMillis = Math.min(streamMillis, (System.nanoTime() - start) / 1_000_000);
+            }
+            System.out.println("✓ 最快 " + streamMillis + " ms，经 JVM 写出 " + streamBytes + " bytes");
+
+            System.out.println("\n【步骤3】零拷贝输出（transferTo + 位置写入）...");
+            long zeroCopyMillis = Long.MAX_VALUE;
+            for (int i = 0; i < rounds; i++) {
+                long start = System.nanoTime();
+                PdfSigner.signPdf(inputPdf, zeroCopyPdf, credential, "Bench", "Beijing",
+                        SignatureAppearance.DEFAULT, null, SignatureSizing.ADAPTIVE);
+                zeroCopyMillis = Math.min(zeroCopyMillis, (System.nanoTime() - start) / 1_000_000);
+            }
+            long zeroCopyBytes = zeroCopyPdf.length() - inputPdf.length();
+            System.out.println("✓ 最快 " + zeroCopyMillis + " ms，经 JVM 写出 " + zeroCopyBytes
+                    + " bytes（另有 " + inputPdf.length() + " bytes 由 transferTo 复制）");
+
+            System.out.println(String.format("\n✓ 耗时比 %.2fx，JVM 写出字节减少 %d 倍",
+                    (double) streamMillis / zeroCopyMillis, streamBytes / Math.max(1, zeroCopyBytes)));
+
+            // 签名正确性：最后一个签名覆盖整个文件
+            try (PDDocument doc = PDDocument.load(zeroCopyPdf, MemoryUsageSetting.setupTempFileOnly())) {
+                int[] byteRange = doc.getLastSignatureDictionary().getByteRange();
+                assertEquals(zeroCopyPdf.length(), (long) byteRange[2] + byteRange[3]);
+            }
+            assertTrue(zeroCopyBytes < 1024 * 1024);
+
+            System.out.println("\n========== 测试完成 ==========\n");
+
+        } catch (Exception e) {
+            System.err.println("测试失败: " + e.getMessage());
+            e.printStackTrace();
+            throw new RuntimeException(e);
+        } finally {
+            for (File file : new File[]{inputPdf, streamPdf, zeroCopyPdf}) {
+                if (file != null) {
+                    file.delete();
+                }
+            }
+        }
+    }
+
+    /**
+     * 对照组：PDFBox saveIncremental 写入普通文件流（不可见签名）
+     *
+     * @return 经 JVM 写出的字节数
+     */
+    private static long signWithSaveIncremental(File inputPdf, File outputPdf, SigningCredential credential)
+            throws Exception {
+        try (PDDocument doc = PDDocument.load(inputPdf, MemoryUsageSetting.setupMixed(32L * 1024 * 1024));
+             CountingOutputStream out = new CountingOutputStream(new FileOutputStream(outputPdf));
+             SignatureOptions options = new SignatureOptions()) {
+            PDSignature signature = new PDSignature();
+            signature.setFilter(PDSignature.FILTER_ADOBE_PPKLITE);
+            signature.setSubFilter(PDSignature.SUBFILTER_ADBE_PKCS7_DETACHED);
+            signature.setSignDate(Calendar.getInstance());
+            options.setPreferredSignatureSize(4096);
+            doc.addSignature(signature, content -> {
+                try {
+                    return CmsSignatureBuilder.build(CmsSignatureBuilder.digest(content,
+                            SignatureAlgorithms.digestAlgorithm(credential.getPrivateKey())),
+                            credential.getPrivateKey(), credential.getCertChain(), false);
+                } catch (Exception e) {
+                    throw new IOException(e);
+                }
+            }, options);
+            doc.saveIncremental(out);
+            return out.count;
+        }
+    }
+
+    private static void createLargePdf(File outputFile, long contentBytes) throws Exception {
+        byte[] line = "% padding padding padding padding padding padding padding padding padding\n"
+                .getBytes(StandardCharsets.US_ASCII);
+        try (PDDocument document = new PDDocument(MemoryUsageSetting.setupTempFileOnly())) {
+            PDPage page = new PDPage(PDRectangle.A4);
+            document.addPage(page);
+
+            PDStream contents = new PDStream(document);
+            try (OutputStream out = contents.createOutputStream()) {
+                for (long written = 0; written < contentBytes; written += line.length) {
+                    out.write(line);
+                }
+            }
+            page.setContents(contents);
+            document.save(outputFile);
+        }
+    }
+
+    private static final class CountingOutputStream extends FilterOutputStream {
+        private long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+}
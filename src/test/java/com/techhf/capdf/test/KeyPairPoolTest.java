@@ -0,0 +1,102 @@
+package com.techhf.capdf.test;
+
+import com.techhf.capdf.cert.CertificateGenerator;
+import com.techhf.capdf.cert.KeyAlgorithm;
+import com.techhf.capdf.cert.KeyPairPool;
+import org.junit.Test;
+
+import java.io.File;
+import java.security.KeyPair;
+import java.security.PublicKey;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * 预生成密钥对池测试
+ * 对比从池中取密钥和直接生成密钥时的证书签发耗时，检查池空时直接生成、低水位补充和统计数据
+ * <p>
+ * 池容量可通过系统属性 capdf.keyPoolSize 调整（默认8）
+ */
+public class KeyPairPoolTest {
+
+    @Test
+    public void testKeyPairPool() {
+        KeyPairPool previous = KeyPairPool.getDefault();
+        try {
+            System.out.println("\n========== 预生成密钥对池测试 ==========\n");
+
+            File outputDir = new File("test-output/key-pool");
+            if (!outputDir.exists()) {
+                outputDir.mkdirs();
+            }
+            int capacity = Integer.getInteger("capdf.keyPoolSize", 8);
+            int issued = Math.max(1, capacity / 2);
+
+            System.out.println("【步骤1】直接生成密钥签发 " + issued + " 张证书...");
+            KeyPairPool.setDefault(null);
+            long start = System.nanoTime();
+            for (int i = 0; i < issued; i++) {
+                CertificateGenerator.generateSelfSignedCert("CN=Inline User " + i + ",O=Example Company,C=CN",
+                        new File(outputDir, "inline-" + i + ".p12").getPath(), null, 1);
+            }
+            double inlineMillis = (System.nanoTime() - start) / 1e6 / issued;
+            System.out.println(String.format("✓ 平均 %.1f ms/张", inlineMillis));
+
+            try (KeyPairPool pool = new KeyPairPool(KeyAlgorithm.RSA_2048, capacity, capacity / 2, 2)) {
+                System.out.println("\n【步骤2】预热密钥池...");
+                assertTrue("密钥池应在超时前填满", pool.awaitFull(2, TimeUnit.MINUTES));
+                assertEquals(capacity, pool.getDepth());
+                assertTrue(pool.getRefillRate() > 0);
+                System.out.println("✓ " + pool);
+
+                System.out.println("\n【步骤3】从池中取密钥签发 " + issued + " 张证书...");
+                KeyPairPool.setDefault(pool);
+                start = System.nanoTime();
+                for (int i = 0; i < issued; i++) {
+                    CertificateGenerator.generateSelfSignedCert("CN=Pooled User " + i + ",O=Example Company,C=CN",
+                            new File(outputDir, "pooled-" + i + ".p12").getPath(), null, 1);
+                }
+                double pooledMillis = (System.nanoTime() - start) / 1e6 / issued;
+                assertEquals(issued, pool.getTakenCount());
+                assertEquals(0, pool.getFallbackCount());
+                System.out.println(String.format("✓ 平均 %.1f ms/张（直接生成 %.1f ms/张）", pooledMillis, inlineMillis));
+
+                System.out.println("\n【步骤4】取空后直接生成...");
+                Set<PublicKey> keys = new HashSet<>();
+                for (int i = 0; i < capacity * 2; i++) {
+                    KeyPair keyPair = pool.take();
+                    assertNotNull(keyPair);
+                    keys.add(keyPair.getPublic());
+                }
+                assertEquals("每个密钥对只使用一次", capacity * 2, keys.size());
+                assertTrue("超出池容量的部分直接生成", pool.getFallbackCount() > 0);
+                assertEquals(issued + capacity * 2, pool.getTakenCount() + pool.getFallbackCount());
+                System.out.println("✓ " + pool);
+
+                System.out.println("\n【步骤5】低于低水位后自动补充...");
+                assertTrue(pool.awaitFull(2, TimeUnit.MINUTES));
+                assertEquals(capacity, pool.getDepth());
+                assertTrue(pool.getGeneratedCount() >= capacity * 2L);
+                System.out.println("✓ " + pool);
+
+                System.out.println("\n【步骤6】密钥类型不一致时直接生成...");
+                KeyPair ec = KeyPairPool.nextKeyPair(KeyAlgorithm.EC_P256);
+                assertEquals("EC", ec.getPublic().getAlgorithm());
+                assertEquals(capacity, pool.getDepth());
+                System.out.println("✓ EC_P256 未从 RSA_2048 池中取");
+            }
+
+            System.out.println("\n========== 测试完成 ==========\n");
+
+        } catch (Exception e) {
+            System.err.println("测试失败: " + e.getMessage());
+            e.printStackTrace();
+            throw new RuntimeException(e);
+        } finally {
+            KeyPairPool.setDefault(previous);
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.techhf.capdf.test;
+
+import com.techhf.capdf.cert.CertificateGenerator;
+import com.techhf.capdf.signer.PdfSigner;
+import com.techhf.capdf.signer.SignatureAppearance;
+import com.techhf.capdf.signer.SignatureSizing;
+import com.techhf.capdf.signer.SigningCredential;
+import com.techhf.capdf.signer.SigningCredentialStore;
+import com.techhf.capdf.util.MemoryPolicy;
+import org.apache.pdfbox.io.MemoryUsageSetting;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.common.PDStream;
+import org.apache.pdfbox.pdmodel.interactive.digitalsignature.PDSignature;
+import org.bouncycastle.asn1.ASN1OctetString;
+import org.bouncycastle.asn1.cms.Attribute;
+import org.bouncycastle.asn1.cms.CMSAttributes;
+import org.bouncycastle.cert.X509CertificateHolder;
+import org.bouncycastle.cms.CMSSignedData;
+import org.bouncycastle.cms.SignerInformation;
+import org.bouncycastle.cms.jcajce.JcaSimpleSignerInfoVerifierBuilder;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+/**
+ * 大文件签名测试
+ * 在较小的堆（surefire 单独的 large-pdf-small-heap 执行配置 -Xmx256m）下签名超过堆大小的PDF，验证签名过程内存占用恒定
+ * <p>
+ * 文件大小可通过系统属性 capdf.largePdfMb 调整（默认 320MB）
+ */
+public class LargePdfSignTest {
+
+    @Test
+    public void testSignLargePdfWithSmallHeap() {
+        File inputPdf = null;
+        File outputPdf = null;
+        try {
+            System.out.println("\n========== 大文件签名测试 ==========\n");
+
+            File outputDir = new File("test-output/large-pdf");
+            if (!outputDir.exists()) {
+                outputDir.mkdirs();
+            }
+
+            long sizeMb = Long.getLong("capdf.largePdfMb", 320L);
+            long maxHeapMb = Runtime.getRuntime().maxMemory() / (1024 * 1024);
+            System.out.println("最大堆: " + maxHeapMb + " MB，目标文件大小: " + sizeMb + " MB");
+
+            System.out.println("【步骤1】生成测试证书...");
+            String certPath = new File(outputDir, "test-cert.p12").getPath();
+            CertificateGenerator.generateSelfSignedCert("CN=Large File Signer,O=Example Company,C=CN",
+                    certPath, "123456", 1);
+
+            System.out.println("\n【步骤2】生成大PDF...");
+            inputPdf = new File(outputDir, "large-unsigned.pdf");
+            createLargePdf(inputPdf, sizeMb * 1024 * 1024);
+            System.out.println("✓ PDF大小: " + inputPdf.length() / (1024 * 1024) + " MB");
+
+            System.out.println("\n【步骤3】签名大PDF...");
+            outputPdf = new File(outputDir, "large-signed.pdf");
+            long start = System.currentTimeMillis();
+            // 默认策略只使用堆内存，超过堆大小的文档需要显式选择混合模式
+            SigningCredential credential = SigningCredentialStore.shared().get(certPath, "123456");
+            PdfSigner.signPdf(inputPdf, outputPdf, credential, "Large File Test", "Beijing",
+                    SignatureAppearance.ofImage(null), null, SignatureSizing.ADAPTIVE,
+                    MemoryPolicy.mixed(MemoryPolicy.DEFAULT_MAX_MAIN_MEMORY_BYTES));
+            System.out.println("✓ 签名完成，耗时: " + (System.currentTimeMillis() - start) + " ms");
+
+            System.out.println("\n【步骤4】校验签名摘要...");
+            verifyDigest(outputPdf);
+            System.out.println("✓ ByteRange 摘要与 messageDigest 一致，签名值有效");
+
+            System.out.println("\n========== 测试完成 ==========\n");
+
+        } catch (Exception e) {
+            System.err.println("测试失败: " + e.getMessage());
+            e.printStackTrace();
+            throw new RuntimeException(e);
+        } finally {
+            if (inputPdf != null) {
+                inputPdf.delete();
+            }
+            if (outputPdf != null) {
+                outputPdf.delete();
+            }
+        }
+    }
+
+    /**
+     * 生成一个单页、内容流为指定大小的PDF（内容流数据只经过临时文件）
+     */
+    private static void createLargePdf(File outputFile, long contentBytes) throws Exception {
+        byte[] line = "% padding padding padding padding padding padding padding padding padding\n"
+                .getBytes(StandardCharsets.US_ASCII);
+        try (PDDocument document = new PDDocument(MemoryUsageSetting.setupTempFileOnly())) {
+            PDPage page = new PDPage(PDRectangle.A4);
+            document.addPage(page);
+
+            PDStream contents = new PDStream(document);
+            try (OutputStream out = contents.createOutputStream()) {
+                for (long written = 0; written < contentBytes; written += line.length) {
+                    out.write(line);
+                }
+            }
+            page.setContents(contents);
+            document.save(outputFile);
+        }
+    }
+
+    /**
+     * 按 ByteRange 流式计算摘要并与CMS中的 messageDigest 比较
+     */
+    private static void verifyDigest(File signedPdf) throws Exception {
+        PDSignature signature;
+        try (PDDocument doc = PDDocument.load(signedPdf, MemoryUsageSetting.setupTempFileOnly())) {
+            signature = doc.getLastSignatureDictionary();
+        }
+        assertNotNull(signature);
+        int[] byteRange = signature.getByteRange();
+        assertEquals(signedPdf.length(), (long) byteRange[2] + byteRange[3]);
+
+        MessageDigest md = MessageDigest.getInstance("SHA-256");
+        byte[] buffer = new byte[64 * 1024];
+        try (RandomAccessFile raf = new RandomAccessFile(signedPdf, "r")) {
+            for (int i = 0; i < byteRange.length; i += 2) {
+                raf.seek(byteRange[i]);
+                long remaining = byteRange[i + 1];
+                while (remaining > 0) {
+                    int n = raf.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+                    md.update(buffer, 0, n);
+                    remaining -= n;
+                }
+            }
+        }
+        byte[] actualDigest = md.digest();
+
+        // 使用预计算摘要构造 detached CMS，避免再次读取内容
+        CMSSignedData cms = new CMSSignedData(signature.getContents());
+        String digestOid = cms.getSignerInfos().getSigners().iterator().next().getDigestAlgOID();
+        cms = new CMSSignedData(Collections.singletonMap(digestOid, actualDigest), signature.getContents());
+        SignerInformation signerInfo = cms.getSignerInfos().getSigners().iterator().next();
+        Attribute digestAttr = signerInfo.getSignedAttributes().get(CMSAttributes.messageDigest);
+        byte[] signedDigest = ASN1OctetString.getInstance(digestAttr.getAttrValues().getObjectAt(0)).getOctets();
+        assertTrue("ByteRange摘要不一致", Arrays.equals(actualDigest, signedDigest));
+
+        @SuppressWarnings("unchecked")
+        X509CertificateHolder certHolder = (X509CertificateHolder) cms.getCertificates()
+                .getMatches(signerInfo.getSID()).iterator().next();
+        assertTrue("签名值无效",
+                signerInfo.verify(new JcaSimpleSignerInfoVerifierBuilder().setProvider("BC").build(certHolder)));
+    }
+}
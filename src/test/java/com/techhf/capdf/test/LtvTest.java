@@ -0,0 +1,200 @@
+package com.techhf.capdf.test;
+
+import com.techhf.capdf.cert.CertificateGenerator;
+import com.techhf.capdf.ltv.OcspResponder;
+import com.techhf.capdf.ltv.RevocationCache;
+import com.techhf.capdf.ltv.RevocationClient;
+import com.techhf.capdf.ltv.RevocationServer;
+import com.techhf.capdf.signer.BatchSigningEngine;
+import com.techhf.capdf.signer.LtvEnabler;
+import com.techhf.capdf.signer.PdfSigner;
+import com.techhf.capdf.signer.SignJob;
+import com.techhf.capdf.signer.SignJobResult;
+import com.techhf.capdf.signer.SigningCredential;
+import com.techhf.capdf.util.ByteRangeDigest;
+import com.techhf.capdf.util.MemoryPolicy;
+import org.apache.pdfbox.cos.COSArray;
+import org.apache.pdfbox.cos.COSDictionary;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.interactive.digitalsignature.PDSignature;
+import org.bouncycastle.cert.X509CertificateHolder;
+import org.bouncycastle.cms.CMSSignedData;
+import org.bouncycastle.cms.SignerInformation;
+import org.bouncycastle.cms.jcajce.JcaSimpleSignerInfoVerifierBuilder;
+import org.junit.Test;
+
+import java.io.File;
+import java.math.BigInteger;
+import java.security.cert.X509Certificate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.*;
+
+/**
+ * PAdES-LTV 测试
+ * 本地CA签发带OCSP/CRL地址的签名证书，经本地吊销信息服务嵌入DSS，
+ * 检查去重、缓存命中、nextUpdate过期和签名完整性
+ * <p>
+ * 批量文档数可通过系统属性 capdf.ltvBatchDocuments 调整（默认8）
+ */
+public class LtvTest {
+
+    @Test
+    public void testLtv() {
+        try {
+            System.out.println("\n========== PAdES-LTV 测试 ==========\n");
+
+            File outputDir = new File("test-output/ltv");
+            if (!outputDir.exists()) {
+                outputDir.mkdirs();
+            }
+            int batchDocuments = Integer.getInteger("capdf.ltvBatchDocuments", 8);
+
+            try (RevocationServer server = new RevocationServer().start()) {
+                System.out.println("【步骤1】生成CA、CRL，签发签名证书...");
+                String caPath = new File(outputDir, "ca.p12").getPath();
+                X509Certificate caCert = CertificateGenerator.generateCaCert(
+                        "CN=Test Root CA,O=Example Company,C=CN", caPath, null, 5);
+                SigningCredential ca = SigningCredential.load(caPath, new char[0]);
+                OcspResponder responder = new OcspResponder(caCert, ca.getPrivateKey());
+                server.setOcspResponder(responder);
+
+                File crlFile = new File(outputDir, "ca.crl");
+                CertificateGenerator.generateCrl(caCert, ca.getPrivateKey(),
+                        Collections.singletonList(BigInteger.valueOf(12345)),
+                        new Date(System.currentTimeMillis() + 3600_000L), crlFile.getPath());
+                server.addCrl("ca.crl", crlFile);
+
+                // 签名人A：OCSP + CRL；签名人B：只有CRL
+                String pathA = new File(outputDir, "signer-a.p12").getPath();
+                String pathB = new File(outputDir, "signer-b.p12").getPath();
+                X509Certificate certA = CertificateGenerator.issueCert("CN=Signer A,O=Example Company,C=CN",
+                        caCert, ca.getPrivateKey(), server.getOcspUrl(), server.getCrlUrl("ca.crl"), pathA, null, 1);
+                CertificateGenerator.issueCert("CN=Signer B,O=Example Company,C=CN",
+                        caCert, ca.getPrivateKey(), null, server.getCrlUrl("ca.crl"), pathB, null, 1);
+                SigningCredential signerA = SigningCredential.load(pathA, new char[0]);
+                SigningCredential signerB = SigningCredential.load(pathB, new char[0]);
+                assertEquals(server.getOcspUrl(), RevocationClient.getOcspUrl(certA));
+                assertEquals(2, signerA.getCertChain().length);
+                System.out.println("✓ CA、CRL 和两张签名证书已生成");
+
+                System.out.println("\n【步骤2】两人会签后嵌入长期验证信息...");
+                File inputPdf = new File(outputDir, "test-unsigned.pdf");
+                try (PDDocument document = new PDDocument()) {
+                    document.addPage(new PDPage(PDRectangle.A4));
+                    document.save(inputPdf);
+                }
+                File signedOnce = new File(outputDir, "signed-a.pdf");
+                File signedTwice = new File(outputDir, "signed-ab.pdf");
+                PdfSigner.signPdf(inputPdf, signedOnce, signerA, "LTV Test", "Beijing", (String) null, true);
+                PdfSigner.signPdf(signedOnce, signedTwice, signerB, "LTV Test", "Beijing", (String) null, true);
+
+                RevocationCache cache = new RevocationCache();
+                File ltvPdf = new File(outputDir, "signed-ab-ltv.pdf");
+                long start = System.currentTimeMillis();
+                int added = LtvEnabler.addValidationInformation(signedTwice, ltvPdf, cache, MemoryPolicy.getDefault());
+                System.out.println("✓ " + added + " 个签名，耗时 " + (System.currentTimeMillis() - start)
+                        + " ms，OCSP请求 " + server.getOcspRequestCount() + " 次，CRL请求 "
+                        + server.getCrlRequestCount() + " 次");
+                assertEquals(2, added);
+                assertEquals(1, server.getOcspRequestCount());
+                assertEquals(1, server.getCrlRequestCount());
+
+                System.out.println("\n【步骤3】检查DSS去重和签名完整性...");
+                try (PDDocument doc = PDDocument.load(ltvPdf)) {
+                    COSDictionary dss = doc.getDocumentCatalog().getCOSObject()
+                            .getCOSDictionary(COSName.getPDFName("DSS"));
+                    assertNotNull("应有DSS字典", dss);
+                    int certs = size(dss, "Certs");
+                    System.out.println("✓ DSS: 证书 " + certs + "，OCSP " + size(dss, "OCSPs")
+                            + "，CRL " + size(dss, "CRLs") + "，VRI " + dss.getCOSDictionary(COSName.getPDFName("VRI")).size());
+                    // A、B、CA 各一份，加上时间戳证书；CA证书两个签名共用
+                    assertEquals(4, certs);
+                    assertEquals(1, size(dss, "OCSPs"));
+                    assertEquals(1, size(dss, "CRLs"));
+                    assertEquals(2, dss.getCOSDictionary(COSName.getPDFName("VRI")).size());
+                }
+                assertSignaturesIntact(ltvPdf);
+                System.out.println("✓ 两个签名仍然完整，DSS位于最后一个签名之后的增量更新中");
+
+                assertEquals(0, LtvEnabler.addValidationInformation(ltvPdf, ltvPdf, cache, MemoryPolicy.getDefault()));
+                System.out.println("✓ 已有VRI的文档不重复处理");
+
+                System.out.println("\n【步骤4】" + batchDocuments + " 个文档批量签名 + LTV，共享缓存...");
+                int ocspBefore = server.getOcspRequestCount();
+                int crlBefore = server.getCrlRequestCount();
+                List<Future<SignJobResult>> futures = new ArrayList<>();
+                start = System.currentTimeMillis();
+                try (BatchSigningEngine engine = new BatchSigningEngine(4, 16)) {
+                    for (int i = 0; i < batchDocuments; i++) {
+                        futures.add(engine.submit(SignJob.withCredential(inputPdf,
+                                new File(outputDir, "batch-" + i + ".pdf"), signerA)
+                                .reason("LTV Batch").ltv(true).revocationCache(cache)));
+                    }
+                    for (Future<SignJobResult> future : futures) {
+                        SignJobResult result = future.get();
+                        assertTrue(String.valueOf(result.getError()), result.isSuccess());
+                    }
+                }
+                System.out.println("✓ 耗时 " + (System.currentTimeMillis() - start) + " ms，新增OCSP请求 "
+                        + (server.getOcspRequestCount() - ocspBefore) + " 次，缓存命中 " + cache.getHitCount()
+                        + "，实际获取 " + cache.getFetchCount());
+                assertEquals(ocspBefore, server.getOcspRequestCount());
+                assertEquals(crlBefore, server.getCrlRequestCount());
+                assertSignaturesIntact(new File(outputDir, "batch-0.pdf"));
+
+                System.out.println("\n【步骤5】OCSP应答在 nextUpdate 后过期...");
+                RevocationCache shortLived = new RevocationCache();
+                // OCSP时间精确到秒，有效期取3秒
+                responder.setValidityMillis(3000);
+                shortLived.get(certA, caCert);
+                shortLived.get(certA, caCert);
+                assertEquals(1, shortLived.getFetchCount());
+                Thread.sleep(3100);
+                shortLived.get(certA, caCert);
+                assertEquals(2, shortLived.getFetchCount());
+                System.out.println("✓ 过期前命中缓存，过期后重新查询");
+            }
+
+            System.out.println("\n========== 测试完成 ==========\n");
+
+        } catch (Exception e) {
+            System.err.println("测试失败: " + e.getMessage());
+            e.printStackTrace();
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static int size(COSDictionary dss, String key) {
+        COSArray array = dss.getCOSArray(COSName.getPDFName(key));
+        return array != null ? array.size() : 0;
+    }
+
+    /**
+     * 按 ByteRange 重新计算摘要并校验每个签名
+     */
+    private static void assertSignaturesIntact(File pdf) throws Exception {
+        try (PDDocument doc = PDDocument.load(pdf)) {
+            long lastEnd = 0;
+            for (PDSignature signature : doc.getSignatureDictionaries()) {
+                int[] byteRange = signature.getByteRange();
+                byte[] digest = ByteRangeDigest.digest(pdf, byteRange, "SHA-256");
+                CMSSignedData signedData = new CMSSignedData(Collections.singletonMap(
+                        "2.16.840.1.101.3.4.2.1", digest), signature.getContents());
+                SignerInformation signer = signedData.getSignerInfos().getSigners().iterator().next();
+                X509CertificateHolder cert = (X509CertificateHolder) signedData.getCertificates()
+                        .getMatches(signer.getSID()).iterator().next();
+                assertTrue(signer.verify(new JcaSimpleSignerInfoVerifierBuilder().setProvider("BC").build(cert)));
+                lastEnd = Math.max(lastEnd, (long) byteRange[2] + byteRange[3]);
+            }
+            assertTrue("DSS应在最后一个签名之后", pdf.length() > lastEnd);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.techhf.capdf.test;
+
+import com.techhf.capdf.cert.CertificateGenerator;
+import com.techhf.capdf.signer.BatchSigningEngine;
+import com.techhf.capdf.signer.SignJob;
+import com.techhf.capdf.signer.SignJobResult;
+import com.techhf.capdf.util.HeapPeakTracker;
+import com.techhf.capdf.util.ThreadAllocationTracker;
+import com.techhf.capdf.util.MemoryPolicy;
+import com.techhf.capdf.util.SignatureVerifier;
+import org.apache.pdfbox.io.MemoryUsageSetting;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.common.PDStream;
+import org.apache.pdfbox.pdmodel.interactive.digitalsignature.PDSignature;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.*;
+
+/**
+ * 内存策略测试
+ * 分别以堆内存、混合、临时文件三种策略签名和验证同一文档，输出各自的堆内存峰值
+ * <p>
+ * 文档内容流大小可通过系统属性 capdf.memoryPolicyPdfMb 调整（默认 48MB）
+ */
+public class MemoryPolicyTest {
+
+    @Test
+    public void testSignAndVerifyWithPolicies() {
+        try {
+            System.out.println("\n========== 内存策略测试 ==========\n");
+
+            File outputDir = new File("test-output/memory-policy");
+            File scratchDir = new File(outputDir, "scratch");
+            if (!scratchDir.exists()) {
+                scratchDir.mkdirs();
+            }
+
+            long sizeMb = Long.getLong("capdf.memoryPolicyPdfMb", 48L);
+
+            System.out.println("【步骤1】生成 " + sizeMb + " MB 测试文档和证书...");
+            File inputPdf = new File(outputDir, "test-unsigned.pdf");
+            createPdf(inputPdf, sizeMb * 1024 * 1024);
+            String certPath = new File(outputDir, "test.p12").getPath();
+            CertificateGenerator.generateSelfSignedCert("CN=Memory Test,O=Example Company,C=CN", certPath, null, 1);
+
+            MemoryPolicy[] policies = {
+                    MemoryPolicy.mainMemoryOnly(),
+                    MemoryPolicy.mixed(4L * 1024 * 1024).withScratchDir(scratchDir),
+                    MemoryPolicy.tempFileOnly().withScratchDir(scratchDir)
+            };
+
+            System.out.println("\n【步骤2】按不同策略签名...");
+            try (BatchSigningEngine engine = new BatchSigningEngine(1, 4)) {
+                for (MemoryPolicy policy : policies) {
+                    File outputPdf = new File(outputDir, "signed-" + policy.getMode().name().toLowerCase() + ".pdf");
+                    System.gc();
+                    // 逐个签名，进程级峰值即为该文档的峰值
+                    HeapPeakTracker heap = HeapPeakTracker.start();
+                    SignJobResult result = engine.submit(SignJob.withCertificate(inputPdf, outputPdf, certPath, null)
+                            .reason("Memory Test")
+                            .memoryPolicy(policy)).get();
+                    assertTrue(String.valueOf(result.getError()), result.isSuccess());
+                    long peakBytes = heap.getPeakBytes();
+                    assertTrue(peakBytes > 0);
+                    if (ThreadAllocationTracker.isSupported()) {
+                        assertTrue(result.getAllocatedBytes() > 0);
+                    }
+                    System.out.println("✓ " + policy + ": 签名 " + result.getSignMillis() + " ms，堆峰值 "
+                            + HeapPeakTracker.toMegabytes(peakBytes) + "，工作线程累计分配 "
+                            + ThreadAllocationTracker.toMegabytes(result.getAllocatedBytes()));
+
+                    try (PDDocument doc = policy.load(outputPdf)) {
+                        PDSignature signature = doc.getLastSignatureDictionary();
+                        int[] byteRange = signature.getByteRange();
+                        assertEquals(outputPdf.length(), (long) byteRange[2] + byteRange[3]);
+                    }
+                }
+            }
+
+            System.out.println("\n【步骤3】按临时文件策略验证...");
+            File signedPdf = new File(outputDir, "signed-temp_file.pdf");
+            SignatureVerifier.verifySignature(signedPdf, MemoryPolicy.tempFileOnly().withScratchDir(scratchDir));
+
+            // 默认策略只使用堆内存，混合和临时文件模式需要显式选择
+            assertEquals(MemoryPolicy.Mode.MAIN_MEMORY, MemoryPolicy.getDefault().getMode());
+
+            System.out.println("\n========== 测试完成 ==========\n");
+
+        } catch (Exception e) {
+            System.err.println("测试失败: " + e.getMessage());
+            e.printStackTrace();
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * 生成一个单页、内容流为指定大小的PDF
+     */
+    private static void createPdf(File outputFile, long contentBytes) throws Exception {
+        byte[] line = "% padding padding padding padding padding padding padding padding padding\n"
+                .getBytes(StandardCharsets.US_ASCII);
+        try (PDDocument document = new PDDocument(MemoryUsageSetting.setupTempFileOnly())) {
+            PDPage page = new PDPage(PDRectangle.A4);
+            document.addPage(page);
+
+            PDStream contents = new PDStream(document);
+            try (OutputStream out = contents.createOutputStream()) {
+                for (long written = 0; written < contentBytes; written += line.length) {
+                    out.write(line);
+                }
+            }
+            page.setContents(contents);
+            document.save(outputFile);
+        }
+    }
+}
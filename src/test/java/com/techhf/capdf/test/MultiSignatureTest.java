@@ -0,0 +1,187 @@
+package com.techhf.capdf.test;
+
+import com.techhf.capdf.cert.CertificateGenerator;
+import com.techhf.capdf.signer.PdfSigner;
+import com.techhf.capdf.signer.SignatureAppearance;
+import com.techhf.capdf.signer.SignatureStep;
+import com.techhf.capdf.signer.SigningCredential;
+import com.techhf.capdf.tsa.TimestampClient;
+import com.techhf.capdf.util.SignImageGenerator;
+import com.techhf.capdf.util.SimplePdfCreator;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.interactive.digitalsignature.PDSignature;
+import org.bouncycastle.cert.X509CertificateHolder;
+import org.bouncycastle.cms.CMSSignedData;
+import org.bouncycastle.cms.SignerInformation;
+import org.bouncycastle.cms.jcajce.JcaSimpleSignerInfoVerifierBuilder;
+import org.bouncycastle.tsp.TSPAlgorithms;
+import org.bouncycastle.tsp.TimeStampToken;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * 多重签名测试
+ * 三个签名人依次签署同一文档，每个签名都覆盖之前的全部修订版本
+ */
+public class MultiSignatureTest {
+
+    @Test
+    public void testSequentialSignatures() {
+        try {
+            System.out.println("\n========== 多重签名测试 ==========\n");
+
+            File outputDir = new File("test-output/multi-sign");
+            if (!outputDir.exists()) {
+                outputDir.mkdirs();
+            }
+
+            System.out.println("【步骤1】准备三个签名人的证书和签章...");
+            String[] signers = {"Finance", "Legal", "Director"};
+            List<SignatureStep> steps = new ArrayList<>();
+            for (int i = 0; i < signers.length; i++) {
+                String certPath = new File(outputDir, signers[i].toLowerCase() + ".p12").getPath();
+                CertificateGenerator.generateSelfSignedCert("CN=" + signers[i] + ",O=Example Company,C=CN",
+                        certPath, null, 1);
+                String sealPath = new File(outputDir, signers[i].toLowerCase() + "-seal.png").getPath();
+                SignImageGenerator.generateSealImage(signers[i], sealPath, 200, 200);
+
+                steps.add(SignatureStep.of(SigningCredential.load(certPath, new char[0]))
+                        .reason(signers[i] + " Approval")
+                        .location("Beijing")
+                        .appearance(SignatureAppearance.ofImage(sealPath).onPage(0).at(60 + i * 170, 60, 120, 120))
+                        .addTimestamp(i == signers.length - 1));
+            }
+
+            File inputPdf = new File(outputDir, "test-unsigned.pdf");
+            SimplePdfCreator.createSimplePdf(inputPdf, "Multi signature test");
+
+            System.out.println("\n【步骤2】依次施加三个签名...");
+            File outputPdf = new File(outputDir, "signed-multi.pdf");
+            PdfSigner.signPdf(inputPdf, outputPdf, steps);
+            System.out.println("✓ 输出文件: " + outputPdf.length() + " bytes");
+
+            System.out.println("\n【步骤3】验证每个签名...");
+            try (PDDocument doc = PDDocument.load(outputPdf)) {
+                List<PDSignature> signatures = doc.getSignatureDictionaries();
+                assertEquals(3, signatures.size());
+
+                long previousEnd = inputPdf.length();
+                for (PDSignature signature : signatures) {
+                    int[] byteRange = signature.getByteRange();
+                    long signedLength = (long) byteRange[2] + byteRange[3];
+                    // 每个签名都覆盖之前的全部内容
+                    assertTrue(signedLength > previousEnd);
+                    previousEnd = signedLength;
+
+                    assertSignatureValid(outputPdf, signature);
+                    System.out.println("✓ " + signature.getName() + ": " + signature.getReason() + " 验证通过");
+                }
+                // 最后一个签名覆盖整个文件
+                assertEquals(outputPdf.length(), previousEnd);
+            }
+
+            System.out.println("\n========== 测试完成 ==========\n");
+
+        } catch (Exception e) {
+            System.err.println("测试失败: " + e.getMessage());
+            e.printStackTrace();
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Test
+    public void testFailedStepKeepsLastGoodRevision() throws Exception {
+        File outputDir = new File("test-output/multi-sign-failure");
+        if (!outputDir.exists()) {
+            outputDir.mkdirs();
+        }
+        String certPath = new File(outputDir, "signer.p12").getPath();
+        CertificateGenerator.generateSelfSignedCert("CN=Signer,O=Example Company,C=CN", certPath, null, 1);
+        SigningCredential credential = SigningCredential.load(certPath, new char[0]);
+        File inputPdf = new File(outputDir, "test-unsigned.pdf");
+        SimplePdfCreator.createSimplePdf(inputPdf, "Multi signature failure test");
+
+        // 第二个签名在增量更新写出之后、填入签名值之前失败（时间戳服务不可用）
+        TimestampClient unavailable = new TimestampClient() {
+            @Override
+            public TimeStampToken getTimeStampToken(byte[] messageImprint) throws Exception {
+                throw new GeneralSecurityException("TSA unavailable");
+            }
+
+            @Override
+            public int getEstimatedTokenSize() {
+                return 4096;
+            }
+        };
+        List<SignatureStep> steps = new ArrayList<>();
+        steps.add(SignatureStep.of(credential).reason("First"));
+        steps.add(SignatureStep.of(credential).reason("Second").timestampClient(unavailable));
+        steps.add(SignatureStep.of(credential).reason("Third"));
+
+        File outputPdf = new File(outputDir, "signed-partial.pdf");
+        try {
+            PdfSigner.signPdf(inputPdf, outputPdf, steps);
+            fail("第二个签名应当失败");
+        } catch (GeneralSecurityException expected) {
+            System.out.println("✓ 第二个签名失败: " + expected.getMessage());
+        }
+
+        // 输出停留在第一个签名之后：只有一个有效签名，且覆盖到文件末尾，没有残留的半个修订
+        try (PDDocument doc = PDDocument.load(outputPdf)) {
+            List<PDSignature> signatures = doc.getSignatureDictionaries();
+            assertEquals(1, signatures.size());
+            PDSignature signature = signatures.get(0);
+            assertEquals("First", signature.getReason());
+            int[] byteRange = signature.getByteRange();
+            assertEquals(outputPdf.length(), (long) byteRange[2] + byteRange[3]);
+            assertSignatureValid(outputPdf, signature);
+        }
+    }
+
+    private static void assertSignatureValid(File pdfFile, PDSignature signature) throws Exception {
+        byte[] contents;
+        try (FileInputStream in = new FileInputStream(pdfFile)) {
+            contents = signature.getContents(in);
+        }
+        byte[] digest;
+        try (FileInputStream in = new FileInputStream(pdfFile)) {
+            digest = digestByteRange(in, signature.getByteRange());
+        }
+        CMSSignedData signedData = new CMSSignedData(
+                Collections.singletonMap(TSPAlgorithms.SHA256.getId(), digest), contents);
+        SignerInformation signerInfo = signedData.getSignerInfos().getSigners().iterator().next();
+        X509CertificateHolder holder = (X509CertificateHolder) signedData.getCertificates()
+                .getMatches(signerInfo.getSID()).iterator().next();
+        assertTrue(signerInfo.verify(new JcaSimpleSignerInfoVerifierBuilder().setProvider("BC").build(holder)));
+    }
+
+    private static byte[] digestByteRange(InputStream in, int[] byteRange) throws Exception {
+        MessageDigest md = MessageDigest.getInstance("SHA-256");
+        byte[] buffer = new byte[8192];
+        long position = 0;
+        for (int i = 0; i < byteRange.length; i += 2) {
+            long skip = byteRange[i] - position;
+            while (skip > 0) {
+                skip -= in.skip(skip);
+            }
+            long remaining = byteRange[i + 1];
+            while (remaining > 0) {
+                int n = in.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+                md.update(buffer, 0, n);
+                remaining -= n;
+            }
+            position = byteRange[i] + (long) byteRange[i + 1];
+        }
+        return md.digest();
+    }
+}
@@ -0,0 +1,159 @@
+package com.techhf.capdf.test;
+
+import com.techhf.capdf.cert.CertificateGenerator;
+import com.techhf.capdf.signer.PageSelection;
+import com.techhf.capdf.signer.PdfSigner;
+import com.techhf.capdf.signer.SignatureAppearance;
+import com.techhf.capdf.signer.SignatureSizing;
+import com.techhf.capdf.signer.SigningCredential;
+import com.techhf.capdf.util.SignImageGenerator;
+import org.apache.pdfbox.cos.COSBase;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.interactive.annotation.PDAnnotation;
+import org.apache.pdfbox.pdmodel.interactive.annotation.PDAnnotationRubberStamp;
+import org.apache.pdfbox.pdmodel.interactive.digitalsignature.PDSignature;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * 多页盖章测试
+ * 签名时在选中的页面上加盖相同印章，各页共享同一外观流
+ */
+public class PageStampTest {
+
+    private static final int PAGE_COUNT = 40;
+
+    @Test
+    public void testPageSelection() {
+        PageSelection selection = PageSelection.parse("1-3,7,odd,last");
+        assertTrue(selection.includes(2, 10));
+        assertTrue(selection.includes(7, 10));
+        assertTrue(selection.includes(9, 10));
+        assertTrue(selection.includes(10, 10));
+        assertFalse(selection.includes(4, 10));
+        assertFalse(selection.includes(8, 10));
+
+        PageSelection openRange = PageSelection.parse("5-");
+        assertFalse(openRange.includes(4, 100));
+        assertTrue(openRange.includes(100, 100));
+
+        assertTrue(PageSelection.even().includes(2, 3));
+        assertFalse(PageSelection.even().includes(3, 3));
+        System.out.println("✓ 页码表达式解析正确");
+    }
+
+    @Test
+    public void testStampSelectedPages() {
+        try {
+            System.out.println("\n========== 多页盖章测试 ==========\n");
+
+            File outputDir = new File("test-output/page-stamp");
+            if (!outputDir.exists()) {
+                outputDir.mkdirs();
+            }
+
+            System.out.println("【步骤1】准备 " + PAGE_COUNT + " 页文档、证书和印章...");
+            File inputPdf = new File(outputDir, "test-unsigned.pdf");
+            createMultiPagePdf(inputPdf, PAGE_COUNT);
+            String certPath = new File(outputDir, "test.p12").getPath();
+            CertificateGenerator.generateSelfSignedCert("CN=Stamp Test,O=Example Company,C=CN", certPath, null, 1);
+            String sealPath = new File(outputDir, "seal.png").getPath();
+            SignImageGenerator.generateSealImage("Stamp Test", sealPath, 200, 200);
+            SigningCredential credential = SigningCredential.load(certPath, new char[0]);
+
+            System.out.println("\n【步骤2】只在最后一页签章（对照）...");
+            File singlePdf = new File(outputDir, "signed-single.pdf");
+            SignatureAppearance appearance = SignatureAppearance.ofImage(sealPath).at(400, 50, 150, 150);
+            PdfSigner.signPdf(inputPdf, singlePdf, credential, "Test", "Beijing", appearance,
+                    false, SignatureSizing.ADAPTIVE);
+            System.out.println("✓ 文件大小: " + singlePdf.length() + " bytes");
+
+            System.out.println("\n【步骤3】在全部页面盖章...");
+            File stampedPdf = new File(outputDir, "signed-all-pages.pdf");
+            PdfSigner.signPdf(inputPdf, stampedPdf, credential, "Test", "Beijing",
+                    appearance.stampOn(PageSelection.all()), false, SignatureSizing.ADAPTIVE);
+            long growth = stampedPdf.length() - singlePdf.length();
+            System.out.println("✓ 文件大小: " + stampedPdf.length() + " bytes，每页增加约 "
+                    + growth / (PAGE_COUNT - 1) + " bytes");
+
+            System.out.println("\n【步骤4】检查各页印章...");
+            try (PDDocument doc = PDDocument.load(stampedPdf)) {
+                Map<COSBase, Boolean> appearanceStreams = new IdentityHashMap<>();
+                for (int i = 0; i < PAGE_COUNT - 1; i++) {
+                    PDPage page = doc.getPage(i);
+                    int stamps = 0;
+                    for (PDAnnotation annotation : page.getAnnotations()) {
+                        if (annotation instanceof PDAnnotationRubberStamp) {
+                            stamps++;
+                            appearanceStreams.put(annotation.getNormalAppearanceStream().getCOSObject(), true);
+                        }
+                    }
+                    assertEquals("第 " + (i + 1) + " 页印章数", 1, stamps);
+                }
+                // 签名页上只有签名控件
+                for (PDAnnotation annotation : doc.getPage(PAGE_COUNT - 1).getAnnotations()) {
+                    assertFalse(annotation instanceof PDAnnotationRubberStamp);
+                }
+                assertEquals("各页应共享同一外观流", 1, appearanceStreams.size());
+
+                // 签名覆盖包括印章在内的整个文件
+                PDSignature signature = doc.getLastSignatureDictionary();
+                int[] byteRange = signature.getByteRange();
+                assertEquals(stampedPdf.length(), (long) byteRange[2] + byteRange[3]);
+            }
+            // 印章图片只嵌入一次，每页只增加一个注释字典
+            assertTrue("每页增量过大: " + growth, growth < (PAGE_COUNT - 1) * 1024L + 8192);
+            System.out.println("✓ " + (PAGE_COUNT - 1) + " 页均已盖章，共享同一外观流");
+
+            System.out.println("\n【步骤5】按页码表达式盖章...");
+            File rangePdf = new File(outputDir, "signed-range.pdf");
+            PdfSigner.signPdf(inputPdf, rangePdf, credential, "Test", "Beijing",
+                    appearance.stampOn(PageSelection.parse("1-3,even")), false, SignatureSizing.ADAPTIVE);
+            try (PDDocument doc = PDDocument.load(rangePdf)) {
+                for (int i = 0; i < PAGE_COUNT - 1; i++) {
+                    int pageNumber = i + 1;
+                    boolean expected = pageNumber <= 3 || pageNumber % 2 == 0;
+                    boolean stamped = false;
+                    for (PDAnnotation annotation : doc.getPage(i).getAnnotations()) {
+                        stamped |= annotation instanceof PDAnnotationRubberStamp;
+                    }
+                    assertEquals("第 " + pageNumber + " 页", expected, stamped);
+                }
+            }
+            System.out.println("✓ 页码表达式 1-3,even 盖章正确");
+
+            System.out.println("\n========== 测试完成 ==========\n");
+
+        } catch (Exception e) {
+            System.err.println("测试失败: " + e.getMessage());
+            e.printStackTrace();
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static void createMultiPagePdf(File file, int pages) throws Exception {
+        try (PDDocument doc = new PDDocument()) {
+            for (int i = 1; i <= pages; i++) {
+                PDPage page = new PDPage(PDRectangle.A4);
+                doc.addPage(page);
+                try (PDPageContentStream cs = new PDPageContentStream(doc, page)) {
+                    cs.beginText();
+                    cs.setFont(PDType1Font.HELVETICA, 14);
+                    cs.newLineAtOffset(72, 760);
+                    cs.showText("Page " + i);
+                    cs.endText();
+                }
+            }
+            doc.save(file);
+        }
+    }
+}
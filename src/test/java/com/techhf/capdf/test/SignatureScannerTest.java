@@ -0,0 +1,286 @@
+package com.techhf.capdf.test;
+
+import com.techhf.capdf.cert.CertificateGenerator;
+import com.techhf.capdf.signer.PdfSigner;
+import com.techhf.capdf.signer.SigningCredential;
+import com.techhf.capdf.util.DocumentVerificationResult;
+import com.techhf.capdf.util.MemoryPolicy;
+import com.techhf.capdf.util.SignatureScanner;
+import com.techhf.capdf.util.SignatureVerifier;
+import org.apache.pdfbox.cos.COSArray;
+import org.apache.pdfbox.cos.COSDictionary;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.cos.COSObject;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.interactive.digitalsignature.PDSignature;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.zip.DeflaterOutputStream;
+
+import static org.junit.Assert.*;
+
+/**
+ * 签名字典快速提取测试
+ * 传统 xref 表、xref 流 + 对象流（FlateDecode + PNG 预测器）和增量修订的结果都与 PDFBox 一致，
+ * 新修订版本中被释放的对象不会回退到旧版本，文件结构损坏时回退到 PDFBox，并输出大文档上两种方式的耗时
+ * <p>
+ * 大文档页数可通过系统属性 capdf.scanPages 调整（默认2000）
+ */
+public class SignatureScannerTest {
+
+    @Test
+    public void testSignatureScanner() {
+        try {
+            System.out.println("\n========== 签名字典快速提取测试 ==========\n");
+
+            File outputDir = new File("test-output/signature-scanner");
+            if (!outputDir.exists()) {
+                outputDir.mkdirs();
+            }
+            int pages = Integer.getInteger("capdf.scanPages", 2000);
+
+            String certPath = new File(outputDir, "signer.p12").getPath();
+            CertificateGenerator.generateSelfSignedCert("CN=Scan Signer,O=Example Company,C=CN", certPath, null, 1);
+            SigningCredential credential = SigningCredential.load(certPath, new char[0]);
+
+            System.out.println("【步骤1】传统 xref 表，两次增量签名...");
+            File plain = new File(outputDir, "plain.pdf");
+            try (PDDocument document = new PDDocument()) {
+                document.addPage(new PDPage(PDRectangle.A4));
+                document.save(plain);
+            }
+            File plainOnce = new File(outputDir, "plain-signed-1.pdf");
+            File plainTwice = new File(outputDir, "plain-signed-2.pdf");
+            PdfSigner.signPdf(plain, plainOnce, credential, "First", "Beijing", (String) null, true);
+            PdfSigner.signPdf(plainOnce, plainTwice, credential, "Second", "Shanghai", (String) null, false);
+            assertSameAsPdfBox(plainTwice, 2);
+            assertTrue(SignatureScanner.scan(plain).isEmpty());
+            System.out.println("✓ 与 PDFBox 结果一致");
+
+            System.out.println("\n【步骤2】xref 流 + 对象流中的已有签名字段，再增量签名两次...");
+            File compressed = new File(outputDir, "xref-stream.pdf");
+            Files.write(compressed.toPath(), createXrefStreamPdf());
+            List<PDSignature> legacy = assertSameAsPdfBox(compressed, 1);
+            assertEquals("Legacy (old) é", legacy.get(0).getName());
+            File compressedOnce = new File(outputDir, "xref-stream-signed-1.pdf");
+            File compressedTwice = new File(outputDir, "xref-stream-signed-2.pdf");
+            PdfSigner.signPdf(compressed, compressedOnce, credential, "First", "Beijing", (String) null, false);
+            PdfSigner.signPdf(compressedOnce, compressedTwice, credential, "Second", "Beijing", (String) null, false);
+            assertSameAsPdfBox(compressedTwice, 3);
+            DocumentVerificationResult result = SignatureVerifier.verify(compressedTwice);
+            System.out.println(result);
+            assertFalse("对象流中的旧签名内容无效", result.getSignatures().get(0).isValid());
+            assertTrue(result.getSignatures().get(1).isValid());
+            assertTrue(result.getSignatures().get(2).isValid());
+            System.out.println("✓ 对象流中的字段和签名字典均可找到");
+
+            System.out.println("\n【步骤3】startxref 损坏时回退到 PDFBox...");
+            File broken = new File(outputDir, "broken-startxref.pdf");
+            // startxref 指向 xref 关键字中间：PDFBox 会就近搜索 xref，快速路径直接拒绝
+            String text = new String(Files.readAllBytes(plainTwice.toPath()), StandardCharsets.ISO_8859_1);
+            int index = text.lastIndexOf("startxref");
+            String offset = text.substring(index + "startxref".length()).trim().split("\\s+")[0];
+            text = text.substring(0, index) + "startxref\n" + (Long.parseLong(offset) + 2) + "\n%%EOF\n";
+            Files.write(broken.toPath(), text.getBytes(StandardCharsets.ISO_8859_1));
+            try {
+                SignatureScanner.scan(broken);
+                fail("快速路径应拒绝错误的 startxref");
+            } catch (IOException e) {
+                System.out.println("✓ 快速路径: " + e.getMessage());
+            }
+            List<PDSignature> recovered = SignatureScanner.findSignatures(broken, MemoryPolicy.getDefault());
+            assertEquals(2, recovered.size());
+            DocumentVerificationResult brokenResult = SignatureVerifier.verify(broken);
+            assertEquals(2, brokenResult.getSignatureCount());
+            assertTrue(brokenResult.getSignatures().get(0).isValid());
+            // 改动的 startxref 在第二个签名的覆盖范围内
+            assertFalse(brokenResult.getSignatures().get(1).isIntegrityValid());
+            System.out.println("✓ 回退后找到 " + recovered.size() + " 个签名");
+
+            System.out.println("\n【步骤4】新修订版本释放签名字段对象...");
+            File freed = new File(outputDir, "freed-field.pdf");
+            Files.write(freed.toPath(), freeFirstField(plainOnce));
+            assertTrue("被释放的对象不应回退到更早的版本", SignatureScanner.scan(freed).isEmpty());
+            System.out.println("✓ 签名字段已释放，未找到签名");
+
+            System.out.println("\n【步骤5】" + pages + " 页文档：快速提取 vs PDFBox...");
+            File large = new File(outputDir, "large.pdf");
+            try (PDDocument document = new PDDocument()) {
+                for (int i = 0; i < pages; i++) {
+                    PDPage page = new PDPage(PDRectangle.A4);
+                    document.addPage(page);
+                    try (PDPageContentStream content = new PDPageContentStream(document, page)) {
+                        content.beginText();
+                        content.setFont(PDType1Font.HELVETICA, 12);
+                        content.newLineAtOffset(72, 720);
+                        content.showText("Page " + (i + 1));
+                        content.endText();
+                    }
+                }
+                document.save(large);
+            }
+            File largeSigned = new File(outputDir, "large-signed.pdf");
+            PdfSigner.signPdf(large, largeSigned, credential, "Large", "Beijing", (String) null, false);
+            assertSameAsPdfBox(largeSigned, 1);
+
+            int rounds = 5;
+            long start = System.nanoTime();
+            for (int i = 0; i < rounds; i++) {
+                assertEquals(1, SignatureScanner.scan(largeSigned).size());
+            }
+            double scanMillis = (System.nanoTime() - start) / 1e6 / rounds;
+            start = System.nanoTime();
+            for (int i = 0; i < rounds; i++) {
+                try (PDDocument doc = MemoryPolicy.getDefault().load(largeSigned)) {
+                    assertEquals(1, doc.getSignatureDictionaries().size());
+                }
+            }
+            double pdfBoxMillis = (System.nanoTime() - start) / 1e6 / rounds;
+            // 耗时受机器负载影响，只做输出
+            System.out.println(String.format("✓ 文件 %d KB：快速提取 %.2f ms，PDFBox %.2f ms",
+                    largeSigned.length() / 1024, scanMillis, pdfBoxMillis));
+
+            System.out.println("\n========== 测试完成 ==========\n");
+
+        } catch (Exception e) {
+            System.err.println("测试失败: " + e.getMessage());
+            e.printStackTrace();
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * 快速提取与 PDFBox 的签名数量、顺序和字段一致
+     */
+    private static List<PDSignature> assertSameAsPdfBox(File pdf, int expectedCount) throws Exception {
+        List<PDSignature> scanned = SignatureScanner.scan(pdf);
+        assertEquals(expectedCount, scanned.size());
+        try (PDDocument doc = PDDocument.load(pdf)) {
+            List<PDSignature> expected = doc.getSignatureDictionaries();
+            assertEquals(expected.size(), scanned.size());
+            for (int i = 0; i < expected.size(); i++) {
+                PDSignature a = expected.get(i);
+                PDSignature b = scanned.get(i);
+                assertArrayEquals(a.getByteRange(), b.getByteRange());
+                assertArrayEquals(a.getContents(), b.getContents());
+                assertEquals(a.getName(), b.getName());
+                assertEquals(a.getReason(), b.getReason());
+                assertEquals(a.getLocation(), b.getLocation());
+                assertEquals(a.getSubFilter(), b.getSubFilter());
+                assertEquals(a.getSignDate(), b.getSignDate());
+            }
+        }
+        return scanned;
+    }
+
+    /**
+     * 追加一个修订版本，在其传统 xref 表中把 /Fields 中的第一个字段对象标为 f
+     */
+    private static byte[] freeFirstField(File pdf) throws IOException {
+        byte[] original = Files.readAllBytes(pdf.toPath());
+        StringBuilder update = new StringBuilder("\n");
+        try (PDDocument doc = PDDocument.load(pdf)) {
+            COSDictionary trailer = doc.getDocument().getTrailer();
+            COSObject root = (COSObject) trailer.getItem(COSName.ROOT);
+            COSDictionary acroForm = (COSDictionary) doc.getDocumentCatalog().getCOSObject()
+                    .getDictionaryObject(COSName.ACRO_FORM);
+            COSObject field = (COSObject) ((COSArray) acroForm.getDictionaryObject(COSName.FIELDS)).get(0);
+            long xrefOffset = original.length + 1;
+            update.append("xref\n0 1\n0000000000 65535 f \n")
+                    .append(field.getObjectNumber()).append(" 1\n")
+                    .append(String.format("0000000000 %05d f \n", field.getGenerationNumber() + 1))
+                    .append("trailer\n<< /Size ").append(trailer.getInt(COSName.SIZE))
+                    .append(" /Root ").append(root.getObjectNumber()).append(' ')
+                    .append(root.getGenerationNumber()).append(" R")
+                    .append(" /Prev ").append(doc.getDocument().getStartXref()).append(" >>\n")
+                    .append("startxref\n").append(xrefOffset).append("\n%%EOF\n");
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(original);
+        out.write(update.toString().getBytes(StandardCharsets.US_ASCII));
+        return out.toByteArray();
+    }
+
+    /**
+     * 手工构造使用 xref 流（FlateDecode + PNG Up 预测器）的单页PDF，
+     * Catalog、AcroForm、签名字段和签名字典都在一个压缩的对象流中
+     */
+    private static byte[] createXrefStreamPdf() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long[] offsets = new long[9];
+        write(out, "%PDF-1.5\n%âãÏÓ\n");
+
+        offsets[2] = out.size();
+        write(out, "2 0 obj\n<< /Type /Pages /Kids [3 0 R] /Count 1 >>\nendobj\n");
+        offsets[3] = out.size();
+        write(out, "3 0 obj\n<< /Type /Page /Parent 2 0 R /MediaBox [0 0 595 842] /Annots [5 0 R] >>\nendobj\n");
+
+        String[] packed = {
+                "<< /Type /Catalog /Pages 2 0 R /AcroForm 4 0 R >>",
+                "<< /Fields [5 0 R] /SigFlags 3 >>",
+                "<< /FT /Sig /T (Legacy) /V 6 0 R /Type /Annot /Subtype /Widget /Rect [0 0 0 0] /P 3 0 R /F 132 >>",
+                "<< /Type /Sig /Filter /Adobe.PPKLite /SubFilter /adbe.pkcs7.detached "
+                        + "/Name (Legacy \\(old\\) \\351) /M (D:20240101120000+08'00') "
+                        + "/ByteRange [0 10 20 10] /Contents <30 8 2> >>"
+        };
+        long[] numbers = {1, 4, 5, 6};
+        StringBuilder header = new StringBuilder();
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < packed.length; i++) {
+            header.append(numbers[i]).append(' ').append(body.length()).append(' ');
+            body.append(packed[i]).append('\n');
+        }
+        byte[] objectStream = deflate((header + body.toString()).getBytes(StandardCharsets.ISO_8859_1));
+        offsets[7] = out.size();
+        write(out, "7 0 obj\n<< /Type /ObjStm /N 4 /First " + header.length() + " /Filter /FlateDecode /Length "
+                + objectStream.length + " >>\nstream\n");
+        out.write(objectStream);
+        write(out, "\nendstream\nendobj\n");
+
+        // W [1 2 1]：类型、偏移或对象流编号、代数或流内序号
+        offsets[8] = out.size();
+        int[][] rows = {
+                {0, 0, 255}, {2, 7, 0}, {1, (int) offsets[2], 0}, {1, (int) offsets[3], 0},
+                {2, 7, 1}, {2, 7, 2}, {2, 7, 3}, {1, (int) offsets[7], 0}, {1, (int) offsets[8], 0}
+        };
+        ByteArrayOutputStream xref = new ByteArrayOutputStream();
+        byte[] previous = new byte[4];
+        for (int[] row : rows) {
+            byte[] current = {(byte) row[0], (byte) (row[1] >> 8), (byte) row[1], (byte) row[2]};
+            xref.write(2);
+            for (int i = 0; i < 4; i++) {
+                xref.write(current[i] - previous[i]);
+            }
+            previous = current;
+        }
+        byte[] xrefStream = deflate(xref.toByteArray());
+        write(out, "8 0 obj\n<< /Type /XRef /Size 9 /W [1 2 1] /Root 1 0 R /Filter /FlateDecode "
+                + "/DecodeParms << /Columns 4 /Predictor 12 >> /Length " + xrefStream.length + " >>\nstream\n");
+        out.write(xrefStream);
+        write(out, "\nendstream\nendobj\nstartxref\n" + offsets[8] + "\n%%EOF\n");
+        return out.toByteArray();
+    }
+
+    private static byte[] deflate(byte[] data) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (DeflaterOutputStream deflater = new DeflaterOutputStream(out)) {
+            deflater.write(data);
+        }
+        return out.toByteArray();
+    }
+
+    private static void write(ByteArrayOutputStream out, String text) {
+        byte[] bytes = text.getBytes(StandardCharsets.ISO_8859_1);
+        out.write(bytes, 0, bytes.length);
+    }
+}
@@ -0,0 +1,161 @@
+package com.techhf.capdf.test;
+
+import com.techhf.capdf.cert.CertificateGenerator;
+import com.techhf.capdf.signer.PdfSigner;
+import com.techhf.capdf.signer.SignatureAppearance;
+import com.techhf.capdf.signer.SignatureSizeEstimator;
+import com.techhf.capdf.signer.SignatureSizing;
+import com.techhf.capdf.signer.SigningCredential;
+import com.techhf.capdf.signer.SigningCredentialStore;
+import com.techhf.capdf.tsa.LocalTimestampClient;
+import com.techhf.capdf.tsa.TimestampClient;
+import com.techhf.capdf.util.DocumentVerificationResult;
+import com.techhf.capdf.util.SignatureVerifier;
+import com.techhf.capdf.util.SimplePdfCreator;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.interactive.digitalsignature.PDSignature;
+import org.bouncycastle.cms.CMSSignedData;
+import org.bouncycastle.tsp.TimeStampToken;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileInputStream;
+
+import static org.junit.Assert.*;
+
+/**
+ * 签名占位大小测试
+ * 自适应模式的占位应明显小于固定模式，且能容纳带时间戳的签名；预估不足时应扩大占位重新签名
+ */
+public class SignatureSizingTest {
+
+    @Test
+    public void testAdaptiveSizing() {
+        try {
+            System.out.println("\n========== 签名占位大小测试 ==========\n");
+
+            File outputDir = new File("test-output/signature-sizing");
+            if (!outputDir.exists()) {
+                outputDir.mkdirs();
+            }
+
+            System.out.println("【步骤1】准备证书和待签名PDF...");
+            String certPath = new File(outputDir, "test-cert.p12").getPath();
+            CertificateGenerator.generateSelfSignedCert("CN=Sizing Test,O=Example Company,C=CN",
+                    certPath, "123456", 1);
+            File inputPdf = new File(outputDir, "test-unsigned.pdf");
+            SimplePdfCreator.createSimplePdf(inputPdf, "Signature sizing test");
+            SigningCredential credential = SigningCredentialStore.shared().get(certPath, "123456");
+
+            System.out.println("\n【步骤2】固定模式和自适应模式分别签名...");
+            File fixedPdf = new File(outputDir, "signed-fixed.pdf");
+            PdfSigner.signPdf(inputPdf, fixedPdf, credential, "Sizing Test", "Beijing",
+                    SignatureAppearance.DEFAULT, true, SignatureSizing.FIXED);
+            File adaptivePdf = new File(outputDir, "signed-adaptive.pdf");
+            PdfSigner.signPdf(inputPdf, adaptivePdf, credential, "Sizing Test", "Beijing",
+                    SignatureAppearance.DEFAULT, false, SignatureSizing.ADAPTIVE);
+            File adaptiveTsPdf = new File(outputDir, "signed-adaptive-ts.pdf");
+            PdfSigner.signPdf(inputPdf, adaptiveTsPdf, credential, "Sizing Test", "Beijing",
+                    SignatureAppearance.DEFAULT, true, SignatureSizing.ADAPTIVE);
+
+            int fixed = placeholderSize(fixedPdf);
+            int adaptive = placeholderSize(adaptivePdf);
+            int adaptiveTs = placeholderSize(adaptiveTsPdf);
+            System.out.println("✓ 占位大小: 固定=" + fixed + ", 自适应=" + adaptive + ", 自适应+时间戳=" + adaptiveTs);
+
+            assertTrue(adaptive < fixed / 2);
+            assertTrue(adaptiveTs < fixed);
+            assertTrue(adaptive < adaptiveTs);
+            assertTrue(adaptivePdf.length() < fixedPdf.length());
+
+            System.out.println("\n【步骤3】检查签名数据完整...");
+            for (File file : new File[]{adaptivePdf, adaptiveTsPdf}) {
+                try (PDDocument doc = PDDocument.load(file);
+                     FileInputStream in = new FileInputStream(file)) {
+                    PDSignature signature = doc.getLastSignatureDictionary();
+                    CMSSignedData signedData = new CMSSignedData(signature.getContents(in));
+                    assertEquals(1, signedData.getSignerInfos().size());
+                }
+            }
+            System.out.println("✓ 签名数据可解析");
+
+            System.out.println("\n========== 测试完成 ==========\n");
+
+        } catch (Exception e) {
+            System.err.println("测试失败: " + e.getMessage());
+            e.printStackTrace();
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * 预估不足时应以实际签名大小加余量重新签名：
+     * 时间戳客户端把令牌大小报为 0，初次占位装不下带时间戳的签名
+     */
+    @Test
+    public void testUnderestimatedPlaceholderGrows() {
+        try {
+            System.out.println("\n========== 占位不足重试测试 ==========\n");
+
+            File outputDir = new File("test-output/signature-sizing");
+            if (!outputDir.exists()) {
+                outputDir.mkdirs();
+            }
+
+            System.out.println("【步骤1】准备证书和待签名PDF...");
+            String certPath = new File(outputDir, "retry-cert.p12").getPath();
+            CertificateGenerator.generateSelfSignedCert("CN=Sizing Retry Test,O=Example Company,C=CN",
+                    certPath, "123456", 1);
+            File inputPdf = new File(outputDir, "retry-unsigned.pdf");
+            SimplePdfCreator.createSimplePdf(inputPdf, "Signature sizing retry test");
+            SigningCredential credential = SigningCredentialStore.shared().get(certPath, "123456");
+
+            System.out.println("\n【步骤2】低估时间戳令牌大小后签名...");
+            final TimestampClient timestampClient = LocalTimestampClient.shared();
+            TimestampClient underestimating = new TimestampClient() {
+                @Override
+                public TimeStampToken getTimeStampToken(byte[] messageImprint) throws Exception {
+                    return timestampClient.getTimeStampToken(messageImprint);
+                }
+
+                @Override
+                public int getEstimatedTokenSize() {
+                    return 0;
+                }
+            };
+            int initial = SignatureSizeEstimator.estimate(credential.getCertChain(), underestimating);
+            File signedPdf = new File(outputDir, "signed-retry.pdf");
+            PdfSigner.signPdf(inputPdf, signedPdf, credential, "Sizing Retry Test", "Beijing",
+                    SignatureAppearance.DEFAULT, underestimating, SignatureSizing.ADAPTIVE);
+
+            int placeholder = placeholderSize(signedPdf);
+            System.out.println("✓ 初次占位=" + initial + "，最终占位=" + placeholder);
+            assertTrue("占位应按实际签名大小扩大", placeholder > initial);
+
+            System.out.println("\n【步骤3】验证签名和时间戳...");
+            DocumentVerificationResult result = SignatureVerifier.verify(signedPdf);
+            assertTrue(result.toString(), result.isValid());
+            assertEquals(1, result.getSignatureCount());
+            assertTrue(result.getSignatures().get(0).isTimestampPresent());
+            assertTrue(result.getSignatures().get(0).isTimestampValid());
+            System.out.println("✓ 重新签名的文档验证通过");
+
+            System.out.println("\n========== 测试完成 ==========\n");
+
+        } catch (Exception e) {
+            System.err.println("测试失败: " + e.getMessage());
+            e.printStackTrace();
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * /Contents 占位大小（字节），由 ByteRange 的空洞计算
+     */
+    private static int placeholderSize(File pdf) throws Exception {
+        try (PDDocument doc = PDDocument.load(pdf)) {
+            int[] byteRange = doc.getLastSignatureDictionary().getByteRange();
+            return (byteRange[2] - byteRange[1] - 2) / 2;
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.techhf.capdf.test;
+
+import com.techhf.capdf.cert.CertificateGenerator;
+import com.techhf.capdf.cert.KeyAlgorithm;
+import com.techhf.capdf.cert.SignatureAlgorithms;
+import com.techhf.capdf.signer.CmsSignatureBuilder;
+import com.techhf.capdf.signer.PdfSigner;
+import com.techhf.capdf.signer.SignatureAppearance;
+import com.techhf.capdf.signer.SignatureSizing;
+import com.techhf.capdf.signer.SigningCredential;
+import com.techhf.capdf.tsa.LocalTimestampClient;
+import com.techhf.capdf.tsa.TimestampResponder;
+import com.techhf.capdf.util.ByteRangeDigest;
+import com.techhf.capdf.util.SignatureVerifier;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.interactive.digitalsignature.PDSignature;
+import org.bouncycastle.asn1.cms.Attribute;
+import org.bouncycastle.asn1.pkcs.PKCSObjectIdentifiers;
+import org.bouncycastle.cert.X509CertificateHolder;
+import org.bouncycastle.cms.CMSSignedData;
+import org.bouncycastle.cms.SignerInformation;
+import org.bouncycastle.cms.jcajce.JcaSimpleSignerInfoVerifierBuilder;
+import org.bouncycastle.tsp.TimeStampToken;
+import org.junit.Test;
+
+import java.io.File;
+import java.security.MessageDigest;
+import java.util.Collection;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+/**
+ * 签名算法对比测试
+ * 对每种密钥类型生成证书、统计 CMS 签名吞吐量（signatures/sec）和签名大小，
+ * 再完成一次带时间戳（ECDSA TSA）的PDF签名并校验签名值
+ * <p>
+ * 每种算法的签名次数可通过系统属性 capdf.algBenchSignatures 调整（默认200）
+ */
+public class SigningAlgorithmBenchmarkTest {
+
+    @Test
+    public void testAlgorithms() {
+        try {
+            System.out.println("\n========== 签名算法对比测试 ==========\n");
+
+            File outputDir = new File("test-output/signing-algorithm");
+            if (!outputDir.exists()) {
+                outputDir.mkdirs();
+            }
+            int signatures = Integer.getInteger("capdf.algBenchSignatures", 200);
+
+            System.out.println("【步骤1】生成测试文档和 ECDSA P-256 TSA...");
+            File inputPdf = new File(outputDir, "test-unsigned.pdf");
+            try (PDDocument document = new PDDocument()) {
+                document.addPage(new PDPage(PDRectangle.A4));
+                document.save(inputPdf);
+            }
+            TimestampResponder responder = TimestampResponder.generate(
+                    "CN=EC Test TSA,O=Example Company,C=CN", "1.3.6.1.4.1.99999.1.1", KeyAlgorithm.EC_P256);
+            LocalTimestampClient timestampClient = new LocalTimestampClient(responder);
+            assertEquals("SHA256withECDSA", SignatureAlgorithms.signatureAlgorithm(responder.getCertificate().getPublicKey()));
+            System.out.println("✓ TSA证书: " + responder.getCertificate().getSigAlgName());
+
+            System.out.println("\n【步骤2】各算法的签名吞吐量（每种 " + signatures + " 次）...");
+            System.out.println(String.format("  %-10s %-18s %-8s %12s %10s",
+                    "密钥", "签名算法", "摘要", "sigs/sec", "CMS大小"));
+            for (KeyAlgorithm keyAlgorithm : KeyAlgorithm.values()) {
+                String certPath = new File(outputDir, keyAlgorithm.name().toLowerCase() + ".p12").getPath();
+                CertificateGenerator.generateSelfSignedCert("CN=" + keyAlgorithm + " Signer,O=Example Company,C=CN",
+                        certPath, null, 1, keyAlgorithm);
+                SigningCredential credential = SigningCredential.load(certPath, new char[0]);
+
+                String digestAlgorithm = SignatureAlgorithms.digestAlgorithm(credential.getPrivateKey());
+                byte[] contentDigest = MessageDigest.getInstance(digestAlgorithm).digest("benchmark".getBytes("UTF-8"));
+
+                // 预热
+                byte[] cms = null;
+                for (int i = 0; i < 20; i++) {
+                    cms = CmsSignatureBuilder.build(contentDigest, credential.getPrivateKey(),
+                            credential.getCertChain(), null);
+                }
+                long start = System.nanoTime();
+                for (int i = 0; i < signatures; i++) {
+                    cms = CmsSignatureBuilder.build(contentDigest, credential.getPrivateKey(),
+                            credential.getCertChain(), null);
+                }
+                double seconds = (System.nanoTime() - start) / 1e9;
+                System.out.println(String.format("  %-10s %-18s %-8s %12.0f %7d bytes", keyAlgorithm,
+                        SignatureAlgorithms.signatureAlgorithm(credential.getPrivateKey()), digestAlgorithm,
+                        signatures / seconds, cms.length));
+
+                // 签名值不超过估算的上限
+                SignerInformation signer = new CMSSignedData(cms).getSignerInfos().getSigners().iterator().next();
+                assertTrue(signer.getSignature().length
+                        <= SignatureAlgorithms.maxSignatureLength(credential.getCertificate().getPublicKey()));
+
+                File signedPdf = new File(outputDir, "signed-" + keyAlgorithm.name().toLowerCase() + ".pdf");
+                PdfSigner.signPdf(inputPdf, signedPdf, credential, "Algorithm Test", "Beijing",
+                        SignatureAppearance.DEFAULT, timestampClient, SignatureSizing.ADAPTIVE);
+                verifySignedPdf(signedPdf, digestAlgorithm, responder);
+            }
+
+            System.out.println("\n【步骤3】验证 Ed25519 签名文档...");
+            SignatureVerifier.verifySignature(new File(outputDir, "signed-ed25519.pdf"));
+
+            System.out.println("\n========== 测试完成 ==========\n");
+
+        } catch (Exception e) {
+            System.err.println("测试失败: " + e.getMessage());
+            e.printStackTrace();
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * 按 ByteRange 重新计算摘要，校验签名值和时间戳
+     */
+    @SuppressWarnings("unchecked")
+    private static void verifySignedPdf(File signedPdf, String digestAlgorithm, TimestampResponder responder)
+            throws Exception {
+        try (PDDocument doc = PDDocument.load(signedPdf)) {
+            PDSignature signature = doc.getLastSignatureDictionary();
+            byte[] contents = signature.getContents();
+            String digestOid = new CMSSignedData(contents).getSignerInfos().getSigners().iterator().next()
+                    .getDigestAlgOID();
+            byte[] contentDigest = ByteRangeDigest.digest(signedPdf, signature.getByteRange(), digestOid);
+            assertEquals("摘要长度", MessageDigest.getInstance(digestAlgorithm).getDigestLength(), contentDigest.length);
+
+            CMSSignedData signedData = new CMSSignedData(Collections.singletonMap(digestOid, contentDigest), contents);
+            SignerInformation signer = signedData.getSignerInfos().getSigners().iterator().next();
+            Collection<X509CertificateHolder> certs = signedData.getCertificates().getMatches(signer.getSID());
+            assertTrue(signer.verify(new JcaSimpleSignerInfoVerifierBuilder().setProvider("BC")
+                    .build(certs.iterator().next())));
+
+            Attribute tsAttr = signer.getUnsignedAttributes().get(PKCSObjectIdentifiers.id_aa_signatureTimeStampToken);
+            assertNotNull("缺少时间戳", tsAttr);
+            TimeStampToken token = new TimeStampToken(new CMSSignedData(
+                    tsAttr.getAttrValues().getObjectAt(0).toASN1Primitive().getEncoded()));
+            token.validate(new JcaSimpleSignerInfoVerifierBuilder().setProvider("BC").build(responder.getCertificate()));
+        }
+    }
+}
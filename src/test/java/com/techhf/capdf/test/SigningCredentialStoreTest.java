@@ -0,0 +1,82 @@
+package com.techhf.capdf.test;
+
+import com.techhf.capdf.cert.CertificateGenerator;
+import com.techhf.capdf.signer.SigningCredential;
+import com.techhf.capdf.signer.SigningCredentialStore;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.Assert.*;
+
+/**
+ * 签名凭据缓存测试
+ * 覆盖命中、文件变更重新加载、LRU淘汰和租户注册
+ */
+public class SigningCredentialStoreTest {
+
+    @Test
+    public void testCredentialCache() {
+        try {
+            System.out.println("\n========== 签名凭据缓存测试 ==========\n");
+
+            File outputDir = new File("test-output/credential-store");
+            if (!outputDir.exists()) {
+                outputDir.mkdirs();
+            }
+
+            System.out.println("【步骤1】生成测试证书...");
+            String certA = new File(outputDir, "tenant-a.p12").getPath();
+            String certB = new File(outputDir, "tenant-b.p12").getPath();
+            CertificateGenerator.generateSelfSignedCert("CN=Tenant A,O=Example Company,C=CN", certA, "123456", 1);
+            CertificateGenerator.generateSelfSignedCert("CN=Tenant B,O=Example Company,C=CN", certB, null, 1);
+
+            System.out.println("\n【步骤2】重复获取同一证书...");
+            SigningCredentialStore store = new SigningCredentialStore(1, 60_000);
+            SigningCredential first = store.get(certA, "123456");
+            SigningCredential second = store.get(certA, "123456");
+            assertSame(first, second);
+            assertEquals(1, store.getStats().getHits());
+            assertEquals(1, store.getStats().getLoads());
+            System.out.println("✓ 第二次获取命中缓存: " + store.getStats());
+
+            System.out.println("\n【步骤3】证书文件变更后重新加载...");
+            CertificateGenerator.generateSelfSignedCert("CN=Tenant A2,O=Example Company,C=CN", certA, "123456", 1);
+            new File(certA).setLastModified(System.currentTimeMillis() + 2000);
+            SigningCredential reloaded = store.get(certA, "123456");
+            assertNotSame(first, reloaded);
+            assertTrue(reloaded.getCertificate().getSubjectX500Principal().getName().contains("Tenant A2"));
+            System.out.println("✓ 检测到文件变更并重新加载: " + reloaded.getCertificate().getSubjectX500Principal());
+
+            System.out.println("\n【步骤4】超过容量时LRU淘汰...");
+            store.registerTenant("tenant-b", certB, null);
+            store.getForTenant("tenant-b");
+            assertEquals(1, store.size());
+            assertTrue(store.getStats().getEvictions() >= 1);
+            System.out.println("✓ 淘汰完成: " + store.getStats());
+
+            System.out.println("\n【步骤5】错误密码不能命中缓存，也不能挤掉已缓存的凭据...");
+            SigningCredential cachedB = store.get(certB, null);
+            long loadsBefore = store.getStats().getLoads();
+            long evictionsBefore = store.getStats().getEvictions();
+            try {
+                store.get(certB, "wrong-password");
+                fail("错误密码应当加载失败");
+            } catch (IOException expected) {
+                System.out.println("✓ 错误密码被拒绝: " + expected.getClass().getSimpleName());
+            }
+            assertSame(cachedB, store.get(certB, null));
+            assertEquals(loadsBefore, store.getStats().getLoads());
+            assertEquals(evictionsBefore, store.getStats().getEvictions());
+            System.out.println("✓ 已缓存的凭据仍然有效: " + store.getStats());
+
+            System.out.println("\n========== 测试完成 ==========\n");
+
+        } catch (Exception e) {
+            System.err.println("测试失败: " + e.getMessage());
+            e.printStackTrace();
+            throw new RuntimeException(e);
+        }
+    }
+}
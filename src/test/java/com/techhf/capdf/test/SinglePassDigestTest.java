@@ -0,0 +1,130 @@
+package com.techhf.capdf.test;
+
+import com.techhf.capdf.cert.CertificateGenerator;
+import com.techhf.capdf.cert.KeyAlgorithm;
+import com.techhf.capdf.signer.PdfSigner;
+import com.techhf.capdf.signer.SigningCredential;
+import com.techhf.capdf.util.ByteRangeDigest;
+import com.techhf.capdf.util.DocumentVerificationResult;
+import com.techhf.capdf.util.MemoryPolicy;
+import com.techhf.capdf.util.SignatureVerificationResult;
+import com.techhf.capdf.util.SignatureVerifier;
+import org.apache.pdfbox.io.MemoryUsageSetting;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.common.PDStream;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * 多签名单次遍历摘要测试
+ * 多人会签（不同摘要算法）的大文档，单次顺序读取与逐个签名读取得到相同的摘要和校验结果，
+ * 并对比两种方式的摘要耗时
+ * <p>
+ * 文档大小和签名数可通过系统属性 capdf.singlePassMb（默认32）、capdf.singlePassSignatures（默认4）调整
+ */
+public class SinglePassDigestTest {
+
+    @Test
+    public void testSinglePassDigest() {
+        try {
+            System.out.println("\n========== 多签名单次遍历摘要测试 ==========\n");
+
+            File outputDir = new File("test-output/single-pass-digest");
+            if (!outputDir.exists()) {
+                outputDir.mkdirs();
+            }
+            long sizeMb = Long.getLong("capdf.singlePassMb", 32L);
+            int signatureCount = Integer.getInteger("capdf.singlePassSignatures", 4);
+
+            System.out.println("【步骤1】" + sizeMb + " MB 文档，" + signatureCount + " 人会签...");
+            KeyAlgorithm[] algorithms = {KeyAlgorithm.RSA_2048, KeyAlgorithm.EC_P384, KeyAlgorithm.EC_P256};
+            File current = new File(outputDir, "contract.pdf");
+            createLargePdf(current, sizeMb * 1024 * 1024);
+            for (int i = 0; i < signatureCount; i++) {
+                String certPath = new File(outputDir, "signer-" + i + ".p12").getPath();
+                CertificateGenerator.generateSelfSignedCert("CN=Co-Signer " + i + ",O=Example Company,C=CN",
+                        certPath, null, 1, algorithms[i % algorithms.length]);
+                File next = new File(outputDir, "contract-signed-" + (i + 1) + ".pdf");
+                PdfSigner.signPdf(current, next, SigningCredential.load(certPath, new char[0]),
+                        "Co-Sign " + i, "Beijing", (String) null, i == 0);
+                current = next;
+            }
+            System.out.println("✓ 文件大小 " + current.length() / (1024 * 1024) + " MB");
+
+            System.out.println("\n【步骤2】两种方式校验...");
+            // 预热
+            SignatureVerifier.verify(current, MemoryPolicy.getDefault(), false);
+            SignatureVerifier.verify(current, MemoryPolicy.getDefault(), true);
+            DocumentVerificationResult perSignature = SignatureVerifier.verify(current, MemoryPolicy.getDefault(), false);
+            DocumentVerificationResult singlePass = SignatureVerifier.verify(current, MemoryPolicy.getDefault(), true);
+            System.out.println(singlePass);
+            assertTrue(perSignature.isValid());
+            assertTrue(singlePass.isValid());
+            assertEquals(signatureCount, singlePass.getSignatureCount());
+            List<String> digestAlgorithms = new ArrayList<>();
+            for (int i = 0; i < signatureCount; i++) {
+                SignatureVerificationResult a = perSignature.getSignatures().get(i);
+                SignatureVerificationResult b = singlePass.getSignatures().get(i);
+                assertArrayEquals(a.getByteRange(), b.getByteRange());
+                assertEquals(a.getDigestAlgorithmOid(), b.getDigestAlgorithmOid());
+                digestAlgorithms.add(b.getDigestAlgorithmName());
+            }
+            System.out.println("✓ 摘要算法: " + digestAlgorithms);
+            System.out.println(String.format("✓ 摘要耗时：逐个签名 %.2f ms，单次遍历 %.2f ms",
+                    perSignature.getDigestNanos() / 1e6, singlePass.getDigestNanos() / 1e6));
+
+            System.out.println("\n【步骤3】digestAll 与逐个计算一致...");
+            List<long[]> ranges = new ArrayList<>();
+            List<String> oids = new ArrayList<>();
+            for (SignatureVerificationResult signature : singlePass.getSignatures()) {
+                ranges.add(signature.getByteRange());
+                oids.add(signature.getDigestAlgorithmOid());
+            }
+            // 额外加入一个与其他区间部分重叠的范围
+            ranges.add(new long[]{100, 1000, 5000, 20000});
+            oids.add("SHA-1");
+            byte[][] digests = ByteRangeDigest.digestAll(current, ranges, oids);
+            for (int k = 0; k < ranges.size(); k++) {
+                assertTrue(Arrays.equals(ByteRangeDigest.digest(current, ranges.get(k), oids.get(k)), digests[k]));
+            }
+            System.out.println("✓ " + ranges.size() + " 个摘要一致");
+
+            System.out.println("\n========== 测试完成 ==========\n");
+
+        } catch (Exception e) {
+            System.err.println("测试失败: " + e.getMessage());
+            e.printStackTrace();
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * 生成一个单页、内容流为指定大小的PDF
+     */
+    private static void createLargePdf(File outputFile, long contentBytes) throws Exception {
+        byte[] line = "% padding padding padding padding padding padding padding padding padding\n"
+                .getBytes(StandardCharsets.US_ASCII);
+        try (PDDocument document = new PDDocument(MemoryUsageSetting.setupTempFileOnly())) {
+            PDPage page = new PDPage(PDRectangle.A4);
+            document.addPage(page);
+            PDStream contents = new PDStream(document);
+            try (OutputStream out = contents.createOutputStream()) {
+                for (long written = 0; written < contentBytes; written += line.length) {
+                    out.write(line);
+                }
+            }
+            page.setContents(contents);
+            document.save(outputFile);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.techhf.capdf.test;
+
+import com.techhf.capdf.cert.CertificateGenerator;
+import com.techhf.capdf.signer.PdfSigner;
+import com.techhf.capdf.signer.SignatureAppearance;
+import com.techhf.capdf.signer.SignatureSizing;
+import com.techhf.capdf.signer.SigningCredential;
+import com.techhf.capdf.tsa.CircuitBreaker;
+import com.techhf.capdf.tsa.FailoverTimestampClient;
+import com.techhf.capdf.tsa.HttpTimestampClient;
+import com.techhf.capdf.tsa.TimestampResponder;
+import com.techhf.capdf.tsa.TimestampServer;
+import com.techhf.capdf.util.SimplePdfCreator;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.bouncycastle.asn1.pkcs.PKCSObjectIdentifiers;
+import org.bouncycastle.cms.CMSSignedData;
+import org.bouncycastle.cms.SignerInformation;
+import org.bouncycastle.tsp.TimeStampToken;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.security.MessageDigest;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+/**
+ * HTTP时间戳客户端测试
+ * 使用两个本地时间戳服务验证故障转移、熔断和对冲请求
+ */
+public class TimestampClientTest {
+
+    @Test
+    public void testFailoverHedgingAndCircuitBreaker() {
+        try {
+            System.out.println("\n========== HTTP时间戳客户端测试 ==========\n");
+
+            File outputDir = new File("test-output/tsa-client");
+            if (!outputDir.exists()) {
+                outputDir.mkdirs();
+            }
+
+            System.out.println("【步骤1】启动两个本地时间戳服务...");
+            String tsaCertPath = new File(outputDir, "tsa-cert.p12").getPath();
+            CertificateGenerator.generateSelfSignedCert("CN=Test TSA,O=Example Company,C=CN", tsaCertPath, null, 1);
+            SigningCredential tsaCredential = SigningCredential.load(tsaCertPath, new char[0]);
+            TimestampResponder responder = new TimestampResponder(
+                    tsaCredential.getPrivateKey(), tsaCredential.getCertificate());
+
+            byte[] imprint = MessageDigest.getInstance("SHA-256").digest("timestamp me".getBytes("UTF-8"));
+
+            try (TimestampServer primary = new TimestampServer(responder).start();
+                 TimestampServer backup = new TimestampServer(responder).start()) {
+
+                HttpTimestampClient primaryClient = new HttpTimestampClient(primary.getUrl(), 1000, 3000);
+                HttpTimestampClient backupClient = new HttpTimestampClient(backup.getUrl(), 1000, 3000);
+
+                TimeStampToken token = primaryClient.getTimeStampToken(imprint);
+                assertArrayEquals(imprint, token.getTimeStampInfo().getMessageImprintDigest());
+                System.out.println("✓ 直接请求成功，令牌 " + token.getEncoded().length + " bytes");
+
+                System.out.println("\n【步骤2】主TSA故障时切换到备用TSA，连续失败后熔断...");
+                primary.setFailing(true);
+                try (FailoverTimestampClient failover =
+                             new FailoverTimestampClient(Arrays.asList(primaryClient, backupClient))
+                                     .circuitBreaker(2, 60000)) {
+                    for (int i = 0; i < 4; i++) {
+                        assertNotNull(failover.getTimeStampToken(imprint));
+                    }
+                    // 前两次请求主TSA后熔断，之后不再访问
+                    assertEquals(1 + 2, primary.getRequestCount());
+                    assertEquals(4, backup.getRequestCount());
+                    assertEquals(CircuitBreaker.State.OPEN, failover.getState(0));
+                    System.out.println("✓ 主TSA请求 " + primary.getRequestCount() + " 次，备用TSA请求 "
+                            + backup.getRequestCount() + " 次，主TSA状态 " + failover.getState(0));
+                }
+
+                System.out.println("\n【步骤3】主TSA响应慢时发起对冲请求...");
+                primary.setFailing(false);
+                primary.setResponseDelayMillis(2000);
+                try (FailoverTimestampClient hedged =
+                             new FailoverTimestampClient(Arrays.asList(primaryClient, backupClient))
+                                     .hedgeAfter(200)) {
+                    long start = System.currentTimeMillis();
+                    assertNotNull(hedged.getTimeStampToken(imprint));
+                    long elapsed = System.currentTimeMillis() - start;
+                    assertTrue("对冲请求应在主TSA返回前完成: " + elapsed + "ms", elapsed < 1500);
+                    System.out.println("✓ 对冲请求耗时 " + elapsed + " ms");
+                }
+                primary.setResponseDelayMillis(0);
+
+                System.out.println("\n【步骤4】通过HTTP时间戳签名PDF...");
+                String certPath = new File(outputDir, "signer-cert.p12").getPath();
+                CertificateGenerator.generateSelfSignedCert("CN=TSA Client Test,O=Example Company,C=CN",
+                        certPath, null, 1);
+                SigningCredential credential = SigningCredential.load(certPath, new char[0]);
+                File inputPdf = new File(outputDir, "test-unsigned.pdf");
+                SimplePdfCreator.createSimplePdf(inputPdf, "TSA client test");
+                File outputPdf = new File(outputDir, "signed-http-tsa.pdf");
+
+                try (FailoverTimestampClient tsa =
+                             new FailoverTimestampClient(Arrays.asList(primaryClient, backupClient))) {
+                    PdfSigner.signPdf(inputPdf, outputPdf, credential, "TSA Test", "Beijing",
+                            SignatureAppearance.DEFAULT, tsa, SignatureSizing.ADAPTIVE);
+                }
+
+                try (PDDocument doc = PDDocument.load(outputPdf);
+                     FileInputStream in = new FileInputStream(outputPdf)) {
+                    CMSSignedData signedData = new CMSSignedData(doc.getLastSignatureDictionary().getContents(in));
+                    SignerInformation signerInfo = signedData.getSignerInfos().getSigners().iterator().next();
+                    assertNotNull(signerInfo.getUnsignedAttributes()
+                            .get(PKCSObjectIdentifiers.id_aa_signatureTimeStampToken));
+                }
+                System.out.println("✓ 签名已嵌入HTTP时间戳");
+            }
+
+            System.out.println("\n========== 测试完成 ==========\n");
+
+        } catch (Exception e) {
+            System.err.println("测试失败: " + e.getMessage());
+            e.printStackTrace();
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.techhf.capdf.test;
+
+import com.techhf.capdf.tsa.TimestampResponder;
+import org.bouncycastle.tsp.TSPAlgorithms;
+import org.bouncycastle.tsp.TimeStampRequest;
+import org.bouncycastle.tsp.TimeStampRequestGenerator;
+import org.bouncycastle.tsp.TimeStampResponse;
+import org.junit.Test;
+
+import java.math.BigInteger;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.*;
+
+/**
+ * 进程内TSA吞吐量测试
+ * 多线程并发签发时间戳，统计 tokens/sec，并检查序列号不重复、策略OID可配置
+ * <p>
+ * 每轮令牌数可通过系统属性 capdf.tsaBenchTokens 调整（默认400）
+ */
+public class TimestampResponderBenchmarkTest {
+
+    private static final String POLICY_OID = "1.3.6.1.4.1.99999.1.1";
+
+    @Test
+    public void testThroughput() {
+        try {
+            System.out.println("\n========== 进程内TSA吞吐量测试 ==========\n");
+
+            int tokensPerRun = Integer.getInteger("capdf.tsaBenchTokens", 400);
+
+            System.out.println("【步骤1】生成独立的TSA密钥和证书...");
+            TimestampResponder responder = TimestampResponder.generate(
+                    "CN=Benchmark TSA,O=Example Company,C=CN", POLICY_OID);
+            System.out.println("✓ TSA证书: " + responder.getCertificate().getSubjectX500Principal());
+
+            byte[] imprint = MessageDigest.getInstance("SHA-256").digest("benchmark".getBytes("UTF-8"));
+            TimeStampRequestGenerator requestGenerator = new TimeStampRequestGenerator();
+            requestGenerator.setCertReq(true);
+            TimeStampRequest request = requestGenerator.generate(TSPAlgorithms.SHA256, imprint);
+
+            // 预热
+            for (int i = 0; i < 50; i++) {
+                responder.respond(request);
+            }
+
+            Set<BigInteger> serials = ConcurrentHashMap.newKeySet();
+            int maxThreads = Math.max(4, Runtime.getRuntime().availableProcessors());
+
+            System.out.println("\n【步骤2】不同线程数下的吞吐量（每轮 " + tokensPerRun + " 个令牌）...");
+            for (int threads = 1; threads <= maxThreads; threads *= 2) {
+                ExecutorService executor = Executors.newFixedThreadPool(threads);
+                int perThread = tokensPerRun / threads;
+                long start = System.nanoTime();
+                List<Future<?>> futures = new ArrayList<>();
+                for (int t = 0; t < threads; t++) {
+                    futures.add(executor.submit(() -> {
+                        for (int i = 0; i < perThread; i++) {
+                            TimeStampResponse response = responder.respond(request);
+                            response.validate(request);
+                            assertEquals(POLICY_OID,
+                                    response.getTimeStampToken().getTimeStampInfo().getPolicy().getId());
+                            assertTrue("序列号重复", serials.add(
+                                    response.getTimeStampToken().getTimeStampInfo().getSerialNumber()));
+                        }
+                        return null;
+                    }));
+                }
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+                double seconds = (System.nanoTime() - start) / 1e9;
+                executor.shutdown();
+                System.out.println(String.format("✓ %2d 线程: %6.0f tokens/sec", threads, perThread * threads / seconds));
+            }
+
+            assertTrue(responder.getIssuedCount() >= serials.size());
+            System.out.println("\n✓ 共签发 " + serials.size() + " 个时间戳，序列号无重复");
+
+            System.out.println("\n========== 测试完成 ==========\n");
+
+        } catch (Exception e) {
+            System.err.println("测试失败: " + e.getMessage());
+            e.printStackTrace();
+            throw new RuntimeException(e);
+        }
+    }
+}
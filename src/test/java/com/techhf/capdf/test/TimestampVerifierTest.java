@@ -0,0 +1,160 @@
+package com.techhf.capdf.test;
+
+import com.techhf.capdf.cert.CertificateGenerator;
+import com.techhf.capdf.cert.TrustStore;
+import com.techhf.capdf.signer.PdfSigner;
+import com.techhf.capdf.signer.SignatureAppearance;
+import com.techhf.capdf.signer.SignatureSizing;
+import com.techhf.capdf.signer.SigningCredential;
+import com.techhf.capdf.tsa.LocalTimestampClient;
+import com.techhf.capdf.tsa.TimestampResponder;
+import com.techhf.capdf.tsa.TimestampVerificationResult;
+import com.techhf.capdf.tsa.TimestampVerifier;
+import com.techhf.capdf.util.MemoryPolicy;
+import com.techhf.capdf.util.SignatureVerificationResult;
+import com.techhf.capdf.util.SignatureVerifier;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.bouncycastle.cert.X509CertificateHolder;
+import org.bouncycastle.cms.jcajce.JcaSimpleSignerInfoVerifierBuilder;
+import org.bouncycastle.tsp.TSPAlgorithms;
+import org.bouncycastle.tsp.TimeStampRequest;
+import org.bouncycastle.tsp.TimeStampRequestGenerator;
+import org.bouncycastle.tsp.TimeStampToken;
+import org.junit.Test;
+
+import java.io.File;
+import java.math.BigInteger;
+import java.security.MessageDigest;
+import java.security.cert.X509Certificate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * 时间戳令牌校验测试
+ * 检查印记、令牌签名、TSA证书链，以及同一TSA的大量令牌复用缓存的校验器
+ * <p>
+ * 令牌数可通过系统属性 capdf.timestampTokens 调整（默认500）
+ */
+public class TimestampVerifierTest {
+
+    @Test
+    public void testTimestampVerification() {
+        try {
+            System.out.println("\n========== 时间戳令牌校验测试 ==========\n");
+
+            File outputDir = new File("test-output/timestamp-verify");
+            if (!outputDir.exists()) {
+                outputDir.mkdirs();
+            }
+            int tokens = Integer.getInteger("capdf.timestampTokens", 500);
+
+            System.out.println("【步骤1】生成TSA和签名证书，签署带时间戳的文档...");
+            TimestampResponder tsa = TimestampResponder.generate("CN=Verify Test TSA,O=Example Company,C=CN",
+                    TimestampResponder.DEFAULT_POLICY_OID);
+            X509Certificate tsaCert = tsa.getCertificate();
+            String signerPath = new File(outputDir, "signer.p12").getPath();
+            X509Certificate signerCert = CertificateGenerator.generateSelfSignedCert(
+                    "CN=Timestamp Signer,O=Example Company,C=CN", signerPath, null, 1);
+            File inputPdf = new File(outputDir, "unsigned.pdf");
+            try (PDDocument document = new PDDocument()) {
+                document.addPage(new PDPage(PDRectangle.A4));
+                document.save(inputPdf);
+            }
+            File signedPdf = new File(outputDir, "signed.pdf");
+            PdfSigner.signPdf(inputPdf, signedPdf, SigningCredential.load(signerPath, new char[0]),
+                    "Timestamp Test", "Beijing", SignatureAppearance.ofImage(null), new LocalTimestampClient(tsa),
+                    SignatureSizing.ADAPTIVE);
+            System.out.println("✓ " + signedPdf.getName());
+
+            System.out.println("\n【步骤2】校验文档中的签名时间戳...");
+            TrustStore trusted = TrustStore.of(signerCert, tsaCert);
+            SignatureVerificationResult signature = SignatureVerifier.verify(signedPdf, MemoryPolicy.getDefault(),
+                    trusted).getSignatures().get(0);
+            assertTrue(signature.toString(), signature.isValid());
+            assertTrue(signature.isTimestampPresent() && signature.isTimestampValid());
+            assertTrue(signature.isChainChecked() && signature.isChainValid());
+            System.out.println("✓ " + signature);
+
+            SignatureVerificationResult untrustedTsa = SignatureVerifier.verify(signedPdf, MemoryPolicy.getDefault(),
+                    TrustStore.of(signerCert)).getSignatures().get(0);
+            assertFalse(untrustedTsa.isTimestampValid());
+            assertFalse(untrustedTsa.isValid());
+            assertTrue(untrustedTsa.getFailureReason().startsWith("TSA"));
+            System.out.println("✓ TSA不受信任: " + untrustedTsa.getFailureReason());
+
+            System.out.println("\n【步骤3】同一TSA的 " + tokens + " 个令牌...");
+            Random random = new Random(42);
+            List<byte[]> data = new ArrayList<>();
+            List<TimeStampToken> issued = new ArrayList<>();
+            TimeStampRequestGenerator requests = new TimeStampRequestGenerator();
+            requests.setCertReq(true);
+            for (int i = 0; i < tokens; i++) {
+                byte[] value = new byte[256];
+                random.nextBytes(value);
+                byte[] imprint = MessageDigest.getInstance("SHA-256").digest(value);
+                TimeStampRequest request = requests.generate(TSPAlgorithms.SHA256, imprint, BigInteger.valueOf(i));
+                data.add(value);
+                issued.add(tsa.respond(request).getTimeStampToken());
+            }
+
+            TimestampVerifier verifier = new TimestampVerifier();
+            // 预热
+            verifier.verifySignatureTimestamp(issued.get(0), data.get(0), trusted);
+            naive(issued.get(0));
+            long start = System.nanoTime();
+            for (int i = 0; i < tokens; i++) {
+                TimestampVerificationResult result = verifier.verifySignatureTimestamp(issued.get(i), data.get(i),
+                        trusted);
+                assertTrue(result.toString(), result.isValid());
+            }
+            long cachedNanos = System.nanoTime() - start;
+            start = System.nanoTime();
+            for (TimeStampToken token : issued) {
+                naive(token);
+            }
+            long naiveNanos = System.nanoTime() - start;
+            assertEquals(1, verifier.getTsaCount());
+            assertEquals(1, verifier.getMissCount());
+            assertEquals(tokens, verifier.getHitCount());
+            System.out.println("✓ " + verifier);
+            System.out.println(String.format("✓ 每个令牌：缓存校验器 %.3f ms（含证书链），每次重建校验器 %.3f ms（不含证书链）",
+                    cachedNanos / 1e6 / tokens, naiveNanos / 1e6 / tokens));
+
+            System.out.println("\n【步骤4】印记不一致 / 不检查证书链...");
+            TimestampVerificationResult mismatch = verifier.verifySignatureTimestamp(issued.get(0), data.get(1),
+                    trusted);
+            assertFalse(mismatch.isImprintValid());
+            assertTrue("印记不一致时仍检查令牌签名", mismatch.isSignatureValid());
+            assertFalse(mismatch.isValid());
+            System.out.println("✓ " + mismatch.getFailureReason());
+            TimestampVerificationResult unchecked = verifier.verifySignatureTimestamp(issued.get(0), data.get(0),
+                    TrustStore.empty());
+            assertTrue(unchecked.isValid());
+            assertFalse(unchecked.isChainChecked());
+            assertEquals(tsaCert, unchecked.getTsaCertificate());
+            System.out.println("✓ " + unchecked);
+
+            System.out.println("\n========== 测试完成 ==========\n");
+
+        } catch (Exception e) {
+            System.err.println("测试失败: " + e.getMessage());
+            e.printStackTrace();
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * 对比基线：每个令牌重新解析TSA证书并构建校验器
+     */
+    @SuppressWarnings("unchecked")
+    private static void naive(TimeStampToken token) throws Exception {
+        X509CertificateHolder holder = (X509CertificateHolder) token.getCertificates()
+                .getMatches(token.getSID()).iterator().next();
+        token.validate(new JcaSimpleSignerInfoVerifierBuilder().setProvider("BC").build(holder));
+    }
+}
@@ -0,0 +1,99 @@
+package com.techhf.capdf.test;
+
+import com.techhf.capdf.cert.CertificateGenerator;
+import com.techhf.capdf.signer.CmsSignatureBuilder;
+import com.techhf.capdf.signer.ExternalPdfSigner;
+import com.techhf.capdf.signer.PreparedSignature;
+import com.techhf.capdf.signer.SigningCredential;
+import com.techhf.capdf.signer.SigningCredentialStore;
+import com.techhf.capdf.util.SimplePdfCreator;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.interactive.digitalsignature.PDSignature;
+import org.bouncycastle.cert.X509CertificateHolder;
+import org.bouncycastle.cms.CMSProcessableByteArray;
+import org.bouncycastle.cms.CMSSignedData;
+import org.bouncycastle.cms.SignerInformation;
+import org.bouncycastle.cms.jcajce.JcaSimpleSignerInfoVerifierBuilder;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.file.Files;
+
+import static org.junit.Assert.*;
+
+/**
+ * 两阶段外部签名测试
+ */
+public class TwoPhaseSignTest {
+
+    @Test
+    public void testPrepareAndComplete() {
+        try {
+            System.out.println("\n========== 两阶段外部签名测试 ==========\n");
+
+            File outputDir = new File("test-output/two-phase");
+            if (!outputDir.exists()) {
+                outputDir.mkdirs();
+            }
+
+            System.out.println("【步骤1】生成测试证书和待签名PDF...");
+            String certPath = new File(outputDir, "test-cert.p12").getPath();
+            CertificateGenerator.generateSelfSignedCert("CN=External Signer,O=Example Company,C=CN",
+                    certPath, "123456", 1);
+            SigningCredential credential = new SigningCredentialStore(4, 0).get(certPath, "123456");
+
+            File inputPdf = new File(outputDir, "test-unsigned.pdf");
+            SimplePdfCreator.createSimplePdf(inputPdf, "Two phase signing test");
+
+            System.out.println("\n【步骤2】第一阶段：写出签名占位符...");
+            File outputPdf = new File(outputDir, "test-signed.pdf");
+            PreparedSignature prepared = ExternalPdfSigner.prepare(inputPdf, outputPdf,
+                    credential.getCertChain(), "Two Phase Test", "Beijing", null);
+            assertEquals(outputPdf.length(), prepared.getFileLength());
+            System.out.println("✓ 占位符容量: " + prepared.getMaxSignatureLength() + " bytes");
+
+            // 句柄可以序列化后在其他进程中使用
+            File handleFile = new File(outputDir, "prepared.ser");
+            try (ObjectOutputStream out = new ObjectOutputStream(Files.newOutputStream(handleFile.toPath()))) {
+                out.writeObject(prepared);
+            }
+            PreparedSignature restored;
+            try (ObjectInputStream in = new ObjectInputStream(Files.newInputStream(handleFile.toPath()))) {
+                restored = (PreparedSignature) in.readObject();
+            }
+
+            System.out.println("\n【步骤3】外部对摘要签名...");
+            byte[] cms = CmsSignatureBuilder.build(restored.getContentDigest(),
+                    credential.getPrivateKey(), credential.getCertChain(), true);
+
+            System.out.println("\n【步骤4】第二阶段：写入CMS签名...");
+            ExternalPdfSigner.complete(restored, cms);
+
+            System.out.println("\n【步骤5】校验签名...");
+            try (PDDocument doc = PDDocument.load(outputPdf);
+                 FileInputStream fis = new FileInputStream(outputPdf)) {
+                PDSignature signature = doc.getLastSignatureDictionary();
+                byte[] signedContent = signature.getSignedContent(fis);
+                CMSSignedData signedData = new CMSSignedData(
+                        new CMSProcessableByteArray(signedContent), signature.getContents());
+                SignerInformation signerInfo = signedData.getSignerInfos().getSigners().iterator().next();
+                @SuppressWarnings("unchecked")
+                X509CertificateHolder certHolder = (X509CertificateHolder) signedData.getCertificates()
+                        .getMatches(signerInfo.getSID()).iterator().next();
+                assertTrue(signerInfo.verify(new JcaSimpleSignerInfoVerifierBuilder().setProvider("BC")
+                        .build(certHolder)));
+            }
+            System.out.println("✓ 签名有效");
+
+            System.out.println("\n========== 测试完成 ==========\n");
+
+        } catch (Exception e) {
+            System.err.println("测试失败: " + e.getMessage());
+            e.printStackTrace();
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.techhf.capdf.test;
+
+import com.techhf.capdf.cert.CertificateGenerator;
+import com.techhf.capdf.cert.KeyAlgorithm;
+import com.techhf.capdf.signer.PdfSigner;
+import com.techhf.capdf.signer.SigningCredential;
+import com.techhf.capdf.util.DocumentVerificationResult;
+import com.techhf.capdf.util.SignatureVerificationResult;
+import com.techhf.capdf.util.SignatureVerifier;
+import com.techhf.capdf.util.ThreadAllocationTracker;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+import static org.junit.Assert.*;
+
+/**
+ * 结构化签名校验测试
+ * 检查完整性、签名值、时间戳、覆盖范围等结果字段，篡改后能检出，
+ * 并对比结构化校验与控制台输出校验的耗时
+ * <p>
+ * 对比次数可通过系统属性 capdf.verifyIterations 调整（默认200）
+ */
+public class VerificationResultTest {
+
+    @Test
+    public void testVerificationResult() {
+        try {
+            System.out.println("\n========== 结构化签名校验测试 ==========\n");
+
+            File outputDir = new File("test-output/verify-result");
+            if (!outputDir.exists()) {
+                outputDir.mkdirs();
+            }
+            int iterations = Integer.getInteger("capdf.verifyIterations", 200);
+
+            System.out.println("【步骤1】RSA（带时间戳）和 ECDSA 先后签名...");
+            String rsaPath = new File(outputDir, "rsa.p12").getPath();
+            String ecPath = new File(outputDir, "ec.p12").getPath();
+            CertificateGenerator.generateSelfSignedCert("CN=RSA Signer,O=Example Company,C=CN", rsaPath, null, 1);
+            CertificateGenerator.generateSelfSignedCert("CN=EC Signer,O=Example Company,C=CN", ecPath, null, 1,
+                    KeyAlgorithm.EC_P256);
+            SigningCredential rsa = SigningCredential.load(rsaPath, new char[0]);
+            SigningCredential ec = SigningCredential.load(ecPath, new char[0]);
+
+            File inputPdf = new File(outputDir, "test-unsigned.pdf");
+            try (PDDocument document = new PDDocument()) {
+                document.addPage(new PDPage(PDRectangle.A4));
+                document.save(inputPdf);
+            }
+            File signedOnce = new File(outputDir, "signed-rsa.pdf");
+            File signedTwice = new File(outputDir, "signed-rsa-ec.pdf");
+            PdfSigner.signPdf(inputPdf, signedOnce, rsa, "Verify Test", "Beijing", (String) null, true);
+            PdfSigner.signPdf(signedOnce, signedTwice, ec, "Tamper Target", "Beijing", (String) null, false);
+            System.out.println("✓ 签名完成");
+
+            System.out.println("\n【步骤2】结构化校验...");
+            DocumentVerificationResult result = SignatureVerifier.verify(signedTwice);
+            System.out.println(result);
+            assertNull(result.getError());
+            assertTrue(result.isValid());
+            assertEquals(2, result.getSignatureCount());
+            if (ThreadAllocationTracker.isSupported()) {
+                assertTrue(result.getAllocatedBytes() > 0);
+            }
+
+            SignatureVerificationResult first = result.getSignatures().get(0);
+            assertTrue(first.isIntegrityValid());
+            assertTrue(first.isSignatureValid());
+            assertTrue(first.isTimestampPresent());
+            assertTrue(first.isTimestampValid());
+            assertNotNull(first.getTimestampTime());
+            assertFalse("第一个签名之后还有第二次签名", first.isCoversWholeDocument());
+            assertEquals(rsa.getCertificate(), first.getSignerCertificate());
+
+            SignatureVerificationResult second = result.getSignatures().get(1);
+            assertTrue(second.isValid());
+            assertFalse(second.isTimestampPresent());
+            assertTrue(second.isCoversWholeDocument());
+            assertTrue(second.getSignatureAlgorithmName(), second.getSignatureAlgorithmName().endsWith("ECDSA"));
+            System.out.println(String.format("✓ 打开文档 %.2f ms；签名#1 解析 %.2f / 摘要 %.2f / 签名值 %.2f / 时间戳 %.2f ms",
+                    result.getLoadNanos() / 1e6, first.getParseNanos() / 1e6, first.getDigestNanos() / 1e6,
+                    first.getSignatureNanos() / 1e6, first.getTimestampNanos() / 1e6));
+
+            System.out.println("\n【步骤3】篡改第二次签名覆盖的内容...");
+            File tampered = new File(outputDir, "tampered.pdf");
+            Files.copy(signedTwice.toPath(), tampered.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            replaceFirst(tampered, "Tamper Target", "Tamper Tarmet");
+            DocumentVerificationResult tamperedResult = SignatureVerifier.verify(tampered);
+            System.out.println(tamperedResult);
+            assertFalse(tamperedResult.isValid());
+            assertTrue("第一个签名的覆盖范围没有被改动", tamperedResult.getSignatures().get(0).isValid());
+            SignatureVerificationResult broken = tamperedResult.getSignatures().get(1);
+            assertFalse(broken.isIntegrityValid());
+            assertTrue("签名值本身仍然有效", broken.isSignatureValid());
+            assertNotNull(broken.getFailureReason());
+            System.out.println("✓ 检出篡改: " + broken.getFailureReason());
+
+            DocumentVerificationResult missing = SignatureVerifier.verify(new File(outputDir, "missing.pdf"));
+            assertNotNull("不存在的文件记录为错误，不抛出异常", missing.getError());
+
+            System.out.println("\n【步骤4】连续校验 " + iterations + " 次：结构化 vs 控制台输出...");
+            long start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                assertTrue(SignatureVerifier.verify(signedTwice).isValid());
+            }
+            double structuredMillis = (System.nanoTime() - start) / 1e6 / iterations;
+
+            PrintStream console = System.out;
+            System.setOut(new PrintStream(new OutputStream() {
+                @Override
+                public void write(int b) {
+                }
+            }, false, "UTF-8"));
+            try {
+                start = System.nanoTime();
+                for (int i = 0; i < iterations; i++) {
+                    SignatureVerifier.verifySignature(signedTwice);
+                }
+            } finally {
+                System.setOut(console);
+            }
+            double printingMillis = (System.nanoTime() - start) / 1e6 / iterations;
+            System.out.println(String.format("✓ 结构化校验 %.2f ms/文档，控制台输出校验 %.2f ms/文档",
+                    structuredMillis, printingMillis));
+
+            System.out.println("\n========== 测试完成 ==========\n");
+
+        } catch (Exception e) {
+            System.err.println("测试失败: " + e.getMessage());
+            e.printStackTrace();
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * 按字节替换文件中第一次出现的等长文本
+     */
+    private static void replaceFirst(File file, String from, String to) throws Exception {
+        byte[] data = Files.readAllBytes(file.toPath());
+        byte[] pattern = from.getBytes(StandardCharsets.US_ASCII);
+        for (int i = 0; i <= data.length - pattern.length; i++) {
+            int j = 0;
+            while (j < pattern.length && data[i + j] == pattern[j]) {
+                j++;
+            }
+            if (j == pattern.length) {
+                try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+                    raf.seek(i);
+                    raf.write(to.getBytes(StandardCharsets.US_ASCII));
+                }
+                return;
+            }
+        }
+        fail("未找到: " + from);
+    }
+}